@@ -0,0 +1,10 @@
+package com.lexienglish.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enable @Scheduled for SSE heartbeats and background jobs; pool size is spring.task.scheduling.pool.size
+}
@@ -0,0 +1,30 @@
+package com.lexienglish.controller;
+
+import com.lexienglish.dto.mocktest.QuestionStatsDto;
+import com.lexienglish.service.mocktest.QuestionStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/question-stats")
+@RequiredArgsConstructor
+@Tag(name = "Admin: Question Stats", description = "Item analysis of mock test questions")
+public class AdminQuestionStatsController {
+
+    private final QuestionStatsService questionStatsService;
+
+    @GetMapping
+    @Operation(summary = "Rank questions by difficulty, discrimination or time spent")
+    public ResponseEntity<Page<QuestionStatsDto>> rankQuestions(
+            @RequestParam(required = false) Long mockTestId,
+            @RequestParam(required = false) String rankBy,
+            @RequestParam(required = false) Integer minResponses,
+            Pageable pageable) {
+        return ResponseEntity.ok(questionStatsService.rankQuestions(mockTestId, rankBy, minResponses, pageable));
+    }
+}
@@ -3,6 +3,7 @@ package com.lexienglish.controller;
 import com.lexienglish.dto.document.DocumentDto;
 import com.lexienglish.dto.document.LessonDto;
 import com.lexienglish.service.DocumentService;
+import com.lexienglish.service.DocumentStatusStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +16,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ import java.util.Map;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentStatusStreamService documentStatusStreamService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload a document for AI processing")
@@ -48,6 +51,12 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.getUserDocuments(userDetails.getUsername(), pageable));
     }
 
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream processing status of the user's documents (SSE)")
+    public SseEmitter streamDocumentStatus(@AuthenticationPrincipal UserDetails userDetails) {
+        return documentStatusStreamService.subscribe(userDetails.getUsername());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get document by ID")
     public ResponseEntity<DocumentDto> getDocument(
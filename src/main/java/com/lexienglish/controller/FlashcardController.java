@@ -1,19 +1,33 @@
 package com.lexienglish.controller;
 
+import com.lexienglish.dto.document.BatchReviewRequest;
+import com.lexienglish.dto.document.BatchReviewResponse;
 import com.lexienglish.dto.document.CreateFlashcardRequest;
 import com.lexienglish.dto.document.FlashcardDto;
+import com.lexienglish.dto.document.FlashcardImportResponse;
 import com.lexienglish.dto.document.FlashcardReviewRequest;
+import com.lexienglish.dto.document.FlashcardSyncRequest;
+import com.lexienglish.dto.document.FlashcardSyncResponse;
+import com.lexienglish.dto.document.ReviewQueueResponse;
+import com.lexienglish.service.FlashcardDeckService;
 import com.lexienglish.service.FlashcardService;
+import com.lexienglish.service.FlashcardSyncService;
+import com.lexienglish.service.RevisionSchedulingService;
+import com.lexienglish.service.deck.DeckFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -25,6 +39,9 @@ import java.util.Map;
 public class FlashcardController {
 
     private final FlashcardService flashcardService;
+    private final RevisionSchedulingService revisionSchedulingService;
+    private final FlashcardSyncService flashcardSyncService;
+    private final FlashcardDeckService flashcardDeckService;
 
     @PostMapping
     @Operation(summary = "Create a new flashcard")
@@ -44,8 +61,9 @@ public class FlashcardController {
         return ResponseEntity.ok(flashcardService.getUserFlashcards(userDetails.getUsername(), pageable));
     }
 
+    @Deprecated
     @GetMapping("/due")
-    @Operation(summary = "Get flashcards due for review")
+    @Operation(summary = "Get flashcards due for review (unbounded, use /review-queue)", deprecated = true)
     public ResponseEntity<List<FlashcardDto>> getDueFlashcards(
             @AuthenticationPrincipal UserDetails userDetails) {
 
@@ -61,6 +79,24 @@ public class FlashcardController {
         return ResponseEntity.ok(flashcardService.getDueFlashcards(userDetails.getUsername(), pageable));
     }
 
+    @GetMapping("/due/summary")
+    @Operation(summary = "Get the number of cards due now and when the next one comes due")
+    public ResponseEntity<FlashcardService.DueSummary> getDueSummary(
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(flashcardService.getDueSummary(userDetails.getUsername()));
+    }
+
+    @GetMapping("/review-queue")
+    @Operation(summary = "Get the next page of the review queue")
+    public ResponseEntity<ReviewQueueResponse> getReviewQueue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(revisionSchedulingService.getReviewQueue(userDetails.getUsername(), cursor, limit));
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get flashcard statistics")
     public ResponseEntity<FlashcardService.FlashcardStats> getStats(
@@ -79,7 +115,7 @@ public class FlashcardController {
     }
 
     @PostMapping("/review")
-    @Operation(summary = "Review a flashcard with quality rating (SM-2 algorithm)")
+    @Operation(summary = "Review a flashcard with quality rating (SM-2 or FSRS, per user)")
     public ResponseEntity<FlashcardDto> reviewFlashcard(
             @Valid @RequestBody FlashcardReviewRequest request,
             @AuthenticationPrincipal UserDetails userDetails) {
@@ -90,6 +126,50 @@ public class FlashcardController {
                 userDetails.getUsername()));
     }
 
+    @PostMapping("/review/batch")
+    @Operation(summary = "Submit a study session's reviews in one request (idempotent)")
+    public ResponseEntity<BatchReviewResponse> reviewFlashcards(
+            @Valid @RequestBody BatchReviewRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(flashcardService.reviewFlashcards(request, userDetails.getUsername()));
+    }
+
+    @PostMapping("/sync")
+    @Operation(summary = "Push offline edits and pull changes since the last sync")
+    public ResponseEntity<FlashcardSyncResponse> sync(
+            @Valid @RequestBody FlashcardSyncRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(flashcardSyncService.sync(request, userDetails.getUsername()));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import a deck (CSV, TSV or Anki plain text)")
+    public ResponseEntity<FlashcardImportResponse> importDeck(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(flashcardDeckService.importDeck(file, DeckFormat.from(format),
+                userDetails.getUsername()));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all flashcards (CSV, TSV or Anki plain text)")
+    public ResponseEntity<StreamingResponseBody> exportDeck(
+            @RequestParam(value = "format", required = false) String format,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        DeckFormat deckFormat = DeckFormat.from(format);
+        String email = userDetails.getUsername();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(deckFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"flashcards." + deckFormat.getExtension() + "\"")
+                .body(output -> flashcardDeckService.exportDeck(deckFormat, email, output));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a flashcard")
     public ResponseEntity<Map<String, String>> deleteFlashcard(
@@ -50,4 +50,12 @@ public class LearningDashboardController {
         var schedule = revisionService.getWeeklySchedule(userDetails.getUsername());
         return ResponseEntity.ok(schedule);
     }
+
+    @GetMapping("/revision/forecast")
+    public ResponseEntity<RevisionSchedulingService.ReviewForecast> getReviewForecast(
+            @RequestParam(required = false) Integer days,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        var forecast = revisionService.getReviewForecast(userDetails.getUsername(), days);
+        return ResponseEntity.ok(forecast);
+    }
 }
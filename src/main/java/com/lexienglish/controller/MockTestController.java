@@ -2,16 +2,19 @@ package com.lexienglish.controller;
 
 import com.lexienglish.dto.mocktest.*;
 import com.lexienglish.service.MockTestService;
+import com.lexienglish.service.TestResultStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +26,7 @@ import java.util.Map;
 public class MockTestController {
 
     private final MockTestService mockTestService;
+    private final TestResultStreamService testResultStreamService;
 
     // ==================== Test Catalog ====================
 
@@ -75,14 +79,30 @@ public class MockTestController {
         return ResponseEntity.ok(Map.of("message", "Answer submitted successfully"));
     }
 
+    @PostMapping("/attempts/{attemptId}/answers")
+    @Operation(summary = "Submit or autosave a batch of answers")
+    public ResponseEntity<Map<String, String>> submitAnswers(
+            @PathVariable Long attemptId,
+            @Valid @RequestBody SubmitAnswersRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        int saved = mockTestService.submitAnswers(attemptId, request.getAnswers(), userDetails.getUsername());
+        return ResponseEntity.ok(Map.of("message", saved + " answers saved"));
+    }
+
     @PostMapping("/attempts/{attemptId}/complete")
-    @Operation(summary = "Complete a test attempt")
+    @Operation(summary = "Complete a test attempt; AI-scored answers are graded in the background")
     public ResponseEntity<TestAttemptDto> completeTest(
             @PathVariable Long attemptId,
             @AuthenticationPrincipal UserDetails userDetails) {
         return ResponseEntity.ok(mockTestService.completeTest(attemptId, userDetails.getUsername()));
     }
 
+    @GetMapping(value = "/attempts/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream results of the user's attempts as grading finishes (SSE)")
+    public SseEmitter streamTestResults(@AuthenticationPrincipal UserDetails userDetails) {
+        return testResultStreamService.subscribe(userDetails.getUsername());
+    }
+
     // ==================== User History ====================
 
     @GetMapping("/attempts")
@@ -0,0 +1,32 @@
+package com.lexienglish.controller;
+
+import com.lexienglish.dto.search.SearchResponse;
+import com.lexienglish.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Full-text search across documents, lessons and flashcards")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    @Operation(summary = "Search the user's documents, lessons and flashcards")
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(searchService.search(query, type, cursor, limit, userDetails.getUsername()));
+    }
+}
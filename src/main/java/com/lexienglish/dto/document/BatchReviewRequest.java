@@ -0,0 +1,45 @@
+package com.lexienglish.dto.document;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReviewRequest {
+
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = 200, message = "At most 200 reviews per batch")
+    @Valid
+    private List<Item> reviews; // In the order they were made
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Flashcard ID is required")
+        private Long flashcardId;
+
+        @NotNull(message = "Quality rating is required")
+        @Min(value = 0, message = "Quality must be between 0 and 5")
+        @Max(value = 5, message = "Quality must be between 0 and 5")
+        private Integer quality; // 0-5 SM-2 rating
+
+        @NotNull(message = "Review time is required")
+        private LocalDateTime reviewedAt;
+    }
+}
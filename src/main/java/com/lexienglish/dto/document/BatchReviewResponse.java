@@ -0,0 +1,18 @@
+package com.lexienglish.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReviewResponse {
+    private int applied;
+    private int skipped; // Already applied, e.g. a replayed offline session
+    private List<FlashcardDto> flashcards;
+}
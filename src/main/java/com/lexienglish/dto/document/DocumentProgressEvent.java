@@ -0,0 +1,59 @@
+package com.lexienglish.dto.document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lexienglish.entity.Document;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Processing progress of a document, published by the parsing services and
+ * pushed to subscribed clients over SSE.
+ *
+ * Events sent while the parsing transaction is still open are provisional:
+ * GET /documents/{id} keeps returning the committed state until it commits,
+ * and the lessons they count are discarded if it rolls back (FAILED follows).
+ * Clients should show them as progress only and fetch the document once a
+ * terminal event arrives.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentProgressEvent {
+    private Long documentId;
+    private String status;
+    private Integer lessonsProcessed;
+    private Integer totalLessons;
+    private Integer completedLessons;
+    private LocalDateTime timestamp;
+    private boolean provisional;
+
+    @JsonIgnore
+    private Long userId;
+
+    public static DocumentProgressEvent fromEntity(Document doc) {
+        return DocumentProgressEvent.builder()
+                .documentId(doc.getId())
+                .userId(doc.getUser().getId())
+                .status(doc.getStatus().name())
+                .lessonsProcessed(doc.getTotalLessons())
+                .totalLessons(doc.getTotalLessons())
+                .completedLessons(doc.getCompletedLessons())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * COMPLETED and FAILED are only delivered once the parsing transaction has
+     * committed, so a client reacting to them always reads the saved lessons.
+     */
+    @JsonIgnore
+    public boolean isTerminal() {
+        return Document.ProcessingStatus.COMPLETED.name().equals(status)
+                || Document.ProcessingStatus.FAILED.name().equals(status);
+    }
+}
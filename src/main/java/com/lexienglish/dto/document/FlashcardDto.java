@@ -26,6 +26,8 @@ public class FlashcardDto {
     private LocalDateTime nextReviewDate;
     private boolean mastered;
     private boolean dueForReview;
+    private String clientRef;
+    private LocalDateTime updatedAt; // Sent back as baseUpdatedAt when editing offline
 
     public static FlashcardDto fromEntity(Flashcard card) {
         return FlashcardDto.builder()
@@ -42,6 +44,8 @@ public class FlashcardDto {
                 .nextReviewDate(card.getNextReviewDate())
                 .mastered(card.isMastered())
                 .dueForReview(card.isDueForReview())
+                .clientRef(card.getClientRef())
+                .updatedAt(card.getUpdatedAt())
                 .build();
     }
 }
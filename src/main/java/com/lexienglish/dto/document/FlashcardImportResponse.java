@@ -0,0 +1,26 @@
+package com.lexienglish.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashcardImportResponse {
+    private int imported;
+    private int failed;
+    private List<RowError> errors; // First errors only when many rows fail
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int row; // Line number in the file
+        private String message;
+    }
+}
@@ -0,0 +1,45 @@
+package com.lexienglish.dto.document;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashcardSyncRequest {
+
+    private String watermark; // From the previous sync, null for a full download
+
+    @Size(max = 500, message = "At most 500 changes per sync")
+    @Valid
+    private List<Change> changes; // Offline edits, applied in order
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private Long id; // Null to create a card
+
+        @Size(max = 64, message = "Client reference must be at most 64 characters")
+        private String clientRef; // Required when creating
+
+        private boolean deleted;
+
+        private String front;
+        private String back;
+        private String example;
+        private String phonetic;
+        private String cardType;
+
+        private LocalDateTime baseUpdatedAt; // updatedAt of the version edited offline
+    }
+}
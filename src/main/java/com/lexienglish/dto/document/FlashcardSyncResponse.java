@@ -0,0 +1,36 @@
+package com.lexienglish.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashcardSyncResponse {
+    private List<ChangeResult> results; // One per submitted change, same order
+    private List<FlashcardDto> changed; // Created or updated since the watermark
+    private List<Long> deletedIds;
+    private String watermark; // Send with the next sync
+    private boolean hasMore; // Sync again right away for the next page
+    private boolean resetRequired; // Watermark too old: drop local cards and sync from scratch
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangeResult {
+        private Long id;
+        private String clientRef;
+        private Status status;
+        private FlashcardDto flashcard; // Server version, absent for DELETED / NOT_FOUND / INVALID
+    }
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, CONFLICT, NOT_FOUND, INVALID
+    }
+}
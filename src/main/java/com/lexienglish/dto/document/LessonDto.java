@@ -34,4 +34,18 @@ public class LessonDto {
                 .exerciseCount(lesson.getExercises() != null ? lesson.getExercises().size() : 0)
                 .build();
     }
+
+    public static LessonDto fromView(LessonSummaryView view) {
+        return LessonDto.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .summary(view.getSummary())
+                .content(view.getContent())
+                .orderIndex(view.getOrderIndex())
+                .completed(Boolean.TRUE.equals(view.getCompleted()))
+                .difficultyLevel(view.getDifficultyLevel() != null ? view.getDifficultyLevel().name() : null)
+                .documentId(view.getDocumentId())
+                .exerciseCount(view.getExerciseCount().intValue())
+                .build();
+    }
 }
@@ -0,0 +1,37 @@
+package com.lexienglish.dto.document;
+
+import com.lexienglish.entity.Lesson;
+import lombok.Getter;
+
+/**
+ * Read model for lesson listings, populated by a JPQL constructor expression
+ * so the exercise count comes from the database instead of loading each
+ * lesson's exercise collection.
+ */
+@Getter
+public class LessonSummaryView {
+    private final Long id;
+    private final String title;
+    private final String summary;
+    private final String content;
+    private final Integer orderIndex;
+    private final Boolean completed;
+    private final Lesson.DifficultyLevel difficultyLevel;
+    private final Long documentId;
+    private final Long exerciseCount;
+
+    public LessonSummaryView(Long id, String title, String summary, String content, String legacyContent,
+                             Integer orderIndex, Boolean completed, Lesson.DifficultyLevel difficultyLevel,
+                             Long documentId, Long exerciseCount) {
+        this.id = id;
+        this.title = title;
+        this.summary = summary;
+        // Rows not yet moved by ContentBackfillService still carry plain text
+        this.content = content != null ? content : legacyContent;
+        this.orderIndex = orderIndex;
+        this.completed = completed;
+        this.difficultyLevel = difficultyLevel;
+        this.documentId = documentId;
+        this.exerciseCount = exerciseCount;
+    }
+}
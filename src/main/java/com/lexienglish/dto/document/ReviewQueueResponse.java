@@ -0,0 +1,17 @@
+package com.lexienglish.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewQueueResponse {
+    private List<FlashcardDto> cards;
+    private String nextCursor; // Null when the queue is exhausted
+}
@@ -0,0 +1,41 @@
+package com.lexienglish.dto.mocktest;
+
+import com.lexienglish.repository.QuestionStatsRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionStatsDto {
+    private Long questionId;
+    private Long mockTestId;
+    private String content;
+    private String questionType;
+    private long responses;
+    private Double correctRate; // Share of responses marked correct
+    private Double difficulty; // p-value: mean score as a share of the question's points
+    private Double discrimination; // Item-rest correlation; point-biserial for right/wrong questions
+    private Double scoreStdDev;
+    private Double meanTimeSeconds;
+    private Double timeStdDev;
+
+    public static QuestionStatsDto fromView(QuestionStatsRepository.QuestionMetricsView view) {
+        return QuestionStatsDto.builder()
+                .questionId(view.getQuestionId())
+                .mockTestId(view.getMockTestId())
+                .content(view.getContent())
+                .questionType(view.getQuestionType())
+                .responses(view.getResponses())
+                .correctRate(view.getCorrectRate())
+                .difficulty(view.getDifficulty())
+                .discrimination(view.getDiscrimination())
+                .scoreStdDev(view.getScoreStdDev())
+                .meanTimeSeconds(view.getMeanTimeSeconds())
+                .timeStdDev(view.getTimeStdDev())
+                .build();
+    }
+}
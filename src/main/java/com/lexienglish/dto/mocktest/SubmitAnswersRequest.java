@@ -0,0 +1,23 @@
+package com.lexienglish.dto.mocktest;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmitAnswersRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one answer is required")
+    @Size(max = 200, message = "At most 200 answers can be submitted at once")
+    private List<SubmitAnswerRequest> answers;
+}
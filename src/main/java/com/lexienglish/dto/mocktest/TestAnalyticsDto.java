@@ -1,10 +1,13 @@
 package com.lexienglish.dto.mocktest;
 
+import com.lexienglish.entity.UserTestStats;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,4 +27,25 @@ public class TestAnalyticsDto {
     private java.math.BigDecimal avgListeningScore;
     private java.math.BigDecimal avgWritingScore;
     private java.math.BigDecimal avgSpeakingScore;
+
+    // Percentage scores of the last completed attempts, oldest first
+    private List<java.math.BigDecimal> recentScores;
+
+    public static TestAnalyticsDto fromEntity(UserTestStats stats) {
+        return TestAnalyticsDto.builder()
+                .totalAttempts(stats.getTotalAttempts())
+                .completedAttempts(stats.getCompletedAttempts())
+                .averageScore(UserTestStats.average(stats.getScoreSum(), stats.getScoreCount()))
+                .bestScore(stats.getBestScore())
+                .ieltsCompleted(stats.getIeltsCompleted())
+                .toeflCompleted(stats.getToeflCompleted())
+                .satCompleted(stats.getSatCompleted())
+                .actCompleted(stats.getActCompleted())
+                .avgReadingScore(UserTestStats.average(stats.getReadingSum(), stats.getReadingCount()))
+                .avgListeningScore(UserTestStats.average(stats.getListeningSum(), stats.getListeningCount()))
+                .avgWritingScore(UserTestStats.average(stats.getWritingSum(), stats.getWritingCount()))
+                .avgSpeakingScore(UserTestStats.average(stats.getSpeakingSum(), stats.getSpeakingCount()))
+                .recentScores(List.of(stats.getRecentScores()))
+                .build();
+    }
 }
@@ -30,6 +30,9 @@ public class TestAttemptDto {
     private java.math.BigDecimal speakingScore;
     private String feedback;
 
+    // Share of completed attempts at this test that scored lower, in percent (approximate)
+    private java.math.BigDecimal percentileRank;
+
     public static TestAttemptDto fromEntity(TestAttempt attempt) {
         return TestAttemptDto.builder()
                 .id(attempt.getId())
@@ -0,0 +1,30 @@
+package com.lexienglish.dto.mocktest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lexienglish.entity.TestAttempt;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Final result of a test attempt, published once grading has finished and
+ * pushed to subscribed clients over SSE.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestAttemptResultEvent {
+    private TestAttemptDto attempt;
+
+    @JsonIgnore
+    private Long userId;
+
+    public static TestAttemptResultEvent fromEntity(TestAttempt attempt) {
+        return TestAttemptResultEvent.builder()
+                .attempt(TestAttemptDto.fromEntity(attempt))
+                .userId(attempt.getUser().getId())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.lexienglish.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponse {
+    private List<SearchResultDto> results;
+    private String nextCursor; // Null when there are no more results
+}
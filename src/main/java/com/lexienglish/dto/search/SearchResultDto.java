@@ -0,0 +1,31 @@
+package com.lexienglish.dto.search;
+
+import com.lexienglish.repository.SearchRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDto {
+    private String type; // DOCUMENT, LESSON, FLASHCARD
+    private Long id;
+    private Long documentId;
+    private String title;
+    private String snippet; // Matched terms wrapped in <mark></mark>
+    private float rank;
+
+    public static SearchResultDto fromView(SearchRepository.SearchHitView hit) {
+        return SearchResultDto.builder()
+                .type(hit.getKind())
+                .id(hit.getId())
+                .documentId(hit.getDocumentId())
+                .title(hit.getTitle())
+                .snippet(hit.getSnippet())
+                .rank(hit.getRank())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.lexienglish.dto.user;
 
+import com.lexienglish.entity.User;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,4 +17,6 @@ public class UpdateProfileRequest {
     private String fullName;
 
     private String profileImageUrl;
+
+    private User.Scheduler scheduler; // Flashcard scheduling algorithm
 }
@@ -18,5 +18,6 @@ public class UserProfileResponse {
     private boolean emailVerified;
     private String profileImageUrl;
     private String provider;
+    private String scheduler;
     private LocalDateTime createdAt;
 }
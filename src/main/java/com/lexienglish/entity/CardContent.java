@@ -0,0 +1,67 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Flashcard text shared by every card with identical content. Rows are
+ * immutable and addressed by {@link #hash}; they are inserted by
+ * CardContentStore and never updated, so editing a card copies the content
+ * into the card's own row instead (see Flashcard#copyOnWrite).
+ */
+@Entity
+@Table(name = "card_contents")
+@Immutable
+@BatchSize(size = 100)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String front;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String back;
+
+    @Column(columnDefinition = "TEXT")
+    private String example;
+
+    @Column(name = "phonetic")
+    private String phonetic;
+
+    /**
+     * SHA-256 of the content fields; null and empty fields hash differently.
+     */
+    public static String hash(String front, String back, String example, String phonetic) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : new String[] {front, back, example, phonetic}) {
+                if (field == null) {
+                    digest.update((byte) 1);
+                } else {
+                    digest.update(field.getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
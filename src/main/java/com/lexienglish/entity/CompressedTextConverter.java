@@ -0,0 +1,49 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stores text as an LZ4 frame (UTF-8 payload) in a BYTEA column and
+ * decompresses it transparently when the attribute is read.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        try (OutputStream out = new LZ4FrameOutputStream(buffer)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress content", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress content", e);
+        }
+    }
+}
@@ -39,8 +39,15 @@ public class Document extends BaseEntity {
     @Builder.Default
     private ProcessingStatus status = ProcessingStatus.PENDING;
 
-    @Column(name = "raw_content", columnDefinition = "TEXT")
-    private String rawContent;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "content_id")
+    private TextContent storedContent;
+
+    // Pre-V6 plain-text column, emptied in batches by ContentBackfillService
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "raw_content", insertable = false, updatable = false)
+    private String legacyRawContent;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -70,9 +77,29 @@ public class Document extends BaseEntity {
         PENDING, PROCESSING, COMPLETED, FAILED
     }
 
+    public String getRawContent() {
+        return storedContent != null ? storedContent.getText() : legacyRawContent;
+    }
+
+    public void setRawContent(String rawContent) {
+        if (rawContent == null) {
+            storedContent = null;
+        } else if (storedContent == null) {
+            storedContent = TextContent.of(rawContent);
+        } else {
+            storedContent.setText(rawContent);
+        }
+    }
+
     public int getProgressPercentage() {
         if (totalLessons == 0)
             return 0;
         return (completedLessons * 100) / totalLessons;
     }
+
+    public static class DocumentBuilder {
+        public DocumentBuilder rawContent(String rawContent) {
+            return storedContent(rawContent != null ? TextContent.of(rawContent) : null);
+        }
+    }
 }
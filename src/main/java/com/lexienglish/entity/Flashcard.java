@@ -5,6 +5,7 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "flashcards")
@@ -15,10 +16,11 @@ import java.time.LocalDateTime;
 @SuperBuilder
 public class Flashcard extends BaseEntity {
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Own content; null while the card references shared content (see getSharedContent)
+    @Column(columnDefinition = "TEXT")
     private String front;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(columnDefinition = "TEXT")
     private String back;
 
     @Column(columnDefinition = "TEXT")
@@ -27,11 +29,26 @@ public class Flashcard extends BaseEntity {
     @Column(name = "phonetic")
     private String phonetic;
 
+    // Set when the card was created offline through the sync API
+    @Column(name = "client_ref", length = 64)
+    private String clientRef;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
     private CardType cardType = CardType.VOCABULARY;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_id")
+    @Setter(AccessLevel.NONE)
+    private CardContent sharedContent;
+
+    // Set by the first edit of the card's text; such cards are never shared again
+    @Column(name = "content_detached", nullable = false)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private boolean contentDetached = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "document_id")
     private Document document;
@@ -40,7 +57,7 @@ public class Flashcard extends BaseEntity {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    // SRS (Spaced Repetition System) fields - SM-2 algorithm
+    // SRS (Spaced Repetition System) fields, updated by ReviewScheduler
     @Column(name = "ease_factor", nullable = false)
     @Builder.Default
     private java.math.BigDecimal easeFactor = new java.math.BigDecimal("2.5");
@@ -63,53 +80,90 @@ public class Flashcard extends BaseEntity {
     @Builder.Default
     private boolean mastered = false;
 
+    // FSRS memory state, unused while the owner schedules with SM-2
+    @Column(nullable = false)
+    @Builder.Default
+    private Double stability = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double difficulty = 0.0;
+
     public enum CardType {
         VOCABULARY, IDIOM, GRAMMAR, PHRASE
     }
 
-    /**
-     * SM-2 Algorithm implementation for spaced repetition
-     * 
-     * @param quality User's self-rating 0-5 (0=complete blackout, 5=perfect
-     *                response)
-     */
-    public void updateSRS(int quality) {
-        if (quality < 0)
-            quality = 0;
-        if (quality > 5)
-            quality = 5;
-
-        // Update repetitions count
-        if (quality >= 3) {
-            repetitions++;
-        } else {
-            repetitions = 0;
+    public String getFront() {
+        return sharedContent != null ? sharedContent.getFront() : front;
+    }
+
+    public String getBack() {
+        return sharedContent != null ? sharedContent.getBack() : back;
+    }
+
+    public String getExample() {
+        return sharedContent != null ? sharedContent.getExample() : example;
+    }
+
+    public String getPhonetic() {
+        return sharedContent != null ? sharedContent.getPhonetic() : phonetic;
+    }
+
+    public void setFront(String front) {
+        if (!Objects.equals(front, getFront())) {
+            copyOnWrite();
+            this.front = front;
+        }
+    }
+
+    public void setBack(String back) {
+        if (!Objects.equals(back, getBack())) {
+            copyOnWrite();
+            this.back = back;
+        }
+    }
+
+    public void setExample(String example) {
+        if (!Objects.equals(example, getExample())) {
+            copyOnWrite();
+            this.example = example;
         }
+    }
 
-        // Update ease factor
-        double currentEase = easeFactor.doubleValue();
-        double newEase = Math.max(1.3, currentEase + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02)));
-        easeFactor = java.math.BigDecimal.valueOf(newEase);
-
-        // Calculate interval
-        if (repetitions == 0) {
-            interval = 1;
-        } else if (repetitions == 1) {
-            interval = 1;
-        } else if (repetitions == 2) {
-            interval = 6;
-        } else {
-            interval = (int) Math.round(interval * easeFactor.doubleValue());
+    public void setPhonetic(String phonetic) {
+        if (!Objects.equals(phonetic, getPhonetic())) {
+            copyOnWrite();
+            this.phonetic = phonetic;
         }
+    }
 
-        // Set next review date
-        lastReviewedDate = LocalDateTime.now();
-        nextReviewDate = LocalDateTime.now().plusDays(interval);
+    /**
+     * Point the card at shared content, dropping its own copy.
+     */
+    public void share(CardContent content) {
+        this.sharedContent = content;
+        this.front = null;
+        this.back = null;
+        this.example = null;
+        this.phonetic = null;
+    }
 
-        // Mark as mastered if interval > 21 days and quality >= 4
-        if (interval > 21 && quality >= 4) {
-            mastered = true;
+    /**
+     * Shared content is never modified: before the first edit the card takes
+     * its own copy, leaving every other card on the shared row untouched. An
+     * edited card is never shared again, even one the backfill has not
+     * reached yet.
+     */
+    private void copyOnWrite() {
+        this.contentDetached = true;
+        if (sharedContent == null) {
+            return;
         }
+        this.front = sharedContent.getFront();
+        this.back = sharedContent.getBack();
+        this.example = sharedContent.getExample();
+        this.phonetic = sharedContent.getPhonetic();
+        this.sharedContent = null;
     }
 
     public boolean isDueForReview() {
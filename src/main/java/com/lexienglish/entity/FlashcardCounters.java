@@ -0,0 +1,44 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized flashcard counts of one user. Written only through
+ * FlashcardCountersRepository's upserts; see FlashcardCounterService.
+ */
+@Entity
+@Table(name = "flashcard_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashcardCounters {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private int mastered;
+
+    @Column(name = "reviewed_today", nullable = false)
+    private int reviewedToday;
+
+    @Column(name = "review_day")
+    private LocalDate reviewDay;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public int getReviewedOn(LocalDate day) {
+        return day.equals(reviewDay) ? reviewedToday : 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted flashcard so syncing clients can drop it.
+ * Purged after FlashcardSyncService.TOMBSTONE_RETENTION.
+ */
+@Entity
+@Table(name = "flashcard_tombstones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashcardTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "flashcard_id", nullable = false)
+    private Long flashcardId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public static FlashcardTombstone of(Flashcard card, LocalDateTime deletedAt) {
+        return FlashcardTombstone.builder()
+                .flashcardId(card.getId())
+                .userId(card.getUser().getId())
+                .deletedAt(deletedAt)
+                .build();
+    }
+}
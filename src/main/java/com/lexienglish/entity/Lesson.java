@@ -21,8 +21,15 @@ public class Lesson extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String summary;
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "content_id")
+    private TextContent storedContent;
+
+    // Pre-V6 plain-text column, emptied in batches by ContentBackfillService
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "content", insertable = false, updatable = false)
+    private String legacyContent;
 
     @Column(name = "order_index", nullable = false)
     private Integer orderIndex;
@@ -47,4 +54,24 @@ public class Lesson extends BaseEntity {
     public enum DifficultyLevel {
         A1, A2, B1, B2, C1, C2
     }
+
+    public String getContent() {
+        return storedContent != null ? storedContent.getText() : legacyContent;
+    }
+
+    public void setContent(String content) {
+        if (content == null) {
+            storedContent = null;
+        } else if (storedContent == null) {
+            storedContent = TextContent.of(content);
+        } else {
+            storedContent.setText(content);
+        }
+    }
+
+    public static class LessonBuilder {
+        public LessonBuilder content(String content) {
+            return storedContent(content != null ? TextContent.of(content) : null);
+        }
+    }
 }
@@ -48,6 +48,10 @@ public class MockTest extends BaseEntity {
     @Builder.Default
     private DifficultyLevel difficultyLevel = DifficultyLevel.INTERMEDIATE;
 
+    // Assigned by database triggers whenever the test or its questions change (V13)
+    @Column(name = "content_version", insertable = false, updatable = false)
+    private Long contentVersion;
+
     @OneToMany(mappedBy = "mockTest", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("orderIndex ASC")
     @Builder.Default
@@ -27,6 +27,7 @@ public class Question extends BaseEntity {
 
     @ElementCollection
     @CollectionTable(name = "question_options", joinColumns = @JoinColumn(name = "question_id"))
+    @OrderColumn(name = "option_order")
     @Column(name = "option_text")
     @Builder.Default
     private List<String> options = new ArrayList<>();
@@ -54,6 +55,11 @@ public class Question extends BaseEntity {
     @JoinColumn(name = "mock_test_id", nullable = false)
     private MockTest mockTest;
 
+    // Skill the question is scored under; null means the test's skill type
+    @Enumerated(EnumType.STRING)
+    @Column(name = "section")
+    private MockTest.SkillType section;
+
     @Column(name = "time_limit_seconds")
     private Integer timeLimitSeconds;
 
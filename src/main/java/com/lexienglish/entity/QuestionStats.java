@@ -0,0 +1,62 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running item analysis of one question over completed attempts. Written only
+ * through QuestionStatsRepository's batch upsert; see QuestionStatsService.
+ */
+@Entity
+@Table(name = "question_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuestionStats {
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(nullable = false)
+    private long responses;
+
+    @Column(nullable = false)
+    private long correct;
+
+    // Responses with a score, and their running mean and M2
+    @Column(nullable = false)
+    private long scored;
+
+    @Column(name = "score_mean", nullable = false)
+    private double scoreMean;
+
+    @Column(name = "score_m2", nullable = false)
+    private double scoreM2;
+
+    // Rest scores of the same responses, and their co-moment with the question's score
+    @Column(name = "rest_mean", nullable = false)
+    private double restMean;
+
+    @Column(name = "rest_m2", nullable = false)
+    private double restM2;
+
+    @Column(name = "score_rest_c2", nullable = false)
+    private double scoreRestC2;
+
+    @Column(nullable = false)
+    private long timed;
+
+    @Column(name = "time_mean", nullable = false)
+    private double timeMean;
+
+    @Column(name = "time_m2", nullable = false)
+    private double timeM2;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One flashcard review, as recorded in the append-only review_log table.
+ * Rows are written in batches by ReviewLogWriter; the entity is only used to
+ * read them back.
+ */
+@Entity
+@Table(name = "review_log")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "flashcard_id", nullable = false)
+    private Long flashcardId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Short quality;
+
+    @Column(name = "elapsed_days")
+    private Integer elapsedDays;
+
+    @Column(name = "prior_interval", nullable = false)
+    private Integer priorInterval;
+
+    @Column(name = "new_interval", nullable = false)
+    private Integer newInterval;
+
+    @Column(name = "prior_ease", nullable = false)
+    private BigDecimal priorEase;
+
+    @Column(name = "new_ease", nullable = false)
+    private BigDecimal newEase;
+
+    @Column(name = "reviewed_at", nullable = false)
+    private LocalDateTime reviewedAt;
+}
@@ -27,6 +27,10 @@ public class TestAttempt extends BaseEntity {
     @Column(name = "started_at", nullable = false)
     private LocalDateTime startedAt;
 
+    // Time is up at the start plus the test's duration
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
@@ -68,27 +72,6 @@ public class TestAttempt extends BaseEntity {
     private String feedback;
 
     public enum AttemptStatus {
-        IN_PROGRESS, COMPLETED, ABANDONED, PENDING_REVIEW
-    }
-
-    public void calculateScore() {
-        if (responses == null || responses.isEmpty()) {
-            this.totalScore = java.math.BigDecimal.ZERO;
-            this.percentageScore = java.math.BigDecimal.ZERO;
-            return;
-        }
-
-        java.math.BigDecimal earned = responses.stream()
-                .filter(r -> r.getScore() != null)
-                .map(UserResponse::getScore)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-        int max = responses.stream()
-                .mapToInt(r -> r.getQuestion().getPoints())
-                .sum();
-
-        this.totalScore = earned;
-        this.maxScore = max;
-        this.percentageScore = max > 0 ? earned.multiply(java.math.BigDecimal.valueOf(100)).divide(java.math.BigDecimal.valueOf(max), 2, java.math.RoundingMode.HALF_UP) : java.math.BigDecimal.ZERO;
+        IN_PROGRESS, GRADING, COMPLETED, ABANDONED, PENDING_REVIEW
     }
 }
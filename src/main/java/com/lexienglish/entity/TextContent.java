@@ -0,0 +1,43 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.DynamicUpdate;
+
+/**
+ * Large text body (document raw content, lesson content) kept out of the
+ * parent row and stored LZ4-compressed. Parents reference it through a lazy
+ * one-to-one, so list queries never read or decompress it.
+ */
+@Entity
+@Table(name = "text_contents")
+@Getter
+@Setter
+@NoArgsConstructor
+@DynamicUpdate
+public class TextContent extends BaseEntity {
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "data", nullable = false)
+    private String text;
+
+    // Write-only: Postgres builds the tsvector from the plain text on insert/update
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ColumnTransformer(read = "CAST(NULL AS text)",
+            write = "setweight(to_tsvector('english', coalesce(?, '')), 'C')")
+    @Column(name = "search_vector", columnDefinition = "tsvector")
+    private String searchText;
+
+    public static TextContent of(String text) {
+        TextContent content = new TextContent();
+        content.setText(text);
+        return content;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+        this.searchText = text;
+    }
+}
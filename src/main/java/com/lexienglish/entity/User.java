@@ -46,7 +46,16 @@ public class User extends BaseEntity {
     @Column(name = "profile_image_url")
     private String profileImageUrl;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Scheduler scheduler = Scheduler.SM2;
+
     public enum AuthProvider {
         LOCAL, GOOGLE, FACEBOOK
     }
+
+    public enum Scheduler {
+        SM2, FSRS
+    }
 }
@@ -82,4 +82,20 @@ public class UserResponse extends BaseEntity {
         this.isCorrect = correct.trim().equalsIgnoreCase(userAnswer.trim());
         this.score = this.isCorrect ? java.math.BigDecimal.valueOf(question.getPoints()) : java.math.BigDecimal.ZERO;
     }
+
+    /**
+     * Copy the result of AI grading done on a detached copy of this response
+     */
+    public void copyAiScoresFrom(UserResponse graded) {
+        this.userAnswer = graded.userAnswer;
+        this.isCorrect = graded.isCorrect;
+        this.score = graded.score;
+        this.aiFeedback = graded.aiFeedback;
+        this.grammarScore = graded.grammarScore;
+        this.vocabularyScore = graded.vocabularyScore;
+        this.coherenceScore = graded.coherenceScore;
+        this.taskAchievementScore = graded.taskAchievementScore;
+        this.pronunciationScore = graded.pronunciationScore;
+        this.fluencyScore = graded.fluencyScore;
+    }
 }
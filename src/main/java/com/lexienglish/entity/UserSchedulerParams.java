@@ -0,0 +1,38 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * FSRS weights fitted to one user's review history by FsrsOptimizer.
+ */
+@Entity
+@Table(name = "user_scheduler_params")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSchedulerParams {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false, columnDefinition = "double precision[]")
+    private double[] weights;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount;
+
+    @Column(name = "log_loss", nullable = false)
+    private Double logLoss;
+
+    @Column(name = "optimized_at", nullable = false)
+    private LocalDateTime optimizedAt;
+}
@@ -0,0 +1,91 @@
+package com.lexienglish.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized mock test analytics of one user. Written only through
+ * UserTestStatsRepository's upserts; see UserTestStatsService.
+ */
+@Entity
+@Table(name = "user_test_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserTestStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_attempts", nullable = false)
+    private int totalAttempts;
+
+    @Column(name = "completed_attempts", nullable = false)
+    private int completedAttempts;
+
+    @Column(name = "score_sum", nullable = false)
+    private BigDecimal scoreSum;
+
+    @Column(name = "score_count", nullable = false)
+    private int scoreCount;
+
+    @Column(name = "best_score")
+    private BigDecimal bestScore;
+
+    @Column(name = "ielts_completed", nullable = false)
+    private int ieltsCompleted;
+
+    @Column(name = "toefl_completed", nullable = false)
+    private int toeflCompleted;
+
+    @Column(name = "sat_completed", nullable = false)
+    private int satCompleted;
+
+    @Column(name = "act_completed", nullable = false)
+    private int actCompleted;
+
+    @Column(name = "reading_sum", nullable = false)
+    private BigDecimal readingSum;
+
+    @Column(name = "reading_count", nullable = false)
+    private int readingCount;
+
+    @Column(name = "listening_sum", nullable = false)
+    private BigDecimal listeningSum;
+
+    @Column(name = "listening_count", nullable = false)
+    private int listeningCount;
+
+    @Column(name = "writing_sum", nullable = false)
+    private BigDecimal writingSum;
+
+    @Column(name = "writing_count", nullable = false)
+    private int writingCount;
+
+    @Column(name = "speaking_sum", nullable = false)
+    private BigDecimal speakingSum;
+
+    @Column(name = "speaking_count", nullable = false)
+    private int speakingCount;
+
+    // Percentage scores of the last completed attempts, oldest first
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "recent_scores", nullable = false, columnDefinition = "numeric(5,2)[]")
+    private BigDecimal[] recentScores;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static BigDecimal average(BigDecimal sum, int count) {
+        return count > 0 ? sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.CardContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CardContentRepository extends JpaRepository<CardContent, Long> {
+
+    /**
+     * KEY SHARE keeps purgeUnreferenced from deleting a row between this read
+     * and the insert of the card that will reference it.
+     */
+    @Query(value = "SELECT * FROM card_contents WHERE content_hash IN (:hashes) FOR KEY SHARE", nativeQuery = true)
+    List<CardContent> lockByContentHashIn(Collection<String> hashes);
+
+    @Modifying
+    @Query(value = "DELETE FROM card_contents c WHERE c.created_at < :createdBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM flashcards f WHERE f.content_id = c.id)", nativeQuery = true)
+    int purgeUnreferenced(LocalDateTime createdBefore);
+}
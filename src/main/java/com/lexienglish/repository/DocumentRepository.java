@@ -5,9 +5,11 @@ import com.lexienglish.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,9 +19,22 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
     List<Document> findByUserAndStatusOrderByCreatedAtDesc(User user, Document.ProcessingStatus status);
 
+    List<Document> findByUserAndStatusInOrderByCreatedAtDesc(User user, Collection<Document.ProcessingStatus> statuses);
+
     @Query("SELECT d FROM Document d WHERE d.user = :user ORDER BY d.createdAt DESC")
     List<Document> findAllByUser(User user);
 
+    boolean existsByIdAndUserEmail(Long id, String email);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.completedLessons = d.completedLessons + 1, d.updatedAt = LOCAL_DATETIME " +
+            "WHERE d.id = :documentId")
+    int incrementCompletedLessons(Long documentId);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.status = :status, d.updatedAt = LOCAL_DATETIME WHERE d.id = :documentId")
+    int updateStatus(Long documentId, Document.ProcessingStatus status);
+
     long countByUser(User user);
 
     @Query("SELECT COUNT(d) FROM Document d WHERE d.user = :user AND d.status = 'COMPLETED'")
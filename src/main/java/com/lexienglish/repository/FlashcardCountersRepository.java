@@ -0,0 +1,63 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.FlashcardCounters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FlashcardCountersRepository extends JpaRepository<FlashcardCounters, Long> {
+
+    /**
+     * Add deltas to a user's counters, creating the row on first use.
+     * reviewed_today restarts from the delta when the day has rolled over.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO flashcard_counters (user_id, total, mastered, reviewed_today, review_day, updated_at)
+            VALUES (:userId, :total, :mastered, :reviewed, :day, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id) DO UPDATE SET
+                total = flashcard_counters.total + EXCLUDED.total,
+                mastered = flashcard_counters.mastered + EXCLUDED.mastered,
+                reviewed_today = CASE WHEN flashcard_counters.review_day = EXCLUDED.review_day
+                                      THEN flashcard_counters.reviewed_today + EXCLUDED.reviewed_today
+                                      ELSE EXCLUDED.reviewed_today END,
+                review_day = EXCLUDED.review_day,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int addDeltas(Long userId, int total, int mastered, int reviewed, LocalDate day);
+
+    @Query(value = "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findUserIdsAfter(long afterId, int limit);
+
+    @Query(value = "SELECT user_id FROM flashcard_counters WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockCounters(Collection<Long> userIds);
+
+    /**
+     * Recount total and mastered from the flashcards table; returns the
+     * number of rows created or corrected. Call with the counters locked so
+     * the count sees every committed delta and none in flight.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO flashcard_counters (user_id, total, mastered, updated_at)
+            SELECT u.id, count(f.id), count(f.id) FILTER (WHERE f.is_mastered), CURRENT_TIMESTAMP
+            FROM users u
+            LEFT JOIN flashcards f ON f.user_id = u.id
+            WHERE u.id IN (:userIds)
+            GROUP BY u.id
+            ON CONFLICT (user_id) DO UPDATE SET
+                total = EXCLUDED.total,
+                mastered = EXCLUDED.mastered,
+                updated_at = EXCLUDED.updated_at
+            WHERE flashcard_counters.total <> EXCLUDED.total
+               OR flashcard_counters.mastered <> EXCLUDED.mastered
+            """, nativeQuery = true)
+    int recount(Collection<Long> userIds);
+}
@@ -8,17 +8,34 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
 
+        /**
+         * One row of the review forecast: OVERDUE and NEW carry no day.
+         */
+        interface ForecastBucketView {
+                String getBucket();
+
+                LocalDate getDay();
+
+                Long getCardCount();
+        }
+
         Page<Flashcard> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
 
         List<Flashcard> findByUserAndMasteredFalseAndNextReviewDateBeforeOrderByNextReviewDateAsc(
                         User user, LocalDateTime now);
 
+        /**
+         * @deprecated loads every due card; use the review queue queries below.
+         */
+        @Deprecated
         @Query("SELECT f FROM Flashcard f WHERE f.user = :user AND f.mastered = false " +
                         "AND (f.nextReviewDate IS NULL OR f.nextReviewDate <= :now) " +
                         "ORDER BY f.nextReviewDate ASC NULLS FIRST")
@@ -29,6 +46,74 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
                         "ORDER BY f.nextReviewDate ASC NULLS FIRST")
         Page<Flashcard> findDueForReview(User user, LocalDateTime now, Pageable pageable);
 
+        // Review queue: never-reviewed cards by id, then scheduled cards by (next_review_date, id).
+        // All three read the partial index idx_flashcards_review_queue (V7) and stop at :limit.
+
+        @Query(value = "SELECT * FROM flashcards WHERE user_id = :userId AND is_mastered = false " +
+                        "AND next_review_date IS NULL AND id > :afterId " +
+                        "ORDER BY id LIMIT :limit", nativeQuery = true)
+        List<Flashcard> findNewCardsForReview(Long userId, long afterId, int limit);
+
+        @Query(value = "SELECT * FROM flashcards WHERE user_id = :userId AND is_mastered = false " +
+                        "AND next_review_date <= :now " +
+                        "ORDER BY next_review_date, id LIMIT :limit", nativeQuery = true)
+        List<Flashcard> findScheduledCardsForReview(Long userId, LocalDateTime now, int limit);
+
+        @Query(value = "SELECT * FROM flashcards WHERE user_id = :userId AND is_mastered = false " +
+                        "AND next_review_date <= :now AND (next_review_date, id) > (:afterDate, :afterId) " +
+                        "ORDER BY next_review_date, id LIMIT :limit", nativeQuery = true)
+        List<Flashcard> findScheduledCardsForReviewAfter(Long userId, LocalDateTime now,
+                        LocalDateTime afterDate, long afterId, int limit);
+
+        @Query(value = "SELECT CASE WHEN next_review_date IS NULL THEN 'NEW' " +
+                        "WHEN next_review_date < :from THEN 'OVERDUE' ELSE 'DUE' END AS \"bucket\", " +
+                        "CASE WHEN next_review_date >= :from " +
+                        "THEN CAST(date_trunc('day', next_review_date) AS date) END AS \"day\", " +
+                        "COUNT(*) AS \"cardCount\" " +
+                        "FROM flashcards WHERE user_id = :userId AND is_mastered = false " +
+                        "AND (next_review_date IS NULL OR next_review_date < :to) " +
+                        "GROUP BY 1, 2", nativeQuery = true)
+        List<ForecastBucketView> findReviewForecast(Long userId, LocalDateTime from, LocalDateTime to);
+
+        @Query(value = "SELECT * FROM flashcards WHERE user_id = :userId " +
+                        "AND (updated_at, id) > (:since, :sinceId) AND updated_at <= :until " +
+                        "ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+        List<Flashcard> findChangedSince(Long userId, LocalDateTime since, long sinceId,
+                        LocalDateTime until, int limit);
+
+        /**
+         * Start of the oldest write transaction still open in this database,
+         * other than the caller's, in the session (JVM) time zone. Rows it has
+         * stamped may yet commit with an updated_at from then on; null if
+         * there is none.
+         */
+        @Query(value = "SELECT CAST(min(xact_start) AS timestamp) FROM pg_stat_activity " +
+                        "WHERE backend_xid IS NOT NULL AND datname = current_database() " +
+                        "AND pid <> pg_backend_pid()", nativeQuery = true)
+        LocalDateTime findOldestOpenWriteStart();
+
+        interface NextDueView {
+                Long getUserId();
+
+                LocalDateTime getNextDue();
+        }
+
+        @Query(value = "SELECT user_id AS \"userId\", min(next_review_date) AS \"nextDue\" FROM flashcards " +
+                        "WHERE user_id IN (:userIds) AND is_mastered = false AND next_review_date IS NOT NULL " +
+                        "GROUP BY user_id", nativeQuery = true)
+        List<NextDueView> findNextDueDates(Collection<Long> userIds);
+
+        @Query(value = "SELECT DISTINCT user_id FROM flashcards WHERE updated_at > :from AND updated_at <= :until",
+                        nativeQuery = true)
+        List<Long> findUserIdsUpdatedBetween(LocalDateTime from, LocalDateTime until);
+
+        @Query(value = "SELECT * FROM flashcards WHERE content_id IS NULL AND document_id IS NOT NULL " +
+                        "AND content_detached = false " +
+                        "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+        List<Flashcard> lockUnsharedDocumentCards(int limit);
+
+        List<Flashcard> findByUserIdAndClientRefIn(Long userId, Collection<String> clientRefs);
+
         long countByUser(User user);
 
         long countByUserAndMasteredTrue(User user);
@@ -37,13 +122,7 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
                         "AND (f.nextReviewDate IS NULL OR f.nextReviewDate <= :now)")
         long countDueForReview(User user, LocalDateTime now);
 
-        @Query("SELECT COUNT(f) FROM Flashcard f WHERE f.user = :user " +
-                        "AND f.lastReviewedDate >= :start")
-        long countReviewedToday(User user, LocalDateTime start);
-
-        @Query("SELECT COUNT(f) FROM Flashcard f WHERE f.user = :user " +
-                        "AND f.nextReviewDate >= :start AND f.nextReviewDate < :end")
-        long countDueOnDate(User user, LocalDateTime start, LocalDateTime end);
-
         List<Flashcard> findByDocumentIdAndUser(Long documentId, User user);
+
+        List<Flashcard> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
 }
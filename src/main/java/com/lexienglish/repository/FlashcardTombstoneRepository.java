@@ -0,0 +1,30 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.FlashcardTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FlashcardTombstoneRepository extends JpaRepository<FlashcardTombstone, Long> {
+
+    @Query("SELECT t.flashcardId FROM FlashcardTombstone t WHERE t.userId = :userId " +
+            "AND t.deletedAt > :since AND t.deletedAt <= :until")
+    List<Long> findDeletedFlashcardIds(Long userId, LocalDateTime since, LocalDateTime until);
+
+    /**
+     * Tombstone every flashcard of the document, before deleting it cascades to them.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO flashcard_tombstones (flashcard_id, user_id, deleted_at) " +
+            "SELECT id, user_id, :deletedAt FROM flashcards WHERE document_id = :documentId", nativeQuery = true)
+    int insertForDocument(Long documentId, LocalDateTime deletedAt);
+
+    @Modifying
+    @Query("DELETE FROM FlashcardTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(LocalDateTime before);
+}
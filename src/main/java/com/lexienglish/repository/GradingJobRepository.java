@@ -0,0 +1,43 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.GradingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradingJobRepository extends JpaRepository<GradingJob, Long> {
+
+    interface ClaimedJobView {
+        Long getTestAttemptId();
+
+        Integer getAttempts();
+    }
+
+    /**
+     * Lease up to limit due jobs until lockedUntil and count the attempt.
+     * SKIP LOCKED lets several nodes claim concurrently without waiting.
+     */
+    @Query(value = "UPDATE grading_jobs SET locked_until = :lockedUntil, attempts = attempts + 1 " +
+            "WHERE id IN (SELECT id FROM grading_jobs " +
+            "             WHERE next_attempt_at <= :now AND (locked_until IS NULL OR locked_until < :now) " +
+            "             ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING test_attempt_id AS \"testAttemptId\", attempts AS \"attempts\"", nativeQuery = true)
+    List<ClaimedJobView> claimDue(LocalDateTime now, LocalDateTime lockedUntil, int limit);
+
+    Optional<GradingJob> findByTestAttemptId(Long testAttemptId);
+
+    @Modifying
+    @Query("UPDATE GradingJob j SET j.nextAttemptAt = :nextAttemptAt, j.lockedUntil = null, " +
+            "j.lastError = :error WHERE j.testAttemptId = :testAttemptId")
+    int reschedule(Long testAttemptId, LocalDateTime nextAttemptAt, String error);
+
+    @Modifying
+    @Query("DELETE FROM GradingJob j WHERE j.testAttemptId = :testAttemptId")
+    int deleteByTestAttemptId(Long testAttemptId);
+}
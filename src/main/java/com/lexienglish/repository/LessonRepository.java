@@ -1,8 +1,11 @@
 package com.lexienglish.repository;
 
+import com.lexienglish.dto.document.LessonSummaryView;
 import com.lexienglish.entity.Document;
 import com.lexienglish.entity.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +16,30 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
     List<Lesson> findByDocumentOrderByOrderIndexAsc(Document document);
 
+    @Query("SELECT new com.lexienglish.dto.document.LessonSummaryView(" +
+            "l.id, l.title, l.summary, c.text, l.legacyContent, l.orderIndex, l.completed, l.difficultyLevel, " +
+            "l.document.id, COUNT(e)) " +
+            "FROM Lesson l LEFT JOIN l.storedContent c LEFT JOIN l.exercises e " +
+            "WHERE l.document.id = :documentId " +
+            "GROUP BY l.id, c.id " +
+            "ORDER BY l.orderIndex ASC")
+    List<LessonSummaryView> findSummariesByDocumentId(Long documentId);
+
+    @Query("SELECT new com.lexienglish.dto.document.LessonSummaryView(" +
+            "l.id, l.title, l.summary, c.text, l.legacyContent, l.orderIndex, l.completed, l.difficultyLevel, " +
+            "l.document.id, (SELECT COUNT(e) FROM Exercise e WHERE e.lesson = l)) " +
+            "FROM Lesson l LEFT JOIN l.storedContent c " +
+            "WHERE l.id = :lessonId AND l.document.user.email = :email")
+    Optional<LessonSummaryView> findSummaryByIdAndUserEmail(Long lessonId, String email);
+
+    /**
+     * Idempotent completion: only the first caller flips the flag and gets 1 back.
+     */
+    @Modifying
+    @Query("UPDATE Lesson l SET l.completed = true, l.updatedAt = LOCAL_DATETIME " +
+            "WHERE l.id = :lessonId AND l.completed = false")
+    int markCompletedIfNot(Long lessonId);
+
     Optional<Lesson> findByDocumentAndOrderIndex(Document document, Integer orderIndex);
 
     long countByDocument(Document document);
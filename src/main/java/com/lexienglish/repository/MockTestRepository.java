@@ -24,4 +24,14 @@ public interface MockTestRepository extends JpaRepository<MockTest, Long> {
     Page<MockTest> findByFilters(MockTest.TestType testType, MockTest.SkillType skillType, Pageable pageable);
 
     long countByPublishedTrue();
+
+    List<MockTest> findByPublishedTrueOrderByCreatedAtDescIdDesc();
+
+    /**
+     * Fingerprint of every test's content version. It only covers committed
+     * rows and changes with any insert, update or delete of a test.
+     */
+    @Query(value = "SELECT md5(coalesce(string_agg(id || ':' || content_version, ',' ORDER BY id), '')) " +
+            "FROM mock_tests", nativeQuery = true)
+    String getCatalogVersion();
 }
@@ -3,6 +3,7 @@ package com.lexienglish.repository;
 import com.lexienglish.entity.Question;
 import com.lexienglish.entity.MockTest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,8 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByMockTestOrderByOrderIndexAsc(MockTest mockTest);
 
     long countByMockTest(MockTest mockTest);
+
+    @Query("SELECT q FROM Question q LEFT JOIN FETCH q.options WHERE q.mockTest.id = :mockTestId " +
+            "ORDER BY q.orderIndex ASC")
+    List<Question> findWithOptionsByMockTestId(Long mockTestId);
 }
@@ -0,0 +1,150 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.QuestionStats;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuestionStatsRepository extends JpaRepository<QuestionStats, Long> {
+
+    interface QuestionMetricsView {
+        Long getQuestionId();
+
+        Long getMockTestId();
+
+        String getContent();
+
+        String getQuestionType();
+
+        Long getResponses();
+
+        Double getCorrectRate();
+
+        Double getDifficulty();
+
+        Double getDiscrimination();
+
+        Double getScoreStdDev();
+
+        Double getMeanTimeSeconds();
+
+        Double getTimeStdDev();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO question_stats_queue (test_attempt_id) VALUES (:attemptId) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int queueAttempt(Long attemptId);
+
+    @Query(value = "SELECT test_attempt_id FROM question_stats_queue ORDER BY test_attempt_id " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockQueuedAttempts(int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM question_stats_queue WHERE test_attempt_id IN (:attemptIds)", nativeQuery = true)
+    int dequeueAttempts(Collection<Long> attemptIds);
+
+    /**
+     * Add the responses of completed attempts to their questions' stats,
+     * creating rows on first use. The batch's count, mean and M2 of each
+     * metric are merged into the stored ones with Chan's pairwise update;
+     * EXCLUDED holds the batch, whose scored / timed are 0 when none of its
+     * responses has a score / time, which leaves those accumulators unchanged.
+     * A response's rest score is its attempt's summed score without it. Rows
+     * are locked in question order.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO question_stats AS s (question_id, responses, correct, scored, score_mean, score_m2,
+                                             rest_mean, rest_m2, score_rest_c2, timed, time_mean, time_m2,
+                                             updated_at)
+            SELECT r.question_id, count(*), count(*) FILTER (WHERE r.is_correct),
+                   count(r.score), COALESCE(avg(r.score), 0), COALESCE(var_pop(r.score) * count(r.score), 0),
+                   COALESCE(avg(r.rest), 0), COALESCE(var_pop(r.rest) * count(r.rest), 0),
+                   COALESCE(covar_pop(r.score, r.rest) * count(r.score), 0),
+                   count(r.time_spent_seconds), COALESCE(avg(r.time_spent_seconds), 0),
+                   COALESCE(var_pop(r.time_spent_seconds) * count(r.time_spent_seconds), 0),
+                   CURRENT_TIMESTAMP
+            FROM (
+                SELECT r.question_id, r.is_correct, r.score, r.time_spent_seconds,
+                       sum(r.score) OVER (PARTITION BY r.test_attempt_id) - r.score AS rest
+                FROM user_responses r
+                WHERE r.test_attempt_id IN (:attemptIds)
+            ) r
+            GROUP BY r.question_id
+            ORDER BY r.question_id
+            ON CONFLICT (question_id) DO UPDATE SET
+                responses = s.responses + EXCLUDED.responses,
+                correct = s.correct + EXCLUDED.correct,
+                scored = s.scored + EXCLUDED.scored,
+                score_mean = s.score_mean + (EXCLUDED.score_mean - s.score_mean) * EXCLUDED.scored
+                        / GREATEST(s.scored + EXCLUDED.scored, 1),
+                score_m2 = s.score_m2 + EXCLUDED.score_m2
+                        + (EXCLUDED.score_mean - s.score_mean) * (EXCLUDED.score_mean - s.score_mean)
+                        * s.scored * EXCLUDED.scored / GREATEST(s.scored + EXCLUDED.scored, 1),
+                rest_mean = s.rest_mean + (EXCLUDED.rest_mean - s.rest_mean) * EXCLUDED.scored
+                        / GREATEST(s.scored + EXCLUDED.scored, 1),
+                rest_m2 = s.rest_m2 + EXCLUDED.rest_m2
+                        + (EXCLUDED.rest_mean - s.rest_mean) * (EXCLUDED.rest_mean - s.rest_mean)
+                        * s.scored * EXCLUDED.scored / GREATEST(s.scored + EXCLUDED.scored, 1),
+                score_rest_c2 = s.score_rest_c2 + EXCLUDED.score_rest_c2
+                        + (EXCLUDED.score_mean - s.score_mean) * (EXCLUDED.rest_mean - s.rest_mean)
+                        * s.scored * EXCLUDED.scored / GREATEST(s.scored + EXCLUDED.scored, 1),
+                timed = s.timed + EXCLUDED.timed,
+                time_mean = s.time_mean + (EXCLUDED.time_mean - s.time_mean) * EXCLUDED.timed
+                        / GREATEST(s.timed + EXCLUDED.timed, 1),
+                time_m2 = s.time_m2 + EXCLUDED.time_m2
+                        + (EXCLUDED.time_mean - s.time_mean) * (EXCLUDED.time_mean - s.time_mean)
+                        * s.timed * EXCLUDED.timed / GREATEST(s.timed + EXCLUDED.timed, 1),
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int addAttempts(Collection<Long> attemptIds);
+
+    /**
+     * Questions with at least minResponses scored responses, optionally of
+     * one test, with their item metrics, ordered by the metric named by sort
+     * (see QuestionStatsService.Ranking). Reads question_stats and questions
+     * only.
+     */
+    @Query(value = """
+            WITH metrics AS (
+                SELECT s.question_id, q.mock_test_id, q.content, q.question_type, s.responses,
+                       CAST(s.correct AS double precision) / s.responses AS correct_rate,
+                       s.score_mean / GREATEST(q.points, 1) AS difficulty,
+                       CASE WHEN s.score_m2 > 0 AND s.rest_m2 > 0
+                            THEN s.score_rest_c2 / sqrt(s.score_m2 * s.rest_m2) END AS discrimination,
+                       sqrt(s.score_m2 / s.scored) AS score_std_dev,
+                       CASE WHEN s.timed > 0 THEN s.time_mean END AS mean_time,
+                       CASE WHEN s.timed > 1 THEN sqrt(s.time_m2 / (s.timed - 1)) END AS time_std_dev
+                FROM question_stats s
+                JOIN questions q ON q.id = s.question_id
+                WHERE s.scored >= :minResponses
+                  AND (CAST(:mockTestId AS bigint) IS NULL OR q.mock_test_id = :mockTestId)
+            )
+            SELECT question_id AS "questionId", mock_test_id AS "mockTestId", content AS "content",
+                   question_type AS "questionType", responses AS "responses", correct_rate AS "correctRate",
+                   difficulty AS "difficulty", discrimination AS "discrimination",
+                   score_std_dev AS "scoreStdDev", mean_time AS "meanTimeSeconds", time_std_dev AS "timeStdDev"
+            FROM metrics
+            ORDER BY CASE WHEN :sort = 'HARDEST' THEN difficulty END ASC,
+                     CASE WHEN :sort = 'EASIEST' THEN difficulty END DESC,
+                     CASE WHEN :sort = 'LEAST_DISCRIMINATING' THEN coalesce(discrimination, 0) END ASC,
+                     CASE WHEN :sort = 'SLOWEST' THEN mean_time END DESC NULLS LAST,
+                     question_id
+            """,
+            countQuery = """
+            SELECT count(*) FROM question_stats s
+            JOIN questions q ON q.id = s.question_id
+            WHERE s.scored >= :minResponses
+              AND (CAST(:mockTestId AS bigint) IS NULL OR q.mock_test_id = :mockTestId)
+            """,
+            nativeQuery = true)
+    Page<QuestionMetricsView> rank(Long mockTestId, long minResponses, String sort, Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.ReviewLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReviewLogRepository extends JpaRepository<ReviewLog, Long> {
+
+    long countByUserIdAndReviewedAtGreaterThanEqual(Long userId, LocalDateTime start);
+
+    List<ReviewLog> findByFlashcardIdOrderByReviewedAtAsc(Long flashcardId);
+}
@@ -0,0 +1,139 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.Document;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+/**
+ * Full-text search across a user's documents, lessons and flashcards.
+ * Matches use the GIN-indexed search_vector columns (V5 migration); snippets
+ * are only rendered for the rows of the requested page.
+ *
+ * Document and lesson bodies are stored compressed in text_contents (V6), so
+ * they are matched and ranked through its search_vector but cannot be
+ * highlighted: snippets come from the description / summary, plus any body
+ * that has not been moved by ContentBackfillService yet. Matches on the row
+ * and on its body are found by one index scan each and merged by id before
+ * ranking, since neither index can serve an OR across the join.
+ *
+ * Each content type applies the keyset cursor and takes its own best limit
+ * rows by rank, so the page merges at most three small sorted runs and is
+ * the same whichever rows the planner happens to find first.
+ *
+ * Document-generated flashcards keep their text in shared card_contents rows
+ * (V11) and are matched through that row's search_vector. Cards with their
+ * own text and cards on shared content are separate branches, so each is
+ * matched by one index scan rather than an OR across the join.
+ */
+@org.springframework.stereotype.Repository
+public interface SearchRepository extends Repository<Document, Long> {
+
+    interface SearchHitView {
+        String getKind();
+
+        Long getId();
+
+        Long getDocumentId();
+
+        String getTitle();
+
+        Float getRank();
+
+        String getSnippet();
+    }
+
+    @Query(value = """
+            WITH hits AS (
+                (SELECT * FROM (
+                     SELECT CAST('DOCUMENT' AS text) AS kind, d.id, d.id AS document_id, d.title,
+                            ts_rank_cd(d.search_vector || coalesce(c.search_vector, CAST('' AS tsvector)),
+                                       websearch_to_tsquery('english', :query)) AS rank
+                     FROM documents d
+                     LEFT JOIN text_contents c ON c.id = d.content_id
+                     WHERE (CAST(:kind AS text) IS NULL OR CAST(:kind AS text) = 'DOCUMENT')
+                       AND d.id IN (SELECT d.id FROM documents d
+                                    WHERE d.user_id = :userId
+                                      AND d.search_vector @@ websearch_to_tsquery('english', :query)
+                                    UNION
+                                    SELECT d.id FROM text_contents c
+                                    JOIN documents d ON d.content_id = c.id
+                                    WHERE d.user_id = :userId
+                                      AND c.search_vector @@ websearch_to_tsquery('english', :query))) t
+                 WHERE CAST(:afterRank AS real) IS NULL
+                    OR (t.rank, t.kind, t.id) < (CAST(:afterRank AS real), CAST(:afterKind AS text),
+                                                 CAST(:afterId AS bigint))
+                 ORDER BY t.rank DESC, t.id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM (
+                     SELECT CAST('LESSON' AS text) AS kind, l.id, l.document_id, l.title,
+                            ts_rank_cd(l.search_vector || coalesce(c.search_vector, CAST('' AS tsvector)),
+                                       websearch_to_tsquery('english', :query)) AS rank
+                     FROM lessons l
+                     LEFT JOIN text_contents c ON c.id = l.content_id
+                     WHERE (CAST(:kind AS text) IS NULL OR CAST(:kind AS text) = 'LESSON')
+                       AND l.id IN (SELECT l.id FROM lessons l
+                                    JOIN documents d ON d.id = l.document_id
+                                    WHERE d.user_id = :userId
+                                      AND l.search_vector @@ websearch_to_tsquery('english', :query)
+                                    UNION
+                                    SELECT l.id FROM text_contents c
+                                    JOIN lessons l ON l.content_id = c.id
+                                    JOIN documents d ON d.id = l.document_id
+                                    WHERE d.user_id = :userId
+                                      AND c.search_vector @@ websearch_to_tsquery('english', :query))) t
+                 WHERE CAST(:afterRank AS real) IS NULL
+                    OR (t.rank, t.kind, t.id) < (CAST(:afterRank AS real), CAST(:afterKind AS text),
+                                                 CAST(:afterId AS bigint))
+                 ORDER BY t.rank DESC, t.id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM (
+                     SELECT CAST('FLASHCARD' AS text) AS kind, f.id, f.document_id, f.front AS title,
+                            ts_rank_cd(f.search_vector, websearch_to_tsquery('english', :query)) AS rank
+                     FROM flashcards f
+                     WHERE f.user_id = :userId
+                       AND (CAST(:kind AS text) IS NULL OR CAST(:kind AS text) = 'FLASHCARD')
+                       AND f.content_id IS NULL
+                       AND f.search_vector @@ websearch_to_tsquery('english', :query)
+                     UNION ALL
+                     SELECT CAST('FLASHCARD' AS text) AS kind, f.id, f.document_id, fc.front AS title,
+                            ts_rank_cd(fc.search_vector, websearch_to_tsquery('english', :query)) AS rank
+                     FROM card_contents fc
+                     JOIN flashcards f ON f.content_id = fc.id
+                     WHERE f.user_id = :userId
+                       AND (CAST(:kind AS text) IS NULL OR CAST(:kind AS text) = 'FLASHCARD')
+                       AND fc.search_vector @@ websearch_to_tsquery('english', :query)) t
+                 WHERE CAST(:afterRank AS real) IS NULL
+                    OR (t.rank, t.kind, t.id) < (CAST(:afterRank AS real), CAST(:afterKind AS text),
+                                                 CAST(:afterId AS bigint))
+                 ORDER BY t.rank DESC, t.id DESC
+                 LIMIT :limit)
+            ),
+            page AS (
+                SELECT * FROM hits
+                ORDER BY rank DESC, kind DESC, id DESC
+                LIMIT :limit
+            )
+            SELECT p.kind AS "kind", p.id AS "id", p.document_id AS "documentId", p.title AS "title",
+                   p.rank AS "rank",
+                   ts_headline('english',
+                       CASE p.kind
+                           WHEN 'DOCUMENT' THEN concat_ws(' ', d.description, d.raw_content)
+                           WHEN 'LESSON' THEN concat_ws(' ', l.summary, l.content)
+                           ELSE concat_ws(' ', coalesce(f.back, fc.back), coalesce(f.example, fc.example))
+                       END,
+                       websearch_to_tsquery('english', :query),
+                       'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5') AS "snippet"
+            FROM page p
+            LEFT JOIN documents d ON p.kind = 'DOCUMENT' AND d.id = p.id
+            LEFT JOIN lessons l ON p.kind = 'LESSON' AND l.id = p.id
+            LEFT JOIN flashcards f ON p.kind = 'FLASHCARD' AND f.id = p.id
+            LEFT JOIN card_contents fc ON fc.id = f.content_id
+            ORDER BY p.rank DESC, p.kind DESC, p.id DESC
+            """, nativeQuery = true)
+    List<SearchHitView> search(Long userId, String query, String kind,
+                               Float afterRank, String afterKind, Long afterId, int limit);
+}
@@ -6,15 +6,30 @@ import com.lexienglish.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TestAttemptRepository extends JpaRepository<TestAttempt, Long> {
 
+    interface OwnedAttemptView {
+        Long getId();
+
+        Long getMockTestId();
+
+        String getEmail();
+
+        String getStatus();
+
+        LocalDateTime getDeadlineAt();
+    }
+
     Page<TestAttempt> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
 
     List<TestAttempt> findByUserAndStatusOrderByCreatedAtDesc(User user, TestAttempt.AttemptStatus status);
@@ -22,16 +37,49 @@ public interface TestAttemptRepository extends JpaRepository<TestAttempt, Long>
     Optional<TestAttempt> findByUserAndMockTestAndStatus(User user, MockTest mockTest,
             TestAttempt.AttemptStatus status);
 
-    long countByUser(User user);
+    @Query(value = "SELECT * FROM test_attempts WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<TestAttempt> lockById(Long id);
+
+    @Query(value = "SELECT a.* FROM test_attempts a JOIN users u ON u.id = a.user_id " +
+            "WHERE a.id = :id AND u.email = :email FOR UPDATE OF a", nativeQuery = true)
+    Optional<TestAttempt> lockOwnedById(Long id, String email);
+
+    /**
+     * The attempt if it belongs to the user. FOR SHARE keeps it from being
+     * completed until the caller's transaction ends.
+     */
+    @Query(value = "SELECT a.id AS \"id\", a.mock_test_id AS \"mockTestId\", u.email AS \"email\", " +
+            "a.status AS \"status\", a.deadline_at AS \"deadlineAt\" " +
+            "FROM test_attempts a JOIN users u ON u.id = a.user_id " +
+            "WHERE a.id = :attemptId AND u.email = :email FOR SHARE OF a", nativeQuery = true)
+    Optional<OwnedAttemptView> lockOwnedAttempt(Long attemptId, String email);
 
-    long countByUserAndStatus(User user, TestAttempt.AttemptStatus status);
+    @Query(value = "SELECT a.id AS \"id\", a.mock_test_id AS \"mockTestId\", u.email AS \"email\", " +
+            "a.status AS \"status\", a.deadline_at AS \"deadlineAt\" " +
+            "FROM test_attempts a JOIN users u ON u.id = a.user_id " +
+            "WHERE a.id = :attemptId AND u.email = :email", nativeQuery = true)
+    Optional<OwnedAttemptView> findOwnedAttempt(Long attemptId, String email);
 
-    @Query("SELECT AVG(t.percentageScore) FROM TestAttempt t WHERE t.user = :user AND t.status = 'COMPLETED'")
-    Double getAverageScoreByUser(User user);
+    /**
+     * Ids among the given attempts that are still IN_PROGRESS, share-locked
+     * so they cannot be completed until the caller's transaction ends.
+     * Attempts locked for completion are skipped rather than waited for.
+     */
+    @Query(value = "SELECT id FROM test_attempts WHERE id IN (:ids) AND status = 'IN_PROGRESS' " +
+            "ORDER BY id FOR SHARE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockInProgressIds(Collection<Long> ids);
 
-    @Query("SELECT t FROM TestAttempt t WHERE t.user = :user AND t.status = 'COMPLETED' ORDER BY t.percentageScore DESC")
-    List<TestAttempt> findTopScoresByUser(User user, Pageable pageable);
+    @Query(value = "SELECT id FROM test_attempts WHERE id IN (:ids) AND status = 'IN_PROGRESS'", nativeQuery = true)
+    List<Long> findInProgressIds(Collection<Long> ids);
 
-    @Query("SELECT COUNT(t) FROM TestAttempt t WHERE t.user = :user AND t.mockTest.testType = :testType AND t.status = 'COMPLETED'")
-    long countCompletedByUserAndTestType(User user, MockTest.TestType testType);
+    /**
+     * Mark up to limit attempts still IN_PROGRESS whose deadline passed before
+     * the cutoff as ABANDONED. Attempts locked by a running completion are
+     * skipped.
+     */
+    @Modifying
+    @Query(value = "UPDATE test_attempts SET status = 'ABANDONED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id IN (SELECT id FROM test_attempts WHERE status = 'IN_PROGRESS' AND deadline_at < :cutoff " +
+            "ORDER BY deadline_at LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int abandonExpired(LocalDateTime cutoff, int limit);
 }
@@ -0,0 +1,53 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.TextContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TextContentRepository extends JpaRepository<TextContent, Long> {
+
+    /**
+     * A row whose body still sits in a pre-V6 plain-text column.
+     */
+    interface LegacyContentRow {
+        Long getId();
+
+        Long getContentId();
+
+        String getText();
+    }
+
+    @Query(value = "SELECT id AS \"id\", content_id AS \"contentId\", raw_content AS \"text\" FROM documents " +
+            "WHERE raw_content IS NOT NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<LegacyContentRow> lockLegacyDocumentContent(int limit);
+
+    @Query(value = "SELECT id AS \"id\", content_id AS \"contentId\", content AS \"text\" FROM lessons " +
+            "WHERE content IS NOT NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<LegacyContentRow> lockLegacyLessonContent(int limit);
+
+    @Modifying
+    @Query(value = "UPDATE documents SET content_id = COALESCE(content_id, :contentId), raw_content = NULL " +
+            "WHERE id = :documentId", nativeQuery = true)
+    int moveDocumentContent(Long documentId, Long contentId);
+
+    @Modifying
+    @Query(value = "UPDATE lessons SET content_id = COALESCE(content_id, :contentId), content = NULL " +
+            "WHERE id = :lessonId", nativeQuery = true)
+    int moveLessonContent(Long lessonId, Long contentId);
+
+    /**
+     * Delete content left behind by deleted documents and lessons. The age
+     * bound skips content whose parent is still being inserted.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM text_contents c WHERE c.created_at < :createdBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM documents d WHERE d.content_id = c.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM lessons l WHERE l.content_id = c.id)", nativeQuery = true)
+    int purgeUnreferenced(LocalDateTime createdBefore);
+}
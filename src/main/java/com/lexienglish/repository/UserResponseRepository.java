@@ -3,18 +3,61 @@ package com.lexienglish.repository;
 import com.lexienglish.entity.UserResponse;
 import com.lexienglish.entity.TestAttempt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserResponseRepository extends JpaRepository<UserResponse, Long> {
 
+    interface SectionScoreView {
+        String getSection();
+
+        BigDecimal getEarned();
+
+        Long getMaxPoints();
+
+        Long getResponses();
+
+        Long getCorrect();
+
+        Long getUngraded();
+
+        Long getAwaitingAiGrading();
+    }
+
     List<UserResponse> findByTestAttemptOrderByQuestionOrderIndexAsc(TestAttempt testAttempt);
 
     Optional<UserResponse> findByTestAttemptAndQuestionId(TestAttempt testAttempt, Long questionId);
 
+    @Query("SELECT r FROM UserResponse r JOIN FETCH r.question WHERE r.testAttempt.id = :testAttemptId")
+    List<UserResponse> findWithQuestionByTestAttemptId(Long testAttemptId);
+
+    /**
+     * Scores of the attempt's responses summed per question section (the
+     * test's skill type for questions without one). Responses awaiting AI
+     * grading are the ones AttemptGrader.needsAiGrading would select.
+     */
+    @Query(value = """
+            SELECT COALESCE(q.section, m.skill_type) AS "section",
+                   COALESCE(SUM(r.score), 0) AS "earned",
+                   SUM(q.points) AS "maxPoints",
+                   COUNT(*) AS "responses",
+                   COUNT(*) FILTER (WHERE r.is_correct) AS "correct",
+                   COUNT(*) FILTER (WHERE r.score IS NULL) AS "ungraded",
+                   COUNT(*) FILTER (WHERE r.score IS NULL
+                                    AND q.question_type IN ('ESSAY', 'SHORT_ANSWER', 'SPEAKING')) AS "awaitingAiGrading"
+            FROM user_responses r
+            JOIN questions q ON q.id = r.question_id
+            JOIN mock_tests m ON m.id = q.mock_test_id
+            WHERE r.test_attempt_id = :testAttemptId
+            GROUP BY COALESCE(q.section, m.skill_type)
+            """, nativeQuery = true)
+    List<SectionScoreView> sumScoresBySection(Long testAttemptId);
+
     long countByTestAttempt(TestAttempt testAttempt);
 
     long countByTestAttemptAndIsCorrectTrue(TestAttempt testAttempt);
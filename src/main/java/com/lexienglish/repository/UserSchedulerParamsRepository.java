@@ -0,0 +1,9 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.UserSchedulerParams;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSchedulerParamsRepository extends JpaRepository<UserSchedulerParams, Long> {
+}
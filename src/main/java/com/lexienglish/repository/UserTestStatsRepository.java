@@ -0,0 +1,156 @@
+package com.lexienglish.repository;
+
+import com.lexienglish.entity.UserTestStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserTestStatsRepository extends JpaRepository<UserTestStats, Long> {
+
+    @Query(value = "SELECT s.* FROM user_test_stats s JOIN users u ON u.id = s.user_id WHERE u.email = :email",
+            nativeQuery = true)
+    Optional<UserTestStats> findByUserEmail(String email);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_test_stats (user_id, total_attempts, updated_at)
+            VALUES (:userId, 1, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id) DO UPDATE SET
+                total_attempts = user_test_stats.total_attempts + 1,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int addStartedAttempt(Long userId);
+
+    /**
+     * Add a completed attempt to the user's stats, creating the row on first
+     * use. Null scores are left out of their average; recent_scores keeps the
+     * last recentLimit scores.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_test_stats (user_id, completed_attempts, score_sum, score_count, best_score,
+                                         ielts_completed, toefl_completed, sat_completed, act_completed,
+                                         reading_sum, reading_count, listening_sum, listening_count,
+                                         writing_sum, writing_count, speaking_sum, speaking_count,
+                                         recent_scores, updated_at)
+            VALUES (:userId, 1,
+                    COALESCE(CAST(:score AS numeric), 0), CASE WHEN CAST(:score AS numeric) IS NULL THEN 0 ELSE 1 END,
+                    CAST(:score AS numeric),
+                    CASE WHEN CAST(:testType AS text) = 'IELTS' THEN 1 ELSE 0 END,
+                    CASE WHEN CAST(:testType AS text) = 'TOEFL' THEN 1 ELSE 0 END,
+                    CASE WHEN CAST(:testType AS text) = 'SAT' THEN 1 ELSE 0 END,
+                    CASE WHEN CAST(:testType AS text) = 'ACT' THEN 1 ELSE 0 END,
+                    COALESCE(CAST(:reading AS numeric), 0), CASE WHEN CAST(:reading AS numeric) IS NULL THEN 0 ELSE 1 END,
+                    COALESCE(CAST(:listening AS numeric), 0), CASE WHEN CAST(:listening AS numeric) IS NULL THEN 0 ELSE 1 END,
+                    COALESCE(CAST(:writing AS numeric), 0), CASE WHEN CAST(:writing AS numeric) IS NULL THEN 0 ELSE 1 END,
+                    COALESCE(CAST(:speaking AS numeric), 0), CASE WHEN CAST(:speaking AS numeric) IS NULL THEN 0 ELSE 1 END,
+                    CASE WHEN CAST(:score AS numeric) IS NULL THEN CAST('{}' AS numeric[])
+                         ELSE ARRAY[CAST(:score AS numeric)] END,
+                    CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id) DO UPDATE SET
+                completed_attempts = user_test_stats.completed_attempts + 1,
+                score_sum = user_test_stats.score_sum + EXCLUDED.score_sum,
+                score_count = user_test_stats.score_count + EXCLUDED.score_count,
+                best_score = GREATEST(user_test_stats.best_score, EXCLUDED.best_score),
+                ielts_completed = user_test_stats.ielts_completed + EXCLUDED.ielts_completed,
+                toefl_completed = user_test_stats.toefl_completed + EXCLUDED.toefl_completed,
+                sat_completed = user_test_stats.sat_completed + EXCLUDED.sat_completed,
+                act_completed = user_test_stats.act_completed + EXCLUDED.act_completed,
+                reading_sum = user_test_stats.reading_sum + EXCLUDED.reading_sum,
+                reading_count = user_test_stats.reading_count + EXCLUDED.reading_count,
+                listening_sum = user_test_stats.listening_sum + EXCLUDED.listening_sum,
+                listening_count = user_test_stats.listening_count + EXCLUDED.listening_count,
+                writing_sum = user_test_stats.writing_sum + EXCLUDED.writing_sum,
+                writing_count = user_test_stats.writing_count + EXCLUDED.writing_count,
+                speaking_sum = user_test_stats.speaking_sum + EXCLUDED.speaking_sum,
+                speaking_count = user_test_stats.speaking_count + EXCLUDED.speaking_count,
+                recent_scores = ARRAY(
+                    SELECT s.score
+                    FROM unnest(user_test_stats.recent_scores || EXCLUDED.recent_scores) WITH ORDINALITY s(score, n)
+                    WHERE s.n > cardinality(user_test_stats.recent_scores) + cardinality(EXCLUDED.recent_scores)
+                                - :recentLimit
+                    ORDER BY s.n),
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int addCompletedAttempt(Long userId, String testType, BigDecimal score, BigDecimal reading,
+                            BigDecimal listening, BigDecimal writing, BigDecimal speaking, int recentLimit);
+
+    @Query(value = "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findUserIdsAfter(long afterId, int limit);
+
+    @Query(value = "SELECT user_id FROM user_test_stats WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockStats(Collection<Long> userIds);
+
+    /**
+     * Recompute the stats of the users with attempts from test_attempts;
+     * returns the number of rows written. Call with the stats rows locked so the
+     * recount sees every committed update and none in flight.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_test_stats (user_id, total_attempts, completed_attempts, score_sum, score_count,
+                                         best_score, ielts_completed, toefl_completed, sat_completed, act_completed,
+                                         reading_sum, reading_count, listening_sum, listening_count,
+                                         writing_sum, writing_count, speaking_sum, speaking_count,
+                                         recent_scores, updated_at)
+            SELECT a.user_id,
+                   count(*),
+                   count(*) FILTER (WHERE a.status = 'COMPLETED'),
+                   COALESCE(sum(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+                   count(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   max(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'IELTS'),
+                   count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'TOEFL'),
+                   count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'SAT'),
+                   count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'ACT'),
+                   COALESCE(sum(a.reading_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+                   count(a.reading_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   COALESCE(sum(a.listening_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+                   count(a.listening_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   COALESCE(sum(a.writing_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+                   count(a.writing_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   COALESCE(sum(a.speaking_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+                   count(a.speaking_score) FILTER (WHERE a.status = 'COMPLETED'),
+                   COALESCE((SELECT array_agg(r.percentage_score ORDER BY r.completed_at, r.id)
+                             FROM (SELECT percentage_score, completed_at, id
+                                   FROM test_attempts
+                                   WHERE user_id = a.user_id AND status = 'COMPLETED'
+                                     AND percentage_score IS NOT NULL
+                                   ORDER BY completed_at DESC, id DESC
+                                   LIMIT :recentLimit) r), '{}'),
+                   CURRENT_TIMESTAMP
+            FROM test_attempts a
+            JOIN mock_tests m ON m.id = a.mock_test_id
+            WHERE a.user_id IN (:userIds)
+            GROUP BY a.user_id
+            ON CONFLICT (user_id) DO UPDATE SET
+                total_attempts = EXCLUDED.total_attempts,
+                completed_attempts = EXCLUDED.completed_attempts,
+                score_sum = EXCLUDED.score_sum,
+                score_count = EXCLUDED.score_count,
+                best_score = EXCLUDED.best_score,
+                ielts_completed = EXCLUDED.ielts_completed,
+                toefl_completed = EXCLUDED.toefl_completed,
+                sat_completed = EXCLUDED.sat_completed,
+                act_completed = EXCLUDED.act_completed,
+                reading_sum = EXCLUDED.reading_sum,
+                reading_count = EXCLUDED.reading_count,
+                listening_sum = EXCLUDED.listening_sum,
+                listening_count = EXCLUDED.listening_count,
+                writing_sum = EXCLUDED.writing_sum,
+                writing_count = EXCLUDED.writing_count,
+                speaking_sum = EXCLUDED.speaking_sum,
+                speaking_count = EXCLUDED.speaking_count,
+                recent_scores = EXCLUDED.recent_scores,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int rebuild(Collection<Long> userIds, int recentLimit);
+}
@@ -2,7 +2,8 @@ package com.lexienglish.security;
 
 import com.lexienglish.entity.User;
 import com.lexienglish.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,13 +11,20 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Set<String> adminEmails;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${app.admin-emails:}") List<String> adminEmails) {
+        this.userRepository = userRepository;
+        this.adminEmails = Set.copyOf(adminEmails);
+    }
 
     @Override
     @Transactional(readOnly = true)
@@ -31,7 +39,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                 true,
                 true,
                 true,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+                authorities(user));
     }
 
     @Transactional(readOnly = true)
@@ -46,6 +54,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 true,
                 true,
                 true,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+                authorities(user));
+    }
+
+    private List<GrantedAuthority> authorities(User user) {
+        if (adminEmails.contains(user.getEmail())) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
     }
 }
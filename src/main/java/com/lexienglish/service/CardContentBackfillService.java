@@ -0,0 +1,85 @@
+package com.lexienglish.service;
+
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.repository.CardContentRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Card Content Backfill Service
+ *
+ * Moves the text of document-generated flashcards written before V11 into
+ * shared card_contents rows, in short SKIP LOCKED batches like
+ * ContentBackfillService, and nightly drops shared content no card
+ * references any more.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.content-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class CardContentBackfillService {
+
+    static final int BATCH_SIZE = 500;
+    private static final Duration PURGE_MIN_AGE = Duration.ofDays(1);
+
+    private final FlashcardRepository flashcardRepository;
+    private final CardContentRepository cardContentRepository;
+    private final CardContentStore cardContentStore;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean finished;
+
+    public CardContentBackfillService(FlashcardRepository flashcardRepository,
+                                      CardContentRepository cardContentRepository,
+                                      CardContentStore cardContentStore,
+                                      PlatformTransactionManager transactionManager) {
+        this.flashcardRepository = flashcardRepository;
+        this.cardContentRepository = cardContentRepository;
+        this.cardContentStore = cardContentStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelay = 60_000, fixedDelay = 10_000)
+    public void backfill() {
+        if (finished) {
+            return;
+        }
+        int moved = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Flashcard> cards = flashcardRepository.lockUnsharedDocumentCards(BATCH_SIZE);
+                cardContentStore.share(cards);
+                return cards.size();
+            });
+            moved += batch;
+        } while (batch == BATCH_SIZE);
+        if (moved > 0) {
+            log.info("Moved {} document flashcards to shared content", moved);
+        }
+        finished = true;
+    }
+
+    @Scheduled(cron = "0 30 4 * * *")
+    public void purgeUnreferenced() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    cardContentRepository.purgeUnreferenced(LocalDateTime.now().minus(PURGE_MIN_AGE)));
+            if (purged != null && purged > 0) {
+                log.info("Purged {} unreferenced card contents", purged);
+            }
+        } catch (DataAccessException e) {
+            // A content picked up by a new card mid-purge fails the foreign key; retried next night
+            log.warn("Card content purge failed: {}", e.getMessage());
+        }
+    }
+}
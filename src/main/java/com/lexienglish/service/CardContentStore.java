@@ -0,0 +1,76 @@
+package com.lexienglish.service;
+
+import com.lexienglish.entity.CardContent;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.repository.CardContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Card Content Store
+ *
+ * Moves flashcard text into shared card_contents rows, deduplicated by
+ * content hash. Existing rows are looked up with one query and missing ones
+ * inserted in one JDBC batch; ON CONFLICT makes concurrent inserts of the
+ * same content converge on a single row.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardContentStore {
+
+    private static final String INSERT_SQL = "INSERT INTO card_contents (content_hash, front, back, example, phonetic) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (content_hash) DO NOTHING";
+
+    private final CardContentRepository cardContentRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Point each card at the shared copy of its content, creating it if
+     * needed. Cards already sharing content, or detached from it by an edit,
+     * are left alone.
+     */
+    @Transactional
+    public void share(Collection<Flashcard> cards) {
+        Map<String, List<Flashcard>> byHash = new LinkedHashMap<>();
+        for (Flashcard card : cards) {
+            if (card.getSharedContent() == null && !card.isContentDetached()) {
+                String hash = CardContent.hash(card.getFront(), card.getBack(), card.getExample(), card.getPhonetic());
+                byHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(card);
+            }
+        }
+        if (byHash.isEmpty()) {
+            return;
+        }
+
+        Map<String, CardContent> contents = new HashMap<>();
+        cardContentRepository.lockByContentHashIn(byHash.keySet())
+                .forEach(content -> contents.put(content.getContentHash(), content));
+
+        List<String> missing = byHash.keySet().stream().filter(hash -> !contents.containsKey(hash)).toList();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (ps, hash) -> {
+                Flashcard card = byHash.get(hash).get(0);
+                ps.setString(1, hash);
+                ps.setString(2, card.getFront());
+                ps.setString(3, card.getBack());
+                ps.setString(4, card.getExample());
+                ps.setString(5, card.getPhonetic());
+            });
+            cardContentRepository.lockByContentHashIn(missing)
+                    .forEach(content -> contents.put(content.getContentHash(), content));
+        }
+
+        byHash.forEach((hash, group) -> group.forEach(card -> card.share(contents.get(hash))));
+    }
+}
@@ -0,0 +1,95 @@
+package com.lexienglish.service;
+
+import com.lexienglish.entity.TextContent;
+import com.lexienglish.repository.TextContentRepository;
+import com.lexienglish.repository.TextContentRepository.LegacyContentRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * Content Backfill Service
+ *
+ * Moves document raw content and lesson content written before V6 into
+ * compressed text_contents rows. Each run converts small batches in short
+ * transactions (rows are locked with SKIP LOCKED, so several instances can run
+ * side by side) and stops polling once both legacy columns are empty.
+ *
+ * Deleting a document or lesson outside JPA, e.g. by cascade from its user,
+ * only clears the reference, so content no row points to is purged nightly.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.content-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class ContentBackfillService {
+
+    static final int BATCH_SIZE = 200;
+    private static final Duration PURGE_MIN_AGE = Duration.ofDays(1);
+
+    private final TextContentRepository textContentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean finished;
+
+    public ContentBackfillService(TextContentRepository textContentRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.textContentRepository = textContentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelay = 30_000, fixedDelay = 10_000)
+    public void backfill() {
+        if (finished) {
+            return;
+        }
+        int documents = drain(textContentRepository::lockLegacyDocumentContent,
+                textContentRepository::moveDocumentContent);
+        int lessons = drain(textContentRepository::lockLegacyLessonContent,
+                textContentRepository::moveLessonContent);
+        if (documents > 0 || lessons > 0) {
+            log.info("Moved legacy content to compressed storage: {} documents, {} lessons", documents, lessons);
+        }
+        finished = documents == 0 && lessons == 0;
+    }
+
+    @Scheduled(cron = "0 45 4 * * *")
+    public void purgeUnreferenced() {
+        Integer purged = transactionTemplate.execute(status ->
+                textContentRepository.purgeUnreferenced(LocalDateTime.now().minus(PURGE_MIN_AGE)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} unreferenced text contents", purged);
+        }
+    }
+
+    /**
+     * Convert batches until the legacy column is empty; returns the rows moved.
+     */
+    int drain(IntFunction<List<LegacyContentRow>> lockBatch, BiFunction<Long, Long, Integer> move) {
+        int moved = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<LegacyContentRow> rows = lockBatch.apply(BATCH_SIZE);
+                for (LegacyContentRow row : rows) {
+                    // Rows rewritten since V6 already reference new content; only the legacy copy is dropped
+                    Long contentId = row.getContentId() != null
+                            ? row.getContentId()
+                            : textContentRepository.save(TextContent.of(row.getText())).getId();
+                    move.apply(row.getId(), contentId);
+                }
+                return rows.size();
+            });
+            moved += batch;
+        } while (batch == BATCH_SIZE);
+        return moved;
+    }
+}
@@ -0,0 +1,92 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.DocumentProgressEvent;
+import com.lexienglish.entity.Document;
+import com.lexienglish.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publishes document processing progress on the in-process event bus.
+ * Called by the DocumentParsingService implementations as they save state.
+ *
+ * Terminal statuses are only delivered once the parsing transaction commits.
+ * When it rolls back instead, the document is marked FAILED in a transaction
+ * of its own and FAILED is published, so subscribers always see the end.
+ * In-flight statuses and lesson progress are delivered right away, while the
+ * transaction is open, so they are flagged provisional.
+ */
+@Slf4j
+@Component
+public class DocumentProgressPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DocumentProgressPublisher(ApplicationEventPublisher eventPublisher,
+                                     DocumentRepository documentRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.eventPublisher = eventPublisher;
+        this.documentRepository = documentRepository;
+        // Used from afterCompletion callbacks, where the finished transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void statusChanged(Document document) {
+        DocumentProgressEvent event = DocumentProgressEvent.fromEntity(document);
+        event.setProvisional(!event.isTerminal() && TransactionSynchronizationManager.isSynchronizationActive());
+        if (event.isTerminal() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        markFailed(event);
+                    }
+                }
+            });
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    public void lessonSaved(Document document, int lessonsProcessed, int totalLessons) {
+        eventPublisher.publishEvent(DocumentProgressEvent.builder()
+                .documentId(document.getId())
+                .userId(document.getUser().getId())
+                .status(document.getStatus().name())
+                .lessonsProcessed(lessonsProcessed)
+                .totalLessons(totalLessons)
+                .completedLessons(document.getCompletedLessons())
+                .timestamp(LocalDateTime.now())
+                .provisional(TransactionSynchronizationManager.isSynchronizationActive())
+                .build());
+    }
+
+    private void markFailed(DocumentProgressEvent rolledBack) {
+        log.warn("Processing of document {} rolled back, marking it failed", rolledBack.getDocumentId());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    documentRepository.updateStatus(rolledBack.getDocumentId(), Document.ProcessingStatus.FAILED));
+        } catch (RuntimeException e) {
+            log.error("Could not mark document {} failed", rolledBack.getDocumentId(), e);
+        }
+        eventPublisher.publishEvent(DocumentProgressEvent.builder()
+                .documentId(rolledBack.getDocumentId())
+                .userId(rolledBack.getUserId())
+                .status(Document.ProcessingStatus.FAILED.name())
+                .lessonsProcessed(0)
+                .totalLessons(0)
+                .completedLessons(0)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+}
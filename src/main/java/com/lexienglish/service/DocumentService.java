@@ -2,12 +2,15 @@ package com.lexienglish.service;
 
 import com.lexienglish.dto.document.DocumentDto;
 import com.lexienglish.dto.document.LessonDto;
+import com.lexienglish.dto.document.LessonSummaryView;
 import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Flashcard;
 import com.lexienglish.entity.Lesson;
 import com.lexienglish.entity.User;
 import com.lexienglish.exception.BadRequestException;
 import com.lexienglish.exception.ResourceNotFoundException;
 import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
 import com.lexienglish.repository.LessonRepository;
 import com.lexienglish.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +22,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -31,6 +35,8 @@ public class DocumentService {
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final DocumentParsingService documentParsingService;
+    private final FlashcardTombstoneRepository tombstoneRepository;
+    private final FlashcardCounterService counterService;
 
     @Transactional
     public DocumentDto uploadDocument(MultipartFile file, String title, String description, String userEmail) {
@@ -84,9 +90,13 @@ public class DocumentService {
 
     @Transactional(readOnly = true)
     public List<LessonDto> getDocumentLessons(Long documentId, String userEmail) {
-        Document document = getDocumentForUser(documentId, userEmail);
-        List<Lesson> lessons = lessonRepository.findByDocumentOrderByOrderIndexAsc(document);
-        return lessons.stream().map(LessonDto::fromEntity).toList();
+        // One ownership check plus one projection query, independent of lesson count
+        if (!documentRepository.existsByIdAndUserEmail(documentId, userEmail)) {
+            throw new ResourceNotFoundException("Document", "id", documentId);
+        }
+        return lessonRepository.findSummariesByDocumentId(documentId).stream()
+                .map(LessonDto::fromView)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -104,24 +114,17 @@ public class DocumentService {
 
     @Transactional
     public LessonDto markLessonCompleted(Long lessonId, String userEmail) {
-        Lesson lesson = lessonRepository.findById(lessonId)
+        LessonSummaryView lesson = lessonRepository.findSummaryByIdAndUserEmail(lessonId, userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Lesson", "id", lessonId));
 
-        Document document = lesson.getDocument();
-        if (!document.getUser().getEmail().equals(userEmail)) {
-            throw new ResourceNotFoundException("Lesson", "id", lessonId);
+        // Conditional update makes repeat completions no-ops; only the winner bumps the counter
+        if (lessonRepository.markCompletedIfNot(lessonId) > 0) {
+            documentRepository.incrementCompletedLessons(lesson.getDocumentId());
         }
 
-        if (!lesson.isCompleted()) {
-            lesson.setCompleted(true);
-            lessonRepository.save(lesson);
-
-            // Update document progress
-            document.setCompletedLessons(document.getCompletedLessons() + 1);
-            documentRepository.save(document);
-        }
-
-        return LessonDto.fromEntity(lesson);
+        LessonDto dto = LessonDto.fromView(lesson);
+        dto.setCompleted(true);
+        return dto;
     }
 
     @Transactional
@@ -131,8 +134,14 @@ public class DocumentService {
         // Delete file
         fileStorageService.deleteFile(document.getFilePath());
 
-        // Delete document (cascades to lessons, flashcards)
+        // Delete document (cascades to lessons, flashcards); syncing clients learn of the cards from tombstones
+        List<Flashcard> flashcards = document.getFlashcards();
+        int mastered = (int) flashcards.stream().filter(Flashcard::isMastered).count();
+        tombstoneRepository.insertForDocument(document.getId(), LocalDateTime.now());
         documentRepository.delete(document);
+        if (!flashcards.isEmpty()) {
+            counterService.cardsRemoved(document.getUser().getId(), flashcards.size(), mastered);
+        }
 
         log.info("Document deleted: {} by user: {}", id, userEmail);
     }
@@ -0,0 +1,92 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.DocumentProgressEvent;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Document Status Stream Service
+ *
+ * Pushes document processing progress to clients over server-sent events so
+ * they no longer have to poll GET /api/v1/documents/{id}. Emitters are kept
+ * in a per-user SseEmitterRegistry and fed from DocumentProgressEvents
+ * published by the parsing services.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentStatusStreamService {
+
+    private static final String EVENT_NAME = "document-status";
+
+    private final DocumentRepository documentRepository;
+    private final UserRepository userRepository;
+
+    private final SseEmitterRegistry emitters = new SseEmitterRegistry(EVENT_NAME);
+
+    /**
+     * Open a stream for the user and replay the current state of any document
+     * still being processed, so nothing published before subscribing is missed.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new BadRequestException("User not found"));
+        Long userId = user.getId();
+
+        SseEmitter emitter = emitters.register(userId);
+
+        List<Document> inFlight = documentRepository.findByUserAndStatusInOrderByCreatedAtDesc(user,
+                List.of(Document.ProcessingStatus.PENDING, Document.ProcessingStatus.PROCESSING));
+        for (Document document : inFlight) {
+            DocumentProgressEvent event = DocumentProgressEvent.fromEntity(document);
+            emitters.send(userId, emitter, eventId(event), event);
+        }
+
+        return emitter;
+    }
+
+    /**
+     * In-flight transitions and lesson progress are delivered as soon as they
+     * are published, marked provisional when their transaction is still open.
+     */
+    @EventListener(condition = "!#event.terminal")
+    public void onProgress(DocumentProgressEvent event) {
+        emitters.send(event.getUserId(), eventId(event), event);
+    }
+
+    /**
+     * Terminal statuses wait for the parsing transaction to commit. When it
+     * rolls back, DocumentProgressPublisher publishes FAILED after it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true,
+            condition = "#event.terminal")
+    public void onTerminal(DocumentProgressEvent event) {
+        emitters.send(event.getUserId(), eventId(event), event);
+    }
+
+    @Scheduled(fixedDelay = SseEmitterRegistry.HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        emitters.heartbeat();
+    }
+
+    int subscriberCount(Long userId) {
+        return emitters.subscriberCount(userId);
+    }
+
+    private static String eventId(DocumentProgressEvent event) {
+        return event.getDocumentId() + "-" + event.getTimestamp();
+    }
+}
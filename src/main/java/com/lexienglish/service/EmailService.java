@@ -57,6 +57,22 @@ public class EmailService {
         }
     }
 
+    @Async
+    public void sendReviewReminderEmail(String to, String name, long dueCards) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(to);
+            message.setSubject("You have flashcards to review");
+            message.setText(buildReviewReminderEmailBody(name, dueCards));
+
+            mailSender.send(message);
+            log.info("Review reminder email sent to: {}", to);
+        } catch (Exception e) {
+            log.error("Failed to send review reminder email to: {}. Error: {}", to, e.getMessage());
+        }
+    }
+
     private String buildVerificationEmailBody(String name, String token) {
         return String.format("""
                 Hi %s,
@@ -90,4 +106,17 @@ public class EmailService {
                 The LexiMind Team
                 """, name, frontendUrl, token);
     }
+
+    private String buildReviewReminderEmailBody(String name, long dueCards) {
+        return String.format("""
+                Hi %s,
+
+                You have %d flashcard(s) ready for review. A short session now keeps them fresh:
+
+                %s/self-study/flashcards
+
+                Best regards,
+                The LexiMind Team
+                """, name, dueCards, frontendUrl);
+    }
 }
@@ -0,0 +1,137 @@
+package com.lexienglish.service;
+
+import com.lexienglish.entity.FlashcardCounters;
+import com.lexienglish.repository.FlashcardCountersRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flashcard Counter Service
+ *
+ * Maintains the per-user flashcard_counters row. Changes made inside a
+ * transaction are summed per user and written with one upsert just before
+ * it commits, so a batch touches the counter row once and holds its lock only
+ * for the commit. A nightly job on the node chosen by {@link LeaderElection}
+ * recounts total and mastered from the flashcards table to repair any drift.
+ */
+@Slf4j
+@Service
+public class FlashcardCounterService {
+
+    static final int RECONCILE_BATCH_SIZE = 1000;
+    static final String LEADER_TASK = "counter-reconcile";
+
+    private final FlashcardCountersRepository countersRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+
+    public FlashcardCounterService(FlashcardCountersRepository countersRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   LeaderElection leaderElection) {
+        this.countersRepository = countersRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+    }
+
+    public record Counts(long total, long mastered, long reviewedToday) {
+
+        public long learning() {
+            return total - mastered;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Counts getCounts(Long userId) {
+        return countersRepository.findById(userId)
+                .map(c -> new Counts(c.getTotal(), c.getMastered(), c.getReviewedOn(LocalDate.now())))
+                .orElse(new Counts(0, 0, 0));
+    }
+
+    public void cardsAdded(Long userId, int count) {
+        add(userId, count, 0, 0);
+    }
+
+    public void cardsRemoved(Long userId, int count, int mastered) {
+        add(userId, -count, -mastered, 0);
+    }
+
+    /**
+     * Reviews applied to the user's cards; reviewedToday counts those dated
+     * today and masteredDelta is the net number of cards the reviews moved
+     * into mastered.
+     */
+    public void reviewed(Long userId, int reviewedToday, int masteredDelta) {
+        add(userId, 0, masteredDelta, reviewedToday);
+    }
+
+    @Scheduled(cron = "0 15 3 * * *")
+    public void reconcile() {
+        if (!leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        long afterId = 0;
+        int corrected = 0;
+        List<Long> userIds;
+        do {
+            long after = afterId;
+            userIds = countersRepository.findUserIdsAfter(after, RECONCILE_BATCH_SIZE);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = userIds;
+            corrected += transactionTemplate.execute(status -> {
+                countersRepository.lockCounters(batch);
+                return countersRepository.recount(batch);
+            });
+            afterId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == RECONCILE_BATCH_SIZE);
+        if (corrected > 0) {
+            log.warn("Reconciled flashcard counters of {} users", corrected);
+        }
+    }
+
+    private void add(Long userId, int total, int mastered, int reviewed) {
+        if (total == 0 && mastered == 0 && reviewed == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    countersRepository.addDeltas(userId, total, mastered, reviewed, LocalDate.now()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, int[]> pending = (Map<Long, int[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new HashMap<>();
+            Map<Long, int[]> deltas = pending;
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    LocalDate today = LocalDate.now();
+                    deltas.forEach((user, d) -> countersRepository.addDeltas(user, d[0], d[1], d[2], today));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(FlashcardCounterService.this);
+                }
+            });
+        }
+        int[] delta = pending.computeIfAbsent(userId, id -> new int[3]);
+        delta[0] += total;
+        delta[1] += mastered;
+        delta[2] += reviewed;
+    }
+}
@@ -0,0 +1,279 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.FlashcardImportResponse;
+import com.lexienglish.dto.document.FlashcardImportResponse.RowError;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.deck.DeckFormat;
+import com.lexienglish.service.deck.DelimitedReader;
+import com.lexienglish.service.deck.DelimitedWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Flashcard Deck Service
+ *
+ * Bulk import and export of a user's flashcards as CSV, TSV or Anki plain
+ * text. Both directions stream: import parses one row at a time and inserts
+ * in JDBC batches, export writes rows to the output as they are fetched.
+ *
+ * Invalid rows are skipped and reported by line number; the valid rows of
+ * the file are imported in one transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlashcardDeckService {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_ROWS = 100_000;
+    static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_PHONETIC_LENGTH = 255;
+
+    private static final String[] COLUMNS = {"front", "back", "example", "phonetic", "cardType"};
+    private static final int FRONT = 0, BACK = 1, EXAMPLE = 2, PHONETIC = 3, CARD_TYPE = 4;
+
+    private static final String INSERT_SQL = "INSERT INTO flashcards (front, back, example, phonetic, card_type, " +
+            "user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String EXPORT_SQL = "SELECT coalesce(f.front, c.front), coalesce(f.back, c.back), " +
+            "coalesce(f.example, c.example), coalesce(f.phonetic, c.phonetic), f.card_type FROM flashcards f " +
+            "LEFT JOIN card_contents c ON c.id = f.content_id WHERE f.user_id = ? ORDER BY f.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final FlashcardCounterService counterService;
+
+    @Transactional
+    public FlashcardImportResponse importDeck(MultipartFile file, DeckFormat format, String userEmail) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Deck file is empty");
+        }
+        User user = getUserByEmail(userEmail);
+        List<RowError> errors = new ArrayList<>();
+        List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+        int imported = 0;
+        int failed = 0;
+
+        try (DelimitedReader reader = new DelimitedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8), format.getDelimiter())) {
+            boolean html = false;
+            int[] columns = null;
+            if (format == DeckFormat.ANKI) {
+                for (String directive : reader.readDirectives()) {
+                    String key = directive.substring(0, Math.max(0, directive.indexOf(':'))).toLowerCase(Locale.ROOT);
+                    String value = directive.substring(directive.indexOf(':') + 1);
+                    switch (key) {
+                        case "separator" -> reader.setDelimiter(ankiSeparator(value));
+                        case "html" -> html = Boolean.parseBoolean(value.trim());
+                        case "columns" -> columns = columnsFromHeader(
+                                value.split(Pattern.quote(String.valueOf(reader.getDelimiter())), -1));
+                        default -> { } // Tags, deck and notetype columns are not imported
+                    }
+                }
+            }
+
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                int line = reader.getRecordLine();
+                if (columns == null) {
+                    columns = columnsFromHeader(record.toArray(String[]::new));
+                    if (columns != null) {
+                        continue;
+                    }
+                    columns = format == DeckFormat.ANKI ? new int[] {0, 1, -1, -1, -1} : new int[] {0, 1, 2, 3, 4};
+                }
+                if (imported + failed >= MAX_ROWS) {
+                    throw new BadRequestException("A deck can have at most " + MAX_ROWS + " cards");
+                }
+
+                String[] values = new String[COLUMNS.length];
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    String value = columns[i] >= 0 && columns[i] < record.size() ? record.get(columns[i]).strip() : null;
+                    if (value != null && html) {
+                        value = stripHtml(value);
+                    }
+                    values[i] = value == null || value.isEmpty() ? null : value;
+                }
+
+                String error = validate(values);
+                if (error != null) {
+                    failed++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new RowError(line, error));
+                    }
+                    continue;
+                }
+
+                batch.add(new ImportRow(values[FRONT], values[BACK], values[EXAMPLE], values[PHONETIC],
+                        values[CARD_TYPE] != null
+                                ? Flashcard.CardType.valueOf(values[CARD_TYPE].toUpperCase(Locale.ROOT))
+                                : Flashcard.CardType.VOCABULARY));
+                imported++;
+                if (batch.size() == BATCH_SIZE) {
+                    insert(batch, user.getId());
+                }
+            }
+            insert(batch, user.getId());
+            counterService.cardsAdded(user.getId(), imported);
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read the deck file");
+        }
+
+        log.info("Imported {} flashcards ({} rows rejected) for user: {}", imported, failed, userEmail);
+        return FlashcardImportResponse.builder()
+                .imported(imported)
+                .failed(failed)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Write the user's deck to the output in id order. Rows are fetched with
+     * a cursor, so memory use does not grow with the deck.
+     */
+    @Transactional(readOnly = true)
+    public void exportDeck(DeckFormat format, String userEmail, OutputStream output) throws IOException {
+        User user = getUserByEmail(userEmail);
+        DelimitedWriter writer = new DelimitedWriter(
+                new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)), format.getDelimiter());
+        if (format == DeckFormat.ANKI) {
+            writer.writeLine("#separator:tab");
+            writer.writeLine("#html:false");
+            writer.writeLine("#columns:" + String.join("\t", COLUMNS));
+        } else {
+            writer.writeRecord(COLUMNS);
+        }
+
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(EXPORT_SQL);
+                ps.setFetchSize(BATCH_SIZE);
+                ps.setLong(1, user.getId());
+                return ps;
+            }, rs -> {
+                try {
+                    writer.writeRecord(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Client went away
+        }
+        writer.flush();
+    }
+
+    private void insert(List<ImportRow> batch, Long userId) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, row.front());
+            ps.setString(2, row.back());
+            ps.setString(3, row.example());
+            ps.setString(4, row.phonetic());
+            ps.setString(5, row.cardType().name());
+            ps.setLong(6, userId);
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+        batch.clear();
+    }
+
+    private String validate(String[] values) {
+        if (values[FRONT] == null) {
+            return "Front text is required";
+        }
+        if (values[BACK] == null) {
+            return "Back text is required";
+        }
+        if (values[PHONETIC] != null && values[PHONETIC].length() > MAX_PHONETIC_LENGTH) {
+            return "Phonetic must be at most " + MAX_PHONETIC_LENGTH + " characters";
+        }
+        if (values[CARD_TYPE] != null) {
+            try {
+                Flashcard.CardType.valueOf(values[CARD_TYPE].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Unknown card type: " + values[CARD_TYPE];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Map a header row to column positions, or null if the row is data.
+     * Unknown headings (tags, notes) are ignored.
+     */
+    private int[] columnsFromHeader(String[] header) {
+        int[] columns = new int[COLUMNS.length];
+        Arrays.fill(columns, -1);
+        boolean found = false;
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].strip().replace("_", "").replace(" ", "");
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (name.equalsIgnoreCase(COLUMNS[c]) || (c == CARD_TYPE && name.equalsIgnoreCase("type"))) {
+                    columns[c] = i;
+                    found = true;
+                }
+            }
+        }
+        return found && columns[FRONT] >= 0 ? columns : null;
+    }
+
+    private static char ankiSeparator(String value) {
+        String separator = value.trim().toLowerCase(Locale.ROOT);
+        return switch (separator) {
+            case "tab" -> '\t';
+            case "comma" -> ',';
+            case "semicolon" -> ';';
+            case "space" -> ' ';
+            case "pipe" -> '|';
+            case "colon" -> ':';
+            default -> {
+                if (separator.length() != 1) {
+                    throw new BadRequestException("Unsupported Anki separator: " + value);
+                }
+                yield separator.charAt(0);
+            }
+        };
+    }
+
+    private static String stripHtml(String value) {
+        String text = value.replaceAll("(?i)<br\\s*/?>", "\n").replaceAll("<[^>]*>", "");
+        return HtmlUtils.htmlUnescape(text).strip();
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BadRequestException("User not found"));
+    }
+
+    private record ImportRow(String front, String back, String example, String phonetic,
+                             Flashcard.CardType cardType) {
+    }
+}
@@ -1,15 +1,20 @@
 package com.lexienglish.service;
 
+import com.lexienglish.dto.document.BatchReviewRequest;
+import com.lexienglish.dto.document.BatchReviewResponse;
 import com.lexienglish.dto.document.CreateFlashcardRequest;
 import com.lexienglish.dto.document.FlashcardDto;
 import com.lexienglish.entity.Document;
 import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.FlashcardTombstone;
 import com.lexienglish.entity.User;
 import com.lexienglish.exception.BadRequestException;
 import com.lexienglish.exception.ResourceNotFoundException;
 import com.lexienglish.repository.DocumentRepository;
 import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
 import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.srs.ReviewScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,17 +22,30 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FlashcardService {
 
+    // How far ahead of the server a client's review time may be
+    static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
     private final FlashcardRepository flashcardRepository;
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
+    private final ReviewScheduler reviewScheduler;
+    private final FlashcardTombstoneRepository tombstoneRepository;
+    private final FlashcardCounterService counterService;
 
     @Transactional
     public FlashcardDto createFlashcard(CreateFlashcardRequest request, String userEmail) {
@@ -62,6 +80,7 @@ public class FlashcardService {
                 .build();
 
         flashcard = flashcardRepository.save(flashcard);
+        counterService.cardsAdded(user.getId(), 1);
         log.info("Created flashcard: {} for user: {}", flashcard.getId(), userEmail);
 
         return FlashcardDto.fromEntity(flashcard);
@@ -74,6 +93,11 @@ public class FlashcardService {
                 .map(FlashcardDto::fromEntity);
     }
 
+    /**
+     * @deprecated returns every due card at once; use
+     *             {@link RevisionSchedulingService#getReviewQueue}.
+     */
+    @Deprecated
     @Transactional(readOnly = true)
     public List<FlashcardDto> getDueFlashcards(String userEmail) {
         User user = getUserByEmail(userEmail);
@@ -95,8 +119,10 @@ public class FlashcardService {
     public FlashcardDto reviewFlashcard(Long flashcardId, int quality, String userEmail) {
         Flashcard flashcard = getFlashcardForUser(flashcardId, userEmail);
 
-        // Apply SM-2 algorithm
-        flashcard.updateSRS(quality);
+        // Apply the user's scheduling algorithm
+        try (ReviewScheduler.Session scheduler = reviewScheduler.sessionFor(flashcard.getUser())) {
+            scheduler.review(flashcard, quality, LocalDateTime.now());
+        }
         flashcard = flashcardRepository.save(flashcard);
 
         log.info("Reviewed flashcard: {} with quality: {}, next review in {} days",
@@ -105,6 +131,61 @@ public class FlashcardService {
         return FlashcardDto.fromEntity(flashcard);
     }
 
+    /**
+     * Apply a study session's reviews in one transaction: ownership is checked
+     * with a single IN query and the updated cards are flushed as one JDBC
+     * batch. A review not newer than the card's last review has already been
+     * applied and is skipped, so offline clients can safely replay a session.
+     * Reviews dated more than MAX_CLOCK_SKEW ahead are rejected; the rest are
+     * applied at the client's time, which a replay compares against.
+     */
+    @Transactional
+    public BatchReviewResponse reviewFlashcards(BatchReviewRequest request, String userEmail) {
+        User user = getUserByEmail(userEmail);
+
+        Set<Long> ids = request.getReviews().stream()
+                .map(BatchReviewRequest.Item::getFlashcardId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Flashcard> flashcards = flashcardRepository.findByUserIdAndIdIn(user.getId(), ids).stream()
+                .collect(Collectors.toMap(Flashcard::getId, Function.identity()));
+        for (Long id : ids) {
+            if (!flashcards.containsKey(id)) {
+                throw new ResourceNotFoundException("Flashcard", "id", id);
+            }
+        }
+
+        LocalDateTime latest = LocalDateTime.now().plus(MAX_CLOCK_SKEW);
+        for (BatchReviewRequest.Item review : request.getReviews()) {
+            if (review.getReviewedAt().isAfter(latest)) {
+                throw new BadRequestException("Review of flashcard " + review.getFlashcardId()
+                        + " is dated in the future");
+            }
+        }
+
+        int applied = 0;
+        try (ReviewScheduler.Session scheduler = reviewScheduler.sessionFor(user)) {
+            for (BatchReviewRequest.Item review : request.getReviews()) {
+                Flashcard flashcard = flashcards.get(review.getFlashcardId());
+                // Truncated to the column's precision so a replay compares equal to the stored value
+                LocalDateTime reviewedAt = review.getReviewedAt().truncatedTo(ChronoUnit.MICROS);
+                if (flashcard.getLastReviewedDate() != null && !reviewedAt.isAfter(flashcard.getLastReviewedDate())) {
+                    continue;
+                }
+                scheduler.review(flashcard, review.getQuality(), reviewedAt);
+                applied++;
+            }
+        }
+
+        log.info("Batch review for user {}: {} applied, {} skipped",
+                userEmail, applied, request.getReviews().size() - applied);
+
+        return BatchReviewResponse.builder()
+                .applied(applied)
+                .skipped(request.getReviews().size() - applied)
+                .flashcards(ids.stream().map(flashcards::get).map(FlashcardDto::fromEntity).toList())
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public FlashcardDto getFlashcard(Long id, String userEmail) {
         return FlashcardDto.fromEntity(getFlashcardForUser(id, userEmail));
@@ -113,20 +194,34 @@ public class FlashcardService {
     @Transactional
     public void deleteFlashcard(Long id, String userEmail) {
         Flashcard flashcard = getFlashcardForUser(id, userEmail);
+        tombstoneRepository.save(FlashcardTombstone.of(flashcard, LocalDateTime.now()));
         flashcardRepository.delete(flashcard);
+        counterService.cardsRemoved(flashcard.getUser().getId(), 1, flashcard.isMastered() ? 1 : 0);
         log.info("Deleted flashcard: {} for user: {}", id, userEmail);
     }
 
     @Transactional(readOnly = true)
     public FlashcardStats getStats(String userEmail) {
         User user = getUserByEmail(userEmail);
-        LocalDateTime now = LocalDateTime.now();
+        FlashcardCounterService.Counts counts = counterService.getCounts(user.getId());
+        long dueForReview = flashcardRepository.countDueForReview(user, LocalDateTime.now());
 
-        long total = flashcardRepository.countByUser(user);
-        long mastered = flashcardRepository.countByUserAndMasteredTrue(user);
-        long dueForReview = flashcardRepository.countDueForReview(user, now);
+        return new FlashcardStats(counts.total(), counts.mastered(), dueForReview, counts.learning());
+    }
 
-        return new FlashcardStats(total, mastered, dueForReview, total - mastered);
+    /**
+     * Cards due right now and when the next scheduled one comes due (null
+     * without scheduled cards), for live "cards due" badges between reminders.
+     */
+    @Transactional(readOnly = true)
+    public DueSummary getDueSummary(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        long dueNow = flashcardRepository.countDueForReview(user, LocalDateTime.now());
+        LocalDateTime nextDueAt = flashcardRepository.findNextDueDates(List.of(user.getId())).stream()
+                .findFirst()
+                .map(FlashcardRepository.NextDueView::getNextDue)
+                .orElse(null);
+        return new DueSummary(dueNow, nextDueAt);
     }
 
     private Flashcard getFlashcardForUser(Long id, String userEmail) {
@@ -147,4 +242,7 @@ public class FlashcardService {
 
     public record FlashcardStats(long total, long mastered, long dueForReview, long learning) {
     }
+
+    public record DueSummary(long dueNow, LocalDateTime nextDueAt) {
+    }
 }
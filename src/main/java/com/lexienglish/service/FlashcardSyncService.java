@@ -0,0 +1,279 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.FlashcardDto;
+import com.lexienglish.dto.document.FlashcardSyncRequest;
+import com.lexienglish.dto.document.FlashcardSyncResponse;
+import com.lexienglish.dto.document.FlashcardSyncResponse.ChangeResult;
+import com.lexienglish.dto.document.FlashcardSyncResponse.Status;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.FlashcardTombstone;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Flashcard Sync Service
+ *
+ * Delta sync for offline clients. A sync first applies the client's batched
+ * edits, then returns the cards changed and the ids deleted since the
+ * client's watermark, keyset-paginated on (updatedAt, id).
+ *
+ * A watermark never passes the start of the oldest write transaction still
+ * open, less {@link #COMMIT_GRACE} for clock skew, so rows stamped by a long
+ * transaction such as a deck import are returned once it commits rather
+ * than skipped.
+ * Tombstones are kept for {@link #TOMBSTONE_RETENTION}; an older watermark
+ * requires a full resync.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlashcardSyncService {
+
+    static final int PAGE_SIZE = 500;
+    static final Duration COMMIT_GRACE = Duration.ofSeconds(5);
+    static final Duration TOMBSTONE_RETENTION = Duration.ofDays(90);
+    private static final Watermark INITIAL = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    private final FlashcardRepository flashcardRepository;
+    private final FlashcardTombstoneRepository tombstoneRepository;
+    private final UserRepository userRepository;
+    private final FlashcardCounterService counterService;
+
+    @Transactional
+    public FlashcardSyncResponse sync(FlashcardSyncRequest request, String userEmail) {
+        Watermark since = request.getWatermark() != null && !request.getWatermark().isBlank()
+                ? Watermark.decode(request.getWatermark())
+                : INITIAL;
+        User user = getUserByEmail(userEmail);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ChangeResult> results = request.getChanges() != null && !request.getChanges().isEmpty()
+                ? applyChanges(user, request.getChanges(), now)
+                : List.of();
+
+        if (since != INITIAL && since.updatedAt().isBefore(now.minus(TOMBSTONE_RETENTION))) {
+            return FlashcardSyncResponse.builder()
+                    .results(results)
+                    .changed(List.of())
+                    .deletedIds(List.of())
+                    .resetRequired(true)
+                    .build();
+        }
+
+        LocalDateTime until = settledUntil(now);
+        if (!since.updatedAt().isBefore(until)) {
+            // Nothing settled since the last sync
+            return FlashcardSyncResponse.builder()
+                    .results(results)
+                    .changed(List.of())
+                    .deletedIds(List.of())
+                    .watermark(since.encode())
+                    .build();
+        }
+
+        List<Flashcard> changed = flashcardRepository.findChangedSince(user.getId(),
+                since.updatedAt(), since.id(), until, PAGE_SIZE + 1);
+        boolean hasMore = changed.size() > PAGE_SIZE;
+        Watermark next;
+        if (hasMore) {
+            changed = changed.subList(0, PAGE_SIZE);
+            Flashcard last = changed.get(PAGE_SIZE - 1);
+            next = new Watermark(last.getUpdatedAt(), last.getId());
+        } else {
+            next = new Watermark(until, Long.MAX_VALUE);
+        }
+        List<Long> deletedIds = tombstoneRepository.findDeletedFlashcardIds(user.getId(),
+                since.updatedAt(), next.updatedAt());
+
+        return FlashcardSyncResponse.builder()
+                .results(results)
+                .changed(changed.stream().map(FlashcardDto::fromEntity).toList())
+                .deletedIds(deletedIds)
+                .watermark(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Drop tombstones no client can still need; older watermarks get resetRequired.
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(TOMBSTONE_RETENTION));
+        if (purged > 0) {
+            log.info("Purged {} flashcard tombstones", purged);
+        }
+    }
+
+    /**
+     * Changes stamped before this are committed or rolled back: every
+     * transaction that could still commit one started after it.
+     */
+    private LocalDateTime settledUntil(LocalDateTime now) {
+        LocalDateTime oldestOpen = flashcardRepository.findOldestOpenWriteStart();
+        LocalDateTime settled = oldestOpen != null && oldestOpen.isBefore(now) ? oldestOpen : now;
+        return settled.minus(COMMIT_GRACE);
+    }
+
+    /**
+     * Apply offline edits. Existing cards are loaded with one IN query; a
+     * replayed create is matched by its clientRef, and an edit made from a
+     * version older than the server's is reported as a conflict (server wins).
+     */
+    private List<ChangeResult> applyChanges(User user, List<FlashcardSyncRequest.Change> changes, LocalDateTime now) {
+        List<Long> ids = changes.stream().map(FlashcardSyncRequest.Change::getId).filter(Objects::nonNull).toList();
+        Map<Long, Flashcard> byId = ids.isEmpty() ? new HashMap<>()
+                : flashcardRepository.findByUserIdAndIdIn(user.getId(), ids).stream()
+                        .collect(Collectors.toMap(Flashcard::getId, Function.identity()));
+        List<String> refs = changes.stream()
+                .filter(c -> c.getId() == null && c.getClientRef() != null)
+                .map(FlashcardSyncRequest.Change::getClientRef)
+                .toList();
+        Map<String, Flashcard> byRef = refs.isEmpty() ? new HashMap<>()
+                : flashcardRepository.findByUserIdAndClientRefIn(user.getId(), refs).stream()
+                        .collect(Collectors.toMap(Flashcard::getClientRef, Function.identity()));
+
+        List<ChangeResult> results = new ArrayList<>(changes.size());
+        List<Flashcard> cards = new ArrayList<>(changes.size());
+        for (FlashcardSyncRequest.Change change : changes) {
+            Flashcard card = null;
+            Status status;
+            if (change.getId() == null) {
+                card = byRef.get(change.getClientRef());
+                if (card != null) {
+                    status = Status.CREATED; // Replayed create
+                } else if (isBlank(change.getClientRef()) || isBlank(change.getFront()) || isBlank(change.getBack())) {
+                    status = Status.INVALID;
+                } else {
+                    card = flashcardRepository.save(Flashcard.builder()
+                            .front(change.getFront())
+                            .back(change.getBack())
+                            .example(change.getExample())
+                            .phonetic(change.getPhonetic())
+                            .cardType(parseCardType(change.getCardType(), Flashcard.CardType.VOCABULARY))
+                            .clientRef(change.getClientRef())
+                            .user(user)
+                            .build());
+                    byRef.put(card.getClientRef(), card);
+                    counterService.cardsAdded(user.getId(), 1);
+                    status = Status.CREATED;
+                }
+            } else {
+                card = byId.get(change.getId());
+                if (card == null) {
+                    status = Status.NOT_FOUND;
+                } else if (change.getBaseUpdatedAt() != null
+                        && card.getUpdatedAt().isAfter(change.getBaseUpdatedAt().truncatedTo(ChronoUnit.MICROS))) {
+                    status = Status.CONFLICT;
+                } else if (change.isDeleted()) {
+                    tombstoneRepository.save(FlashcardTombstone.of(card, now));
+                    flashcardRepository.delete(card);
+                    counterService.cardsRemoved(user.getId(), 1, card.isMastered() ? 1 : 0);
+                    byId.remove(card.getId());
+                    card = null;
+                    status = Status.DELETED;
+                } else {
+                    applyEdit(card, change);
+                    status = Status.UPDATED;
+                }
+            }
+            results.add(ChangeResult.builder()
+                    .id(change.getId())
+                    .clientRef(change.getClientRef())
+                    .status(status)
+                    .build());
+            cards.add(card);
+        }
+
+        // Assigns ids and updatedAt before the server versions are returned
+        flashcardRepository.flush();
+        for (int i = 0; i < results.size(); i++) {
+            Flashcard card = cards.get(i);
+            if (card != null) {
+                results.get(i).setId(card.getId());
+                results.get(i).setFlashcard(FlashcardDto.fromEntity(card));
+            }
+        }
+        return results;
+    }
+
+    private void applyEdit(Flashcard card, FlashcardSyncRequest.Change change) {
+        if (!isBlank(change.getFront())) {
+            card.setFront(change.getFront());
+        }
+        if (!isBlank(change.getBack())) {
+            card.setBack(change.getBack());
+        }
+        if (change.getExample() != null) {
+            card.setExample(change.getExample());
+        }
+        if (change.getPhonetic() != null) {
+            card.setPhonetic(change.getPhonetic());
+        }
+        card.setCardType(parseCardType(change.getCardType(), card.getCardType()));
+    }
+
+    private Flashcard.CardType parseCardType(String value, Flashcard.CardType fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Flashcard.CardType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BadRequestException("User not found"));
+    }
+
+    record Watermark(LocalDateTime updatedAt, long id) {
+
+        String encode() {
+            String raw = updatedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Watermark decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(raw);
+                }
+                return new Watermark(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid sync watermark");
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.lexienglish.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Leader Election
+ *
+ * Picks one node for each cluster-wide background task through PostgreSQL
+ * session-level advisory locks, held on one connection kept out of the pool
+ * for as long as this node leads anything. The first node to ask for a task
+ * leads it until its connection goes away; the others keep asking on every
+ * run of the task, so leadership moves within one interval once the leader
+ * stops.
+ */
+@Slf4j
+@Component
+public class LeaderElection {
+
+    // First key of every lock, so tasks cannot collide with other advisory locks
+    private static final int LOCK_NAMESPACE = 0x4c4d;
+    private static final int VALID_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+
+    // Guarded by this
+    private Connection connection;
+    private final Set<String> led = new HashSet<>();
+
+    public LeaderElection(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Whether this node leads the task, taking the lead when no node holds it.
+     */
+    public synchronized boolean isLeader(String task) {
+        try {
+            if (connection != null && !connection.isValid(VALID_TIMEOUT_SECONDS)) {
+                log.warn("Lost the leader connection, no longer leading {}", led);
+                release();
+            }
+            if (led.contains(task)) {
+                return true;
+            }
+            if (connection == null) {
+                connection = dataSource.getConnection();
+                connection.setAutoCommit(true);
+            }
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                ps.setInt(1, LOCK_NAMESPACE);
+                ps.setInt(2, task.hashCode());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        led.add(task);
+                        log.info("This node now leads {}", task);
+                        return true;
+                    }
+                }
+            }
+            if (led.isEmpty()) {
+                release();
+            }
+            return false;
+        } catch (SQLException e) {
+            log.warn("Could not elect a leader for {}: {}", task, e.getMessage());
+            release();
+            return false;
+        }
+    }
+
+    /**
+     * Give up every task. The locks are released explicitly: a pooled
+     * connection keeps its session, and so its locks, when closed.
+     */
+    @PreDestroy
+    public synchronized void release() {
+        led.clear();
+        if (connection != null) {
+            try (Connection held = connection;
+                 PreparedStatement ps = held.prepareStatement("SELECT pg_advisory_unlock_all()")) {
+                ps.execute();
+            } catch (SQLException e) {
+                log.debug("Could not release the leader locks: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+}
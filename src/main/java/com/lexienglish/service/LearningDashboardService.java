@@ -3,6 +3,7 @@ package com.lexienglish.service;
 import com.lexienglish.entity.*;
 import com.lexienglish.exception.BadRequestException;
 import com.lexienglish.repository.*;
+import com.lexienglish.service.mocktest.UserTestStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,7 +26,7 @@ public class LearningDashboardService {
     private final DocumentRepository documentRepository;
     private final FlashcardRepository flashcardRepository;
     private final LessonRepository lessonRepository;
-    private final TestAttemptRepository testAttemptRepository;
+    private final UserTestStatsService userTestStatsService;
     private final ChatSessionRepository chatSessionRepository;
     private final RevisionSchedulingService revisionSchedulingService;
 
@@ -45,8 +46,11 @@ public class LearningDashboardService {
         RevisionSchedulingService.RevisionStats flashcardStats = revisionSchedulingService.getRevisionStats(userEmail);
 
         // Test stats
-        long totalTests = testAttemptRepository.countByUser(user);
-        Double avgScore = testAttemptRepository.getAverageScoreByUser(user);
+        var testStats = userTestStatsService.getStats(user.getId());
+        long totalTests = testStats.map(UserTestStats::getTotalAttempts).orElse(0);
+        java.math.BigDecimal avgScore = testStats
+                .map(s -> UserTestStats.average(s.getScoreSum(), s.getScoreCount()))
+                .orElse(null);
 
         // Chat stats
         long chatSessions = chatSessionRepository.countByUserAndStatus(
@@ -64,7 +68,7 @@ public class LearningDashboardService {
                 .lessonsProgress(totalLessons > 0 ? (completedLessons * 100.0 / totalLessons) : 0)
                 .flashcardStats(flashcardStats)
                 .totalTestAttempts(totalTests)
-                .averageTestScore(avgScore != null ? avgScore : 0)
+                .averageTestScore(avgScore != null ? avgScore.doubleValue() : 0)
                 .chatSessions(chatSessions)
                 .totalMessages(totalMessages)
                 .currentStreak(currentStreak)
@@ -98,7 +102,7 @@ public class LearningDashboardService {
         }
 
         // Suggest practice test
-        if (testAttemptRepository.countByUser(user) == 0) {
+        if (userTestStatsService.getStats(user.getId()).map(UserTestStats::getTotalAttempts).orElse(0) == 0) {
             recommendations.add(new RecommendedAction(
                     "TAKE_MOCK_TEST",
                     "Take your first mock test to assess your level",
@@ -28,8 +28,11 @@ public class MockDocumentParsingService implements DocumentParsingService {
     private final DocumentRepository documentRepository;
     private final LessonRepository lessonRepository;
     private final FlashcardRepository flashcardRepository;
+    private final CardContentStore cardContentStore;
+    private final FlashcardCounterService counterService;
     private final ExerciseRepository exerciseRepository;
     private final FileStorageService fileStorageService;
+    private final DocumentProgressPublisher progressPublisher;
 
     @Override
     @Transactional
@@ -43,6 +46,7 @@ public class MockDocumentParsingService implements DocumentParsingService {
             // Update status to processing
             document.setStatus(Document.ProcessingStatus.PROCESSING);
             documentRepository.save(document);
+            progressPublisher.statusChanged(document);
 
             // Read file content (for TXT files)
             String content = "";
@@ -53,16 +57,19 @@ public class MockDocumentParsingService implements DocumentParsingService {
 
             // Generate mock lessons
             List<Lesson> lessons = generateMockLessons(document);
-            lessonRepository.saveAll(lessons);
+            saveLessons(document, lessons);
 
             // Generate mock flashcards
             List<Flashcard> flashcards = generateMockFlashcards(document);
+            cardContentStore.share(flashcards);
             flashcardRepository.saveAll(flashcards);
+            counterService.cardsAdded(document.getUser().getId(), flashcards.size());
 
             // Update document
             document.setTotalLessons(lessons.size());
             document.setStatus(Document.ProcessingStatus.COMPLETED);
             documentRepository.save(document);
+            progressPublisher.statusChanged(document);
 
             log.info("Mock parsing completed for document: {}. Lessons: {}, Flashcards: {}",
                     documentId, lessons.size(), flashcards.size());
@@ -71,6 +78,17 @@ public class MockDocumentParsingService implements DocumentParsingService {
             log.error("Mock parsing failed for document: {}", documentId, e);
             document.setStatus(Document.ProcessingStatus.FAILED);
             documentRepository.save(document);
+            progressPublisher.statusChanged(document);
+        }
+    }
+
+    /**
+     * Save lessons one by one, publishing progress after each
+     */
+    private void saveLessons(Document document, List<Lesson> lessons) {
+        for (int i = 0; i < lessons.size(); i++) {
+            lessonRepository.save(lessons.get(i));
+            progressPublisher.lessonSaved(document, i + 1, lessons.size());
         }
     }
 
@@ -5,17 +5,26 @@ import com.lexienglish.entity.*;
 import com.lexienglish.exception.BadRequestException;
 import com.lexienglish.exception.ResourceNotFoundException;
 import com.lexienglish.repository.*;
+import com.lexienglish.service.mocktest.AnswerWriter;
+import com.lexienglish.service.mocktest.AttemptAnswerBuffer;
+import com.lexienglish.service.mocktest.AttemptDeadlineService;
+import com.lexienglish.service.mocktest.AttemptScore;
+import com.lexienglish.service.mocktest.GradingQueue;
+import com.lexienglish.service.mocktest.MockTestCatalogCache;
+import com.lexienglish.service.mocktest.ScorePercentileService;
+import com.lexienglish.service.mocktest.UserTestStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -23,34 +32,34 @@ import java.util.List;
 public class MockTestService {
 
     private final MockTestRepository mockTestRepository;
-    private final QuestionRepository questionRepository;
     private final TestAttemptRepository testAttemptRepository;
     private final UserResponseRepository userResponseRepository;
     private final UserRepository userRepository;
-    private final WritingScoringService writingScoringService;
-    private final SpeakingScoringService speakingScoringService;
+    private final MockTestCatalogCache catalogCache;
+    private final GradingQueue gradingQueue;
+    private final AttemptAnswerBuffer answerBuffer;
+    private final UserTestStatsService userTestStatsService;
+    private final ScorePercentileService scorePercentileService;
+    private final AttemptDeadlineService attemptDeadlineService;
 
     // ==================== Test Catalog ====================
+    // Published tests and their questions are served from MockTestCatalogCache
 
-    @Transactional(readOnly = true)
     public Page<MockTestDto> getAvailableTests(Pageable pageable) {
-        return mockTestRepository.findByPublishedTrueOrderByCreatedAtDesc(pageable)
-                .map(MockTestDto::fromEntity);
+        return catalogCache.getTests(null, null, pageable);
     }
 
-    @Transactional(readOnly = true)
     public Page<MockTestDto> getTestsByFilter(String testType, String skillType, Pageable pageable) {
         MockTest.TestType type = testType != null ? MockTest.TestType.valueOf(testType) : null;
         MockTest.SkillType skill = skillType != null ? MockTest.SkillType.valueOf(skillType) : null;
-        return mockTestRepository.findByFilters(type, skill, pageable)
-                .map(MockTestDto::fromEntity);
+        return catalogCache.getTests(type, skill, pageable);
     }
 
-    @Transactional(readOnly = true)
     public MockTestDto getTestDetails(Long testId) {
-        MockTest test = mockTestRepository.findById(testId)
-                .orElseThrow(() -> new ResourceNotFoundException("MockTest", "id", testId));
-        return MockTestDto.fromEntity(test);
+        return catalogCache.getTest(testId)
+                .orElseGet(() -> mockTestRepository.findById(testId)
+                        .map(MockTestDto::fromEntity)
+                        .orElseThrow(() -> new ResourceNotFoundException("MockTest", "id", testId)));
     }
 
     // ==================== Taking Tests ====================
@@ -70,18 +79,27 @@ public class MockTestService {
                 user, test, TestAttempt.AttemptStatus.IN_PROGRESS);
 
         if (existingAttempt.isPresent()) {
-            return TestAttemptDto.fromEntity(existingAttempt.get());
+            TestAttempt existing = existingAttempt.get();
+            // An attempt whose time is up but has not been expired yet makes way for a new one
+            if (!AttemptDeadlineService.isTimeUp(existing.getDeadlineAt(), LocalDateTime.now())
+                    || !attemptDeadlineService.expire(existing.getId())) {
+                return TestAttemptDto.fromEntity(existing);
+            }
         }
 
         // Create new attempt
+        LocalDateTime now = LocalDateTime.now();
         TestAttempt attempt = TestAttempt.builder()
                 .user(user)
                 .mockTest(test)
-                .startedAt(LocalDateTime.now())
+                .startedAt(now)
+                .deadlineAt(now.plusMinutes(test.getDurationMinutes()))
                 .status(TestAttempt.AttemptStatus.IN_PROGRESS)
                 .build();
 
         attempt = testAttemptRepository.save(attempt);
+        userTestStatsService.attemptStarted(attempt);
+        attemptDeadlineService.track(attempt);
         log.info("Started test attempt {} for user {} on test {}", attempt.getId(), userEmail, testId);
 
         return TestAttemptDto.fromEntity(attempt);
@@ -91,112 +109,81 @@ public class MockTestService {
     public List<QuestionDto> getTestQuestions(Long attemptId, String userEmail) {
         TestAttempt attempt = getAttemptForUser(attemptId, userEmail);
 
-        List<Question> questions = questionRepository.findByMockTestOrderByOrderIndexAsc(attempt.getMockTest());
-        return questions.stream()
-                .map(QuestionDto::fromEntity)
-                .toList();
+        return catalogCache.getQuestions(attempt.getMockTest().getId());
     }
 
     @Transactional
     public void submitAnswer(Long attemptId, SubmitAnswerRequest request, String userEmail) {
-        TestAttempt attempt = getAttemptForUser(attemptId, userEmail);
+        submitAnswers(attemptId, List.of(request), userEmail);
+    }
 
-        if (attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS) {
+    /**
+     * Save a batch of answers through the AttemptAnswerBuffer; an answer to a
+     * question that was already answered replaces it. Multiple-choice, true/false and
+     * fill-in-the-blank answers are graded on the way in, against the questions
+     * in the catalog cache. Returns the number of questions answered.
+     */
+    @Transactional
+    public int submitAnswers(Long attemptId, List<SubmitAnswerRequest> answers, String userEmail) {
+        TestAttemptRepository.OwnedAttemptView attempt = answerBuffer.findAttempt(attemptId, userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("TestAttempt", "id", attemptId));
+        if (!TestAttempt.AttemptStatus.IN_PROGRESS.name().equals(attempt.getStatus())) {
             throw new BadRequestException("Test is not in progress");
         }
+        if (AttemptDeadlineService.isTimeUp(attempt.getDeadlineAt(), LocalDateTime.now())) {
+            throw new BadRequestException("Time is up for this test");
+        }
 
-        Question question = questionRepository.findById(request.getQuestionId())
-                .orElseThrow(() -> new ResourceNotFoundException("Question", "id", request.getQuestionId()));
+        // The last answer to a question wins
+        Map<Long, SubmitAnswerRequest> latest = new LinkedHashMap<>();
+        answers.forEach(a -> latest.put(a.getQuestionId(), a));
 
-        // Check if answer already exists
-        var existingResponse = userResponseRepository.findByTestAttemptAndQuestionId(attempt, question.getId());
+        Map<Long, Question> questions = catalogCache.getQuestionsById(attempt.getMockTestId());
 
-        UserResponse response;
-        if (existingResponse.isPresent()) {
-            response = existingResponse.get();
-            response.setUserAnswer(request.getAnswer());
-        } else {
-            response = UserResponse.builder()
-                    .testAttempt(attempt)
+        LocalDateTime now = LocalDateTime.now();
+        List<AnswerWriter.Answer> rows = new ArrayList<>(latest.size());
+        for (SubmitAnswerRequest request : latest.values()) {
+            Question question = questions.get(request.getQuestionId());
+            if (question == null) {
+                throw new ResourceNotFoundException("Question", "id", request.getQuestionId());
+            }
+            UserResponse graded = UserResponse.builder()
                     .question(question)
                     .userAnswer(request.getAnswer())
-                    .timeSpentSeconds(request.getTimeSpentSeconds())
-                    .answeredAt(LocalDateTime.now())
                     .build();
+            if (isAutoGraded(question)) {
+                graded.gradeSimpleQuestion();
+            }
+            rows.add(new AnswerWriter.Answer(question.getId(), request.getAnswer(), graded.getIsCorrect(),
+                    graded.getScore(), request.getTimeSpentSeconds(), now));
         }
 
-        // Auto-grade simple questions
-        if (question.getQuestionType() == Question.QuestionType.MULTIPLE_CHOICE ||
-                question.getQuestionType() == Question.QuestionType.TRUE_FALSE ||
-                question.getQuestionType() == Question.QuestionType.FILL_IN_BLANK) {
-            response.gradeSimpleQuestion();
-        }
-
-        userResponseRepository.save(response);
-    }
-
-    @Transactional
-    public TestAttemptDto completeTest(Long attemptId, String userEmail) {
-        TestAttempt attempt = getAttemptForUser(attemptId, userEmail);
-
-        if (attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS) {
+        if (!answerBuffer.write(attemptId, rows)) {
             throw new BadRequestException("Test is not in progress");
         }
-
-        // Calculate time spent
-        long seconds = ChronoUnit.SECONDS.between(attempt.getStartedAt(), LocalDateTime.now());
-        attempt.setTimeSpentSeconds((int) seconds);
-        attempt.setCompletedAt(LocalDateTime.now());
-
-        // AI-grade essay and speaking responses before calculating scores
-        gradeAIResponses(attempt);
-
-        // Calculate scores
-        attempt.calculateScore();
-
-        // Check if still has ungraded responses (shouldn't happen unless AI fails)
-        boolean hasUngraded = attempt.getResponses().stream()
-                .anyMatch(r -> r.getScore() == null);
-
-        if (hasUngraded) {
-            attempt.setStatus(TestAttempt.AttemptStatus.PENDING_REVIEW);
-        } else {
-            attempt.setStatus(TestAttempt.AttemptStatus.COMPLETED);
-            generateFeedback(attempt);
-        }
-
-        attempt = testAttemptRepository.save(attempt);
-        log.info("Completed test attempt {} with score {}%", attemptId, attempt.getPercentageScore());
-
-        return TestAttemptDto.fromEntity(attempt);
+        return rows.size();
     }
 
     /**
-     * Grade essay and speaking responses using AI scoring services
+     * Complete an attempt. Attempts with essay, short-answer or speaking
+     * responses are marked GRADING and queued for AI grading; their result is
+     * pushed over SSE once the GradingQueue has finished them.
      */
-    private void gradeAIResponses(TestAttempt attempt) {
-        for (UserResponse response : attempt.getResponses()) {
-            if (response.getScore() != null) {
-                continue; // Already graded
-            }
+    @Transactional
+    public TestAttemptDto completeTest(Long attemptId, String userEmail) {
+        TestAttempt attempt = testAttemptRepository.lockOwnedById(attemptId, userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("TestAttempt", "id", attemptId));
+        requireInProgress(attempt);
+        // Under the lock: buffered answers are written, later submissions are rejected
+        answerBuffer.flush(attemptId);
+        // Aggregated before the attempt is modified, so the native query does not flush it early
+        AttemptScore score = AttemptScore.of(userResponseRepository.sumScoresBySection(attemptId));
 
-            Question.QuestionType type = response.getQuestion().getQuestionType();
-
-            try {
-                if (type == Question.QuestionType.ESSAY || type == Question.QuestionType.SHORT_ANSWER) {
-                    log.info("AI grading writing response for question {}", response.getQuestion().getId());
-                    writingScoringService.scoreWritingResponse(response);
-                    userResponseRepository.save(response);
-                } else if (type == Question.QuestionType.SPEAKING) {
-                    log.info("AI grading speaking response for question {}", response.getQuestion().getId());
-                    speakingScoringService.scoreSpeakingResponse(response);
-                    userResponseRepository.save(response);
-                }
-            } catch (Exception e) {
-                log.error("Failed to AI-grade response {}: {}", response.getId(), e.getMessage());
-                // Leave as ungraded for manual review
-            }
-        }
+        gradingQueue.complete(attempt, score, LocalDateTime.now());
+
+        TestAttemptDto dto = TestAttemptDto.fromEntity(attempt);
+        scorePercentileService.applyPercentileRankOfCompleted(dto);
+        return dto;
     }
 
     // ==================== User History & Analytics ====================
@@ -205,41 +192,33 @@ public class MockTestService {
     public Page<TestAttemptDto> getUserAttempts(String userEmail, Pageable pageable) {
         User user = getUserByEmail(userEmail);
         return testAttemptRepository.findByUserOrderByCreatedAtDesc(user, pageable)
-                .map(TestAttemptDto::fromEntity);
+                .map(this::toDto);
     }
 
     @Transactional(readOnly = true)
     public TestAttemptDto getAttemptResult(Long attemptId, String userEmail) {
         TestAttempt attempt = getAttemptForUser(attemptId, userEmail);
-        return TestAttemptDto.fromEntity(attempt);
+        return toDto(attempt);
     }
 
     @Transactional(readOnly = true)
     public TestAnalyticsDto getUserAnalytics(String userEmail) {
-        User user = getUserByEmail(userEmail);
-
-        long total = testAttemptRepository.countByUser(user);
-        long completed = testAttemptRepository.countByUserAndStatus(user, TestAttempt.AttemptStatus.COMPLETED);
-        Double avgScoreDouble = testAttemptRepository.getAverageScoreByUser(user);
-        java.math.BigDecimal avgScore = avgScoreDouble != null ? java.math.BigDecimal.valueOf(avgScoreDouble) : null;
-
-        List<TestAttempt> topScores = testAttemptRepository.findTopScoresByUser(user, PageRequest.of(0, 1));
-        java.math.BigDecimal bestScore = topScores.isEmpty() ? null : topScores.get(0).getPercentageScore();
-
-        return TestAnalyticsDto.builder()
-                .totalAttempts(total)
-                .completedAttempts(completed)
-                .averageScore(avgScore)
-                .bestScore(bestScore)
-                .ieltsCompleted(testAttemptRepository.countCompletedByUserAndTestType(user, MockTest.TestType.IELTS))
-                .toeflCompleted(testAttemptRepository.countCompletedByUserAndTestType(user, MockTest.TestType.TOEFL))
-                .satCompleted(testAttemptRepository.countCompletedByUserAndTestType(user, MockTest.TestType.SAT))
-                .actCompleted(testAttemptRepository.countCompletedByUserAndTestType(user, MockTest.TestType.ACT))
-                .build();
+        return userTestStatsService.getStats(userEmail)
+                .map(TestAnalyticsDto::fromEntity)
+                .orElseGet(() -> {
+                    getUserByEmail(userEmail);
+                    return TestAnalyticsDto.builder().recentScores(List.of()).build();
+                });
     }
 
     // ==================== Helper Methods ====================
 
+    private TestAttemptDto toDto(TestAttempt attempt) {
+        TestAttemptDto dto = TestAttemptDto.fromEntity(attempt);
+        scorePercentileService.applyPercentileRank(dto);
+        return dto;
+    }
+
     private TestAttempt getAttemptForUser(Long attemptId, String userEmail) {
         TestAttempt attempt = testAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new ResourceNotFoundException("TestAttempt", "id", attemptId));
@@ -251,27 +230,20 @@ public class MockTestService {
         return attempt;
     }
 
-    private User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("User not found"));
-    }
-
-    private void generateFeedback(TestAttempt attempt) {
-        StringBuilder feedback = new StringBuilder();
-
-        if (attempt.getPercentageScore().compareTo(java.math.BigDecimal.valueOf(80)) >= 0) {
-            feedback.append("Excellent performance! ");
-        } else if (attempt.getPercentageScore().compareTo(java.math.BigDecimal.valueOf(60)) >= 0) {
-            feedback.append("Good job! ");
-        } else {
-            feedback.append("Keep practicing! ");
+    private void requireInProgress(TestAttempt attempt) {
+        if (attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS) {
+            throw new BadRequestException("Test is not in progress");
         }
+    }
 
-        long correct = userResponseRepository.countByTestAttemptAndIsCorrectTrue(attempt);
-        long total = userResponseRepository.countByTestAttempt(attempt);
-
-        feedback.append(String.format("You answered %d out of %d questions correctly.", correct, total));
+    private boolean isAutoGraded(Question question) {
+        return question.getQuestionType() == Question.QuestionType.MULTIPLE_CHOICE ||
+                question.getQuestionType() == Question.QuestionType.TRUE_FALSE ||
+                question.getQuestionType() == Question.QuestionType.FILL_IN_BLANK;
+    }
 
-        attempt.setFeedback(feedback.toString());
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BadRequestException("User not found"));
     }
 }
@@ -32,7 +32,10 @@ public class RemoteDocumentParsingService implements DocumentParsingService {
     private final DocumentRepository documentRepository;
     private final LessonRepository lessonRepository;
     private final FlashcardRepository flashcardRepository;
+    private final CardContentStore cardContentStore;
+    private final FlashcardCounterService counterService;
     private final FileStorageService fileStorageService;
+    private final DocumentProgressPublisher progressPublisher;
     private final RemoteAiService remoteAiService;
 
     @Override
@@ -47,6 +50,7 @@ public class RemoteDocumentParsingService implements DocumentParsingService {
             // Update status to processing
             document.setStatus(Document.ProcessingStatus.PROCESSING);
             documentRepository.save(document);
+            progressPublisher.statusChanged(document);
 
             // Read and encode file content
             byte[] fileBytes = fileStorageService.readFileBytes(document.getFilePath());
@@ -67,15 +71,18 @@ public class RemoteDocumentParsingService implements DocumentParsingService {
             if (response.isSuccess()) {
                 // Convert AI response to entities
                 List<Lesson> lessons = convertLessons(document, response);
-                lessonRepository.saveAll(lessons);
+                saveLessons(document, lessons);
 
                 List<Flashcard> flashcards = convertFlashcards(document, response);
+                cardContentStore.share(flashcards);
                 flashcardRepository.saveAll(flashcards);
+                counterService.cardsAdded(document.getUser().getId(), flashcards.size());
 
                 // Update document
                 document.setTotalLessons(lessons.size());
                 document.setStatus(Document.ProcessingStatus.COMPLETED);
                 documentRepository.save(document);
+                progressPublisher.statusChanged(document);
 
                 log.info("AI parsing completed for document: {}. Lessons: {}, Flashcards: {}",
                         documentId, lessons.size(), flashcards.size());
@@ -87,6 +94,17 @@ public class RemoteDocumentParsingService implements DocumentParsingService {
             log.error("AI parsing failed for document: {}", documentId, e);
             document.setStatus(Document.ProcessingStatus.FAILED);
             documentRepository.save(document);
+            progressPublisher.statusChanged(document);
+        }
+    }
+
+    /**
+     * Save lessons one by one, publishing progress after each
+     */
+    private void saveLessons(Document document, List<Lesson> lessons) {
+        for (int i = 0; i < lessons.size(); i++) {
+            lessonRepository.save(lessons.get(i));
+            progressPublisher.lessonSaved(document, i + 1, lessons.size());
         }
     }
 
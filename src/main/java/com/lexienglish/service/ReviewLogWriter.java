@@ -0,0 +1,181 @@
+package com.lexienglish.service;
+
+import com.lexienglish.entity.Flashcard;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Review Log Writer
+ *
+ * Appends flashcard reviews to the review_log table off the review hot path.
+ * The reviews of one transaction are collected and queued together once it
+ * commits, so rolled-back reviews are never logged, and a scheduled flush
+ * inserts the queue in JDBC batches.
+ *
+ * A full queue makes the committing request insert its own reviews instead
+ * of dropping them, and a failed batch is put back for the next flush.
+ * Entries still queued are flushed on shutdown; those of a crashed node, at
+ * most FLUSH_INTERVAL_MS of reviews, are lost, which the log as analytics
+ * data tolerates.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewLogWriter {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_PENDING = 10_000;
+    private static final long FLUSH_INTERVAL_MS = 1_000;
+
+    private static final String INSERT_SQL = "INSERT INTO review_log (flashcard_id, user_id, quality, elapsed_days, " +
+            "prior_interval, new_interval, prior_ease, new_ease, reviewed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BlockingDeque<Entry> pending = new LinkedBlockingDeque<>(MAX_PENDING);
+
+    /**
+     * Record a review just applied to the card by ReviewScheduler; the
+     * prior values are the card's state before the update.
+     */
+    public void recordReview(Flashcard card, int quality, int priorInterval, BigDecimal priorEase,
+                             LocalDateTime priorReviewedAt) {
+        LocalDateTime reviewedAt = card.getLastReviewedDate();
+        Entry entry = new Entry(card.getId(), card.getUser().getId(), (short) Math.max(0, Math.min(5, quality)),
+                priorReviewedAt != null ? (int) ChronoUnit.DAYS.between(priorReviewedAt, reviewedAt) : null,
+                priorInterval, card.getInterval(), priorEase, card.getEaseFactor(), reviewedAt);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(entry));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Entry> entries = (List<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (entries == null) {
+            List<Entry> committed = new ArrayList<>();
+            entries = committed;
+            TransactionSynchronizationManager.bindResource(this, committed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(committed);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(ReviewLogWriter.this);
+                }
+            });
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Insert the queued reviews in batches. A failed batch is put back at the
+     * head of the queue and the flush stops, so the next one retries it.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (pending.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                insert(batch);
+            } catch (DataAccessException ex) {
+                log.warn("Could not write {} review log entries, retrying on the next flush: {}",
+                        batch.size(), ex.getMessage());
+                requeue(batch);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void enqueue(List<Entry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (!pending.offerLast(entries.get(i))) {
+                // Queue full: the committing request writes the rest itself
+                try {
+                    insert(entries.subList(i, entries.size()));
+                } catch (DataAccessException ex) {
+                    log.error("Review log queue full, dropping {} entries that failed to write: {}",
+                            entries.size() - i, ex.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void requeue(List<Entry> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!pending.offerFirst(batch.get(i))) {
+                log.error("Review log queue full, dropping {} entries that failed to write", i + 1);
+                return;
+            }
+        }
+    }
+
+    private void insert(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, BATCH_SIZE, (ps, e) -> {
+            ps.setLong(1, e.flashcardId());
+            ps.setLong(2, e.userId());
+            ps.setShort(3, e.quality());
+            ps.setObject(4, e.elapsedDays(), Types.INTEGER);
+            ps.setInt(5, e.priorInterval());
+            ps.setInt(6, e.newInterval());
+            ps.setBigDecimal(7, e.priorEase());
+            ps.setBigDecimal(8, e.newEase());
+            ps.setTimestamp(9, Timestamp.valueOf(e.reviewedAt()));
+        });
+    }
+
+    /**
+     * Keep the monthly partitions two months ahead of the current date.
+     * Rows already in the default partition for such a month are moved into
+     * the new partition (see V8).
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= 2; i++) {
+            try {
+                jdbcTemplate.query("SELECT create_review_log_partition(?)", rs -> {
+                }, Date.valueOf(month.plusMonths(i)));
+            } catch (DataAccessException ex) {
+                log.warn("Could not create review log partition for {}: {}", month.plusMonths(i), ex.getMessage());
+            }
+        }
+    }
+
+    record Entry(Long flashcardId, Long userId, short quality, Integer elapsedDays,
+                 int priorInterval, int newInterval, BigDecimal priorEase, BigDecimal newEase,
+                 LocalDateTime reviewedAt) {
+    }
+}
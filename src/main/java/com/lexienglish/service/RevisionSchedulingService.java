@@ -1,31 +1,52 @@
 package com.lexienglish.service;
 
+import com.lexienglish.dto.document.FlashcardDto;
+import com.lexienglish.dto.document.ReviewQueueResponse;
 import com.lexienglish.entity.Flashcard;
 import com.lexienglish.entity.User;
 import com.lexienglish.exception.BadRequestException;
 import com.lexienglish.repository.FlashcardRepository;
 import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.srs.ReviewScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Revision Scheduling Service
  * 
  * Manages SRS scheduling and revision sessions for flashcards.
- * Uses SM-2 algorithm implemented in Flashcard entity.
+ * Reviews are applied by ReviewScheduler with the user's chosen algorithm.
+ *
+ * The review queue lists never-reviewed cards first, then scheduled cards by
+ * (nextReviewDate, id). It is keyset-paginated with LIMIT applied in SQL, so a
+ * user with thousands of overdue cards only ever loads one page.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RevisionSchedulingService {
 
+    private static final int DEFAULT_QUEUE_LIMIT = 20;
+    private static final int MAX_QUEUE_LIMIT = 100;
+    private static final int DEFAULT_FORECAST_DAYS = 30;
+    private static final int MAX_FORECAST_DAYS = 90;
+
     private final FlashcardRepository flashcardRepository;
     private final UserRepository userRepository;
+    private final FlashcardCounterService counterService;
+    private final ReviewScheduler reviewScheduler;
 
     /**
      * Get flashcards due for review today
@@ -33,10 +54,32 @@ public class RevisionSchedulingService {
     @Transactional(readOnly = true)
     public List<Flashcard> getDueFlashcards(String userEmail, int limit) {
         User user = getUserByEmail(userEmail);
-        return flashcardRepository.findDueForReview(user, LocalDateTime.now())
-                .stream()
-                .limit(limit)
-                .toList();
+        return loadQueue(user.getId(), LocalDateTime.now(), null, limit);
+    }
+
+    /**
+     * Get one page of the review queue, starting after the given cursor
+     */
+    @Transactional(readOnly = true)
+    public ReviewQueueResponse getReviewQueue(String userEmail, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_QUEUE_LIMIT : Math.max(1, Math.min(MAX_QUEUE_LIMIT, limit));
+        QueueCursor after = cursor != null && !cursor.isBlank() ? QueueCursor.decode(cursor) : null;
+        User user = getUserByEmail(userEmail);
+
+        // One extra row tells whether another page exists
+        List<Flashcard> cards = loadQueue(user.getId(), LocalDateTime.now(), after, pageSize + 1);
+
+        String nextCursor = null;
+        if (cards.size() > pageSize) {
+            cards = cards.subList(0, pageSize);
+            Flashcard last = cards.get(pageSize - 1);
+            nextCursor = new QueueCursor(last.getNextReviewDate(), last.getId()).encode();
+        }
+
+        return ReviewQueueResponse.builder()
+                .cards(cards.stream().map(FlashcardDto::fromEntity).toList())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
@@ -46,11 +89,11 @@ public class RevisionSchedulingService {
     public RevisionStats getRevisionStats(String userEmail) {
         User user = getUserByEmail(userEmail);
 
-        long totalCards = flashcardRepository.countByUser(user);
+        FlashcardCounterService.Counts counts = counterService.getCounts(user.getId());
+        long totalCards = counts.total();
         long dueCards = flashcardRepository.countDueForReview(user, LocalDateTime.now());
-        long masteredCards = flashcardRepository.countByUserAndMasteredTrue(user);
-        long reviewedToday = flashcardRepository.countReviewedToday(user,
-                LocalDateTime.now().toLocalDate().atStartOfDay());
+        long masteredCards = counts.mastered();
+        long reviewedToday = counts.reviewedToday();
 
         return RevisionStats.builder()
                 .totalCards(totalCards)
@@ -62,7 +105,7 @@ public class RevisionSchedulingService {
     }
 
     /**
-     * Process a flashcard review with SM-2 algorithm
+     * Process a flashcard review with the user's scheduling algorithm
      */
     @Transactional
     public Flashcard reviewFlashcard(Long flashcardId, int quality, String userEmail) {
@@ -75,8 +118,10 @@ public class RevisionSchedulingService {
             throw new BadRequestException("Flashcard not found");
         }
 
-        // Apply SM-2 algorithm
-        flashcard.updateSRS(quality);
+        // Apply the user's scheduling algorithm
+        try (ReviewScheduler.Session scheduler = reviewScheduler.sessionFor(user)) {
+            scheduler.review(flashcard, quality, LocalDateTime.now());
+        }
 
         log.info("Reviewed flashcard {} with quality {}. Next review in {} days",
                 flashcardId, quality, flashcard.getInterval());
@@ -101,17 +146,55 @@ public class RevisionSchedulingService {
      */
     @Transactional(readOnly = true)
     public List<DailySchedule> getWeeklySchedule(String userEmail) {
+        return getReviewForecast(userEmail, 7).getDaily();
+    }
+
+    /**
+     * Get the number of cards due on each of the next days, plus the overdue
+     * and never-reviewed backlog, from a single aggregate query
+     */
+    @Transactional(readOnly = true)
+    public ReviewForecast getReviewForecast(String userEmail, Integer days) {
+        int range = days == null ? DEFAULT_FORECAST_DAYS : Math.max(1, Math.min(MAX_FORECAST_DAYS, days));
         User user = getUserByEmail(userEmail);
 
-        return java.util.stream.IntStream.range(0, 7)
-                .mapToObj(day -> {
-                    LocalDateTime date = LocalDateTime.now().plusDays(day);
-                    long count = flashcardRepository.countDueOnDate(user,
-                            date.toLocalDate().atStartOfDay(),
-                            date.toLocalDate().plusDays(1).atStartOfDay());
-                    return new DailySchedule(date.toLocalDate(), count);
-                })
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, Long> dueByDay = new HashMap<>();
+        long overdue = 0;
+        long neverReviewed = 0;
+        for (FlashcardRepository.ForecastBucketView bucket : flashcardRepository.findReviewForecast(
+                user.getId(), today.atStartOfDay(), today.plusDays(range).atStartOfDay())) {
+            switch (bucket.getBucket()) {
+                case "NEW" -> neverReviewed = bucket.getCardCount();
+                case "OVERDUE" -> overdue = bucket.getCardCount();
+                default -> dueByDay.put(bucket.getDay(), bucket.getCardCount());
+            }
+        }
+
+        List<DailySchedule> daily = today.datesUntil(today.plusDays(range))
+                .map(date -> new DailySchedule(date, dueByDay.getOrDefault(date, 0L)))
                 .toList();
+
+        return ReviewForecast.builder()
+                .overdue(overdue)
+                .neverReviewed(neverReviewed)
+                .daily(daily)
+                .build();
+    }
+
+    private List<Flashcard> loadQueue(Long userId, LocalDateTime now, QueueCursor after, int limit) {
+        List<Flashcard> cards = new ArrayList<>(limit);
+        if (after == null || after.nextReviewDate() == null) {
+            cards.addAll(flashcardRepository.findNewCardsForReview(userId, after != null ? after.id() : 0L, limit));
+        }
+        int remaining = limit - cards.size();
+        if (remaining > 0) {
+            cards.addAll(after != null && after.nextReviewDate() != null
+                    ? flashcardRepository.findScheduledCardsForReviewAfter(userId, now,
+                            after.nextReviewDate(), after.id(), remaining)
+                    : flashcardRepository.findScheduledCardsForReview(userId, now, remaining));
+        }
+        return cards;
     }
 
     private User getUserByEmail(String email) {
@@ -131,10 +214,45 @@ public class RevisionSchedulingService {
         private double masteryPercentage;
     }
 
+    @lombok.Data
+    @lombok.Builder
+    @lombok.AllArgsConstructor
+    public static class ReviewForecast {
+        private long overdue; // Due before today
+        private long neverReviewed;
+        private List<DailySchedule> daily; // Starting today
+    }
+
     @lombok.Data
     @lombok.AllArgsConstructor
     public static class DailySchedule {
         private java.time.LocalDate date;
         private long cardCount;
     }
+
+    /**
+     * Position of the last card of a page; a null date means the cursor is
+     * still within the never-reviewed cards.
+     */
+    record QueueCursor(LocalDateTime nextReviewDate, long id) {
+
+        String encode() {
+            String raw = (nextReviewDate != null ? nextReviewDate.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static QueueCursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(raw);
+                }
+                LocalDateTime date = parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]);
+                return new QueueCursor(date, Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid review queue cursor");
+            }
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.search.SearchResponse;
+import com.lexienglish.dto.search.SearchResultDto;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.SearchRepository;
+import com.lexienglish.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Search Service
+ *
+ * Ranked full-text search over a user's documents, lessons and flashcards.
+ * Results are keyset-paginated on (rank, type, id); the opaque cursor encodes
+ * the last row of the previous page.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final Set<String> TYPES = Set.of("DOCUMENT", "LESSON", "FLASHCARD");
+
+    private final SearchRepository searchRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public SearchResponse search(String query, String type, String cursor, Integer limit, String userEmail) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Search query is too long");
+        }
+
+        String kind = null;
+        if (type != null && !type.isBlank()) {
+            kind = type.toUpperCase();
+            if (!TYPES.contains(kind)) {
+                throw new BadRequestException("Invalid search type: " + type);
+            }
+        }
+
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(MAX_LIMIT, limit));
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        User user = getUserByEmail(userEmail);
+
+        // Fetch one extra row to know whether another page exists
+        List<SearchRepository.SearchHitView> hits = searchRepository.search(user.getId(), query.trim(), kind,
+                after != null ? after.rank() : null,
+                after != null ? after.kind() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+
+        boolean hasMore = hits.size() > pageSize;
+        List<SearchResultDto> results = hits.stream()
+                .limit(pageSize)
+                .map(SearchResultDto::fromView)
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            SearchResultDto last = results.get(results.size() - 1);
+            nextCursor = new Cursor(last.getRank(), last.getType(), last.getId()).encode();
+        }
+
+        return SearchResponse.builder()
+                .results(results)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BadRequestException("User not found"));
+    }
+
+    record Cursor(float rank, String kind, long id) {
+
+        String encode() {
+            String raw = rank + "|" + kind + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 3 || !TYPES.contains(parts[1])) {
+                    throw new IllegalArgumentException(raw);
+                }
+                return new Cursor(Float.parseFloat(parts[0]), parts[1], Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid search cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.lexienglish.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Per-user registry of server-sent event streams carrying one named event.
+ * Emitters leave the registry when they complete, time out, fail or a send
+ * to them fails; the owning service calls heartbeat() every
+ * HEARTBEAT_INTERVAL_MS to keep idle connections open through proxies and to
+ * evict emitters whose client has gone away.
+ */
+@Slf4j
+class SseEmitterRegistry {
+
+    static final long HEARTBEAT_INTERVAL_MS = 25_000;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final String eventName;
+    private final Map<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+
+    SseEmitterRegistry(String eventName) {
+        this.eventName = eventName;
+    }
+
+    SseEmitter register(Long userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emittersByUser.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(emitter);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        return emitter;
+    }
+
+    boolean hasSubscribers(Long userId) {
+        return emittersByUser.containsKey(userId);
+    }
+
+    int subscriberCount(Long userId) {
+        Set<SseEmitter> emitters = emittersByUser.get(userId);
+        return emitters != null ? emitters.size() : 0;
+    }
+
+    /**
+     * Send the event to every stream of the user.
+     */
+    void send(Long userId, String id, Object data) {
+        Set<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(userId, emitter, id, data);
+        }
+    }
+
+    /**
+     * Send the event to one stream of the user, e.g. to replay state to a new
+     * subscriber.
+     */
+    void send(Long userId, SseEmitter emitter, String id, Object data) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(eventName)
+                    .id(id)
+                    .data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE subscriber for user {}: {}", userId, e.getMessage());
+            remove(userId, emitter);
+        }
+    }
+
+    void heartbeat() {
+        emittersByUser.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(userId, emitter);
+                }
+            }
+        });
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.mocktest.TestAttemptDto;
+import com.lexienglish.dto.mocktest.TestAttemptResultEvent;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.mocktest.ScorePercentileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Test Result Stream Service
+ *
+ * Pushes the final result of a test attempt to its owner over server-sent
+ * events once asynchronous grading has finished, so clients do not have to
+ * poll GET /api/v1/mock-tests/attempts/{attemptId}. Emitters are kept in a
+ * per-user SseEmitterRegistry and fed from TestAttemptResultEvents published
+ * by the GradingQueue.
+ */
+@Service
+@RequiredArgsConstructor
+public class TestResultStreamService {
+
+    private static final String EVENT_NAME = "test-result";
+
+    private final TestAttemptRepository testAttemptRepository;
+    private final UserRepository userRepository;
+    private final ScorePercentileService scorePercentileService;
+
+    private final SseEmitterRegistry emitters = new SseEmitterRegistry(EVENT_NAME);
+
+    /**
+     * Open a stream for the user and replay the attempts still being graded,
+     * so the client knows which results to wait for.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new BadRequestException("User not found"));
+        Long userId = user.getId();
+
+        SseEmitter emitter = emitters.register(userId);
+
+        for (TestAttempt attempt : testAttemptRepository.findByUserAndStatusOrderByCreatedAtDesc(user,
+                TestAttempt.AttemptStatus.GRADING)) {
+            TestAttemptDto dto = TestAttemptDto.fromEntity(attempt);
+            emitters.send(userId, emitter, eventId(dto), dto);
+        }
+
+        return emitter;
+    }
+
+    /**
+     * Results are delivered once the grading transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResult(TestAttemptResultEvent event) {
+        if (!emitters.hasSubscribers(event.getUserId())) {
+            return;
+        }
+        scorePercentileService.applyPercentileRank(event.getAttempt());
+        emitters.send(event.getUserId(), eventId(event.getAttempt()), event.getAttempt());
+    }
+
+    @Scheduled(fixedDelay = SseEmitterRegistry.HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        emitters.heartbeat();
+    }
+
+    private static String eventId(TestAttemptDto attempt) {
+        return attempt.getId() + "-" + attempt.getStatus();
+    }
+}
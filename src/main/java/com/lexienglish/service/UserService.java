@@ -39,6 +39,10 @@ public class UserService {
             user.setProfileImageUrl(request.getProfileImageUrl());
         }
 
+        if (request.getScheduler() != null) {
+            user.setScheduler(request.getScheduler());
+        }
+
         user = userRepository.save(user);
         log.info("Profile updated for user: {}", email);
 
@@ -79,6 +83,7 @@ public class UserService {
                 .emailVerified(user.isEmailVerified())
                 .profileImageUrl(user.getProfileImageUrl())
                 .provider(user.getProvider().name())
+                .scheduler(user.getScheduler().name())
                 .createdAt(user.getCreatedAt())
                 .build();
     }
@@ -0,0 +1,48 @@
+package com.lexienglish.service.deck;
+
+import com.lexienglish.exception.BadRequestException;
+
+/**
+ * Deck file formats supported by flashcard import and export.
+ *
+ * ANKI is Anki's "Notes in Plain Text" export: tab separated, with optional
+ * "#key:value" header lines (separator, html, columns).
+ */
+public enum DeckFormat {
+    CSV(',', "text/csv", "csv"),
+    TSV('\t', "text/tab-separated-values", "tsv"),
+    ANKI('\t', "text/plain", "txt");
+
+    private final char delimiter;
+    private final String contentType;
+    private final String extension;
+
+    DeckFormat(char delimiter, String contentType, String extension) {
+        this.delimiter = delimiter;
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static DeckFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported deck format: " + value);
+        }
+    }
+}
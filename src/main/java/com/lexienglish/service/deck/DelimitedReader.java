@@ -0,0 +1,161 @@
+package com.lexienglish.service.deck;
+
+import com.lexienglish.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for delimited text (RFC 4180 quoting: fields may be
+ * double-quoted, with "" for a literal quote and embedded line breaks).
+ *
+ * Reads one record at a time so a deck is never held in memory; a single
+ * record is capped at {@link #MAX_RECORD_LENGTH} characters so an unclosed
+ * quote cannot swallow the rest of the file.
+ */
+public class DelimitedReader implements Closeable {
+
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private char delimiter;
+    private int line = 1;
+    private int recordLine;
+    private boolean bomChecked;
+
+    public DelimitedReader(Reader reader, char delimiter) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.delimiter = delimiter;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Line number the last record returned by {@link #next()} started on.
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Consume the "#key:value" lines at the head of the input (Anki headers)
+     * and return them without the leading '#'.
+     */
+    public List<String> readDirectives() throws IOException {
+        skipBom();
+        List<String> directives = new ArrayList<>();
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c != '#') {
+                if (c != -1) {
+                    reader.reset();
+                }
+                return directives;
+            }
+            String directive = reader.readLine();
+            line++;
+            directives.add(directive != null ? directive.strip() : "");
+        }
+    }
+
+    /**
+     * Next record's fields, or null at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        skipBom();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        int length = 0;
+        recordLine = line;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new BadRequestException("Row " + recordLine + " is too long");
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (peek != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+                started = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                started = true;
+            } else if (ch == '\r' || ch == '\n') {
+                if (ch == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                line++;
+                if (!started && field.isEmpty()) {
+                    recordLine = line; // Blank line
+                    length = 0;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append(ch);
+                started = true;
+            }
+        }
+
+        if (quoted) {
+            throw new BadRequestException("Row " + recordLine + " has an unclosed quote");
+        }
+        if (!started && field.isEmpty()) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void skipBom() throws IOException {
+        if (bomChecked) {
+            return;
+        }
+        bomChecked = true;
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.lexienglish.service.deck;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes delimited records, quoting fields only when they contain the
+ * delimiter, a quote or a line break. Readable by {@link DelimitedReader}.
+ */
+public class DelimitedWriter {
+
+    private final Writer writer;
+    private final char delimiter;
+
+    public DelimitedWriter(Writer writer, char delimiter) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+    }
+
+    public void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    public void writeRecord(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            writeField(fields[i]);
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = value.charAt(0) == '"' || value.indexOf(delimiter) >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,262 @@
+package com.lexienglish.service.mocktest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of buffered answers, split into numbered segment files
+ * (name-000000000001.journal). write() only appends and returns the journal
+ * position it reached; sync(position) then forces the file up to there.
+ * Concurrent writers share one force: whoever syncs first covers everything
+ * written before it, and the others find their position already synced
+ * (group commit), so callers can sync outside their own locks. The owner rolls to a new segment when it takes answers out of memory and
+ * deletes the older segments once those answers are in the database.
+ *
+ * Each record carries its length and a CRC32, so a record torn by a crash
+ * mid-append ends the replay of its segment instead of failing it.
+ */
+@Slf4j
+class AnswerJournal implements Closeable {
+
+    private final Path dir;
+    private final String name;
+    private final Pattern segmentPattern;
+
+    // Guarded by this
+    private long segment;
+    private FileChannel channel;
+    private long written;
+
+    // Serializes forces; synced only grows
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+
+    AnswerJournal(Path dir, String name) throws IOException {
+        this.dir = dir;
+        this.name = name;
+        this.segmentPattern = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.journal");
+        Files.createDirectories(dir);
+        List<Long> existing = segments();
+        open(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+    }
+
+    /**
+     * Every record of the segments written before this journal was opened,
+     * oldest first.
+     */
+    synchronized List<Entry> replay() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (long number : segments()) {
+            if (number >= segment) {
+                break;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(number))))) {
+                readSegment(in, number, entries);
+            }
+        }
+        return entries;
+    }
+
+    void append(Long attemptId, Collection<AnswerWriter.Answer> answers) throws IOException {
+        sync(write(attemptId, answers));
+    }
+
+    /**
+     * Append the answers without forcing them and return the position to
+     * pass to sync.
+     */
+    synchronized long write(Long attemptId, Collection<AnswerWriter.Answer> answers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (AnswerWriter.Answer answer : answers) {
+            byte[] record = encode(attemptId, answer);
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            out.writeInt(record.length);
+            out.write(record);
+            out.writeInt((int) crc.getValue());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+
+    /**
+     * Return once everything written up to the position is on disk.
+     */
+    void sync(long position) throws IOException {
+        if (synced.get() >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get() >= position) {
+                return;
+            }
+            FileChannel target;
+            long upTo;
+            synchronized (this) {
+                target = channel;
+                upTo = written;
+            }
+            try {
+                target.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled meanwhile, and roll forces the segment it closes
+                if (synced.get() >= position) {
+                    return;
+                }
+                throw e;
+            }
+            synced.accumulateAndGet(upTo, Math::max);
+        }
+    }
+
+    /**
+     * Continue in a new segment and return its number; everything appended
+     * so far is in the segments before it.
+     */
+    synchronized long roll() throws IOException {
+        channel.force(false);
+        synced.accumulateAndGet(written, Math::max);
+        channel.close();
+        open(segment + 1);
+        return segment;
+    }
+
+    synchronized void deleteBefore(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing < number) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void open(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path path(long number) {
+        return dir.resolve(String.format("%s-%012d.journal", name, number));
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> segmentPattern.matcher(f.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> Long.parseLong(m.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void readSegment(DataInputStream in, long number, List<Entry> entries) throws IOException {
+        int first;
+        while ((first = in.read()) >= 0) {
+            byte[] record;
+            int checksum;
+            try {
+                int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8
+                        | in.readUnsignedByte();
+                record = in.readNBytes(Math.max(length, 0));
+                if (length <= 0 || record.length < length) {
+                    throw new EOFException();
+                }
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                log.warn("Ignoring torn record at the end of answer journal segment {}-{}", name, number);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Ignoring corrupt tail of answer journal segment {}-{}", name, number);
+                return;
+            }
+            entries.add(decode(new ByteArrayInputStream(record)));
+        }
+    }
+
+    private static byte[] encode(Long attemptId, AnswerWriter.Answer answer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(attemptId);
+        out.writeLong(answer.questionId());
+        out.writeByte(answer.isCorrect() == null ? 0 : answer.isCorrect() ? 2 : 1);
+        writeString(out, answer.score() != null ? answer.score().toPlainString() : null);
+        out.writeBoolean(answer.timeSpentSeconds() != null);
+        out.writeInt(answer.timeSpentSeconds() != null ? answer.timeSpentSeconds() : 0);
+        writeString(out, answer.answeredAt().toString());
+        writeString(out, answer.answer());
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(InputStream bytes) throws IOException {
+        DataInputStream in = new DataInputStream(bytes);
+        long attemptId = in.readLong();
+        long questionId = in.readLong();
+        byte correct = in.readByte();
+        String score = readString(in);
+        boolean hasTimeSpent = in.readBoolean();
+        int timeSpent = in.readInt();
+        LocalDateTime answeredAt = LocalDateTime.parse(readString(in));
+        String answer = readString(in);
+        return new Entry(attemptId, new AnswerWriter.Answer(questionId, answer,
+                correct == 0 ? null : correct == 2,
+                score != null ? new BigDecimal(score) : null,
+                hasTimeSpent ? timeSpent : null,
+                answeredAt));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    record Entry(Long attemptId, AnswerWriter.Answer answer) {
+    }
+}
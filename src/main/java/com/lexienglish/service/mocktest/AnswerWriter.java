@@ -0,0 +1,99 @@
+package com.lexienglish.service.mocktest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer Writer
+ *
+ * Upserts answers of a test attempt into user_responses with JDBC batches of
+ * INSERT ... ON CONFLICT on the unique (test_attempt_id, question_id) index
+ * (V15). A repeated answer replaces the stored answer and its auto-grade but
+ * keeps the time spent and answered-at of the first submission.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerWriter {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = "INSERT INTO user_responses (test_attempt_id, question_id, " +
+            "user_answer, is_correct, score, time_spent_seconds, answered_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (test_attempt_id, question_id) DO UPDATE SET user_answer = EXCLUDED.user_answer, " +
+            "is_correct = EXCLUDED.is_correct, score = EXCLUDED.score, updated_at = EXCLUDED.updated_at";
+
+    // Takes the attempt id last, followed by the answered-at again for the fence
+    private static final String INSERT_MISSING_SQL = "INSERT INTO user_responses (test_attempt_id, question_id, " +
+            "user_answer, is_correct, score, time_spent_seconds, answered_at, created_at, updated_at) " +
+            "SELECT a.id, ?, ?, ?, ?, ?, CAST(? AS timestamp), CAST(? AS timestamp), CAST(? AS timestamp) " +
+            "FROM test_attempts a WHERE a.id = ? " +
+            "AND (a.completed_at IS NULL OR a.completed_at >= CAST(? AS timestamp)) " +
+            "ON CONFLICT (test_attempt_id, question_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(Long attemptId, Collection<Answer> answers) {
+        upsert(Map.of(attemptId, answers));
+    }
+
+    /**
+     * Upsert the answers of several attempts in one batch.
+     */
+    public void upsert(Map<Long, ? extends Collection<Answer>> answersByAttempt) {
+        write(UPSERT_SQL, false, answersByAttempt);
+    }
+
+    /**
+     * Insert answers to questions the attempt has no response to yet,
+     * leaving stored (and possibly graded) responses alone. Answers given
+     * after the attempt was completed are dropped.
+     */
+    public void insertMissing(Map<Long, ? extends Collection<Answer>> answersByAttempt) {
+        write(INSERT_MISSING_SQL, true, answersByAttempt);
+    }
+
+    private void write(String sql, boolean fenced, Map<Long, ? extends Collection<Answer>> answersByAttempt) {
+        if (answersByAttempt.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Answer>> rows = new ArrayList<>();
+        answersByAttempt.forEach((attemptId, answers) ->
+                answers.forEach(a -> rows.add(Map.entry(attemptId, a))));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, (ps, row) -> {
+            Answer a = row.getValue();
+            Timestamp answeredAt = Timestamp.valueOf(a.answeredAt());
+            int i = 1;
+            if (!fenced) {
+                ps.setLong(i++, row.getKey());
+            }
+            ps.setLong(i++, a.questionId());
+            ps.setString(i++, a.answer());
+            ps.setObject(i++, a.isCorrect(), Types.BOOLEAN);
+            ps.setBigDecimal(i++, a.score());
+            ps.setObject(i++, a.timeSpentSeconds(), Types.INTEGER);
+            ps.setTimestamp(i++, answeredAt);
+            ps.setTimestamp(i++, now);
+            ps.setTimestamp(i++, now);
+            if (fenced) {
+                ps.setLong(i++, row.getKey());
+                ps.setTimestamp(i, answeredAt);
+            }
+        });
+    }
+
+    public record Answer(Long questionId, String answer, Boolean isCorrect, BigDecimal score,
+                         Integer timeSpentSeconds, LocalDateTime answeredAt) {
+    }
+}
@@ -0,0 +1,397 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.repository.TestAttemptRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Attempt Answer Buffer
+ *
+ * Write-behind buffer for the answers of in-progress attempts. Submitted
+ * answers are appended to a local AnswerJournal and kept in memory instead of
+ * being written to user_responses right away. Attempts are sharded over
+ * STRIPES, each with its own lock and journal, so concurrent submissions only
+ * contend within a stripe. Every FLUSH_INTERVAL_MS the dirty attempts are
+ * written in one AnswerWriter batch, and completeTest drains its attempt first
+ * through flush(Long), so the database write rate no longer follows user
+ * activity.
+ *
+ * Submissions are checked against a cached view of their attempt, loaded
+ * once per attempt, and graded against the questions in MockTestCatalogCache,
+ * so an accepted answer touches neither the attempt nor the questions in the
+ * database. Completing an attempt locks it FOR UPDATE and drains it through
+ * flush(Long), which closes it in the buffer: later submissions are rejected
+ * in memory, and answers a running periodic flush has taken but not written
+ * yet are drained along with the buffered ones. The periodic flush share-locks
+ * the attempts of its batch, skipping those locked for completion and keeping
+ * their answers buffered for that drain. Answers of an attempt that is no
+ * longer IN_PROGRESS, such as one completed on another node, are kept as a
+ * record if they were given before it was completed, but never replace a
+ * stored response.
+ *
+ * The journals are replayed on startup, so answers accepted before a crash or
+ * restart are written by the next flush. Journals live on local disk, so
+ * every submission of an attempt has to reach the same node, and the journal
+ * directory has to outlive the process. The buffer is therefore off by
+ * default: answers are written through, checked against the attempt row
+ * itself, unless sticky sessions and a persistent journal volume are in place.
+ */
+@Slf4j
+@Component
+public class AttemptAnswerBuffer {
+
+    static final int STRIPES = 16;
+    private static final long FLUSH_INTERVAL_MS = 2_000;
+
+    private final AnswerWriter answerWriter;
+    private final TestAttemptRepository testAttemptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Held by the periodic flush, so the scheduler and shutdown do not overlap
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public AttemptAnswerBuffer(AnswerWriter answerWriter,
+                               TestAttemptRepository testAttemptRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.answer-buffer.enabled:false}") boolean enabled,
+                               @Value("${app.answer-buffer.journal-dir:data/answer-journal}") String journalDir) {
+        this.answerWriter = answerWriter;
+        this.testAttemptRepository = testAttemptRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        if (enabled) {
+            replay(Path.of(journalDir));
+        }
+    }
+
+    /**
+     * The attempt if it belongs to the user. With the buffer enabled, attempts
+     * in progress are read once and then served from memory; otherwise the
+     * attempt is locked FOR SHARE until the caller's transaction ends, so it
+     * cannot be completed while answers are written through.
+     */
+    public Optional<TestAttemptRepository.OwnedAttemptView> findAttempt(Long attemptId, String email) {
+        if (!enabled) {
+            return testAttemptRepository.lockOwnedAttempt(attemptId, email);
+        }
+        Stripe stripe = stripe(attemptId);
+        stripe.lock.lock();
+        try {
+            TestAttemptRepository.OwnedAttemptView open = stripe.open.get(attemptId);
+            if (open != null) {
+                return Optional.of(open).filter(a -> a.getEmail().equals(email));
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        Optional<TestAttemptRepository.OwnedAttemptView> loaded =
+                testAttemptRepository.findOwnedAttempt(attemptId, email);
+        if (loaded.isPresent() && TestAttempt.AttemptStatus.IN_PROGRESS.name().equals(loaded.get().getStatus())) {
+            stripe.lock.lock();
+            try {
+                if (!stripe.closed.contains(attemptId)) {
+                    stripe.open.put(attemptId, loaded.get());
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Accept answers of an attempt; a later answer to the same question
+     * replaces the earlier one. Answers are durable once this returns. With
+     * the buffer disabled they are written in the current transaction.
+     * Returns false, accepting nothing, when the attempt is being completed.
+     */
+    public boolean write(Long attemptId, Collection<AnswerWriter.Answer> answers) {
+        if (!enabled) {
+            answerWriter.upsert(attemptId, answers);
+            return true;
+        }
+        Stripe stripe = stripe(attemptId);
+        long position;
+        stripe.lock.lock();
+        try {
+            if (stripe.closed.contains(attemptId)) {
+                return false;
+            }
+            position = stripe.journal.write(attemptId, answers);
+            Map<Long, AnswerWriter.Answer> buffered = stripe.attempts.computeIfAbsent(attemptId, id -> new HashMap<>());
+            answers.forEach(a -> buffered.put(a.questionId(), a));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal answers of test attempt " + attemptId, e);
+        } finally {
+            stripe.lock.unlock();
+        }
+        // Outside the stripe lock, so writers of the stripe share one fsync
+        try {
+            stripe.journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal answers of test attempt " + attemptId, e);
+        }
+        return true;
+    }
+
+    /**
+     * Write the attempt's buffered answers in the current transaction, which
+     * must hold the attempt's row lock, and reject its later submissions
+     * until the transaction ends. The answers return to the buffer if the
+     * transaction rolls back.
+     */
+    public void flush(Long attemptId) {
+        if (!enabled) {
+            return;
+        }
+        Stripe stripe = stripe(attemptId);
+        Map<Long, AnswerWriter.Answer> answers = new HashMap<>();
+        stripe.lock.lock();
+        try {
+            // Taken by a periodic flush that has not written them; newer buffered answers win
+            Map<Long, AnswerWriter.Answer> inFlight = stripe.inFlight.remove(attemptId);
+            if (inFlight != null) {
+                answers.putAll(inFlight);
+            }
+            Map<Long, AnswerWriter.Answer> buffered = stripe.attempts.remove(attemptId);
+            if (buffered != null) {
+                answers.putAll(buffered);
+            }
+            stripe.open.remove(attemptId);
+            stripe.closed.add(attemptId);
+        } finally {
+            stripe.lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.lock.lock();
+                try {
+                    stripe.closed.remove(attemptId);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                if (status != STATUS_COMMITTED && !answers.isEmpty()) {
+                    // The journal segments holding them may be gone by now
+                    restore(attemptId, answers, true);
+                }
+            }
+        });
+        if (!answers.isEmpty()) {
+            answerWriter.upsert(attemptId, answers.values());
+        }
+    }
+
+    /**
+     * Write the answers of every buffered attempt in one transaction.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<Long, Map<Long, AnswerWriter.Answer>> batch = new HashMap<>();
+            long[] rolledTo = new long[STRIPES];
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < STRIPES; i++) {
+                Stripe stripe = stripes[i];
+                stripe.lock.lock();
+                try {
+                    // Submissions to them are rejected by their deadline anyway
+                    stripe.open.values().removeIf(a -> AttemptDeadlineService.isTimeUp(a.getDeadlineAt(), now));
+                    if (!stripe.attempts.isEmpty()) {
+                        rolledTo[i] = stripe.journal.roll();
+                        stripe.inFlight = stripe.attempts;
+                        stripe.attempts = new HashMap<>();
+                        batch.putAll(stripe.inFlight);
+                    }
+                } catch (IOException e) {
+                    log.error("Could not roll answer journal {}: {}", i, e.getMessage());
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Set<Long> deferred = new HashSet<>();
+            Set<Long> closed = new HashSet<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Set<Long> locked = new HashSet<>(testAttemptRepository.lockInProgressIds(batch.keySet()));
+                    Set<Long> completing = new HashSet<>(testAttemptRepository.findInProgressIds(
+                            batch.keySet().stream().filter(id -> !locked.contains(id)).toList()));
+                    Map<Long, Collection<AnswerWriter.Answer>> live = new HashMap<>();
+                    Map<Long, Collection<AnswerWriter.Answer>> late = new HashMap<>();
+                    batch.forEach((attemptId, answers) -> {
+                        if (locked.contains(attemptId)) {
+                            live.put(attemptId, answers.values());
+                        } else if (completing.contains(attemptId)) {
+                            deferred.add(attemptId);
+                        } else {
+                            late.put(attemptId, answers.values());
+                        }
+                    });
+                    answerWriter.upsert(live);
+                    answerWriter.insertMissing(late);
+                    closed.addAll(late.keySet());
+                    if (!late.isEmpty()) {
+                        log.warn("Kept answers of {} test attempts no longer in progress", late.size());
+                    }
+                });
+                log.debug("Flushed answers of {} test attempts, deferred {} being completed",
+                        batch.size() - deferred.size(), deferred.size());
+            } catch (RuntimeException e) {
+                // Still journaled in the segments before rolledTo, which are kept
+                log.error("Failed to flush answers of {} test attempts: {}", batch.size(), e.getMessage());
+                for (Stripe stripe : stripes) {
+                    settle(stripe, attemptId -> true, false, Set.of());
+                }
+                return;
+            }
+            for (Stripe stripe : stripes) {
+                // Journaled again: the segments holding them are deleted below
+                settle(stripe, deferred::contains, true, closed);
+            }
+
+            for (int i = 0; i < STRIPES; i++) {
+                if (rolledTo[i] > 0) {
+                    try {
+                        stripes[i].journal.deleteBefore(rolledTo[i]);
+                    } catch (IOException e) {
+                        log.warn("Could not delete flushed answer journal segments {}: {}", i, e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.journal.close();
+            } catch (IOException e) {
+                log.warn("Could not close answer journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void replay(Path journalDir) {
+        int replayed = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            try {
+                AnswerJournal journal = new AnswerJournal(journalDir, String.format("answers-%02d", i));
+                Stripe stripe = new Stripe(journal);
+                for (AnswerJournal.Entry entry : journal.replay()) {
+                    stripe.attempts.computeIfAbsent(entry.attemptId(), id -> new HashMap<>())
+                            .put(entry.answer().questionId(), entry.answer());
+                    replayed++;
+                }
+                stripes[i] = stripe;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open answer journal in " + journalDir, e);
+            }
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} buffered answers from {}", replayed, journalDir);
+        }
+    }
+
+    /**
+     * Put answers taken out for a failed write back, unless a newer answer to
+     * the same question arrived meanwhile.
+     */
+    private void restore(Long attemptId, Map<Long, AnswerWriter.Answer> answers, boolean journal) {
+        Stripe stripe = stripe(attemptId);
+        stripe.lock.lock();
+        try {
+            Map<Long, AnswerWriter.Answer> buffered = stripe.attempts.computeIfAbsent(attemptId, id -> new HashMap<>());
+            Map<Long, AnswerWriter.Answer> restored = new HashMap<>();
+            answers.forEach((questionId, answer) -> {
+                if (buffered.putIfAbsent(questionId, answer) == null) {
+                    restored.put(questionId, answer);
+                }
+            });
+            if (journal && !restored.isEmpty()) {
+                stripe.journal.append(attemptId, restored.values());
+            }
+        } catch (IOException e) {
+            log.error("Could not journal restored answers of test attempt {}: {}", attemptId, e.getMessage());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Finish a periodic flush of the stripe: put back those of its answers to
+     * be restored that a completion has not drained meanwhile, and forget the
+     * views of attempts found closed.
+     */
+    private void settle(Stripe stripe, Predicate<Long> restored, boolean journal, Set<Long> closed) {
+        stripe.lock.lock();
+        try {
+            stripe.inFlight.forEach((attemptId, answers) -> {
+                if (restored.test(attemptId)) {
+                    restore(attemptId, answers, journal);
+                }
+            });
+            stripe.inFlight = new HashMap<>();
+            stripe.open.keySet().removeAll(closed);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripe(Long attemptId) {
+        return stripes[Math.floorMod(Long.hashCode(attemptId), STRIPES)];
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final AnswerJournal journal;
+        // Attempt id -> question id -> latest answer, guarded by lock
+        Map<Long, Map<Long, AnswerWriter.Answer>> attempts = new HashMap<>();
+        // Answers taken by the running periodic flush, guarded by lock
+        Map<Long, Map<Long, AnswerWriter.Answer>> inFlight = new HashMap<>();
+        // Attempts in progress as last read, and those being completed, guarded by lock
+        final Map<Long, TestAttemptRepository.OwnedAttemptView> open = new HashMap<>();
+        final Set<Long> closed = new HashSet<>();
+
+        Stripe(AnswerJournal journal) {
+            this.journal = journal;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import com.lexienglish.service.LeaderElection;
+import com.lexienglish.service.reminder.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attempt Deadline Service
+ *
+ * Server-side exam timers. The deadline of every IN_PROGRESS attempt is held
+ * in a {@link TimingWheel} with one-second ticks, so tracking an attempt is
+ * O(1) and expiring it touches only that attempt. Once its time is up (plus
+ * GRACE for answers still in flight) the attempt is completed with the
+ * answers saved so far, or abandoned when nothing was answered.
+ *
+ * Every node times the attempts started on it, so an attempt is expired
+ * where its buffered answers are. One node, chosen by {@link LeaderElection},
+ * also covers attempts whose node went away: it loads all in-progress
+ * attempts when it takes the lead, abandoning those already ABANDON_AFTER
+ * past their deadline as the sweep does, then every SCAN_INTERVAL those whose
+ * deadline falls in the next window, and expires them FALLBACK_DELAY after
+ * their own node would have. Attempts this misses, such as ones shorter
+ * than SCAN_AHEAD started on a node that then went away, are caught by the
+ * leader's sweep, which marks attempts still IN_PROGRESS ABANDON_AFTER past
+ * their deadline as ABANDONED, in batches.
+ */
+@Slf4j
+@Component
+public class AttemptDeadlineService {
+
+    static final long TICK_MILLIS = 1_000;
+    static final Duration GRACE = Duration.ofSeconds(30);
+    static final Duration ABANDON_AFTER = Duration.ofHours(1);
+    static final int SWEEP_BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    static final long SCAN_INTERVAL_MILLIS = 60_000;
+    static final Duration SCAN_AHEAD = Duration.ofMinutes(2);
+    static final Duration FALLBACK_DELAY = Duration.ofMinutes(1);
+    static final String LEADER_TASK = "attempt-deadlines";
+
+    private static final String REBUILD_SQL = "SELECT id, deadline_at FROM test_attempts " +
+            "WHERE status = 'IN_PROGRESS' AND deadline_at < ?";
+    private static final String SCAN_SQL = "SELECT id, deadline_at FROM test_attempts " +
+            "WHERE status = 'IN_PROGRESS' AND deadline_at >= ? AND deadline_at < ?";
+
+    private final TestAttemptRepository testAttemptRepository;
+    private final UserResponseRepository userResponseRepository;
+    private final AttemptAnswerBuffer answerBuffer;
+    private final GradingQueue gradingQueue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final boolean enabled;
+
+    private volatile boolean ready;
+
+    // Guarded by scanLock; deadlines before it are loaded, null unless leading
+    private final Object scanLock = new Object();
+    private LocalDateTime scannedUntil;
+
+    // Guarded by this
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    public AttemptDeadlineService(TestAttemptRepository testAttemptRepository,
+                                  UserResponseRepository userResponseRepository,
+                                  AttemptAnswerBuffer answerBuffer,
+                                  GradingQueue gradingQueue,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  LeaderElection leaderElection,
+                                  @Value("${app.attempt-deadlines.enabled:true}") boolean enabled) {
+        this.testAttemptRepository = testAttemptRepository;
+        this.userResponseRepository = userResponseRepository;
+        this.answerBuffer = answerBuffer;
+        this.gradingQueue = gradingQueue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether an attempt with this deadline no longer accepts answers.
+     */
+    public static boolean isTimeUp(LocalDateTime deadlineAt, LocalDateTime now) {
+        return deadlineAt != null && now.isAfter(deadlineAt.plus(GRACE));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            ready = true;
+            scan();
+        }
+    }
+
+    /**
+     * Expire the attempt once its time is up.
+     */
+    public void track(TestAttempt attempt) {
+        if (enabled && attempt.getDeadlineAt() != null) {
+            schedule(attempt.getId(), expiresAt(attempt.getDeadlineAt()));
+        }
+    }
+
+    /**
+     * On the leader, load the attempts due up to SCAN_AHEAD from now that
+     * are not loaded yet: all in-progress ones when it has just taken the
+     * lead. Added to the running wheel; expiring an attempt twice is a no-op.
+     */
+    @Scheduled(initialDelay = SCAN_INTERVAL_MILLIS, fixedDelay = SCAN_INTERVAL_MILLIS)
+    public void scan() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (scanLock) {
+            if (!leaderElection.isLeader(LEADER_TASK)) {
+                scannedUntil = null;
+                return;
+            }
+            LocalDateTime until = LocalDateTime.now().plus(SCAN_AHEAD);
+            if (scannedUntil == null) {
+                // Long-stale attempts are abandoned as the sweep would, rather than completed on load
+                int abandoned = abandonStale();
+                int loaded = load(REBUILD_SQL, Timestamp.valueOf(until));
+                log.info("Attempt deadlines built: {} attempts in progress, {} stale ones abandoned",
+                        loaded, abandoned);
+            } else {
+                load(SCAN_SQL, Timestamp.valueOf(scannedUntil), Timestamp.valueOf(until));
+            }
+            scannedUntil = until;
+        }
+    }
+
+    private int load(String sql, Object... args) {
+        List<long[]> attempts = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, rs -> {
+            attempts.add(new long[] {rs.getLong(1),
+                    expiresAt(rs.getTimestamp(2).toLocalDateTime()) + FALLBACK_DELAY.toMillis()});
+        }));
+        synchronized (this) {
+            attempts.forEach(attempt -> schedule(attempt[0], attempt[1]));
+        }
+        return attempts.size();
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void tick() {
+        if (!ready) {
+            return;
+        }
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), (attemptId, tick) -> due.add(attemptId));
+        }
+        for (Long attemptId : due) {
+            try {
+                expire(attemptId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire test attempt {}: {}", attemptId, e.getMessage());
+                schedule(attemptId, System.currentTimeMillis() + RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Complete the attempt if it is still in progress and its time is up, or
+     * abandon it when nothing was answered. Joins the caller's transaction, if
+     * any. Returns whether the attempt was expired.
+     */
+    public boolean expire(Long attemptId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            TestAttempt attempt = testAttemptRepository.lockById(attemptId).orElse(null);
+            if (attempt == null || attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS
+                    || !isTimeUp(attempt.getDeadlineAt(), LocalDateTime.now())) {
+                return false;
+            }
+            // Under the lock, as in MockTestService.completeTest
+            answerBuffer.flush(attemptId);
+            AttemptScore score = AttemptScore.of(userResponseRepository.sumScoresBySection(attemptId));
+            if (score.responses() == 0) {
+                attempt.setStatus(TestAttempt.AttemptStatus.ABANDONED);
+                testAttemptRepository.save(attempt);
+                log.info("Abandoned test attempt {}: time is up and nothing was answered", attemptId);
+            } else {
+                gradingQueue.complete(attempt, score, attempt.getDeadlineAt());
+                log.info("Completed test attempt {}: time is up", attemptId);
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Abandon attempts left IN_PROGRESS long after their deadline, one batch
+     * per transaction.
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 300_000)
+    public void sweep() {
+        if (!enabled || !leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        int total = abandonStale();
+        if (total > 0) {
+            log.info("Abandoned {} test attempts left in progress past their deadline", total);
+        }
+    }
+
+    private int abandonStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(GRACE).minus(ABANDON_AFTER);
+        int total = 0;
+        int abandoned;
+        do {
+            abandoned = transactionTemplate.execute(status ->
+                    testAttemptRepository.abandonExpired(cutoff, SWEEP_BATCH_SIZE));
+            total += abandoned;
+        } while (abandoned == SWEEP_BATCH_SIZE);
+        return total;
+    }
+
+    private synchronized void schedule(long attemptId, long at) {
+        if (!wheel.add(attemptId, at)) {
+            wheel.add(attemptId, (wheel.toTick(System.currentTimeMillis()) + 1) * TICK_MILLIS);
+        }
+    }
+
+    /**
+     * The first tick after the attempt's time is up.
+     */
+    private static long expiresAt(LocalDateTime deadlineAt) {
+        return deadlineAt.plus(GRACE).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + TICK_MILLIS;
+    }
+}
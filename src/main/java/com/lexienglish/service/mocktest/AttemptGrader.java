@@ -0,0 +1,95 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.service.SpeakingScoringService;
+import com.lexienglish.service.WritingScoringService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Attempt Grader
+ *
+ * Grades the essay, short-answer and speaking responses of a test attempt
+ * with the AI scoring services. Responses are graded concurrently on virtual
+ * threads, at most MAX_PARALLELISM per attempt, so an attempt takes about as
+ * long as its slowest response. Callers pass detached responses with their
+ * questions loaded and must not hold a transaction: grading needs no database
+ * access.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttemptGrader {
+
+    static final int MAX_PARALLELISM = 4;
+
+    private final WritingScoringService writingScoringService;
+    private final SpeakingScoringService speakingScoringService;
+
+    public static boolean needsAiGrading(UserResponse response) {
+        Question.QuestionType type = response.getQuestion().getQuestionType();
+        return response.getScore() == null && (type == Question.QuestionType.ESSAY
+                || type == Question.QuestionType.SHORT_ANSWER
+                || type == Question.QuestionType.SPEAKING);
+    }
+
+    /**
+     * Grade the responses in place and return the ones that were graded.
+     * Responses whose scoring fails are left ungraded for manual review.
+     */
+    public List<UserResponse> grade(List<UserResponse> responses) {
+        if (responses.isEmpty()) {
+            return List.of();
+        }
+
+        Semaphore permits = new Semaphore(MAX_PARALLELISM);
+        List<Future<Boolean>> results = new ArrayList<>(responses.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UserResponse response : responses) {
+                results.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return gradeOne(response);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<UserResponse> graded = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            Future<Boolean> result = results.get(i);
+            if (result.state() == Future.State.SUCCESS && result.resultNow()) {
+                graded.add(responses.get(i));
+            }
+        }
+        return graded;
+    }
+
+    private boolean gradeOne(UserResponse response) {
+        Question question = response.getQuestion();
+        try {
+            if (question.getQuestionType() == Question.QuestionType.SPEAKING) {
+                log.info("AI grading speaking response for question {}", question.getId());
+                speakingScoringService.scoreSpeakingResponse(response);
+            } else {
+                log.info("AI grading writing response for question {}", question.getId());
+                writingScoringService.scoreWritingResponse(response);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to AI-grade response {}: {}", response.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.repository.UserResponseRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals of an attempt's responses, aggregated per question section by
+ * UserResponseRepository.sumScoresBySection. Section scores are percentages
+ * of the points available in that section; responses of MIXED-skill
+ * questions without a section only count toward the totals.
+ */
+public record AttemptScore(BigDecimal earned, int maxPoints, long responses, long correct, long ungraded,
+                           long awaitingAiGrading, Map<MockTest.SkillType, BigDecimal> sectionPercentages) {
+
+    public static AttemptScore of(List<UserResponseRepository.SectionScoreView> sections) {
+        BigDecimal earned = BigDecimal.ZERO;
+        long maxPoints = 0;
+        long responses = 0;
+        long correct = 0;
+        long ungraded = 0;
+        long awaitingAiGrading = 0;
+        Map<MockTest.SkillType, BigDecimal> sectionPercentages = new EnumMap<>(MockTest.SkillType.class);
+        for (UserResponseRepository.SectionScoreView section : sections) {
+            earned = earned.add(section.getEarned());
+            maxPoints += section.getMaxPoints();
+            responses += section.getResponses();
+            correct += section.getCorrect();
+            ungraded += section.getUngraded();
+            awaitingAiGrading += section.getAwaitingAiGrading();
+
+            MockTest.SkillType skill = MockTest.SkillType.valueOf(section.getSection());
+            if (skill != MockTest.SkillType.MIXED) {
+                sectionPercentages.put(skill, percentage(section.getEarned(), section.getMaxPoints()));
+            }
+        }
+        return new AttemptScore(earned, (int) maxPoints, responses, correct, ungraded, awaitingAiGrading,
+                sectionPercentages);
+    }
+
+    public BigDecimal percentage() {
+        return percentage(earned, maxPoints);
+    }
+
+    public void applyTo(TestAttempt attempt) {
+        attempt.setTotalScore(earned);
+        attempt.setMaxScore(maxPoints);
+        attempt.setPercentageScore(percentage());
+        attempt.setReadingScore(sectionPercentages.get(MockTest.SkillType.READING));
+        attempt.setListeningScore(sectionPercentages.get(MockTest.SkillType.LISTENING));
+        attempt.setWritingScore(sectionPercentages.get(MockTest.SkillType.WRITING));
+        attempt.setSpeakingScore(sectionPercentages.get(MockTest.SkillType.SPEAKING));
+    }
+
+    private static BigDecimal percentage(BigDecimal earned, long max) {
+        return max > 0
+                ? earned.multiply(BigDecimal.valueOf(100)).divide(BigDecimal.valueOf(max), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+}
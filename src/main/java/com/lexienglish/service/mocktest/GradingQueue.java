@@ -0,0 +1,299 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.dto.mocktest.TestAttemptResultEvent;
+import com.lexienglish.entity.GradingJob;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.repository.GradingJobRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Grading Queue
+ *
+ * Durable queue of completed attempts waiting for AI grading (grading_jobs,
+ * V14) and the worker pool that drains it. Completing a test only enqueues a
+ * job and marks the attempt GRADING; a worker then grades its open responses
+ * with the AttemptGrader outside any transaction and writes the result in one
+ * short transaction.
+ *
+ * Jobs are leased rather than held locked, so a worker that dies loses its
+ * jobs to another after LEASE. Responses that could not be graded, and jobs
+ * whose processing failed outright, are retried with exponential backoff;
+ * after MAX_ATTEMPTS the attempt is finished as PENDING_REVIEW. Final results
+ * are published as TestAttemptResultEvents.
+ */
+@Slf4j
+@Component
+public class GradingQueue {
+
+    static final int MAX_ATTEMPTS = 5;
+    static final Duration LEASE = Duration.ofMinutes(10);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+
+    private final GradingJobRepository gradingJobRepository;
+    private final TestAttemptRepository testAttemptRepository;
+    private final UserResponseRepository userResponseRepository;
+    private final AttemptGrader attemptGrader;
+    private final UserTestStatsService userTestStatsService;
+    private final QuestionStatsService questionStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+
+    public GradingQueue(GradingJobRepository gradingJobRepository,
+                        TestAttemptRepository testAttemptRepository,
+                        UserResponseRepository userResponseRepository,
+                        AttemptGrader attemptGrader,
+                        UserTestStatsService userTestStatsService,
+                        QuestionStatsService questionStatsService,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.grading.workers:4}") int workerCount) {
+        this.gradingJobRepository = gradingJobRepository;
+        this.testAttemptRepository = testAttemptRepository;
+        this.userResponseRepository = userResponseRepository;
+        this.attemptGrader = attemptGrader;
+        this.userTestStatsService = userTestStatsService;
+        this.questionStatsService = questionStatsService;
+        this.eventPublisher = eventPublisher;
+        // Also used from afterCommit callbacks, where the finished transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.idleWorkers = new Semaphore(workerCount);
+    }
+
+    /**
+     * Queue the attempt for grading; workers are woken once the current
+     * transaction commits.
+     */
+    public void enqueue(TestAttempt attempt) {
+        LocalDateTime now = LocalDateTime.now();
+        gradingJobRepository.save(GradingJob.builder()
+                .testAttemptId(attempt.getId())
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                poll();
+            }
+        });
+    }
+
+    /**
+     * Complete an attempt with the score aggregated before it was modified:
+     * queue it for AI grading when responses are waiting for it, otherwise
+     * finish it now. Must be called in the transaction that locked the attempt.
+     */
+    public void complete(TestAttempt attempt, AttemptScore score, LocalDateTime completedAt) {
+        attempt.setTimeSpentSeconds((int) ChronoUnit.SECONDS.between(attempt.getStartedAt(), completedAt));
+        attempt.setCompletedAt(completedAt);
+
+        if (score.awaitingAiGrading() > 0) {
+            attempt.setStatus(TestAttempt.AttemptStatus.GRADING);
+            testAttemptRepository.save(attempt);
+            enqueue(attempt);
+            log.info("Queued test attempt {} for grading", attempt.getId());
+        } else {
+            finish(attempt, score);
+        }
+    }
+
+    /**
+     * Compute the attempt's final score and status and publish the result.
+     * Must be called in the transaction that saves the attempt.
+     */
+    public void finish(TestAttempt attempt) {
+        // The aggregate reads the responses from the database
+        userResponseRepository.flush();
+        finish(attempt, AttemptScore.of(userResponseRepository.sumScoresBySection(attempt.getId())));
+    }
+
+    /**
+     * Finish the attempt with a score already aggregated in this transaction.
+     */
+    public void finish(TestAttempt attempt, AttemptScore score) {
+        score.applyTo(attempt);
+
+        if (score.ungraded() > 0) {
+            attempt.setStatus(TestAttempt.AttemptStatus.PENDING_REVIEW);
+        } else {
+            attempt.setStatus(TestAttempt.AttemptStatus.COMPLETED);
+            generateFeedback(attempt, score);
+            userTestStatsService.attemptCompleted(attempt);
+            questionStatsService.attemptCompleted(attempt);
+        }
+
+        testAttemptRepository.save(attempt);
+        eventPublisher.publishEvent(TestAttemptResultEvent.fromEntity(attempt));
+        log.info("Finished test attempt {} as {} with score {}%", attempt.getId(), attempt.getStatus(),
+                attempt.getPercentageScore());
+    }
+
+    /**
+     * Claim as many due jobs as there are idle workers and hand them over.
+     */
+    @Scheduled(fixedDelay = 5_000)
+    public synchronized void poll() {
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        List<GradingJobRepository.ClaimedJobView> jobs;
+        try {
+            jobs = claim(idle);
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim grading jobs: {}", e.getMessage());
+            return;
+        }
+        for (GradingJobRepository.ClaimedJobView job : jobs) {
+            idleWorkers.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    run(job.getTestAttemptId(), job.getAttempts());
+                } finally {
+                    idleWorkers.release();
+                }
+                // Keep draining without waiting for the next scheduled poll
+                poll();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    List<GradingJobRepository.ClaimedJobView> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> gradingJobRepository.claimDue(now, now.plus(LEASE), limit));
+    }
+
+    /**
+     * Process a claimed job. When processing fails outright, e.g. because
+     * finishing the attempt keeps throwing, the job is rescheduled with
+     * backoff like ungraded responses, and the attempt is sent to review once
+     * MAX_ATTEMPTS is reached instead of being claimed again forever.
+     */
+    void run(Long attemptId, int attempt) {
+        try {
+            process(attemptId, attempt);
+        } catch (RuntimeException e) {
+            log.error("Grading attempt {} of test attempt {} failed: {}", attempt, attemptId, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status -> failed(attemptId, attempt, e));
+            } catch (RuntimeException ex) {
+                // The lease expires and the job is claimed again
+                log.error("Could not reschedule grading of test attempt {}: {}", attemptId, ex.getMessage());
+            }
+        }
+    }
+
+    void process(Long attemptId, int attempt) {
+        List<UserResponse> toGrade = transactionTemplate.execute(status ->
+                userResponseRepository.findWithQuestionByTestAttemptId(attemptId).stream()
+                        .filter(AttemptGrader::needsAiGrading)
+                        .toList());
+
+        List<UserResponse> graded = attemptGrader.grade(toGrade);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestAttempt testAttempt = testAttemptRepository.lockById(attemptId).orElse(null);
+            if (testAttempt == null || testAttempt.getStatus() != TestAttempt.AttemptStatus.GRADING) {
+                gradingJobRepository.deleteByTestAttemptId(attemptId);
+                return;
+            }
+
+            Map<Long, UserResponse> results = new HashMap<>();
+            graded.forEach(r -> results.put(r.getId(), r));
+            for (UserResponse response : testAttempt.getResponses()) {
+                UserResponse result = results.get(response.getId());
+                if (result != null && response.getScore() == null) {
+                    response.copyAiScoresFrom(result);
+                }
+            }
+
+            int failed = toGrade.size() - graded.size();
+            if (failed > 0 && attempt < MAX_ATTEMPTS) {
+                LocalDateTime retryAt = LocalDateTime.now().plus(backoff(attempt));
+                gradingJobRepository.reschedule(attemptId, retryAt,
+                        failed + " of " + toGrade.size() + " responses could not be graded");
+                log.warn("Grading attempt {} of test attempt {} left {} responses ungraded, retrying at {}",
+                        attempt, attemptId, failed, retryAt);
+                return;
+            }
+
+            finish(testAttempt);
+            gradingJobRepository.deleteByTestAttemptId(attemptId);
+        });
+    }
+
+    private void failed(Long attemptId, int attempt, RuntimeException error) {
+        if (attempt < MAX_ATTEMPTS) {
+            LocalDateTime retryAt = LocalDateTime.now().plus(backoff(attempt));
+            gradingJobRepository.reschedule(attemptId, retryAt, String.valueOf(error.getMessage()));
+            log.warn("Retrying grading of test attempt {} at {}", attemptId, retryAt);
+            return;
+        }
+        // Finishing normally is what failed, so only hand the attempt over to a reviewer
+        testAttemptRepository.lockById(attemptId)
+                .filter(t -> t.getStatus() == TestAttempt.AttemptStatus.GRADING)
+                .ifPresent(testAttempt -> {
+                    testAttempt.setStatus(TestAttempt.AttemptStatus.PENDING_REVIEW);
+                    testAttemptRepository.save(testAttempt);
+                    eventPublisher.publishEvent(TestAttemptResultEvent.fromEntity(testAttempt));
+                    log.warn("Sent test attempt {} to review after {} failed grading attempts", attemptId, attempt);
+                });
+        gradingJobRepository.deleteByTestAttemptId(attemptId);
+    }
+
+    static Duration backoff(int attempt) {
+        Duration delay = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private void generateFeedback(TestAttempt attempt, AttemptScore score) {
+        StringBuilder feedback = new StringBuilder();
+
+        if (attempt.getPercentageScore().compareTo(BigDecimal.valueOf(80)) >= 0) {
+            feedback.append("Excellent performance! ");
+        } else if (attempt.getPercentageScore().compareTo(BigDecimal.valueOf(60)) >= 0) {
+            feedback.append("Good job! ");
+        } else {
+            feedback.append("Keep practicing! ");
+        }
+
+        feedback.append(String.format("You answered %d out of %d questions correctly.",
+                score.correct(), score.responses()));
+
+        attempt.setFeedback(feedback.toString());
+    }
+}
@@ -0,0 +1,251 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.dto.mocktest.MockTestDto;
+import com.lexienglish.dto.mocktest.QuestionDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mock Test Catalog Cache
+ *
+ * Read-through cache of the published mock tests and their question sets.
+ * The catalog is one immutable snapshot of every published test, newest
+ * first; question sets are cached per test, rendered as QuestionDto lists
+ * with their options next to the questions themselves for grading answers,
+ * and evicted least recently used beyond MAX_QUESTION_SETS.
+ *
+ * Question sets are versioned by mock_tests.content_version, which database
+ * triggers bump on any change to a test, its questions or their options
+ * (V13). The catalog is versioned by a fingerprint of every test's content
+ * version, so edits still in progress do not change it and no shared row is
+ * written to track it. Every POLL_INTERVAL_MS the cache reads the fingerprint
+ * and reloads the catalog when it changed, so republished content is served
+ * within seconds on every node.
+ * Cached DTOs and questions are shared between requests and must not be
+ * modified.
+ */
+@Slf4j
+@Component
+public class MockTestCatalogCache {
+
+    static final int MAX_QUESTION_SETS = 256;
+    private static final long POLL_INTERVAL_MS = 5_000;
+
+    // Properties the catalog can be sorted by, named as on MockTest
+    private static final Map<String, Function<MockTestDto, Object>> SORT_KEYS = Map.of(
+            "id", MockTestDto::getId,
+            "title", MockTestDto::getTitle,
+            "description", MockTestDto::getDescription,
+            "testType", MockTestDto::getTestType,
+            "skillType", MockTestDto::getSkillType,
+            "durationMinutes", MockTestDto::getDurationMinutes,
+            "totalQuestions", MockTestDto::getTotalQuestions,
+            "passingScore", MockTestDto::getPassingScore,
+            "difficultyLevel", MockTestDto::getDifficultyLevel,
+            "createdAt", MockTestDto::getCreatedAt);
+
+    private final MockTestRepository mockTestRepository;
+    private final QuestionRepository questionRepository;
+
+    private volatile Catalog catalog;
+
+    // Guarded by itself
+    private final Map<Long, QuestionSet> questionSets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, QuestionSet> eldest) {
+            return size() > MAX_QUESTION_SETS;
+        }
+    };
+
+    public MockTestCatalogCache(MockTestRepository mockTestRepository, QuestionRepository questionRepository) {
+        this.mockTestRepository = mockTestRepository;
+        this.questionRepository = questionRepository;
+    }
+
+    /**
+     * Page of published tests, newest first unless the pageable is sorted,
+     * optionally filtered by type and skill. Sorting by a property MockTestDto
+     * does not have fails with BadRequestException.
+     */
+    public Page<MockTestDto> getTests(MockTest.TestType testType, MockTest.SkillType skillType, Pageable pageable) {
+        List<MockTestDto> tests = catalog().tests();
+        if (testType != null || skillType != null) {
+            tests = tests.stream()
+                    .filter(t -> testType == null || t.getTestType().equals(testType.name()))
+                    .filter(t -> skillType == null || t.getSkillType().equals(skillType.name()))
+                    .toList();
+        }
+        if (pageable.getSort().isSorted()) {
+            tests = tests.stream().sorted(comparator(pageable.getSort())).toList();
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(tests);
+        }
+        int from = (int) Math.min(pageable.getOffset(), tests.size());
+        int to = Math.min(from + pageable.getPageSize(), tests.size());
+        return new PageImpl<>(tests.subList(from, to), pageable, tests.size());
+    }
+
+    /**
+     * The published test, or empty when it is unknown or unpublished.
+     */
+    public Optional<MockTestDto> getTest(Long testId) {
+        return Optional.ofNullable(catalog().byId().get(testId)).map(CatalogEntry::test);
+    }
+
+    /**
+     * Questions of a test in order, with their options. Question sets of
+     * tests that are not published are loaded but not cached.
+     */
+    public List<QuestionDto> getQuestions(Long testId) {
+        return questionSet(testId).questions();
+    }
+
+    /**
+     * Questions of a test by id, to grade answers against. They are shared
+     * and detached once loaded, so only their columns can be read.
+     */
+    public Map<Long, Question> getQuestionsById(Long testId) {
+        return questionSet(testId).byId();
+    }
+
+    /**
+     * Reload the catalog if any mock test content changed since it was loaded.
+     */
+    @Scheduled(fixedDelay = POLL_INTERVAL_MS)
+    public void refresh() {
+        Catalog current = catalog;
+        if (current == null || !mockTestRepository.getCatalogVersion().equals(current.version())) {
+            load();
+        }
+    }
+
+    private Catalog catalog() {
+        Catalog current = catalog;
+        return current != null ? current : load();
+    }
+
+    private synchronized Catalog load() {
+        // Read the version first: changes committed during the load only cause another reload
+        String version = mockTestRepository.getCatalogVersion();
+        Catalog current = catalog;
+        if (current != null && current.version().equals(version)) {
+            return current;
+        }
+
+        List<MockTest> published = mockTestRepository.findByPublishedTrueOrderByCreatedAtDescIdDesc();
+        List<MockTestDto> tests = new ArrayList<>(published.size());
+        Map<Long, CatalogEntry> byId = new HashMap<>();
+        for (MockTest test : published) {
+            MockTestDto dto = MockTestDto.fromEntity(test);
+            tests.add(dto);
+            byId.put(test.getId(), new CatalogEntry(dto, test.getContentVersion()));
+        }
+        Catalog loaded = new Catalog(version, List.copyOf(tests), Map.copyOf(byId));
+
+        synchronized (questionSets) {
+            questionSets.entrySet().removeIf(e -> {
+                CatalogEntry entry = byId.get(e.getKey());
+                return entry == null || entry.contentVersion() != e.getValue().contentVersion();
+            });
+        }
+        catalog = loaded;
+        log.debug("Loaded mock test catalog version {}: {} published tests", version, tests.size());
+        return loaded;
+    }
+
+    /**
+     * Comparator for the sort as the repository query would have applied it:
+     * nulls last when ascending and first when descending, as in PostgreSQL.
+     * Ties keep the catalog's newest-first order.
+     */
+    private static Comparator<MockTestDto> comparator(Sort sort) {
+        Comparator<MockTestDto> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<MockTestDto, Object> key = SORT_KEYS.get(order.getProperty());
+            if (key == null) {
+                throw new BadRequestException("Cannot sort mock tests by " + order.getProperty());
+            }
+            Comparator<Object> values = (a, b) -> compareValues(a, b, order.isIgnoreCase());
+            values = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> Comparator.nullsFirst(order.isAscending() ? values : values.reversed());
+                case NULLS_LAST -> Comparator.nullsLast(order.isAscending() ? values : values.reversed());
+                case NATIVE -> order.isAscending()
+                        ? Comparator.nullsLast(values)
+                        : Comparator.nullsLast(values).reversed();
+            };
+            Comparator<MockTestDto> next = Comparator.comparing(key, values);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (ignoreCase && a instanceof String left && b instanceof String right) {
+            return left.compareToIgnoreCase(right);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private QuestionSet questionSet(Long testId) {
+        CatalogEntry entry = catalog().byId().get(testId);
+        if (entry == null) {
+            return loadQuestions(testId, -1);
+        }
+        synchronized (questionSets) {
+            QuestionSet cached = questionSets.get(testId);
+            if (cached != null && cached.contentVersion() == entry.contentVersion()) {
+                return cached;
+            }
+        }
+        // Loaded outside the lock; concurrent misses may load the same set twice
+        QuestionSet loaded = loadQuestions(testId, entry.contentVersion());
+        synchronized (questionSets) {
+            questionSets.put(testId, loaded);
+        }
+        return loaded;
+    }
+
+    private QuestionSet loadQuestions(Long testId, long contentVersion) {
+        List<Question> questions = questionRepository.findWithOptionsByMockTestId(testId);
+        List<QuestionDto> dtos = questions.stream()
+                .map(QuestionDto::fromEntity)
+                .map(dto -> {
+                    dto.setOptions(List.copyOf(dto.getOptions()));
+                    return dto;
+                })
+                .toList();
+        return new QuestionSet(contentVersion, dtos,
+                questions.stream().collect(Collectors.toUnmodifiableMap(Question::getId, Function.identity())));
+    }
+
+    private record Catalog(String version, List<MockTestDto> tests, Map<Long, CatalogEntry> byId) {
+    }
+
+    private record CatalogEntry(MockTestDto test, long contentVersion) {
+    }
+
+    private record QuestionSet(long contentVersion, List<QuestionDto> questions, Map<Long, Question> byId) {
+    }
+}
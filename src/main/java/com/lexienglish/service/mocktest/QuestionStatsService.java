@@ -0,0 +1,113 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.dto.mocktest.QuestionStatsDto;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.QuestionStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Question Stats Service
+ *
+ * Item analysis for content authors. Each question's question_stats row
+ * (V20) holds running accumulators for correctness, score, time spent and
+ * the score's co-moment with the rest score. Completing an attempt only
+ * queues it in question_stats_queue; queued attempts are merged into the
+ * stats in batches, so concurrent completions of one test never wait on its
+ * stats rows, and
+ * difficulty (p-value) and discrimination (item-rest correlation) can be
+ * ranked without reading user_responses.
+ */
+@Slf4j
+@Service
+public class QuestionStatsService {
+
+    static final int DEFAULT_MIN_RESPONSES = 30;
+    static final int DRAIN_BATCH_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public enum Ranking {
+        // Lowest p-value first
+        HARDEST,
+        // Highest p-value first
+        EASIEST,
+        // Lowest (or negative) discrimination first: the likeliest broken questions
+        LEAST_DISCRIMINATING,
+        // Longest mean time spent first
+        SLOWEST
+    }
+
+    private final QuestionStatsRepository questionStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public QuestionStatsService(QuestionStatsRepository questionStatsRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.questionStatsRepository = questionStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue the responses of an attempt that was just finished as COMPLETED.
+     */
+    public void attemptCompleted(TestAttempt attempt) {
+        questionStatsRepository.queueAttempt(attempt.getId());
+    }
+
+    /**
+     * Merge queued attempts into the stats. SKIP LOCKED lets every node
+     * drain concurrently without taking an attempt twice.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void drain() {
+        int merged = 0;
+        int batch;
+        try {
+            do {
+                batch = transactionTemplate.execute(status -> {
+                    List<Long> attemptIds = questionStatsRepository.lockQueuedAttempts(DRAIN_BATCH_SIZE);
+                    if (attemptIds.isEmpty()) {
+                        return 0;
+                    }
+                    questionStatsRepository.addAttempts(attemptIds);
+                    questionStatsRepository.dequeueAttempts(attemptIds);
+                    return attemptIds.size();
+                });
+                merged += batch;
+            } while (batch == DRAIN_BATCH_SIZE);
+        } catch (DataAccessException e) {
+            // The batch stays queued and is retried on the next run
+            log.warn("Question stats drain failed: {}", e.getMessage());
+        }
+        if (merged > 0) {
+            log.debug("Merged {} attempts into question stats", merged);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<QuestionStatsDto> rankQuestions(Long mockTestId, String rankBy, Integer minResponses,
+                                                Pageable pageable) {
+        Ranking ranking;
+        try {
+            ranking = rankBy != null ? Ranking.valueOf(rankBy.toUpperCase()) : Ranking.LEAST_DISCRIMINATING;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid ranking: " + rankBy);
+        }
+        long min = minResponses != null ? Math.max(1, minResponses) : DEFAULT_MIN_RESPONSES;
+        // Ordered by the ranking only
+        Pageable page = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE));
+
+        return questionStatsRepository.rank(mockTestId, min, ranking.name(), page)
+                .map(QuestionStatsDto::fromView);
+    }
+}
@@ -0,0 +1,67 @@
+package com.lexienglish.service.mocktest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Histogram of percentage scores in BUCKETS buckets of half a point, the
+ * last one holding exactly 100. Scores are bounded, so this is a mergeable
+ * sketch of constant size: histograms merge by adding their counts. A rank
+ * read from it assumes the scores in the queried score's bucket are spread
+ * evenly, so it is off by at most that bucket's share of all scores.
+ */
+final class ScoreHistogram {
+
+    static final int BUCKETS = 201;
+
+    private ScoreHistogram() {
+    }
+
+    static int bucket(BigDecimal score) {
+        int bucket = score.multiply(BigDecimal.valueOf(2)).setScale(0, RoundingMode.FLOOR).intValue();
+        return Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    /**
+     * Percentage of the counted scores that are lower than the score, ties
+     * counting half; null when nothing was counted.
+     */
+    static BigDecimal percentileRank(long[] counts, BigDecimal score) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        int bucket = bucket(score);
+        double below = 0;
+        for (int i = 0; i < bucket; i++) {
+            below += counts[i];
+        }
+        double position = Math.max(0, score.doubleValue() * 2 - bucket);
+        below += counts[bucket] * (bucket == BUCKETS - 1 ? 0.5 : Math.min(position, 1));
+        return BigDecimal.valueOf(below * 100 / total).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static void add(long[] target, long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] += counts[i];
+        }
+    }
+
+    static void subtract(long[] target, long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] -= counts[i];
+        }
+    }
+
+    static boolean isEmpty(long[] counts) {
+        for (long count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
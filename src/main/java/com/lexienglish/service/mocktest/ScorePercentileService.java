@@ -0,0 +1,239 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.dto.mocktest.TestAttemptDto;
+import com.lexienglish.dto.mocktest.TestAttemptResultEvent;
+import com.lexienglish.entity.TestAttempt;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Score Percentile Service
+ *
+ * Ranks completed attempts against everyone who completed the same mock test
+ * ("you scored better than 83% of test takers") without scanning
+ * test_attempts. A test's score distribution is a ScoreHistogram: the counts
+ * last read from mock_test_score_sketches (V18) plus the scores this node
+ * recorded since. Every CHECKPOINT_INTERVAL_MS the local scores are added to
+ * the stored counts with one upsert per test, which returns the counts merged
+ * from every node; the other cached tests are re-read in one query.
+ *
+ * Ranks are approximate: besides the histogram's bucket error, a node that
+ * crashes loses the scores recorded since its last checkpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScorePercentileService {
+
+    private static final long CHECKPOINT_INTERVAL_MS = 30_000;
+
+    private static final String SELECT_SQL = "SELECT mock_test_id, counts FROM mock_test_score_sketches " +
+            "WHERE mock_test_id = ANY(?)";
+
+    private static final String MERGE_SQL = "INSERT INTO mock_test_score_sketches (mock_test_id, counts, updated_at) " +
+            "VALUES (?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (mock_test_id) DO UPDATE SET " +
+            "counts = ARRAY(SELECT t.stored + t.added " +
+            "FROM unnest(mock_test_score_sketches.counts, EXCLUDED.counts) WITH ORDINALITY t(stored, added, n) " +
+            "ORDER BY t.n), " +
+            "updated_at = EXCLUDED.updated_at " +
+            "RETURNING counts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Sketch> sketches = new ConcurrentHashMap<>();
+
+    /**
+     * Runs before the other listeners of the result, so a rank they read
+     * already counts it.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResult(TestAttemptResultEvent event) {
+        TestAttemptDto attempt = event.getAttempt();
+        if (isRanked(attempt)) {
+            record(attempt.getMockTestId(), attempt.getPercentageScore());
+        }
+    }
+
+    public void record(Long mockTestId, BigDecimal score) {
+        sketch(mockTestId).record(ScoreHistogram.bucket(score));
+    }
+
+    /**
+     * Percentage of the test's completed attempts that scored lower, ties
+     * counting half; null while nobody completed the test.
+     */
+    public BigDecimal percentileRank(Long mockTestId, BigDecimal score) {
+        return ScoreHistogram.percentileRank(counts(mockTestId), score);
+    }
+
+    /**
+     * Fill in the percentile rank of a completed attempt.
+     */
+    public void applyPercentileRank(TestAttemptDto attempt) {
+        if (isRanked(attempt)) {
+            attempt.setPercentileRank(percentileRank(attempt.getMockTestId(), attempt.getPercentageScore()));
+        }
+    }
+
+    /**
+     * Fill in the percentile rank of an attempt completed by the current
+     * transaction, whose score is only recorded once it commits. The score is
+     * counted here already, so the rank matches the attempt's later reads.
+     */
+    public void applyPercentileRankOfCompleted(TestAttemptDto attempt) {
+        if (isRanked(attempt)) {
+            long[] counts = counts(attempt.getMockTestId());
+            counts[ScoreHistogram.bucket(attempt.getPercentageScore())]++;
+            attempt.setPercentileRank(ScoreHistogram.percentileRank(counts, attempt.getPercentageScore()));
+        }
+    }
+
+    @Scheduled(fixedDelay = CHECKPOINT_INTERVAL_MS)
+    public void checkpoint() {
+        List<Long> unchanged = new ArrayList<>();
+        sketches.forEach((mockTestId, sketch) -> {
+            long[] added = sketch.pending();
+            if (ScoreHistogram.isEmpty(added)) {
+                if (sketch.isLoaded()) {
+                    unchanged.add(mockTestId);
+                }
+                return;
+            }
+            try {
+                long[] merged = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(MERGE_SQL);
+                    ps.setLong(1, mockTestId);
+                    ps.setArray(2, con.createArrayOf("bigint", box(added)));
+                    return ps;
+                }, rs -> rs.next() ? unbox(rs.getArray(1)) : null);
+                sketch.checkpointed(added, merged);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Dropping score sketch of deleted mock test {}", mockTestId);
+                sketches.remove(mockTestId);
+            } catch (DataAccessException e) {
+                log.warn("Failed to checkpoint score sketch of mock test {}: {}", mockTestId, e.getMessage());
+            }
+        });
+
+        if (!unchanged.isEmpty()) {
+            try {
+                read(unchanged).forEach((mockTestId, counts) -> sketches.get(mockTestId).refreshed(counts));
+            } catch (DataAccessException e) {
+                log.warn("Failed to refresh score sketches: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    private static boolean isRanked(TestAttemptDto attempt) {
+        return TestAttempt.AttemptStatus.COMPLETED.name().equals(attempt.getStatus())
+                && attempt.getPercentageScore() != null;
+    }
+
+    private long[] counts(Long mockTestId) {
+        Sketch sketch = sketch(mockTestId);
+        if (!sketch.isLoaded()) {
+            sketch.load(read(List.of(mockTestId)).getOrDefault(mockTestId, new long[ScoreHistogram.BUCKETS]));
+        }
+        return sketch.counts();
+    }
+
+    private Sketch sketch(Long mockTestId) {
+        return sketches.computeIfAbsent(mockTestId, id -> new Sketch());
+    }
+
+    private Map<Long, long[]> read(List<Long> mockTestIds) {
+        Map<Long, long[]> counts = new ConcurrentHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", mockTestIds.toArray()));
+            return ps;
+        }, rs -> {
+            counts.put(rs.getLong(1), unbox(rs.getArray(2)));
+        });
+        return counts;
+    }
+
+    private static Long[] box(long[] counts) {
+        Long[] boxed = new Long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            boxed[i] = counts[i];
+        }
+        return boxed;
+    }
+
+    private static long[] unbox(Array array) throws SQLException {
+        Long[] boxed = (Long[]) array.getArray();
+        long[] counts = new long[ScoreHistogram.BUCKETS];
+        for (int i = 0; i < Math.min(boxed.length, counts.length); i++) {
+            counts[i] = boxed[i];
+        }
+        return counts;
+    }
+
+    private static final class Sketch {
+
+        // Counts merged from every node as of the last read; null until loaded
+        private long[] stored;
+        // Scores recorded on this node since the last checkpoint
+        private final long[] pending = new long[ScoreHistogram.BUCKETS];
+
+        synchronized void record(int bucket) {
+            pending[bucket]++;
+        }
+
+        synchronized boolean isLoaded() {
+            return stored != null;
+        }
+
+        synchronized void load(long[] counts) {
+            if (stored == null) {
+                stored = counts;
+            }
+        }
+
+        synchronized long[] counts() {
+            long[] counts = stored.clone();
+            ScoreHistogram.add(counts, pending);
+            return counts;
+        }
+
+        synchronized long[] pending() {
+            return pending.clone();
+        }
+
+        synchronized void checkpointed(long[] added, long[] merged) {
+            ScoreHistogram.subtract(pending, added);
+            stored = merged;
+        }
+
+        synchronized void refreshed(long[] counts) {
+            stored = counts;
+        }
+    }
+}
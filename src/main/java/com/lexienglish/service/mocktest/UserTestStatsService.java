@@ -0,0 +1,90 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.UserTestStats;
+import com.lexienglish.repository.UserTestStatsRepository;
+import com.lexienglish.service.LeaderElection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User Test Stats Service
+ *
+ * Maintains the per-user user_test_stats row. Attempts are counted when they
+ * start and added to the running sums, best score and recent-score trend
+ * when they complete, each with one upsert in the transaction that changes
+ * the attempt. A nightly job on the node chosen by {@link LeaderElection}
+ * rebuilds the rows from test_attempts to repair any drift.
+ */
+@Slf4j
+@Service
+public class UserTestStatsService {
+
+    public static final int RECENT_SCORES = 10;
+    static final int REBUILD_BATCH_SIZE = 1000;
+    static final String LEADER_TASK = "test-stats-rebuild";
+
+    private final UserTestStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+
+    public UserTestStatsService(UserTestStatsRepository statsRepository,
+                                PlatformTransactionManager transactionManager,
+                                LeaderElection leaderElection) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+    }
+
+    public Optional<UserTestStats> getStats(Long userId) {
+        return statsRepository.findById(userId);
+    }
+
+    public Optional<UserTestStats> getStats(String userEmail) {
+        return statsRepository.findByUserEmail(userEmail);
+    }
+
+    public void attemptStarted(TestAttempt attempt) {
+        statsRepository.addStartedAttempt(attempt.getUser().getId());
+    }
+
+    /**
+     * Add an attempt that was just finished as COMPLETED.
+     */
+    public void attemptCompleted(TestAttempt attempt) {
+        statsRepository.addCompletedAttempt(attempt.getUser().getId(), attempt.getMockTest().getTestType().name(),
+                attempt.getPercentageScore(), attempt.getReadingScore(), attempt.getListeningScore(),
+                attempt.getWritingScore(), attempt.getSpeakingScore(), RECENT_SCORES);
+    }
+
+    // Clear of the FSRS optimizer at 03:30
+    @Scheduled(cron = "0 45 3 * * *")
+    public void rebuild() {
+        if (!leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        long afterId = 0;
+        int rebuilt = 0;
+        List<Long> userIds;
+        do {
+            long after = afterId;
+            userIds = statsRepository.findUserIdsAfter(after, REBUILD_BATCH_SIZE);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = userIds;
+            rebuilt += transactionTemplate.execute(status -> {
+                statsRepository.lockStats(batch);
+                return statsRepository.rebuild(batch, RECENT_SCORES);
+            });
+            afterId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == REBUILD_BATCH_SIZE);
+        log.info("Rebuilt mock test stats of {} users", rebuilt);
+    }
+}
@@ -0,0 +1,313 @@
+package com.lexienglish.service.reminder;
+
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.service.LeaderElection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Due Card Index
+ *
+ * In-memory index of when each user's next scheduled review comes due, used
+ * to send one "cards due" reminder per user as that moment passes. It holds
+ * one entry per user rather than per card: a primitive map of user id to
+ * reminder time, and a {@link TimingWheel} with one-minute ticks that fires
+ * them.
+ *
+ * The index is rebuilt at startup from one streaming GROUP BY over the review
+ * queue index. After a review commits, the user's next due date is re-read in
+ * a batched query. New (never reviewed) cards are not tracked.
+ *
+ * Every node keeps its own index, but only the node elected through
+ * {@link LeaderElection} fires it and sends reminders. The leader also
+ * rescans the users whose cards changed since its last scan, so reviews
+ * handled on other nodes reach its index; each reminder is still checked
+ * against the cards before it is sent. Other nodes leave their wheel
+ * untouched until they take over, then remind what came due within the
+ * same missed window as after a restart.
+ */
+@Slf4j
+@Component
+public class DueCardIndex {
+
+    static final long TICK_MILLIS = 60_000;
+    static final int REFRESH_BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    // Reviews that came due this long before a restart are still reminded
+    private static final Duration MISSED_WINDOW = Duration.ofMinutes(15);
+    // Clock skew between this node and the database when scanning for changes
+    private static final Duration COMMIT_GRACE = Duration.ofSeconds(5);
+    static final String LEADER_TASK = "due-reminders";
+
+    private static final String REBUILD_SQL = "SELECT user_id, min(next_review_date) FROM flashcards " +
+            "WHERE is_mastered = false AND next_review_date IS NOT NULL GROUP BY user_id";
+
+    private final FlashcardRepository flashcardRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DueReminderSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final boolean enabled;
+
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+    // Changes stamped up to here are in the index
+    private volatile LocalDateTime scannedUntil;
+
+    // Guarded by this
+    private LongLongHashMap reminderAt = new LongLongHashMap(16);
+    private TimingWheel wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    public DueCardIndex(FlashcardRepository flashcardRepository,
+                        JdbcTemplate jdbcTemplate,
+                        DueReminderSink sink,
+                        PlatformTransactionManager transactionManager,
+                        LeaderElection leaderElection,
+                        @Value("${app.due-reminders.enabled:true}") boolean enabled) {
+        this.flashcardRepository = flashcardRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.leaderElection = leaderElection;
+        this.enabled = enabled;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-read the user's next due date once the current transaction commits.
+     */
+    public void refresh(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingRefresh.add(userId);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> users = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (users == null) {
+            Set<Long> reviewed = new HashSet<>();
+            users = reviewed;
+            TransactionSynchronizationManager.bindResource(this, reviewed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingRefresh.addAll(reviewed);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(DueCardIndex.this);
+                }
+            });
+        }
+        users.add(userId);
+    }
+
+    void rebuild() {
+        LocalDateTime settled = settledUntil(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        long notifyFrom = now - MISSED_WINDOW.toMillis();
+        LongLongHashMap map = new LongLongHashMap(1024);
+        TimingWheel newWheel = new TimingWheel(TICK_MILLIS, now);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(REBUILD_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            long due = toMillis(rs.getTimestamp(2).toLocalDateTime());
+            if (due >= notifyFrom) {
+                schedule(map, newWheel, rs.getLong(1), due, now);
+            }
+        }));
+
+        synchronized (this) {
+            reminderAt = map;
+            wheel = newWheel;
+        }
+        scannedUntil = settled;
+        ready = true;
+        log.info("Due card index built: {} users with upcoming reviews", map.size());
+    }
+
+    @Scheduled(fixedDelay = 1_000)
+    public void flushRefreshes() {
+        if (!ready || pendingRefresh.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(REFRESH_BATCH_SIZE);
+        Iterator<Long> it = pendingRefresh.iterator();
+        while (it.hasNext() && batch.size() < REFRESH_BATCH_SIZE) {
+            batch.add(it.next());
+            it.remove();
+        }
+
+        List<FlashcardRepository.NextDueView> rows = flashcardRepository.findNextDueDates(batch);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (Long userId : batch) {
+                reminderAt.remove(userId);
+            }
+            for (FlashcardRepository.NextDueView row : rows) {
+                long due = toMillis(row.getNextDue());
+                // Reviews already overdue are not reminded: the user is studying right now
+                if (due > now) {
+                    schedule(reminderAt, wheel, row.getUserId(), due, now);
+                }
+            }
+            // Rescheduling leaves the old wheel entry behind; sweep once they dominate
+            if (wheel.size() > 2 * reminderAt.size() + REFRESH_BATCH_SIZE) {
+                wheel.retain((userId, tick) -> isCurrent(userId, tick));
+            }
+        }
+    }
+
+    /**
+     * Queue a refresh of every user whose cards changed since the last scan,
+     * wherever the change was made.
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void rescan() {
+        rescan(LocalDateTime.now());
+    }
+
+    void rescan(LocalDateTime now) {
+        if (!ready || !leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        LocalDateTime from = scannedUntil;
+        LocalDateTime until = settledUntil(now);
+        if (!until.isAfter(from)) {
+            return;
+        }
+        pendingRefresh.addAll(flashcardRepository.findUserIdsUpdatedBetween(from, until));
+        scannedUntil = until;
+    }
+
+    @Scheduled(fixedDelay = 10_000)
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    void tick(long now) {
+        // Followers keep their entries for when they take over
+        if (!ready || !leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        Map<Long, Long> fired = new LinkedHashMap<>();
+        synchronized (this) {
+            wheel.advance(now, (userId, tick) -> {
+                if (isCurrent(userId, tick)) {
+                    fired.put(userId, reminderAt.remove(userId));
+                }
+            });
+        }
+        if (fired.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LocalDateTime> nextDue = new HashMap<>();
+        List<Long> userIds = new ArrayList<>(fired.keySet());
+        for (int from = 0; from < userIds.size(); from += REFRESH_BATCH_SIZE) {
+            flashcardRepository.findNextDueDates(userIds.subList(from, Math.min(from + REFRESH_BATCH_SIZE,
+                    userIds.size()))).forEach(row -> nextDue.put(row.getUserId(), row.getNextDue()));
+        }
+        long notifyFrom = now - MISSED_WINDOW.toMillis();
+        fired.forEach((userId, at) -> {
+            LocalDateTime due = nextDue.get(userId);
+            if (due == null) {
+                return;
+            }
+            long dueMillis = toMillis(due);
+            if (dueMillis > now) {
+                // Reviewed on another node since this index last heard of the user
+                synchronized (this) {
+                    schedule(reminderAt, wheel, userId, dueMillis, now);
+                }
+                return;
+            }
+            if (at < notifyFrom) {
+                // Came due before this node took over; the previous leader reminded it
+                return;
+            }
+            try {
+                sink.cardsDue(userId, toDateTime(at));
+            } catch (RuntimeException e) {
+                log.warn("Due reminder for user {} failed: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Reminder time currently held for the user, or null.
+     */
+    synchronized LocalDateTime reminderAt(long userId) {
+        long at = reminderAt.get(userId);
+        return at == LongLongHashMap.NO_VALUE ? null : toDateTime(at);
+    }
+
+    /**
+     * Changes stamped before this are committed or rolled back.
+     */
+    private LocalDateTime settledUntil(LocalDateTime now) {
+        LocalDateTime oldestOpen = flashcardRepository.findOldestOpenWriteStart();
+        LocalDateTime settled = oldestOpen != null && oldestOpen.isBefore(now) ? oldestOpen : now;
+        return settled.minus(COMMIT_GRACE);
+    }
+
+    private boolean isCurrent(long userId, long tick) {
+        long at = reminderAt.get(userId);
+        return at != LongLongHashMap.NO_VALUE && wheel.toTick(at) == tick;
+    }
+
+    private static void schedule(LongLongHashMap map, TimingWheel wheel, long userId, long due, long now) {
+        // Already due: fire on the next tick
+        long at = wheel.add(userId, due) ? due : (wheel.toTick(now) + 1) * TICK_MILLIS;
+        if (at != due) {
+            wheel.add(userId, at);
+        }
+        map.put(userId, at);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
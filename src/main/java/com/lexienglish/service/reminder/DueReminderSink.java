@@ -0,0 +1,13 @@
+package com.lexienglish.service.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives "cards due" events from {@link DueCardIndex}. Called on the
+ * index's scheduler thread, once per user each time their next review comes
+ * due; implementations should hand slow work off.
+ */
+public interface DueReminderSink {
+
+    void cardsDue(long userId, LocalDateTime dueAt);
+}
@@ -0,0 +1,37 @@
+package com.lexienglish.service.reminder;
+
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Emails the review reminder. The due count is re-read here, so a reminder
+ * for cards deleted or reviewed since the index was refreshed is dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailDueReminderSink implements DueReminderSink {
+
+    private final UserRepository userRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final EmailService emailService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void cardsDue(long userId, LocalDateTime dueAt) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return;
+        }
+        long due = flashcardRepository.countDueForReview(user, LocalDateTime.now());
+        if (due > 0) {
+            emailService.sendReviewReminderEmail(user.getEmail(), user.getFullName(), due);
+        }
+    }
+}
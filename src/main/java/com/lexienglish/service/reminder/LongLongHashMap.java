@@ -0,0 +1,109 @@
+package com.lexienglish.service.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long-to-long hash map without boxing: two parallel arrays
+ * and linear probing, about 21 bytes per entry at the 0.75 load factor.
+ * Key 0 is reserved as the empty marker; ids start at 1. Not thread safe.
+ */
+final class LongLongHashMap {
+
+    static final long NO_VALUE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / 0.75f)) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(long key) {
+        int i = indexOf(key);
+        return keys[i] == key ? values[i] : NO_VALUE;
+    }
+
+    void put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int i = indexOf(key);
+        if (keys[i] != key) {
+            keys[i] = key;
+            if (++size > keys.length * 3 / 4) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    long remove(long key) {
+        int i = indexOf(key);
+        if (keys[i] != key) {
+            return NO_VALUE;
+        }
+        long removed = values[i];
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int i = slot(key);
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.lexienglish.service.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of (key, deadline) entries: three levels of 64
+ * slots whose ticks are 1, 64 and 4096 base ticks, so with one-minute ticks it
+ * spans about 190 days; later deadlines wait in the last slot and are placed
+ * again when it cascades. Adding an entry is O(1) and advancing touches only
+ * the slots that come due.
+ *
+ * Entries cannot be removed; the owner keeps the authoritative deadline per
+ * key and ignores entries that no longer match it, and may drop them with
+ * {@link #retain}. Not thread safe.
+ */
+public final class TimingWheel {
+
+    public interface EntryConsumer {
+        void accept(long key, long deadlineTick);
+    }
+
+    public interface EntryPredicate {
+        boolean test(long key, long deadlineTick);
+    }
+
+    private static final int LEVELS = 3;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long toTick(long millis) {
+        return Math.floorDiv(millis, tickMillis);
+    }
+
+    /**
+     * Add an entry; returns false without adding it when the deadline has
+     * already passed, so the caller can fire it directly.
+     */
+    public boolean add(long key, long deadlineMillis) {
+        long deadlineTick = toTick(deadlineMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(key, deadlineTick);
+        size++;
+        return true;
+    }
+
+    /**
+     * Advance to the tick containing nowMillis, passing every entry whose
+     * deadline is reached to the consumer.
+     */
+    public void advance(long nowMillis, EntryConsumer expired) {
+        long target = toTick(nowMillis);
+        while (currentTick < target) {
+            currentTick++;
+            // Cascade coarser levels whose slot boundary we just crossed, top down
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][(int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            Bucket due = wheels[0][(int) currentTick & SLOT_MASK];
+            for (int i = 0; i < due.size; i++) {
+                expired.accept(due.keys[i], due.deadlines[i]);
+            }
+            size -= due.size;
+            due.clear();
+        }
+    }
+
+    /**
+     * Keep only the entries matching the predicate.
+     */
+    public void retain(EntryPredicate keep) {
+        size = 0;
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                int kept = 0;
+                for (int i = 0; i < bucket.size; i++) {
+                    if (keep.test(bucket.keys[i], bucket.deadlines[i])) {
+                        bucket.keys[kept] = bucket.keys[i];
+                        bucket.deadlines[kept] = bucket.deadlines[i];
+                        kept++;
+                    }
+                }
+                bucket.size = kept;
+                bucket.shrink();
+                size += kept;
+            }
+        }
+    }
+
+    private void cascade(Bucket bucket) {
+        int count = bucket.size;
+        long[] keys = Arrays.copyOf(bucket.keys, count);
+        long[] deadlines = Arrays.copyOf(bucket.deadlines, count);
+        bucket.clear();
+        for (int i = 0; i < count; i++) {
+            place(keys[i], deadlines[i]);
+        }
+    }
+
+    /**
+     * Put the entry on the finest level where it is less than a full turn
+     * ahead in that level's units, so its slot is never the current one.
+     */
+    private void place(long key, long deadlineTick) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long ahead = (deadlineTick >>> shift) - (currentTick >>> shift);
+            if (ahead < SLOTS) {
+                wheels[level][(int) (deadlineTick >>> shift) & SLOT_MASK].add(key, deadlineTick);
+                return;
+            }
+        }
+        // Beyond the horizon: park in the farthest top-level slot
+        int shift = SLOT_BITS * (LEVELS - 1);
+        wheels[LEVELS - 1][(int) ((currentTick >>> shift) + SLOT_MASK) & SLOT_MASK].add(key, deadlineTick);
+    }
+
+    private static final class Bucket {
+        private static final int INITIAL_CAPACITY = 4;
+
+        long[] keys = new long[INITIAL_CAPACITY];
+        long[] deadlines = new long[INITIAL_CAPACITY];
+        int size;
+
+        void add(long key, long deadline) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            keys[size] = key;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            shrink();
+        }
+
+        void shrink() {
+            if (keys.length > INITIAL_CAPACITY && size < keys.length / 4) {
+                int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+            }
+        }
+    }
+}
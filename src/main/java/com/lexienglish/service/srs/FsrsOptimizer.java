@@ -0,0 +1,275 @@
+package com.lexienglish.service.srs;
+
+import com.lexienglish.entity.UserSchedulerParams;
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.LeaderElection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FSRS Optimizer
+ *
+ * Nightly fits per-user FSRS weights to the review log. Each user's history is
+ * replayed through the FSRS model and the weights minimising the log loss of
+ * the predicted recall probabilities are found by a bounded pattern search.
+ * Users are optimized in parallel on a dedicated fork-join pool; weights are
+ * only stored when they beat the defaults on the user's own history. Only the
+ * node chosen by {@link LeaderElection} runs the optimization.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FsrsOptimizer {
+
+    static final int MIN_REVIEWS = 200;
+    private static final int MAX_EPOCHS = 40;
+    private static final double MIN_STEP = 1e-3;
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    static final String LEADER_TASK = "fsrs-optimizer";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserSchedulerParamsRepository paramsRepository;
+    private final LeaderElection leaderElection;
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void optimizeAll() {
+        if (!leaderElection.isLeader(LEADER_TASK)) {
+            return;
+        }
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT l.user_id FROM review_log l JOIN users u ON u.id = l.user_id " +
+                        "WHERE u.scheduler = 'FSRS' AND l.elapsed_days IS NOT NULL " +
+                        "GROUP BY l.user_id HAVING COUNT(*) >= ?", Long.class, MIN_REVIEWS);
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger updated = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            pool.invoke(new OptimizeTask(userIds, 0, userIds.size(), updated));
+        } finally {
+            pool.shutdown();
+        }
+        log.info("FSRS optimization finished: {} of {} users updated", updated.get(), userIds.size());
+    }
+
+    boolean optimizeUser(Long userId) {
+        try {
+            ReviewHistory history = loadHistory(userId);
+            Fit fit = fit(history);
+            if (fit == null) {
+                return false;
+            }
+            paramsRepository.save(UserSchedulerParams.builder()
+                    .userId(userId)
+                    .weights(fit.weights())
+                    .reviewCount(history.size())
+                    .logLoss(fit.logLoss())
+                    .optimizedAt(LocalDateTime.now())
+                    .build());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("FSRS optimization failed for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    private ReviewHistory loadHistory(Long userId) {
+        ReviewHistory.Builder builder = new ReviewHistory.Builder();
+        jdbcTemplate.query("SELECT flashcard_id, quality, elapsed_days, prior_interval FROM review_log " +
+                        "WHERE user_id = ? ORDER BY flashcard_id, reviewed_at",
+                rs -> {
+                    builder.add(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                }, userId);
+        return builder.build();
+    }
+
+    /**
+     * Fit weights to the history; null when the defaults are not beaten.
+     */
+    static Fit fit(ReviewHistory history) {
+        double[] w = FsrsSchedulerEngine.defaultWeights();
+        double best = logLoss(history, w);
+        double baseline = best;
+        if (Double.isNaN(best)) {
+            return null;
+        }
+
+        double[] step = new double[w.length];
+        for (int i = 0; i < w.length; i++) {
+            step[i] = (FsrsSchedulerEngine.MAX_WEIGHTS[i] - FsrsSchedulerEngine.MIN_WEIGHTS[i]) / 20;
+        }
+
+        for (int epoch = 0; epoch < MAX_EPOCHS; epoch++) {
+            boolean improved = false;
+            for (int i = 0; i < w.length; i++) {
+                double original = w[i];
+                for (int direction = -1; direction <= 1; direction += 2) {
+                    w[i] = clamp(original + direction * step[i],
+                            FsrsSchedulerEngine.MIN_WEIGHTS[i], FsrsSchedulerEngine.MAX_WEIGHTS[i]);
+                    double loss = logLoss(history, w);
+                    if (loss < best) {
+                        best = loss;
+                        improved = true;
+                        break;
+                    }
+                    w[i] = original;
+                }
+            }
+            if (!improved) {
+                boolean converged = true;
+                for (int i = 0; i < step.length; i++) {
+                    step[i] /= 2;
+                    converged &= step[i] < MIN_STEP;
+                }
+                if (converged) {
+                    break;
+                }
+            }
+        }
+        return best < baseline ? new Fit(w, best) : null;
+    }
+
+    /**
+     * Mean log loss of the recall probabilities the model predicts before each
+     * review that follows an earlier one.
+     */
+    static double logLoss(ReviewHistory history, double[] w) {
+        double loss = 0;
+        int predictions = 0;
+        for (int card = 0; card < history.cardCount(); card++) {
+            int start = history.cardStarts[card];
+            int end = history.cardStarts[card + 1];
+            double s;
+            double d;
+            int first = start;
+            if (history.priorIntervals[start] > 0) {
+                // First logged review of a card scheduled before the log existed
+                s = history.priorIntervals[start];
+                d = FsrsSchedulerEngine.initialDifficulty(w, FsrsSchedulerEngine.GOOD);
+            } else {
+                int rating = history.ratings[start];
+                s = w[rating - 1];
+                d = FsrsSchedulerEngine.initialDifficulty(w, rating);
+                first = start + 1;
+            }
+            for (int i = first; i < end; i++) {
+                int rating = history.ratings[i];
+                double r = clamp(FsrsSchedulerEngine.retrievability(history.elapsedDays[i], s), 1e-6, 1 - 1e-6);
+                loss -= rating == FsrsSchedulerEngine.AGAIN ? Math.log(1 - r) : Math.log(r);
+                predictions++;
+                s = rating == FsrsSchedulerEngine.AGAIN
+                        ? FsrsSchedulerEngine.forgetStability(w, d, s, r)
+                        : FsrsSchedulerEngine.recallStability(w, d, s, r, rating);
+                d = FsrsSchedulerEngine.nextDifficulty(w, d, rating);
+            }
+        }
+        return predictions == 0 ? Double.NaN : loss / predictions;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    record Fit(double[] weights, double logLoss) {
+    }
+
+    /**
+     * A user's reviews grouped by card in review order, as primitive arrays.
+     */
+    static final class ReviewHistory {
+        final int[] cardStarts; // cardStarts[c]..cardStarts[c + 1] are the reviews of card c
+        final byte[] ratings; // FSRS rating 1-4
+        final int[] elapsedDays;
+        final int[] priorIntervals;
+
+        private ReviewHistory(int[] cardStarts, byte[] ratings, int[] elapsedDays, int[] priorIntervals) {
+            this.cardStarts = cardStarts;
+            this.ratings = ratings;
+            this.elapsedDays = elapsedDays;
+            this.priorIntervals = priorIntervals;
+        }
+
+        int cardCount() {
+            return cardStarts.length - 1;
+        }
+
+        int size() {
+            return ratings.length;
+        }
+
+        static final class Builder {
+            private int[] cardStarts = new int[64];
+            private byte[] ratings = new byte[256];
+            private int[] elapsedDays = new int[256];
+            private int[] priorIntervals = new int[256];
+            private int cards;
+            private int size;
+            private long lastCardId = Long.MIN_VALUE;
+
+            Builder add(long cardId, int quality, int elapsed, int priorInterval) {
+                if (cardId != lastCardId) {
+                    if (cards + 1 >= cardStarts.length) {
+                        cardStarts = Arrays.copyOf(cardStarts, cardStarts.length * 2);
+                    }
+                    cardStarts[cards++] = size;
+                    lastCardId = cardId;
+                }
+                if (size == ratings.length) {
+                    ratings = Arrays.copyOf(ratings, size * 2);
+                    elapsedDays = Arrays.copyOf(elapsedDays, size * 2);
+                    priorIntervals = Arrays.copyOf(priorIntervals, size * 2);
+                }
+                ratings[size] = (byte) FsrsSchedulerEngine.rating(quality);
+                elapsedDays[size] = Math.max(0, elapsed);
+                priorIntervals[size] = priorInterval;
+                size++;
+                return this;
+            }
+
+            ReviewHistory build() {
+                int[] starts = Arrays.copyOf(cardStarts, cards + 1);
+                starts[cards] = size;
+                return new ReviewHistory(starts, Arrays.copyOf(ratings, size),
+                        Arrays.copyOf(elapsedDays, size), Arrays.copyOf(priorIntervals, size));
+            }
+        }
+    }
+
+    private class OptimizeTask extends RecursiveAction {
+        private final List<Long> userIds;
+        private final int from;
+        private final int to;
+        private final AtomicInteger updated;
+
+        OptimizeTask(List<Long> userIds, int from, int to, AtomicInteger updated) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.updated = updated;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (optimizeUser(userIds.get(from))) {
+                    updated.incrementAndGet();
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new OptimizeTask(userIds, from, mid, updated), new OptimizeTask(userIds, mid, to, updated));
+        }
+    }
+}
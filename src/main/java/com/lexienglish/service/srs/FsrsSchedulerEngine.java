@@ -0,0 +1,119 @@
+package com.lexienglish.service.srs;
+
+/**
+ * FSRS (Free Spaced Repetition Scheduler, v4.5 formulas).
+ *
+ * Models each card's memory by stability S (days until recall probability
+ * drops to 90%) and difficulty D (1-10), and schedules the next review when
+ * the predicted retrievability reaches {@link #REQUEST_RETENTION}. The 0-5
+ * quality scale maps onto FSRS ratings as 0-2 Again, 3 Hard, 4 Good, 5 Easy.
+ */
+public class FsrsSchedulerEngine implements SchedulerEngine {
+
+    static final double DECAY = -0.5;
+    static final double FACTOR = 19.0 / 81.0;
+    static final double REQUEST_RETENTION = 0.9;
+    static final int MAX_INTERVAL = 36500;
+    static final int MASTERED_INTERVAL = 21;
+
+    static final int AGAIN = 1;
+    static final int HARD = 2;
+    static final int GOOD = 3;
+    static final int EASY = 4;
+
+    public static final int WEIGHT_COUNT = 17;
+
+    private static final double[] DEFAULT_WEIGHTS = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755
+    };
+
+    // Bounds keep fitted weights in the range the model is defined for
+    static final double[] MIN_WEIGHTS = {
+            0.01, 0.01, 0.01, 0.01, 1, 0.001, 0.001, 0.001, 0, 0, 0.001, 0.001, 0.001, 0.001, 0, 0, 1
+    };
+    static final double[] MAX_WEIGHTS = {
+            100, 100, 100, 100, 10, 4, 4, 0.75, 4.5, 0.8, 3.5, 5, 0.25, 0.9, 4, 1, 6
+    };
+
+    public static double[] defaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    @Override
+    public void review(SrsState state, int quality, int elapsedDays, double[] weights) {
+        double[] w = weights != null ? weights : DEFAULT_WEIGHTS;
+        int q = Math.max(0, Math.min(5, quality));
+        int rating = rating(q);
+
+        if (state.getStability() <= 0) {
+            if (state.getInterval() > 0) {
+                // Card was scheduled by SM-2 so far: its interval targeted roughly 90% recall
+                state.setStability(state.getInterval());
+                state.setDifficulty(initialDifficulty(w, GOOD));
+                step(state, w, rating, elapsedDays);
+            } else {
+                state.setStability(w[rating - 1]);
+                state.setDifficulty(initialDifficulty(w, rating));
+            }
+        } else {
+            step(state, w, rating, elapsedDays);
+        }
+
+        int interval = nextInterval(state.getStability());
+        state.setInterval(interval);
+        state.setRepetitions(rating == AGAIN ? 0 : state.getRepetitions() + 1);
+        if (interval > MASTERED_INTERVAL && q >= 4) {
+            state.setMastered(true);
+        }
+    }
+
+    static int rating(int quality) {
+        return quality <= 2 ? AGAIN : quality - 1;
+    }
+
+    /**
+     * Update stability and difficulty of an already scheduled card.
+     */
+    static void step(SrsState state, double[] w, int rating, int elapsedDays) {
+        double s = state.getStability();
+        double d = state.getDifficulty();
+        double r = retrievability(Math.max(0, elapsedDays), s);
+        state.setStability(rating == AGAIN ? forgetStability(w, d, s, r) : recallStability(w, d, s, r, rating));
+        state.setDifficulty(nextDifficulty(w, d, rating));
+    }
+
+    static double retrievability(double elapsedDays, double stability) {
+        return Math.pow(1 + FACTOR * elapsedDays / stability, DECAY);
+    }
+
+    static int nextInterval(double stability) {
+        double days = stability / FACTOR * (Math.pow(REQUEST_RETENTION, 1 / DECAY) - 1);
+        return (int) Math.max(1, Math.min(MAX_INTERVAL, Math.round(days)));
+    }
+
+    static double initialDifficulty(double[] w, int rating) {
+        return clampDifficulty(w[4] - (rating - 3) * w[5]);
+    }
+
+    static double nextDifficulty(double[] w, double d, int rating) {
+        double next = d - w[6] * (rating - 3);
+        return clampDifficulty(w[7] * initialDifficulty(w, GOOD) + (1 - w[7]) * next);
+    }
+
+    static double recallStability(double[] w, double d, double s, double r, int rating) {
+        double hardPenalty = rating == HARD ? w[15] : 1;
+        double easyBonus = rating == EASY ? w[16] : 1;
+        return s * (1 + Math.exp(w[8]) * (11 - d) * Math.pow(s, -w[9])
+                * (Math.exp(w[10] * (1 - r)) - 1) * hardPenalty * easyBonus);
+    }
+
+    static double forgetStability(double[] w, double d, double s, double r) {
+        double next = w[11] * Math.pow(d, -w[12]) * (Math.pow(s + 1, w[13]) - 1) * Math.exp(w[14] * (1 - r));
+        return Math.max(0.01, Math.min(s, next));
+    }
+
+    private static double clampDifficulty(double d) {
+        return Math.max(1, Math.min(10, d));
+    }
+}
@@ -0,0 +1,120 @@
+package com.lexienglish.service.srs;
+
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserSchedulerParams;
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.FlashcardCounterService;
+import com.lexienglish.service.ReviewLogWriter;
+import com.lexienglish.service.reminder.DueCardIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Applies reviews to flashcards with the owner's scheduling algorithm and
+ * records them in the review log, the owner's counters and the due card
+ * index. Resolve a {@link Session} once per user, reuse it for every card of
+ * a request and close it when the request's reviews are applied: the counters
+ * and the due card index are updated once per session, not once per card.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewScheduler {
+
+    private static final Map<User.Scheduler, SchedulerEngine> ENGINES = new EnumMap<>(Map.of(
+            User.Scheduler.SM2, new Sm2SchedulerEngine(),
+            User.Scheduler.FSRS, new FsrsSchedulerEngine()));
+
+    private final UserSchedulerParamsRepository paramsRepository;
+    private final ReviewLogWriter reviewLogWriter;
+    private final FlashcardCounterService counterService;
+    private final DueCardIndex dueCardIndex;
+
+    public Session sessionFor(User user) {
+        double[] weights = null;
+        if (user.getScheduler() == User.Scheduler.FSRS) {
+            weights = paramsRepository.findById(user.getId())
+                    .map(UserSchedulerParams::getWeights)
+                    .orElse(null);
+        }
+        return new Session(user.getId(), ENGINES.get(user.getScheduler()), weights);
+    }
+
+    public class Session implements AutoCloseable {
+
+        private final Long userId;
+        private final SchedulerEngine engine;
+        private final double[] weights;
+        private final SrsState state = new SrsState();
+
+        // Changes to the owner's counters, applied at close
+        private int reviews;
+        private int reviewedToday;
+        private int masteredDelta;
+
+        private Session(Long userId, SchedulerEngine engine, double[] weights) {
+            this.userId = userId;
+            this.engine = engine;
+            this.weights = weights;
+        }
+
+        public void review(Flashcard card, int quality, LocalDateTime reviewedAt) {
+            int priorInterval = card.getInterval();
+            BigDecimal priorEase = card.getEaseFactor();
+            LocalDateTime priorReviewedAt = card.getLastReviewedDate();
+            boolean priorMastered = card.isMastered();
+
+            state.setEase(priorEase.doubleValue());
+            state.setInterval(priorInterval);
+            state.setRepetitions(card.getRepetitions());
+            state.setStability(card.getStability());
+            state.setDifficulty(card.getDifficulty());
+            state.setMastered(card.isMastered());
+
+            int elapsedDays = priorReviewedAt != null ? (int) ChronoUnit.DAYS.between(priorReviewedAt, reviewedAt) : 0;
+            engine.review(state, quality, elapsedDays, weights);
+
+            if (state.getEase() != priorEase.doubleValue()) {
+                card.setEaseFactor(BigDecimal.valueOf(state.getEase()));
+            }
+            card.setInterval(state.getInterval());
+            card.setRepetitions(state.getRepetitions());
+            card.setStability(state.getStability());
+            card.setDifficulty(state.getDifficulty());
+            card.setMastered(state.isMastered());
+            card.setLastReviewedDate(reviewedAt);
+            card.setNextReviewDate(reviewedAt.plusDays(state.getInterval()));
+
+            reviewLogWriter.recordReview(card, quality, priorInterval, priorEase, priorReviewedAt);
+            reviews++;
+            // Reviews dated before today (an offline session synced late) do not count towards reviewed today
+            if (reviewedAt.toLocalDate().equals(LocalDate.now())) {
+                reviewedToday++;
+            }
+            masteredDelta += Boolean.compare(card.isMastered(), priorMastered);
+        }
+
+        /**
+         * Record the session's reviews in the owner's counters and refresh
+         * their due date in the index.
+         */
+        @Override
+        public void close() {
+            if (reviews == 0) {
+                return;
+            }
+            counterService.reviewed(userId, reviewedToday, masteredDelta);
+            dueCardIndex.refresh(userId);
+            reviews = 0;
+            reviewedToday = 0;
+            masteredDelta = 0;
+        }
+    }
+}
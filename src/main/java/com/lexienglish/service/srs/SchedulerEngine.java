@@ -0,0 +1,17 @@
+package com.lexienglish.service.srs;
+
+/**
+ * Spaced repetition algorithm. Implementations are stateless and must not
+ * allocate per review; selected per user through User.scheduler.
+ */
+public interface SchedulerEngine {
+
+    /**
+     * Apply one review to the state in place.
+     *
+     * @param quality     User's self-rating 0-5 (0=complete blackout, 5=perfect response)
+     * @param elapsedDays Days since the previous review, 0 for the first one
+     * @param weights     Per-user parameters, or null for the engine defaults
+     */
+    void review(SrsState state, int quality, int elapsedDays, double[] weights);
+}
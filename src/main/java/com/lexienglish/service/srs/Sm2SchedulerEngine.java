@@ -0,0 +1,40 @@
+package com.lexienglish.service.srs;
+
+/**
+ * SM-2 algorithm, as previously implemented in Flashcard.updateSRS.
+ */
+public class Sm2SchedulerEngine implements SchedulerEngine {
+
+    static final double MIN_EASE = 1.3;
+    static final int MASTERED_INTERVAL = 21;
+
+    @Override
+    public void review(SrsState state, int quality, int elapsedDays, double[] weights) {
+        int q = Math.max(0, Math.min(5, quality));
+
+        // Update repetitions count
+        int repetitions = q >= 3 ? state.getRepetitions() + 1 : 0;
+
+        // Update ease factor
+        double ease = Math.max(MIN_EASE, state.getEase() + (0.1 - (5 - q) * (0.08 + (5 - q) * 0.02)));
+
+        // Calculate interval
+        int interval;
+        if (repetitions <= 1) {
+            interval = 1;
+        } else if (repetitions == 2) {
+            interval = 6;
+        } else {
+            interval = (int) Math.round(state.getInterval() * ease);
+        }
+
+        state.setRepetitions(repetitions);
+        state.setEase(ease);
+        state.setInterval(interval);
+
+        // Mark as mastered if interval > 21 days and quality >= 4
+        if (interval > MASTERED_INTERVAL && q >= 4) {
+            state.setMastered(true);
+        }
+    }
+}
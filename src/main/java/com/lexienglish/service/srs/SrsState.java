@@ -0,0 +1,20 @@
+package com.lexienglish.service.srs;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Mutable scheduling state of one card, updated in place by a
+ * SchedulerEngine. Primitive-only so a session can reuse a single instance
+ * for every card it reviews.
+ */
+@Getter
+@Setter
+public class SrsState {
+    private double ease;
+    private int interval; // Days until next review
+    private int repetitions;
+    private double stability; // FSRS, 0 until the card is first scheduled by FSRS
+    private double difficulty; // FSRS, 1-10
+    private boolean mastered;
+}
@@ -0,0 +1,19 @@
+-- V10__add_flashcard_sync.sql
+-- Delta sync for offline clients: changed cards are found by
+-- (updated_at, id) and deletions are kept as tombstones for a limited time.
+
+CREATE INDEX idx_flashcards_sync ON flashcards(user_id, updated_at, id);
+
+-- Client-generated id of a card created offline, so a replayed create is
+-- recognised instead of duplicating the card
+ALTER TABLE flashcards ADD COLUMN client_ref VARCHAR(64);
+CREATE UNIQUE INDEX idx_flashcards_client_ref ON flashcards(user_id, client_ref) WHERE client_ref IS NOT NULL;
+
+CREATE TABLE flashcard_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    flashcard_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_flashcard_tombstones_user ON flashcard_tombstones(user_id, deleted_at);
@@ -0,0 +1,36 @@
+-- V11__add_shared_card_contents.sql
+-- Flashcards generated from documents reference one shared, immutable copy of
+-- their text instead of each user's row carrying front/back/example. Content
+-- is deduplicated by a SHA-256 of its fields, so the same card studied by many
+-- users is stored once. A card's own columns are null while it points at
+-- shared content; editing it copies the content back into the row first and
+-- flags it as detached, so CardContentBackfillService leaves it alone.
+
+CREATE TABLE card_contents (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL,
+    front TEXT NOT NULL,
+    back TEXT NOT NULL,
+    example TEXT,
+    phonetic VARCHAR(255),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(front, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(back, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(example, '')), 'C')
+    ) STORED,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_card_contents_hash ON card_contents(content_hash);
+CREATE INDEX idx_card_contents_search ON card_contents USING GIN (search_vector);
+
+ALTER TABLE flashcards ADD COLUMN content_id BIGINT REFERENCES card_contents(id);
+CREATE INDEX idx_flashcards_content ON flashcards(content_id);
+ALTER TABLE flashcards ADD COLUMN content_detached BOOLEAN NOT NULL DEFAULT false;
+
+ALTER TABLE flashcards ALTER COLUMN front DROP NOT NULL;
+ALTER TABLE flashcards ALTER COLUMN back DROP NOT NULL;
+
+-- Every existing row has its own content; NOT VALID skips re-checking them
+ALTER TABLE flashcards ADD CONSTRAINT chk_flashcards_content
+    CHECK (content_id IS NOT NULL OR (front IS NOT NULL AND back IS NOT NULL)) NOT VALID;
@@ -0,0 +1,22 @@
+-- V12__create_flashcard_counters.sql
+-- Per-user flashcard counts, kept up to date by FlashcardCounterService so
+-- stats reads are a primary-key lookup instead of COUNT(*) scans. Learning is
+-- total - mastered. reviewed_today belongs to review_day and reads as 0 on
+-- any other day.
+
+CREATE TABLE flashcard_counters (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    total INTEGER NOT NULL DEFAULT 0,
+    mastered INTEGER NOT NULL DEFAULT 0,
+    reviewed_today INTEGER NOT NULL DEFAULT 0,
+    review_day DATE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO flashcard_counters (user_id, total, mastered, reviewed_today, review_day)
+SELECT u.id,
+       (SELECT count(*) FROM flashcards f WHERE f.user_id = u.id),
+       (SELECT count(*) FROM flashcards f WHERE f.user_id = u.id AND f.is_mastered),
+       (SELECT count(*) FROM review_log r WHERE r.user_id = u.id AND r.reviewed_at >= CURRENT_DATE),
+       CURRENT_DATE
+FROM users u;
@@ -0,0 +1,62 @@
+-- V13__add_mock_test_content_version.sql
+-- Content version of each mock test for MockTestCatalogCache. Any change to a
+-- test, its questions or their options gives the test a new version from
+-- mock_test_content_version_seq. The version is assigned to the edited row
+-- itself, so it only becomes visible once the edit commits, and the set of
+-- (id, content_version) pairs changes whenever the catalog may have changed.
+--
+-- Question options get an explicit position so they keep their order when
+-- loaded together with their questions.
+
+ALTER TABLE question_options ADD COLUMN option_order INTEGER;
+
+UPDATE question_options o
+SET option_order = n.position
+FROM (SELECT ctid, row_number() OVER (PARTITION BY question_id ORDER BY ctid) - 1 AS position
+      FROM question_options) n
+WHERE o.ctid = n.ctid;
+
+ALTER TABLE question_options
+    ALTER COLUMN option_order SET NOT NULL,
+    ADD PRIMARY KEY (question_id, option_order);
+
+CREATE SEQUENCE mock_test_content_version_seq;
+
+ALTER TABLE mock_tests
+    ADD COLUMN content_version BIGINT NOT NULL DEFAULT nextval('mock_test_content_version_seq');
+
+CREATE FUNCTION bump_mock_test_content_version() RETURNS trigger AS $$
+BEGIN
+    NEW.content_version := nextval('mock_test_content_version_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER mock_tests_content_version
+    BEFORE UPDATE ON mock_tests
+    FOR EACH ROW EXECUTE FUNCTION bump_mock_test_content_version();
+
+-- Question changes touch their test, which bumps its version through the trigger above
+CREATE FUNCTION touch_mock_test_for_question() RETURNS trigger AS $$
+BEGIN
+    UPDATE mock_tests SET updated_at = CURRENT_TIMESTAMP
+    WHERE id IN (NEW.mock_test_id, OLD.mock_test_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER questions_touch_mock_test
+    AFTER INSERT OR UPDATE OR DELETE ON questions
+    FOR EACH ROW EXECUTE FUNCTION touch_mock_test_for_question();
+
+CREATE FUNCTION touch_mock_test_for_option() RETURNS trigger AS $$
+BEGIN
+    UPDATE mock_tests SET updated_at = CURRENT_TIMESTAMP
+    WHERE id IN (SELECT mock_test_id FROM questions WHERE id IN (NEW.question_id, OLD.question_id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER question_options_touch_mock_test
+    AFTER INSERT OR UPDATE OR DELETE ON question_options
+    FOR EACH ROW EXECUTE FUNCTION touch_mock_test_for_option();
@@ -0,0 +1,17 @@
+-- V14__create_grading_jobs.sql
+-- Durable queue of completed test attempts waiting for AI grading, drained by
+-- GradingQueue. A worker claims a job by leasing it until locked_until, so
+-- jobs of a worker that died are picked up again once the lease expires.
+-- Failed jobs are retried at next_attempt_at with exponential backoff.
+
+CREATE TABLE grading_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    test_attempt_id BIGINT NOT NULL UNIQUE REFERENCES test_attempts(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_grading_jobs_next_attempt ON grading_jobs (next_attempt_at);
@@ -0,0 +1,16 @@
+-- V15__add_user_response_unique_index.sql
+-- At most one response per question and attempt, so answers can be upserted
+-- in batches with INSERT ... ON CONFLICT (test_attempt_id, question_id).
+-- Duplicates left by concurrent submissions collapse to the latest one. The
+-- unique index also serves lookups by attempt and replaces
+-- idx_user_responses_attempt.
+
+DELETE FROM user_responses r
+USING user_responses newer
+WHERE newer.test_attempt_id = r.test_attempt_id
+  AND newer.question_id = r.question_id
+  AND newer.id > r.id;
+
+CREATE UNIQUE INDEX uq_user_responses_attempt_question ON user_responses (test_attempt_id, question_id);
+
+DROP INDEX idx_user_responses_attempt;
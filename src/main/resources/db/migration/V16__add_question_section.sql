@@ -0,0 +1,18 @@
+-- V16__add_question_section.sql
+-- Skill section each question is scored under, so attempts can be scored per
+-- section (reading_score, listening_score, ...) by one aggregate query. NULL
+-- means the skill type of the question's test. Questions of existing MIXED
+-- tests are assigned from their type and media.
+
+ALTER TABLE questions ADD COLUMN section VARCHAR(50);
+
+UPDATE questions q
+SET section = CASE
+        WHEN q.question_type = 'SPEAKING' THEN 'SPEAKING'
+        WHEN q.question_type = 'ESSAY' THEN 'WRITING'
+        WHEN q.audio_url IS NOT NULL THEN 'LISTENING'
+        ELSE 'READING'
+    END
+FROM mock_tests m
+WHERE m.id = q.mock_test_id
+  AND m.skill_type = 'MIXED';
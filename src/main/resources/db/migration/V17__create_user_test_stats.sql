@@ -0,0 +1,61 @@
+-- V17__create_user_test_stats.sql
+-- Per-user mock test analytics, kept up to date by UserTestStatsService when
+-- attempts start and complete, so the analytics endpoint is a primary-key
+-- read instead of eight scans of test_attempts. Averages are stored as sum and
+-- count of the completed attempts' percentage scores; recent_scores holds the
+-- last ten of them, oldest first.
+
+CREATE TABLE user_test_stats (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    total_attempts INTEGER NOT NULL DEFAULT 0,
+    completed_attempts INTEGER NOT NULL DEFAULT 0,
+    score_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    score_count INTEGER NOT NULL DEFAULT 0,
+    best_score DECIMAL(5,2),
+    ielts_completed INTEGER NOT NULL DEFAULT 0,
+    toefl_completed INTEGER NOT NULL DEFAULT 0,
+    sat_completed INTEGER NOT NULL DEFAULT 0,
+    act_completed INTEGER NOT NULL DEFAULT 0,
+    reading_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    reading_count INTEGER NOT NULL DEFAULT 0,
+    listening_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    listening_count INTEGER NOT NULL DEFAULT 0,
+    writing_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    writing_count INTEGER NOT NULL DEFAULT 0,
+    speaking_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    speaking_count INTEGER NOT NULL DEFAULT 0,
+    recent_scores DECIMAL(5,2)[] NOT NULL DEFAULT '{}',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO user_test_stats (user_id, total_attempts, completed_attempts, score_sum, score_count, best_score,
+                             ielts_completed, toefl_completed, sat_completed, act_completed,
+                             reading_sum, reading_count, listening_sum, listening_count,
+                             writing_sum, writing_count, speaking_sum, speaking_count, recent_scores)
+SELECT a.user_id,
+       count(*),
+       count(*) FILTER (WHERE a.status = 'COMPLETED'),
+       COALESCE(sum(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+       count(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'),
+       max(a.percentage_score) FILTER (WHERE a.status = 'COMPLETED'),
+       count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'IELTS'),
+       count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'TOEFL'),
+       count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'SAT'),
+       count(*) FILTER (WHERE a.status = 'COMPLETED' AND m.test_type = 'ACT'),
+       COALESCE(sum(a.reading_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+       count(a.reading_score) FILTER (WHERE a.status = 'COMPLETED'),
+       COALESCE(sum(a.listening_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+       count(a.listening_score) FILTER (WHERE a.status = 'COMPLETED'),
+       COALESCE(sum(a.writing_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+       count(a.writing_score) FILTER (WHERE a.status = 'COMPLETED'),
+       COALESCE(sum(a.speaking_score) FILTER (WHERE a.status = 'COMPLETED'), 0),
+       count(a.speaking_score) FILTER (WHERE a.status = 'COMPLETED'),
+       COALESCE((SELECT array_agg(r.percentage_score ORDER BY r.completed_at, r.id)
+                 FROM (SELECT percentage_score, completed_at, id
+                       FROM test_attempts
+                       WHERE user_id = a.user_id AND status = 'COMPLETED' AND percentage_score IS NOT NULL
+                       ORDER BY completed_at DESC, id DESC
+                       LIMIT 10) r), '{}')
+FROM test_attempts a
+JOIN mock_tests m ON m.id = a.mock_test_id
+GROUP BY a.user_id;
@@ -0,0 +1,25 @@
+-- V18__create_mock_test_score_sketches.sql
+-- Distribution of the percentage scores of completed attempts per mock test,
+-- used by ScorePercentileService to rank an attempt against everyone who took
+-- the test. counts is a histogram of 201 half-point buckets, the last one
+-- holding 100; nodes add the scores they recorded to it periodically.
+
+CREATE TABLE mock_test_score_sketches (
+    mock_test_id BIGINT PRIMARY KEY REFERENCES mock_tests(id) ON DELETE CASCADE,
+    counts BIGINT[] NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO mock_test_score_sketches (mock_test_id, counts)
+SELECT t.id,
+       ARRAY(SELECT count(a.id)
+             FROM generate_series(0, 200) b
+             LEFT JOIN test_attempts a
+                    ON a.mock_test_id = t.id
+                   AND a.status = 'COMPLETED'
+                   AND a.percentage_score IS NOT NULL
+                   AND LEAST(GREATEST(floor(a.percentage_score * 2), 0), 200) = b
+             GROUP BY b
+             ORDER BY b)
+FROM mock_tests t
+WHERE EXISTS (SELECT 1 FROM test_attempts a WHERE a.mock_test_id = t.id AND a.status = 'COMPLETED');
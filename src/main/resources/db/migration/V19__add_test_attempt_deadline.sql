@@ -0,0 +1,15 @@
+-- V19__add_test_attempt_deadline.sql
+-- Server-side exam timers: an attempt's time is up at deadline_at, its start
+-- plus the test's duration. AttemptDeadlineService completes attempts as their
+-- deadline passes and abandons those still IN_PROGRESS long after it; the
+-- partial index serves its startup rebuild and the abandonment sweep.
+
+ALTER TABLE test_attempts ADD COLUMN deadline_at TIMESTAMP;
+
+UPDATE test_attempts a
+SET deadline_at = a.started_at + m.duration_minutes * INTERVAL '1 minute'
+FROM mock_tests m
+WHERE m.id = a.mock_test_id;
+
+CREATE INDEX idx_test_attempts_in_progress_deadline ON test_attempts (deadline_at)
+    WHERE status = 'IN_PROGRESS';
@@ -0,0 +1,56 @@
+-- V20__create_question_stats.sql
+-- Item analysis per question, maintained by QuestionStatsService as attempts
+-- complete so authors can rank questions without scanning user_responses.
+-- Each metric is a running count, mean and sum of squared deviations (M2),
+-- merged one attempt at a time with Welford's update. score_rest_c2 is the
+-- co-moment of the question's score and the attempt's rest score (its summed
+-- score without the item, so short tests do not inflate the correlation);
+-- with score_m2 and rest_m2 it gives the item-rest correlation.
+
+CREATE TABLE question_stats (
+    question_id BIGINT PRIMARY KEY REFERENCES questions(id) ON DELETE CASCADE,
+    responses BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    scored BIGINT NOT NULL DEFAULT 0,
+    score_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    rest_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    rest_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_rest_c2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    timed BIGINT NOT NULL DEFAULT 0,
+    time_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    time_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Completions only queue their attempt, so concurrent completions of a test
+-- do not queue on its question_stats rows; QuestionStatsService folds queued
+-- attempts into the stats in batches of its own.
+CREATE TABLE question_stats_queue (
+    test_attempt_id BIGINT PRIMARY KEY REFERENCES test_attempts(id) ON DELETE CASCADE,
+    queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill from the responses of completed attempts
+INSERT INTO question_stats (question_id, responses, correct, scored, score_mean, score_m2,
+                            rest_mean, rest_m2, score_rest_c2, timed, time_mean, time_m2)
+SELECT r.question_id,
+       count(*),
+       count(*) FILTER (WHERE r.is_correct),
+       count(r.score),
+       COALESCE(avg(r.score), 0),
+       COALESCE(var_pop(r.score) * count(r.score), 0),
+       COALESCE(avg(r.rest), 0),
+       COALESCE(var_pop(r.rest) * count(r.rest), 0),
+       COALESCE(covar_pop(r.score, r.rest) * count(r.score), 0),
+       count(r.time_spent_seconds),
+       COALESCE(avg(r.time_spent_seconds), 0),
+       COALESCE(var_pop(r.time_spent_seconds) * count(r.time_spent_seconds), 0)
+FROM (
+    SELECT r.question_id, r.is_correct, r.score, r.time_spent_seconds,
+           sum(r.score) OVER (PARTITION BY r.test_attempt_id) - r.score AS rest
+    FROM user_responses r
+    JOIN test_attempts a ON a.id = r.test_attempt_id
+    WHERE a.status = 'COMPLETED'
+) r
+GROUP BY r.question_id;
@@ -0,0 +1,5 @@
+-- V21__add_flashcard_updated_index.sql
+-- The due reminder leader rescans the users whose cards changed since its
+-- last scan, across all users, which idx_flashcards_sync cannot serve.
+
+CREATE INDEX idx_flashcards_updated ON flashcards(updated_at);
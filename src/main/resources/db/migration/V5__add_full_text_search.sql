@@ -0,0 +1,29 @@
+-- V5__add_full_text_search.sql
+-- Full-text search over documents, lessons and flashcards
+
+-- Weighted search vectors (A = titles/fronts, B = descriptions/backs, C = bodies)
+ALTER TABLE documents ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(raw_content, '')), 'C')
+    ) STORED;
+
+ALTER TABLE lessons ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(summary, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(content, '')), 'C')
+    ) STORED;
+
+ALTER TABLE flashcards ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(front, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(back, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(example, '')), 'C')
+    ) STORED;
+
+-- GIN indexes for @@ matching
+CREATE INDEX idx_documents_search ON documents USING GIN (search_vector);
+CREATE INDEX idx_lessons_search ON lessons USING GIN (search_vector);
+CREATE INDEX idx_flashcards_search ON flashcards USING GIN (search_vector);
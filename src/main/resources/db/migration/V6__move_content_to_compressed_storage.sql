@@ -0,0 +1,57 @@
+-- V6__move_content_to_compressed_storage.sql
+-- Move documents.raw_content and lessons.content into a separate table of
+-- LZ4-compressed blobs. Every statement here is metadata-only or touches an
+-- empty table; existing rows are converted online in batches by
+-- ContentBackfillService, which clears the legacy columns as it goes.
+
+CREATE TABLE text_contents (
+    id BIGSERIAL PRIMARY KEY,
+    data BYTEA NOT NULL,          -- LZ4 frame of the UTF-8 text
+    search_vector tsvector,       -- Built from the plain text at write time
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_text_contents_search ON text_contents USING GIN (search_vector);
+
+ALTER TABLE documents ADD COLUMN content_id BIGINT REFERENCES text_contents(id) ON DELETE SET NULL;
+ALTER TABLE lessons ADD COLUMN content_id BIGINT REFERENCES text_contents(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_documents_content ON documents(content_id);
+CREATE INDEX idx_lessons_content ON lessons(content_id);
+
+-- Body text no longer lives on the parent rows, so their search vectors only
+-- cover title/description (documents) and title/summary (lessons). Dropping
+-- the generation expression keeps the existing values without a table rewrite;
+-- a trigger maintains them from now on. It also fires when the legacy body
+-- column changes, so the backfill clearing it drops the body tokens V5
+-- generated; search adds the text_contents vector, and would otherwise count
+-- moved bodies twice.
+ALTER TABLE documents ALTER COLUMN search_vector DROP EXPRESSION;
+ALTER TABLE lessons ALTER COLUMN search_vector DROP EXPRESSION;
+
+CREATE FUNCTION documents_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(NEW.description, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION lessons_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(NEW.summary, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_documents_search_vector
+    BEFORE INSERT OR UPDATE OF title, description, raw_content ON documents
+    FOR EACH ROW EXECUTE FUNCTION documents_search_vector_update();
+
+CREATE TRIGGER trg_lessons_search_vector
+    BEFORE INSERT OR UPDATE OF title, summary, content ON lessons
+    FOR EACH ROW EXECUTE FUNCTION lessons_search_vector_update();
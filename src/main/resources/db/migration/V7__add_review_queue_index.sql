@@ -0,0 +1,6 @@
+-- V7__add_review_queue_index.sql
+-- Keyset index for the flashcard review queue. Mastered cards are never
+-- reviewed, so they are left out of the index entirely.
+
+CREATE INDEX idx_flashcards_review_queue ON flashcards(user_id, next_review_date, id)
+    WHERE is_mastered = false;
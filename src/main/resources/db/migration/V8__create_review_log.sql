@@ -0,0 +1,50 @@
+-- V8__create_review_log.sql
+-- Append-only history of flashcard reviews, range-partitioned by month so
+-- daily statistics and retention analytics only touch recent partitions and
+-- old months can be detached or dropped cheaply.
+
+CREATE TABLE review_log (
+    id BIGSERIAL,
+    flashcard_id BIGINT NOT NULL,       -- No FK: history outlives deleted cards
+    user_id BIGINT NOT NULL,
+    quality SMALLINT NOT NULL,          -- 0-5 SM-2 rating
+    elapsed_days INTEGER,               -- Days since the previous review, NULL on the first one
+    prior_interval INTEGER NOT NULL,
+    new_interval INTEGER NOT NULL,
+    prior_ease DECIMAL(4,2) NOT NULL,
+    new_ease DECIMAL(4,2) NOT NULL,
+    reviewed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, reviewed_at)
+) PARTITION BY RANGE (reviewed_at);
+
+CREATE INDEX idx_review_log_user ON review_log(user_id, reviewed_at);
+CREATE INDEX idx_review_log_flashcard ON review_log(flashcard_id, reviewed_at);
+
+-- Catches rows outside every monthly partition (e.g. an old offline review)
+CREATE TABLE review_log_default PARTITION OF review_log DEFAULT;
+
+-- Creates the partition holding the given month if it does not exist yet.
+-- Called here for the first months and by ReviewLogWriter ahead of time.
+-- Creating a partition fails once the default partition holds rows for its
+-- month, so it is built as a plain table, the month's rows are moved into it
+-- out of the default partition and it is attached afterwards, all in the one
+-- statement that calls the function.
+CREATE FUNCTION create_review_log_partition(month DATE) RETURNS void AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month);
+    end_date DATE := start_date + INTERVAL '1 month';
+    partition_name TEXT := 'review_log_' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE review_log INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM review_log_default WHERE reviewed_at >= %L AND reviewed_at < %L '
+                   'RETURNING *) INSERT INTO %I SELECT * FROM moved', start_date, end_date, partition_name);
+    EXECUTE format('ALTER TABLE review_log ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, end_date);
+END
+$$ LANGUAGE plpgsql;
+
+SELECT create_review_log_partition(CAST(CURRENT_DATE + make_interval(months => m) AS DATE))
+FROM generate_series(0, 2) AS m;
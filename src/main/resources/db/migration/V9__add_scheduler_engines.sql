@@ -0,0 +1,16 @@
+-- V9__add_scheduler_engines.sql
+-- Per-user choice of scheduling algorithm (SM-2 or FSRS), the FSRS memory
+-- state of each card, and per-user FSRS weights fitted from review_log.
+
+ALTER TABLE users ADD COLUMN scheduler VARCHAR(20) NOT NULL DEFAULT 'SM2';
+
+ALTER TABLE flashcards ADD COLUMN stability DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE flashcards ADD COLUMN difficulty DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+CREATE TABLE user_scheduler_params (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    weights DOUBLE PRECISION[] NOT NULL,
+    review_count INTEGER NOT NULL,      -- Reviews the weights were fitted on
+    log_loss DOUBLE PRECISION NOT NULL, -- Of the fitted weights on those reviews
+    optimized_at TIMESTAMP NOT NULL
+);
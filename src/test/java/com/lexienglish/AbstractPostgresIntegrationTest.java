@@ -0,0 +1,99 @@
+package com.lexienglish;
+
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+/**
+ * Base class for tests that need a real PostgreSQL schema (Flyway migrations,
+ * native queries, statement counts). The container is started once and shared
+ * by all subclasses so cached Spring contexts keep a valid datasource.
+ * Skipped when Docker is unavailable.
+ *
+ * Also saves the users, documents and mock tests most tests start from.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractPostgresIntegrationTest {
+
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    private UserRepository fixtureUserRepository;
+
+    @Autowired
+    private DocumentRepository fixtureDocumentRepository;
+
+    @Autowired
+    private MockTestRepository fixtureMockTestRepository;
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    /**
+     * A user with a unique email, for tests whose rows outlive them.
+     */
+    protected User createUser() {
+        return createUser("user-" + UUID.randomUUID() + "@example.com");
+    }
+
+    protected User createUser(String email) {
+        return fixtureUserRepository.save(User.builder()
+                .email(email)
+                .password("secret")
+                .fullName("User")
+                .build());
+    }
+
+    /**
+     * A processed TXT document of the user.
+     */
+    protected Document createDocument(User user) {
+        return fixtureDocumentRepository.save(document(user).build());
+    }
+
+    protected Document.DocumentBuilder document(User user) {
+        return Document.builder()
+                .title("Doc")
+                .fileName("doc.txt")
+                .filePath("/tmp/doc.txt")
+                .fileType(Document.FileType.TXT)
+                .status(Document.ProcessingStatus.COMPLETED)
+                .user(user);
+    }
+
+    /**
+     * A published one-hour IELTS test, without questions.
+     */
+    protected MockTest createMockTest(MockTest.SkillType skillType, int totalQuestions) {
+        return fixtureMockTestRepository.save(mockTest(skillType, totalQuestions).build());
+    }
+
+    protected MockTest.MockTestBuilder mockTest(MockTest.SkillType skillType, int totalQuestions) {
+        return MockTest.builder()
+                .title(skillType + " practice")
+                .testType(MockTest.TestType.IELTS)
+                .skillType(skillType)
+                .durationMinutes(60)
+                .totalQuestions(totalQuestions)
+                .published(true);
+    }
+}
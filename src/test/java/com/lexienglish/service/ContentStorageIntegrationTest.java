@@ -0,0 +1,148 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Lesson;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.TextContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContentStorageIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private TextContentRepository textContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = createUser();
+    }
+
+    @Test
+    void rawContent_IsStoredCompressedAndReadBack() {
+        // Given
+        String text = "The quick brown fox jumps over the lazy dog. ".repeat(500);
+
+        // When
+        Long documentId = documentRepository.save(newDocument(text)).getId();
+
+        // Then
+        String reloaded = transactionTemplate.execute(status ->
+                documentRepository.findById(documentId).orElseThrow().getRawContent());
+        assertThat(reloaded).isEqualTo(text);
+        Integer storedBytes = jdbcTemplate.queryForObject(
+                "SELECT octet_length(c.data) FROM documents d JOIN text_contents c ON c.id = d.content_id " +
+                        "WHERE d.id = ?", Integer.class, documentId);
+        assertThat(storedBytes).isLessThan(text.length() / 10);
+    }
+
+    @Test
+    void backfill_MovesLegacyColumnsIntoCompressedStorage() {
+        // Given
+        Document document = documentRepository.save(newDocument(null));
+        Lesson lesson = lessonRepository.save(Lesson.builder()
+                .title("Lesson")
+                .orderIndex(0)
+                .document(document)
+                .build());
+        jdbcTemplate.update("UPDATE documents SET raw_content = ? WHERE id = ?", "legacy document body", document.getId());
+        jdbcTemplate.update("UPDATE lessons SET content = ? WHERE id = ?", "legacy lesson body", lesson.getId());
+
+        // When
+        new ContentBackfillService(textContentRepository, transactionManager).backfill();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM documents WHERE raw_content IS NOT NULL " +
+                "OR content_id IS NULL AND id = ?", Integer.class, document.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM lessons WHERE content IS NOT NULL " +
+                "OR content_id IS NULL AND id = ?", Integer.class, lesson.getId())).isZero();
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(documentRepository.findById(document.getId()).orElseThrow().getRawContent())
+                    .isEqualTo("legacy document body");
+            assertThat(lessonRepository.findById(lesson.getId()).orElseThrow().getContent())
+                    .isEqualTo("legacy lesson body");
+        });
+    }
+
+    @Test
+    void backfill_DropsMovedBodyFromTheParentSearchVector() {
+        // Given: a pre-V6 row, whose vector was generated from title, description and body
+        Document document = documentRepository.save(newDocument(null));
+        jdbcTemplate.update("UPDATE documents SET raw_content = ? WHERE id = ?", "legacy serendipity", document.getId());
+        jdbcTemplate.update("UPDATE documents SET search_vector = to_tsvector('english', title || ' ' || raw_content) " +
+                "WHERE id = ?", document.getId());
+
+        // When
+        new ContentBackfillService(textContentRepository, transactionManager).backfill();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT d.search_vector @@ to_tsquery('english', 'serendipity') " +
+                "FROM documents d WHERE d.id = ?", Boolean.class, document.getId())).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT c.search_vector @@ to_tsquery('english', 'serendipity') " +
+                "FROM documents d JOIN text_contents c ON c.id = d.content_id WHERE d.id = ?",
+                Boolean.class, document.getId())).isTrue();
+    }
+
+    @Test
+    void purgeUnreferenced_RemovesOnlyOldContentNoRowPointsTo() {
+        // Given
+        Long referenced = documentRepository.save(newDocument("kept body")).getId();
+        Long orphaned = documentRepository.save(newDocument("orphaned body")).getId();
+        Long orphanedContent = jdbcTemplate.queryForObject("SELECT content_id FROM documents WHERE id = ?",
+                Long.class, orphaned);
+        jdbcTemplate.update("DELETE FROM documents WHERE id = ?", orphaned);
+        jdbcTemplate.update("UPDATE text_contents SET created_at = now() - interval '2 days'");
+
+        // When
+        new ContentBackfillService(textContentRepository, transactionManager).purgeUnreferenced();
+
+        // Then
+        assertThat(textContentRepository.existsById(orphanedContent)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM documents d JOIN text_contents c " +
+                "ON c.id = d.content_id WHERE d.id = ?", Integer.class, referenced)).isEqualTo(1);
+    }
+
+    private Document newDocument(String rawContent) {
+        return Document.builder()
+                .title("Doc")
+                .fileName("doc.txt")
+                .filePath("/tmp/doc.txt")
+                .fileType(Document.FileType.TXT)
+                .status(Document.ProcessingStatus.COMPLETED)
+                .rawContent(rawContent)
+                .user(user)
+                .build();
+    }
+}
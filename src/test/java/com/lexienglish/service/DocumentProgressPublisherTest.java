@@ -0,0 +1,123 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.DocumentProgressEvent;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DocumentProgressPublisherTest {
+
+    private ApplicationEventPublisher eventPublisher;
+    private DocumentRepository documentRepository;
+    private DocumentProgressPublisher progressPublisher;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        documentRepository = mock(DocumentRepository.class);
+        progressPublisher = new DocumentProgressPublisher(eventPublisher, documentRepository,
+                mock(PlatformTransactionManager.class));
+        document = Document.builder()
+                .title("Doc")
+                .status(Document.ProcessingStatus.FAILED)
+                .user(User.builder().id(1L).build())
+                .build();
+        document.setId(10L);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void statusChanged_TerminalRolledBack_MarksFailedAndPublishesIt() {
+        // Given
+        progressPublisher.statusChanged(document);
+
+        // When
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        verify(documentRepository).updateStatus(10L, Document.ProcessingStatus.FAILED);
+        ArgumentCaptor<DocumentProgressEvent> events = ArgumentCaptor.forClass(DocumentProgressEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        DocumentProgressEvent failed = events.getAllValues().get(1);
+        assertThat(failed.getDocumentId()).isEqualTo(10L);
+        assertThat(failed.getUserId()).isEqualTo(1L);
+        assertThat(failed.getStatus()).isEqualTo(Document.ProcessingStatus.FAILED.name());
+    }
+
+    @Test
+    void statusChanged_TerminalCommitted_PublishesOnce() {
+        // Given
+        progressPublisher.statusChanged(document);
+
+        // When
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        verify(documentRepository, never()).updateStatus(any(), any());
+        verify(eventPublisher, times(1)).publishEvent(any(DocumentProgressEvent.class));
+    }
+
+    @Test
+    void statusChanged_InFlight_DoesNotWatchTheTransaction() {
+        // Given
+        document.setStatus(Document.ProcessingStatus.PROCESSING);
+
+        // When
+        progressPublisher.statusChanged(document);
+
+        // Then
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void statusChanged_InFlightInTransaction_IsProvisional() {
+        // Given
+        document.setStatus(Document.ProcessingStatus.PROCESSING);
+
+        // When
+        progressPublisher.statusChanged(document);
+        progressPublisher.lessonSaved(document, 1, 3);
+
+        // Then
+        ArgumentCaptor<DocumentProgressEvent> events = ArgumentCaptor.forClass(DocumentProgressEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).allSatisfy(event -> assertThat(event.isProvisional()).isTrue());
+    }
+
+    @Test
+    void statusChanged_Terminal_IsNotProvisional() {
+        // When
+        progressPublisher.statusChanged(document);
+
+        // Then
+        ArgumentCaptor<DocumentProgressEvent> event = ArgumentCaptor.forClass(DocumentProgressEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().isProvisional()).isFalse();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
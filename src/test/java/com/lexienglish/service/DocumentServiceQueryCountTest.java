@@ -0,0 +1,135 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.document.LessonDto;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Exercise;
+import com.lexienglish.entity.Lesson;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.ResourceNotFoundException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DocumentServiceQueryCountTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private DocumentService documentService;
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        documentService = new DocumentService(documentRepository, lessonRepository, userRepository,
+                mock(FileStorageService.class), mock(DocumentParsingService.class),
+                mock(FlashcardTombstoneRepository.class), mock(FlashcardCounterService.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        owner = createUser("owner@example.com");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 10, 50 })
+    void getDocumentLessons_IssuesAtMostTwoStatements(int lessonCount) {
+        // Given
+        Document document = createDocumentWithLessons(lessonCount, 3);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<LessonDto> lessons = documentService.getDocumentLessons(document.getId(), "owner@example.com");
+
+        // Then
+        assertThat(lessons).hasSize(lessonCount);
+        assertThat(lessons).allSatisfy(l -> {
+            assertThat(l.getExerciseCount()).isEqualTo(3);
+            assertThat(l.getDocumentId()).isEqualTo(document.getId());
+        });
+        assertThat(lessons).extracting(LessonDto::getOrderIndex).isSorted();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getDocumentLessons_CountsLessonsWithoutExercises() {
+        // Given
+        Document document = createDocumentWithLessons(2, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<LessonDto> lessons = documentService.getDocumentLessons(document.getId(), "owner@example.com");
+
+        // Then
+        assertThat(lessons).extracting(LessonDto::getExerciseCount).containsOnly(0);
+    }
+
+    @Test
+    void getDocumentLessons_OtherUser_NotFound() {
+        // Given
+        Document document = createDocumentWithLessons(1, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When / Then
+        assertThatThrownBy(() -> documentService.getDocumentLessons(document.getId(), "intruder@example.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private Document createDocumentWithLessons(int lessonCount, int exercisesPerLesson) {
+        Document document = documentRepository.save(document(owner).totalLessons(lessonCount).build());
+
+        for (int i = 0; i < lessonCount; i++) {
+            Lesson lesson = Lesson.builder()
+                    .title("Lesson " + i)
+                    .content("Content " + i)
+                    .orderIndex(lessonCount - i)
+                    .document(document)
+                    .build();
+            for (int j = 0; j < exercisesPerLesson; j++) {
+                lesson.getExercises().add(Exercise.builder()
+                        .question("Q" + j)
+                        .exerciseType(Exercise.ExerciseType.SHORT_ANSWER)
+                        .correctAnswer("A")
+                        .orderIndex(j)
+                        .lesson(lesson)
+                        .build());
+            }
+            lessonRepository.save(lesson);
+        }
+        return document;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lexienglish.service;
+
+import com.lexienglish.dto.document.DocumentProgressEvent;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentStatusStreamServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private DocumentStatusStreamService streamService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .build();
+    }
+
+    @Test
+    void subscribe_RegistersEmitterAndReplaysInFlightDocuments() {
+        // Given
+        Document processing = Document.builder()
+                .title("Doc")
+                .status(Document.ProcessingStatus.PROCESSING)
+                .user(testUser)
+                .build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(documentRepository.findByUserAndStatusInOrderByCreatedAtDesc(eq(testUser), anyCollection()))
+                .thenReturn(List.of(processing));
+
+        // When
+        SseEmitter emitter = streamService.subscribe("test@example.com");
+
+        // Then
+        assertThat(emitter).isNotNull();
+        assertThat(streamService.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_DeliversReplayAndTerminalEventsToTheClient() throws Exception {
+        // Given
+        Document processing = Document.builder()
+                .title("Doc")
+                .status(Document.ProcessingStatus.PROCESSING)
+                .user(testUser)
+                .build();
+        processing.setId(10L);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(documentRepository.findByUserAndStatusInOrderByCreatedAtDesc(eq(testUser), anyCollection()))
+                .thenReturn(List.of(processing));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(streamService)).build();
+        MvcResult result = mockMvc.perform(get("/stream")).andReturn();
+
+        // When
+        streamService.onTerminal(DocumentProgressEvent.builder()
+                .documentId(10L)
+                .userId(1L)
+                .status(Document.ProcessingStatus.FAILED.name())
+                .timestamp(LocalDateTime.now())
+                .build());
+
+        // Then
+        String body = result.getResponse().getContentAsString();
+        assertThat(result.getRequest().isAsyncStarted()).isTrue();
+        assertThat(body).contains("event:document-status");
+        assertThat(body.indexOf("\"status\":\"PROCESSING\""))
+                .isNotNegative()
+                .isLessThan(body.indexOf("\"status\":\"FAILED\""));
+    }
+
+    @Test
+    void subscribe_UnknownUser_Throws() {
+        // Given
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> streamService.subscribe("missing@example.com"))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(streamService.subscriberCount(1L)).isZero();
+    }
+
+    @Test
+    void onProgress_WithoutSubscribers_IsNoOp() {
+        // Given
+        DocumentProgressEvent event = DocumentProgressEvent.builder()
+                .documentId(10L)
+                .userId(2L)
+                .status(Document.ProcessingStatus.PROCESSING.name())
+                .lessonsProcessed(1)
+                .totalLessons(5)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        // When / Then
+        assertThatCode(() -> streamService.onProgress(event)).doesNotThrowAnyException();
+        assertThat(event.isTerminal()).isFalse();
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final DocumentStatusStreamService streamService;
+
+        StreamController(DocumentStatusStreamService streamService) {
+            this.streamService = streamService;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream() {
+            return streamService.subscribe("test@example.com");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.document.BatchReviewRequest;
+import com.lexienglish.dto.document.BatchReviewResponse;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.exception.ResourceNotFoundException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.reminder.DueCardIndex;
+import com.lexienglish.service.srs.ReviewScheduler;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlashcardBatchReviewIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final int SESSION_SIZE = 50;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private FlashcardService flashcardService;
+    private FlashcardCounterService counterService;
+    private DueCardIndex dueCardIndex;
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        counterService = mock(FlashcardCounterService.class);
+        dueCardIndex = mock(DueCardIndex.class);
+        flashcardService = new FlashcardService(flashcardRepository, documentRepository, userRepository,
+                new ReviewScheduler(mock(UserSchedulerParamsRepository.class), mock(ReviewLogWriter.class),
+                        counterService, dueCardIndex),
+                mock(FlashcardTombstoneRepository.class), mock(FlashcardCounterService.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = createUser("owner@example.com");
+    }
+
+    @Test
+    void reviewFlashcards_WholeSessionInThreeStatements() {
+        // Given
+        BatchReviewRequest request = sessionFor(createCards(owner, SESSION_SIZE), LocalDateTime.now().minusMinutes(5));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        BatchReviewResponse response = flashcardService.reviewFlashcards(request, "owner@example.com");
+        entityManager.flush();
+
+        // Then
+        assertThat(response.getApplied()).isEqualTo(SESSION_SIZE);
+        assertThat(response.getFlashcards()).allSatisfy(card -> assertThat(card.getRepetitions()).isEqualTo(1));
+        // User lookup, ownership IN query, one batched UPDATE
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void reviewFlashcards_UpdatesCountersAndDueIndexOncePerSession() {
+        // Given: two reviews synced late from an offline session, one from today
+        List<Flashcard> cards = createCards(owner, 3);
+        BatchReviewRequest request = sessionFor(cards, LocalDate.now().minusDays(2).atTime(12, 0));
+        request.getReviews().get(2).setReviewedAt(LocalDateTime.now().minusSeconds(1));
+
+        // When
+        flashcardService.reviewFlashcards(request, "owner@example.com");
+
+        // Then
+        verify(counterService).reviewed(owner.getId(), 1, 0);
+        verify(dueCardIndex).refresh(owner.getId());
+        verifyNoMoreInteractions(counterService, dueCardIndex);
+    }
+
+    @Test
+    void reviewFlashcards_ReplayedSession_IsSkipped() {
+        // Given
+        BatchReviewRequest request = sessionFor(createCards(owner, 3), LocalDateTime.now().minusMinutes(5));
+        flashcardService.reviewFlashcards(request, "owner@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        BatchReviewResponse replay = flashcardService.reviewFlashcards(request, "owner@example.com");
+
+        // Then
+        assertThat(replay.getApplied()).isZero();
+        assertThat(replay.getSkipped()).isEqualTo(3);
+        assertThat(replay.getFlashcards()).allSatisfy(card -> assertThat(card.getRepetitions()).isEqualTo(1));
+    }
+
+    @Test
+    void reviewFlashcards_ReplayedSessionFromClockAhead_IsSkipped() {
+        // Given
+        LocalDateTime ahead = LocalDateTime.now().plus(FlashcardService.MAX_CLOCK_SKEW).minusMinutes(1);
+        BatchReviewRequest request = sessionFor(createCards(owner, 3), ahead);
+        flashcardService.reviewFlashcards(request, "owner@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        BatchReviewResponse replay = flashcardService.reviewFlashcards(request, "owner@example.com");
+
+        // Then
+        assertThat(replay.getApplied()).isZero();
+        assertThat(replay.getFlashcards()).allSatisfy(card -> assertThat(card.getRepetitions()).isEqualTo(1));
+    }
+
+    @Test
+    void reviewFlashcards_DatedBeyondClockSkew_ThrowsAndAppliesNothing() {
+        // Given
+        List<Flashcard> cards = createCards(owner, 2);
+        BatchReviewRequest request = sessionFor(cards, LocalDateTime.now().minusMinutes(5));
+        request.getReviews().get(1).setReviewedAt(LocalDateTime.now().plusHours(1));
+
+        // When / Then
+        assertThatThrownBy(() -> flashcardService.reviewFlashcards(request, "owner@example.com"))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(cards).allSatisfy(card -> assertThat(card.getLastReviewedDate()).isNull());
+    }
+
+    @Test
+    void reviewFlashcards_ForeignCard_ThrowsAndAppliesNothing() {
+        // Given
+        List<Flashcard> cards = new ArrayList<>(createCards(owner, 2));
+        cards.addAll(createCards(createUser("stranger@example.com"), 1));
+        BatchReviewRequest request = sessionFor(cards, LocalDateTime.now().minusMinutes(5));
+
+        // When / Then
+        assertThatThrownBy(() -> flashcardService.reviewFlashcards(request, "owner@example.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(cards).allSatisfy(card -> assertThat(card.getLastReviewedDate()).isNull());
+    }
+
+    private BatchReviewRequest sessionFor(List<Flashcard> cards, LocalDateTime start) {
+        List<BatchReviewRequest.Item> reviews = new ArrayList<>();
+        for (int i = 0; i < cards.size(); i++) {
+            reviews.add(BatchReviewRequest.Item.builder()
+                    .flashcardId(cards.get(i).getId())
+                    .quality(4)
+                    .reviewedAt(start.plusSeconds(i))
+                    .build());
+        }
+        return BatchReviewRequest.builder().reviews(reviews).build();
+    }
+
+    private List<Flashcard> createCards(User user, int count) {
+        List<Flashcard> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(flashcardRepository.save(Flashcard.builder()
+                    .front("front " + i)
+                    .back("back " + i)
+                    .user(user)
+                    .build()));
+        }
+        return cards;
+    }
+}
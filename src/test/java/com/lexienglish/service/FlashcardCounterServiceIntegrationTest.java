@@ -0,0 +1,170 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardCountersRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlashcardCounterServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private FlashcardCountersRepository countersRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private FlashcardTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private FlashcardCounterService counterService;
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(leaderElection.isLeader(FlashcardCounterService.LEADER_TASK)).thenReturn(true);
+        counterService = new FlashcardCounterService(countersRepository, transactionManager, leaderElection);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = createUser();
+    }
+
+    @Test
+    void deltas_AreAppliedOnCommitOnly() {
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            counterService.cardsAdded(user.getId(), 3);
+            counterService.reviewed(user.getId(), 1, 1);
+            counterService.cardsRemoved(user.getId(), 1, 0);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            counterService.cardsAdded(user.getId(), 10);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(counterService.getCounts(user.getId()))
+                .isEqualTo(new FlashcardCounterService.Counts(2, 1, 1));
+    }
+
+    @Test
+    void reviewedToday_RollsOverWithTheDay() {
+        // Given
+        counterService.reviewed(user.getId(), 1, 0);
+        jdbcTemplate.update("UPDATE flashcard_counters SET reviewed_today = 7, review_day = ? WHERE user_id = ?",
+                LocalDate.now().minusDays(1), user.getId());
+
+        // When / Then
+        assertThat(counterService.getCounts(user.getId()).reviewedToday()).isZero();
+        counterService.reviewed(user.getId(), 1, 0);
+        assertThat(counterService.getCounts(user.getId()).reviewedToday()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_RepairsDrift() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            flashcardRepository.save(Flashcard.builder()
+                    .front("front " + i)
+                    .back("back")
+                    .mastered(i == 0)
+                    .user(user)
+                    .build());
+        }
+        counterService.cardsAdded(user.getId(), 40);
+
+        // When
+        counterService.reconcile();
+
+        // Then
+        FlashcardCounterService.Counts counts = counterService.getCounts(user.getId());
+        assertThat(counts.total()).isEqualTo(3);
+        assertThat(counts.mastered()).isEqualTo(1);
+        assertThat(counts.learning()).isEqualTo(2);
+    }
+
+    @Test
+    void reconcile_NotLeader_LeavesCountersToTheLeader() {
+        // Given
+        flashcardRepository.save(Flashcard.builder()
+                .front("front")
+                .back("back")
+                .user(user)
+                .build());
+        counterService.cardsAdded(user.getId(), 40);
+        when(leaderElection.isLeader(FlashcardCounterService.LEADER_TASK)).thenReturn(false);
+
+        // When
+        counterService.reconcile();
+
+        // Then
+        assertThat(counterService.getCounts(user.getId()).total()).isEqualTo(40);
+    }
+
+    @Test
+    void deleteDocument_RemovesItsCardsFromTheCounters() {
+        // Given
+        Document document = createDocument(user);
+        for (int i = 0; i < 3; i++) {
+            flashcardRepository.save(Flashcard.builder()
+                    .front("front " + i)
+                    .back("back")
+                    .mastered(i == 0)
+                    .user(user)
+                    .document(document)
+                    .build());
+        }
+        flashcardRepository.save(Flashcard.builder().front("kept").back("back").user(user).build());
+        counterService.reconcile();
+        DocumentService documentService = new DocumentService(documentRepository, lessonRepository,
+                userRepository, mock(FileStorageService.class), mock(DocumentParsingService.class),
+                tombstoneRepository, counterService);
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                documentService.deleteDocument(document.getId(), user.getEmail()));
+
+        // Then
+        assertThat(counterService.getCounts(user.getId()))
+                .isEqualTo(new FlashcardCounterService.Counts(1, 0, 0));
+    }
+}
@@ -0,0 +1,120 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.document.FlashcardImportResponse;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.deck.DeckFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlashcardDeckIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final String EMAIL = "owner@example.com";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private FlashcardDeckService deckService;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        deckService = new FlashcardDeckService(jdbcTemplate, userRepository, mock(FlashcardCounterService.class));
+        owner = createUser(EMAIL);
+    }
+
+    @Test
+    void importDeck_CsvInsertsValidRowsAndReportsInvalidOnes() {
+        // Given
+        StringBuilder csv = new StringBuilder("Back,Front,Type\n");
+        for (int i = 0; i < 1_200; i++) {
+            csv.append("meaning ").append(i).append(",word ").append(i).append(",idiom\n");
+        }
+        csv.append("no front,,\n");
+        csv.append("meaning,word,nonsense\n");
+
+        // When
+        FlashcardImportResponse response = deckService.importDeck(file(csv.toString()), DeckFormat.CSV, EMAIL);
+
+        // Then
+        assertThat(response.getImported()).isEqualTo(1_200);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(FlashcardImportResponse.RowError::getRow)
+                .containsExactly(1_202, 1_203);
+        assertThat(flashcardRepository.countByUser(owner)).isEqualTo(1_200);
+        assertThat(ownerCards().get(0))
+                .satisfies(card -> {
+                    assertThat(card.getFront()).isEqualTo("word 0");
+                    assertThat(card.getCardType()).isEqualTo(Flashcard.CardType.IDIOM);
+                });
+    }
+
+    @Test
+    void importDeck_AnkiHonoursHeaderDirectives() {
+        // Given
+        String anki = "#separator:tab\n#html:true\n#tags column:3\n" +
+                "serendipity\ta <b>happy</b> accident<br>by chance\tvocab\n";
+
+        // When
+        FlashcardImportResponse response = deckService.importDeck(file(anki), DeckFormat.ANKI, EMAIL);
+
+        // Then
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(ownerCards()).singleElement()
+                .satisfies(card -> assertThat(card.getBack()).isEqualTo("a happy accident\nby chance"));
+    }
+
+    @Test
+    void exportDeck_RoundTripsThroughImport() throws Exception {
+        // Given
+        deckService.importDeck(file("front,back,example\nhello,\"xin chào, bạn\",\"Say \"\"hello\"\"\nto everyone\"\n"),
+                DeckFormat.CSV, EMAIL);
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        deckService.exportDeck(DeckFormat.CSV, EMAIL, out);
+        jdbcTemplate.update("DELETE FROM flashcards WHERE user_id = ?", owner.getId());
+        deckService.importDeck(file(out.toString(StandardCharsets.UTF_8)), DeckFormat.CSV, EMAIL);
+
+        // Then
+        List<Flashcard> cards = ownerCards();
+        assertThat(cards).singleElement().satisfies(card -> {
+            assertThat(card.getBack()).isEqualTo("xin chào, bạn");
+            assertThat(card.getExample()).isEqualTo("Say \"hello\"\nto everyone");
+        });
+    }
+
+    private List<Flashcard> ownerCards() {
+        return flashcardRepository.findAll(Sort.by("id")).stream()
+                .filter(card -> card.getUser().getId().equals(owner.getId()))
+                .toList();
+    }
+
+    private MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "deck.txt", "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,267 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.document.FlashcardDto;
+import com.lexienglish.dto.document.FlashcardSyncRequest;
+import com.lexienglish.dto.document.FlashcardSyncResponse;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.FlashcardTombstone;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlashcardSyncIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private FlashcardTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private FlashcardSyncService syncService;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new FlashcardSyncService(flashcardRepository, tombstoneRepository, userRepository,
+                mock(FlashcardCounterService.class));
+        owner = createUser();
+    }
+
+    @Test
+    void sync_ReturnsOnlyChangesAfterWatermark() {
+        // Given
+        Flashcard old = createCard(owner, "old");
+        Flashcard stranger = createCard(createUser("stranger@example.com"), "foreign");
+        settle(old, 10);
+        settle(stranger, 10);
+        // As if the last sync ran five minutes ago
+        String watermark = new FlashcardSyncService.Watermark(
+                LocalDateTime.now().minusMinutes(5), Long.MAX_VALUE).encode();
+
+        Flashcard fresh = createCard(owner, "fresh");
+        settle(fresh, 2);
+        tombstoneRepository.save(FlashcardTombstone.builder()
+                .flashcardId(999L)
+                .userId(owner.getId())
+                .deletedAt(LocalDateTime.now().minusMinutes(2))
+                .build());
+
+        // When
+        FlashcardSyncResponse delta = syncService.sync(
+                FlashcardSyncRequest.builder().watermark(watermark).build(), owner.getEmail());
+
+        // Then
+        assertThat(delta.getChanged()).extracting(FlashcardDto::getId).containsExactly(fresh.getId());
+        assertThat(delta.getDeletedIds()).containsExactly(999L);
+        assertThat(delta.isHasMore()).isFalse();
+        assertThat(delta.isResetRequired()).isFalse();
+    }
+
+    @Test
+    void sync_ReplayedCreate_IsAppliedOnce() {
+        // Given
+        FlashcardSyncRequest request = FlashcardSyncRequest.builder()
+                .changes(List.of(FlashcardSyncRequest.Change.builder()
+                        .clientRef("device-1:42")
+                        .front("serendipity")
+                        .back("Happy accident")
+                        .build()))
+                .build();
+
+        // When
+        FlashcardSyncResponse first = syncService.sync(request, owner.getEmail());
+        FlashcardSyncResponse replay = syncService.sync(request, owner.getEmail());
+
+        // Then
+        assertThat(first.getResults()).singleElement()
+                .satisfies(r -> assertThat(r.getStatus()).isEqualTo(FlashcardSyncResponse.Status.CREATED));
+        assertThat(replay.getResults().get(0).getId()).isEqualTo(first.getResults().get(0).getId());
+        assertThat(flashcardRepository.countByUser(owner)).isEqualTo(1);
+    }
+
+    @Test
+    void sync_EditFromStaleVersion_IsConflict() {
+        // Given
+        Flashcard card = createCard(owner, "word");
+        settle(card, 10);
+        LocalDateTime stale = LocalDateTime.now().minusMinutes(20);
+
+        // When
+        FlashcardSyncResponse response = syncService.sync(FlashcardSyncRequest.builder()
+                .changes(List.of(FlashcardSyncRequest.Change.builder()
+                        .id(card.getId())
+                        .front("edited offline")
+                        .baseUpdatedAt(stale)
+                        .build()))
+                .build(), owner.getEmail());
+
+        // Then
+        FlashcardSyncResponse.ChangeResult result = response.getResults().get(0);
+        assertThat(result.getStatus()).isEqualTo(FlashcardSyncResponse.Status.CONFLICT);
+        assertThat(result.getFlashcard().getFront()).isEqualTo("word");
+    }
+
+    @Test
+    void sync_DeleteLeavesTombstone() {
+        // Given
+        Flashcard card = createCard(owner, "word");
+        settle(card, 10);
+
+        // When
+        FlashcardSyncResponse response = syncService.sync(FlashcardSyncRequest.builder()
+                .changes(List.of(FlashcardSyncRequest.Change.builder()
+                        .id(card.getId())
+                        .deleted(true)
+                        .build()))
+                .build(), owner.getEmail());
+
+        // Then
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(FlashcardSyncResponse.Status.DELETED);
+        assertThat(flashcardRepository.findById(card.getId())).isEmpty();
+        assertThat(tombstoneRepository.findDeletedFlashcardIds(owner.getId(),
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().plusMinutes(1)))
+                .containsExactly(card.getId());
+    }
+
+    @Test
+    void sync_DocumentDeleted_ReportsItsCardsAsDeleted() {
+        // Given
+        Document document = createDocument(owner);
+        Flashcard first = flashcardRepository.save(Flashcard.builder()
+                .front("first").back("back").user(owner).document(document).build());
+        Flashcard second = flashcardRepository.save(Flashcard.builder()
+                .front("second").back("back").user(owner).document(document).build());
+        settle(first, 10);
+        settle(second, 10);
+        String watermark = new FlashcardSyncService.Watermark(
+                LocalDateTime.now().minusMinutes(5), Long.MAX_VALUE).encode();
+        DocumentService documentService = new DocumentService(documentRepository, lessonRepository,
+                userRepository, mock(FileStorageService.class), mock(DocumentParsingService.class),
+                tombstoneRepository, mock(FlashcardCounterService.class));
+
+        // When
+        documentService.deleteDocument(document.getId(), owner.getEmail());
+        entityManager.flush();
+        // Out of the commit grace window, as settle does for cards
+        jdbcTemplate.update("UPDATE flashcard_tombstones SET deleted_at = deleted_at - interval '1 minute' " +
+                "WHERE user_id = ?", owner.getId());
+        FlashcardSyncResponse delta = syncService.sync(
+                FlashcardSyncRequest.builder().watermark(watermark).build(), owner.getEmail());
+
+        // Then
+        assertThat(flashcardRepository.findById(first.getId())).isEmpty();
+        assertThat(delta.getDeletedIds()).containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void sync_DuringOpenImport_ReturnsItsCardsOnceCommitted() throws Exception {
+        // Given: an import that stamped a card and is still running past the commit grace
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long importedId;
+        FlashcardSyncResponse duringImport;
+        try (Connection importer = dataSource.getConnection()) {
+            importer.setAutoCommit(false);
+            try (PreparedStatement ps = importer.prepareStatement("INSERT INTO flashcards (front, back, user_id, " +
+                    "created_at, updated_at) VALUES ('imported', 'back', ?, ?, ?) RETURNING id")) {
+                Timestamp stamped = Timestamp.valueOf(LocalDateTime.now());
+                ps.setLong(1, owner.getId());
+                ps.setTimestamp(2, stamped);
+                ps.setTimestamp(3, stamped);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    importedId = rs.getLong(1);
+                }
+            }
+            Thread.sleep(FlashcardSyncService.COMMIT_GRACE.plusSeconds(1).toMillis());
+
+            // When
+            duringImport = transactionTemplate.execute(status -> syncService.sync(
+                    FlashcardSyncRequest.builder().build(), owner.getEmail()));
+            importer.commit();
+        }
+        FlashcardSyncResponse afterCommit = transactionTemplate.execute(status -> syncService.sync(
+                FlashcardSyncRequest.builder().watermark(duringImport.getWatermark()).build(), owner.getEmail()));
+
+        // Then
+        assertThat(duringImport.getChanged()).isEmpty();
+        assertThat(afterCommit.getChanged()).extracting(FlashcardDto::getId).containsExactly(importedId);
+    }
+
+    @Test
+    void sync_InvalidWatermark_Throws() {
+        FlashcardSyncRequest request = FlashcardSyncRequest.builder().watermark("not-a-watermark").build();
+
+        assertThatThrownBy(() -> syncService.sync(request, owner.getEmail()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    /**
+     * Move the card's updatedAt out of the commit grace window.
+     */
+    private void settle(Flashcard card, int minutesAgo) {
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE flashcards SET updated_at = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(minutesAgo), card.getId());
+        entityManager.clear();
+    }
+
+    private Flashcard createCard(User user, String front) {
+        return flashcardRepository.save(Flashcard.builder()
+                .front(front)
+                .back("back")
+                .user(user)
+                .build());
+    }
+}
@@ -0,0 +1,52 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderElectionIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private LeaderElection first;
+    private LeaderElection second;
+
+    @AfterEach
+    void tearDown() {
+        first.release();
+        second.release();
+    }
+
+    @Test
+    void isLeader_OneNodePerTaskUntilItReleases() {
+        // Given
+        first = new LeaderElection(dataSource);
+        second = new LeaderElection(dataSource);
+
+        // When
+        boolean firstLeads = first.isLeader("task-a");
+        boolean secondLeads = second.isLeader("task-a");
+        boolean secondLeadsOther = second.isLeader("task-b");
+        first.release();
+
+        // Then
+        assertThat(firstLeads).isTrue();
+        assertThat(secondLeads).isFalse();
+        assertThat(secondLeadsOther).isTrue();
+        assertThat(second.isLeader("task-a")).isTrue();
+        assertThat(first.isLeader("task-a")).isFalse();
+    }
+}
@@ -0,0 +1,140 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Lesson;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardTombstoneRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LessonCompletionConcurrencyTest extends AbstractPostgresIntegrationTest {
+
+    private static final int PARALLELISM = 100;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DocumentService documentService;
+    private TransactionTemplate transactionTemplate;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        documentService = new DocumentService(documentRepository, lessonRepository, userRepository,
+                mock(FileStorageService.class), mock(DocumentParsingService.class),
+                mock(FlashcardTombstoneRepository.class), mock(FlashcardCounterService.class));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        email = "user-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    void markLessonCompleted_DistinctLessonsInParallel_CountsEveryCompletion() throws Exception {
+        // Given
+        Document document = createDocumentWithLessons(PARALLELISM);
+        List<Long> lessonIds = lessonIds(document);
+
+        // When
+        runConcurrently(i -> complete(lessonIds.get((int) i)));
+
+        // Then
+        Document reloaded = documentRepository.findById(document.getId()).orElseThrow();
+        assertThat(reloaded.getCompletedLessons()).isEqualTo(PARALLELISM);
+        assertThat(lessonRepository.countByDocumentAndCompletedTrue(reloaded)).isEqualTo(PARALLELISM);
+    }
+
+    @Test
+    void markLessonCompleted_SameLessonInParallel_CountsOnce() throws Exception {
+        // Given
+        Document document = createDocumentWithLessons(3);
+        Long lessonId = lessonIds(document).get(0);
+
+        // When
+        runConcurrently(i -> complete(lessonId));
+
+        // Then
+        Document reloaded = documentRepository.findById(document.getId()).orElseThrow();
+        assertThat(reloaded.getCompletedLessons()).isEqualTo(1);
+    }
+
+    private void complete(Long lessonId) {
+        transactionTemplate.executeWithoutResult(status -> documentService.markLessonCompleted(lessonId, email));
+    }
+
+    private void runConcurrently(LongConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < PARALLELISM; i++) {
+                long index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Document createDocumentWithLessons(int lessonCount) {
+        return transactionTemplate.execute(status -> {
+            User user = createUser(email);
+            Document document = documentRepository.save(document(user).totalLessons(lessonCount).build());
+            for (int i = 0; i < lessonCount; i++) {
+                lessonRepository.save(Lesson.builder()
+                        .title("Lesson " + i)
+                        .orderIndex(i)
+                        .document(document)
+                        .build());
+            }
+            return document;
+        });
+    }
+
+    private List<Long> lessonIds(Document document) {
+        return lessonRepository.findByDocumentOrderByOrderIndexAsc(document).stream()
+                .map(Lesson::getId)
+                .toList();
+    }
+}
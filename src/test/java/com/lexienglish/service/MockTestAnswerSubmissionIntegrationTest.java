@@ -0,0 +1,255 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.SubmitAnswerRequest;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.exception.ResourceNotFoundException;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import com.lexienglish.service.mocktest.AnswerWriter;
+import com.lexienglish.service.mocktest.AttemptAnswerBuffer;
+import com.lexienglish.service.mocktest.AttemptDeadlineService;
+import com.lexienglish.service.mocktest.GradingQueue;
+import com.lexienglish.service.mocktest.MockTestCatalogCache;
+import com.lexienglish.service.mocktest.ScorePercentileService;
+import com.lexienglish.service.mocktest.UserTestStatsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MockTestAnswerSubmissionIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private MockTestRepository mockTestRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    private Path journalDir;
+
+    private MockTestCatalogCache catalogCache;
+    private MockTestService mockTestService;
+    private Statistics statistics;
+    private User user;
+    private List<Question> questions;
+
+    @BeforeEach
+    void setUp() {
+        catalogCache = new MockTestCatalogCache(mockTestRepository, questionRepository);
+        mockTestService = newService(new AttemptAnswerBuffer(new AnswerWriter(jdbcTemplate), testAttemptRepository,
+                transactionManager, false, "unused"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = createUser("taker@example.com");
+        questions = createTest(20);
+    }
+
+    @Test
+    void submitAnswers_SavesWholeBatchWithConstantStatements() {
+        // Given
+        TestAttempt attempt = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        List<SubmitAnswerRequest> answers = new ArrayList<>();
+        for (Question question : questions) {
+            answers.add(answer(question, question.getOrderIndex() % 2 == 0 ? "A" : "B"));
+        }
+        catalogCache.getQuestions(attempt.getMockTest().getId());
+        statistics.clear();
+
+        // When
+        int saved = mockTestService.submitAnswers(attempt.getId(), answers, user.getEmail());
+
+        // Then
+        assertThat(saved).isEqualTo(20);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        List<UserResponse> responses = userResponseRepository.findWithQuestionByTestAttemptId(attempt.getId());
+        assertThat(responses).hasSize(20);
+        assertThat(responses).filteredOn(UserResponse::getIsCorrect).hasSize(10);
+        assertThat(responses).allSatisfy(r -> assertThat(r.getScore()).isNotNull());
+    }
+
+    @Test
+    void submitAnswers_ResubmittedAnswerReplacesAndRegrades() {
+        // Given
+        TestAttempt attempt = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        Question question = questions.get(0);
+        mockTestService.submitAnswer(attempt.getId(), answer(question, "B"), user.getEmail());
+
+        // When
+        mockTestService.submitAnswers(attempt.getId(),
+                List.of(answer(question, "C"), answer(question, "A")), user.getEmail());
+        entityManager.clear();
+
+        // Then
+        List<UserResponse> responses = userResponseRepository.findWithQuestionByTestAttemptId(attempt.getId());
+        assertThat(responses).singleElement().satisfies(r -> {
+            assertThat(r.getUserAnswer()).isEqualTo("A");
+            assertThat(r.getIsCorrect()).isTrue();
+            assertThat(r.getScore()).isEqualByComparingTo(BigDecimal.ONE);
+        });
+    }
+
+    @Test
+    void submitAnswers_QuestionOfAnotherTest_SavesNothing() {
+        // Given
+        TestAttempt attempt = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        Question foreign = createTest(1).get(0);
+
+        // When / Then
+        assertThatThrownBy(() -> mockTestService.submitAnswers(attempt.getId(),
+                List.of(answer(questions.get(0), "A"), answer(foreign, "A")), user.getEmail()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(userResponseRepository.findWithQuestionByTestAttemptId(attempt.getId())).isEmpty();
+    }
+
+    @Test
+    void submitAnswers_CompletedAttemptOrOtherUser_Throws() {
+        // Given
+        TestAttempt completed = createAttempt(TestAttempt.AttemptStatus.COMPLETED);
+        TestAttempt inProgress = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        List<SubmitAnswerRequest> answers = List.of(answer(questions.get(0), "A"));
+
+        // When / Then
+        assertThatThrownBy(() -> mockTestService.submitAnswers(completed.getId(), answers, user.getEmail()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> mockTestService.submitAnswers(inProgress.getId(), answers, "other@example.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void submitAnswers_TimeUp_Throws() {
+        // Given
+        TestAttempt attempt = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        attempt.setDeadlineAt(LocalDateTime.now().minusMinutes(1));
+        entityManager.flush();
+
+        // When / Then
+        assertThatThrownBy(() -> mockTestService.submitAnswers(attempt.getId(),
+                List.of(answer(questions.get(0), "A")), user.getEmail()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Time is up for this test");
+    }
+
+    @Test
+    void submitAnswers_BufferEnabled_ChecksAttemptInMemoryAndWritesOnFlush() {
+        // Given
+        AttemptAnswerBuffer buffer = new AttemptAnswerBuffer(new AnswerWriter(jdbcTemplate), testAttemptRepository,
+                transactionManager, true, journalDir.toString());
+        MockTestService buffered = newService(buffer);
+        TestAttempt attempt = createAttempt(TestAttempt.AttemptStatus.IN_PROGRESS);
+        buffered.submitAnswer(attempt.getId(), answer(questions.get(0), "A"), user.getEmail());
+        statistics.clear();
+
+        // When
+        buffered.submitAnswers(attempt.getId(),
+                List.of(answer(questions.get(1), "A"), answer(questions.get(2), "B")), user.getEmail());
+        long statements = statistics.getPrepareStatementCount();
+        List<UserResponse> beforeFlush = userResponseRepository.findWithQuestionByTestAttemptId(attempt.getId());
+        buffer.flush();
+
+        // Then
+        assertThat(statements).isZero();
+        assertThat(beforeFlush).isEmpty();
+        assertThat(userResponseRepository.findWithQuestionByTestAttemptId(attempt.getId()))
+                .extracting(UserResponse::getUserAnswer)
+                .containsExactlyInAnyOrder("A", "A", "B");
+        assertThatThrownBy(() -> buffered.submitAnswers(attempt.getId(),
+                List.of(answer(questions.get(0), "A")), "other@example.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private MockTestService newService(AttemptAnswerBuffer answerBuffer) {
+        return new MockTestService(mockTestRepository, testAttemptRepository, userResponseRepository,
+                userRepository, catalogCache, mock(GradingQueue.class), answerBuffer,
+                mock(UserTestStatsService.class), mock(ScorePercentileService.class),
+                mock(AttemptDeadlineService.class));
+    }
+
+    private SubmitAnswerRequest answer(Question question, String answer) {
+        return SubmitAnswerRequest.builder()
+                .questionId(question.getId())
+                .answer(answer)
+                .timeSpentSeconds(10)
+                .build();
+    }
+
+    private List<Question> createTest(int questionCount) {
+        MockTest created = createMockTest(MockTest.SkillType.READING, questionCount);
+        List<Question> saved = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            saved.add(questionRepository.save(Question.builder()
+                    .content("Question " + i)
+                    .questionType(Question.QuestionType.MULTIPLE_CHOICE)
+                    .correctAnswer("A")
+                    .options(List.of("A", "B", "C", "D"))
+                    .points(1)
+                    .orderIndex(i)
+                    .mockTest(created)
+                    .build()));
+        }
+        // Detached, so the catalog cache reads the content version the database assigned
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    private TestAttempt createAttempt(TestAttempt.AttemptStatus status) {
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(questions.get(0).getMockTest())
+                .startedAt(LocalDateTime.now())
+                .status(status)
+                .build());
+        entityManager.flush();
+        return attempt;
+    }
+}
@@ -0,0 +1,187 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.TestAttemptDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.repository.GradingJobRepository;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.QuestionStatsRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import com.lexienglish.repository.UserTestStatsRepository;
+import com.lexienglish.service.mocktest.AnswerWriter;
+import com.lexienglish.service.mocktest.AttemptAnswerBuffer;
+import com.lexienglish.service.mocktest.AttemptDeadlineService;
+import com.lexienglish.service.mocktest.AttemptGrader;
+import com.lexienglish.service.mocktest.GradingQueue;
+import com.lexienglish.service.mocktest.MockTestCatalogCache;
+import com.lexienglish.service.mocktest.QuestionStatsService;
+import com.lexienglish.service.mocktest.ScorePercentileService;
+import com.lexienglish.service.mocktest.UserTestStatsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MockTestCompletionQueryCountTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private MockTestRepository mockTestRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private GradingJobRepository gradingJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestStatsRepository userTestStatsRepository;
+
+    @Autowired
+    private QuestionStatsRepository questionStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockTestService mockTestService;
+    private GradingQueue gradingQueue;
+    private UserTestStatsService statsService;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new UserTestStatsService(userTestStatsRepository, transactionManager,
+                mock(LeaderElection.class));
+        gradingQueue = new GradingQueue(gradingJobRepository, testAttemptRepository, userResponseRepository,
+                mock(AttemptGrader.class), statsService,
+                new QuestionStatsService(questionStatsRepository, transactionManager),
+                mock(ApplicationEventPublisher.class), transactionManager, 1);
+        mockTestService = new MockTestService(mockTestRepository, testAttemptRepository,
+                userResponseRepository, userRepository, mock(MockTestCatalogCache.class), gradingQueue,
+                new AttemptAnswerBuffer(new AnswerWriter(jdbcTemplate), testAttemptRepository, transactionManager,
+                        false, "unused"),
+                statsService, mock(ScorePercentileService.class), mock(AttemptDeadlineService.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = createUser("taker@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradingQueue.shutdown();
+    }
+
+    @Test
+    void completeTest_StatementCountDoesNotGrowWithResponses() {
+        // Given
+        Long small = createAnsweredAttempt(4);
+        Long large = createAnsweredAttempt(40);
+
+        // When
+        long smallStatements = countStatements(small);
+        long largeStatements = countStatements(large);
+
+        // Then
+        assertThat(smallStatements).isEqualTo(largeStatements).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void completeTest_ScoresEachSection() {
+        // Given
+        Long attemptId = createAnsweredAttempt(8);
+
+        // When
+        TestAttemptDto result = mockTestService.completeTest(attemptId, user.getEmail());
+
+        // Then
+        // Reading: questions 0, 2, 4, 6 with 0 and 4 correct; listening: 1, 3, 5, 7 all correct
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getTotalScore()).isEqualByComparingTo("6");
+        assertThat(result.getMaxScore()).isEqualTo(8);
+        assertThat(result.getPercentageScore()).isEqualByComparingTo("75");
+        assertThat(result.getReadingScore()).isEqualByComparingTo("50");
+        assertThat(result.getListeningScore()).isEqualByComparingTo("100");
+        assertThat(result.getWritingScore()).isNull();
+        assertThat(result.getFeedback()).endsWith("You answered 6 out of 8 questions correctly.");
+    }
+
+    private long countStatements(Long attemptId) {
+        statistics.clear();
+        mockTestService.completeTest(attemptId, user.getEmail());
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    private Long createAnsweredAttempt(int questionCount) {
+        MockTest test = createMockTest(MockTest.SkillType.MIXED, questionCount);
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(test)
+                .startedAt(LocalDateTime.now().minusMinutes(20))
+                .build());
+        for (int i = 0; i < questionCount; i++) {
+            Question question = questionRepository.save(Question.builder()
+                    .content("Question " + i)
+                    .questionType(Question.QuestionType.MULTIPLE_CHOICE)
+                    .correctAnswer("A")
+                    .section(i % 2 == 0 ? MockTest.SkillType.READING : MockTest.SkillType.LISTENING)
+                    .orderIndex(i)
+                    .mockTest(test)
+                    .build());
+            boolean correct = i % 2 == 1 || i % 4 == 0;
+            userResponseRepository.save(UserResponse.builder()
+                    .testAttempt(attempt)
+                    .question(question)
+                    .userAnswer(correct ? "A" : "B")
+                    .isCorrect(correct)
+                    .score(correct ? BigDecimal.ONE : BigDecimal.ZERO)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return attempt.getId();
+    }
+}
@@ -0,0 +1,159 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.ReviewLog;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.ReviewLogRepository;
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.reminder.DueCardIndex;
+import com.lexienglish.service.srs.ReviewScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReviewLogWriterIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private ReviewLogRepository reviewLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReviewLogWriter reviewLogWriter;
+    private ReviewScheduler.Session scheduler;
+    private TransactionTemplate transactionTemplate;
+    private Flashcard card;
+
+    @BeforeEach
+    void setUp() {
+        reviewLogWriter = new ReviewLogWriter(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        User user = createUser();
+        card = flashcardRepository.save(Flashcard.builder()
+                .front("front")
+                .back("back")
+                .user(user)
+                .build());
+        scheduler = new ReviewScheduler(mock(UserSchedulerParamsRepository.class), reviewLogWriter,
+                mock(FlashcardCounterService.class), mock(DueCardIndex.class)).sessionFor(user);
+    }
+
+    @Test
+    void recordReview_InsertsEveryReviewIntoItsMonthlyPartition() {
+        // Given
+        LocalDateTime first = LocalDateTime.now().minusDays(3);
+        review(4, first);
+        review(2, first.plusDays(1));
+
+        // When
+        review(5, LocalDateTime.now());
+        reviewLogWriter.flush();
+
+        // Then
+        List<ReviewLog> log = reviewLogRepository.findByFlashcardIdOrderByReviewedAtAsc(card.getId());
+        assertThat(log).extracting(ReviewLog::getQuality).containsExactly((short) 4, (short) 2, (short) 5);
+        assertThat(log.get(0).getElapsedDays()).isNull();
+        assertThat(log.get(1).getElapsedDays()).isEqualTo(1);
+        assertThat(log.get(1).getPriorInterval()).isEqualTo(log.get(0).getNewInterval());
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM review_log WHERE flashcard_id = ? ORDER BY reviewed_at DESC LIMIT 1",
+                String.class, card.getId());
+        assertThat(partition).startsWith("review_log_20");
+    }
+
+    @Test
+    void recordReview_RolledBackTransaction_IsNotLogged() {
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            review(3, LocalDateTime.now());
+            status.setRollbackOnly();
+        });
+        reviewLogWriter.flush();
+
+        // Then
+        assertThat(reviewLogWriter.pendingCount()).isZero();
+        assertThat(reviewLogRepository.findByFlashcardIdOrderByReviewedAtAsc(card.getId())).isEmpty();
+    }
+
+    @Test
+    void recordReview_InTransaction_IsQueuedAtCommitAndWrittenByFlush() {
+        // When
+        Integer beforeCommit = transactionTemplate.execute(status -> {
+            review(4, LocalDateTime.now().minusDays(1));
+            review(3, LocalDateTime.now());
+            return reviewLogWriter.pendingCount();
+        });
+
+        // Then
+        assertThat(beforeCommit).isZero();
+        assertThat(reviewLogWriter.pendingCount()).isEqualTo(2);
+        assertThat(reviewLogRepository.findByFlashcardIdOrderByReviewedAtAsc(card.getId())).isEmpty();
+
+        reviewLogWriter.flush();
+        assertThat(reviewLogWriter.pendingCount()).isZero();
+        assertThat(reviewLogRepository.findByFlashcardIdOrderByReviewedAtAsc(card.getId())).hasSize(2);
+    }
+
+    @Test
+    void recordReview_QueueFull_CommittingRequestWritesItsOwnReviews() {
+        // Given
+        LocalDateTime reviewedAt = LocalDateTime.now().minusYears(1);
+        for (int i = 0; i < ReviewLogWriter.MAX_PENDING; i++) {
+            review(3, reviewedAt);
+        }
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> review(5, LocalDateTime.now()));
+
+        // Then
+        assertThat(reviewLogWriter.pendingCount()).isEqualTo(ReviewLogWriter.MAX_PENDING);
+        assertThat(reviewLogRepository.findByFlashcardIdOrderByReviewedAtAsc(card.getId()))
+                .extracting(ReviewLog::getQuality).containsExactly((short) 5);
+    }
+
+    @Test
+    void createUpcomingPartitions_MovesRowsOutOfTheDefaultPartition() {
+        // Given: a review dated in a month that has no partition yet
+        LocalDateTime farAhead = LocalDateTime.now().plusMonths(30);
+        review(4, farAhead);
+        reviewLogWriter.flush();
+
+        // When
+        jdbcTemplate.query("SELECT create_review_log_partition(?)", rs -> {
+        }, Date.valueOf(farAhead.toLocalDate()));
+
+        // Then
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM review_log WHERE flashcard_id = ?", String.class, card.getId());
+        assertThat(partition).isEqualTo(String.format("review_log_%d_%02d", farAhead.getYear(), farAhead.getMonthValue()));
+    }
+
+    private void review(int quality, LocalDateTime reviewedAt) {
+        scheduler.review(card, quality, reviewedAt);
+    }
+}
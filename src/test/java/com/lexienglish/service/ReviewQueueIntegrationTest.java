@@ -0,0 +1,140 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.document.FlashcardDto;
+import com.lexienglish.dto.document.ReviewQueueResponse;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.UserRepository;
+import com.lexienglish.service.srs.ReviewScheduler;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReviewQueueIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final String EMAIL = "queue@example.com";
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private RevisionSchedulingService revisionService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        revisionService = new RevisionSchedulingService(flashcardRepository, userRepository,
+                mock(FlashcardCounterService.class), mock(ReviewScheduler.class));
+        user = createUser(EMAIL);
+    }
+
+    @Test
+    void getReviewQueue_PagesThroughNewThenOverdueCardsOnce() {
+        // Given
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1).withNano(0);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add(createCard("new " + i, null, false).getFront());
+        }
+        expected.add(createCard("oldest", yesterday.minusDays(3), false).getFront());
+        expected.add(createCard("tie a", yesterday, false).getFront());
+        expected.add(createCard("tie b", yesterday, false).getFront());
+        expected.add(createCard("tie c", yesterday, false).getFront());
+        createCard("future", LocalDateTime.now().plusDays(2), false);
+        createCard("mastered", yesterday, true);
+        entityManager.flush();
+
+        // When
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ReviewQueueResponse page = revisionService.getReviewQueue(EMAIL, cursor, 2);
+            page.getCards().stream().map(FlashcardDto::getFront).forEach(seen::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void getDueFlashcards_AppliesLimitInQuery() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            createCard("card " + i, LocalDateTime.now().minusHours(i + 1), false);
+        }
+        entityManager.flush();
+
+        // When
+        List<Flashcard> due = revisionService.getDueFlashcards(EMAIL, 3);
+
+        // Then
+        assertThat(due).extracting(Flashcard::getFront).containsExactly("card 4", "card 3", "card 2");
+    }
+
+    @Test
+    void getReviewForecast_BucketsCardsByDay() {
+        // Given
+        LocalDate today = LocalDate.now();
+        createCard("new", null, false);
+        createCard("overdue a", today.minusDays(3).atTime(9, 0), false);
+        createCard("overdue b", today.minusDays(1).atTime(23, 0), false);
+        createCard("today", today.atTime(0, 30), false);
+        createCard("in two days a", today.plusDays(2).atTime(8, 0), false);
+        createCard("in two days b", today.plusDays(2).atTime(20, 0), false);
+        createCard("beyond range", today.plusDays(10).atTime(8, 0), false);
+        createCard("mastered", today.plusDays(1).atTime(8, 0), true);
+        entityManager.flush();
+
+        // When
+        RevisionSchedulingService.ReviewForecast forecast = revisionService.getReviewForecast(EMAIL, 5);
+
+        // Then
+        assertThat(forecast.getNeverReviewed()).isEqualTo(1);
+        assertThat(forecast.getOverdue()).isEqualTo(2);
+        assertThat(forecast.getDaily())
+                .extracting(RevisionSchedulingService.DailySchedule::getCardCount)
+                .containsExactly(1L, 0L, 2L, 0L, 0L);
+        assertThat(forecast.getDaily().get(0).getDate()).isEqualTo(today);
+    }
+
+    @Test
+    void getReviewQueue_InvalidCursor_Throws() {
+        assertThatThrownBy(() -> revisionService.getReviewQueue(EMAIL, "bogus", null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Flashcard createCard(String front, LocalDateTime nextReviewDate, boolean mastered) {
+        return flashcardRepository.save(Flashcard.builder()
+                .front(front)
+                .back("back")
+                .nextReviewDate(nextReviewDate)
+                .mastered(mastered)
+                .user(user)
+                .build());
+    }
+}
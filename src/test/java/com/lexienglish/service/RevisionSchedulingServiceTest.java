@@ -4,11 +4,15 @@ import com.lexienglish.entity.Flashcard;
 import com.lexienglish.entity.User;
 import com.lexienglish.repository.FlashcardRepository;
 import com.lexienglish.repository.UserRepository;
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.reminder.DueCardIndex;
+import com.lexienglish.service.srs.ReviewScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -28,6 +32,16 @@ class RevisionSchedulingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private FlashcardCounterService counterService;
+
+    private final ReviewLogWriter reviewLogWriter = mock(ReviewLogWriter.class);
+
+    @Spy
+    private ReviewScheduler reviewScheduler = new ReviewScheduler(
+            mock(UserSchedulerParamsRepository.class), reviewLogWriter, mock(FlashcardCounterService.class),
+            mock(DueCardIndex.class));
+
     @InjectMocks
     private RevisionSchedulingService revisionService;
 
@@ -56,8 +70,9 @@ class RevisionSchedulingServiceTest {
     void getDueFlashcards_ReturnsCards() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(flashcardRepository.findDueForReview(eq(testUser), any(LocalDateTime.class)))
-                .thenReturn(List.of(testFlashcard));
+        when(flashcardRepository.findNewCardsForReview(1L, 0L, 10)).thenReturn(List.of(testFlashcard));
+        when(flashcardRepository.findScheduledCardsForReview(eq(1L), any(LocalDateTime.class), eq(9)))
+                .thenReturn(List.of());
 
         // When
         List<Flashcard> result = revisionService.getDueFlashcards("test@example.com", 10);
@@ -71,10 +86,8 @@ class RevisionSchedulingServiceTest {
     void getRevisionStats_ReturnsStats() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(flashcardRepository.countByUser(testUser)).thenReturn(100L);
+        when(counterService.getCounts(1L)).thenReturn(new FlashcardCounterService.Counts(100, 50, 5));
         when(flashcardRepository.countDueForReview(eq(testUser), any())).thenReturn(10L);
-        when(flashcardRepository.countByUserAndMasteredTrue(testUser)).thenReturn(50L);
-        when(flashcardRepository.countReviewedToday(eq(testUser), any())).thenReturn(5L);
 
         // When
         var stats = revisionService.getRevisionStats("test@example.com");
@@ -83,6 +96,7 @@ class RevisionSchedulingServiceTest {
         assertThat(stats.getTotalCards()).isEqualTo(100L);
         assertThat(stats.getDueCards()).isEqualTo(10L);
         assertThat(stats.getMasteredCards()).isEqualTo(50L);
+        assertThat(stats.getReviewedToday()).isEqualTo(5L);
         assertThat(stats.getMasteryPercentage()).isEqualTo(50.0);
     }
 
@@ -100,6 +114,7 @@ class RevisionSchedulingServiceTest {
         assertThat(result.getRepetitions()).isEqualTo(1);
         assertThat(result.getNextReviewDate()).isNotNull();
         verify(flashcardRepository).save(any(Flashcard.class));
+        verify(reviewLogWriter).recordReview(eq(testFlashcard), eq(4), eq(0), any(), isNull());
     }
 
     @Test
@@ -119,12 +134,13 @@ class RevisionSchedulingServiceTest {
     void getWeeklySchedule_Returns7Days() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(flashcardRepository.countDueOnDate(eq(testUser), any(), any())).thenReturn(5L);
+        when(flashcardRepository.findReviewForecast(eq(1L), any(), any())).thenReturn(List.of());
 
         // When
         var schedule = revisionService.getWeeklySchedule("test@example.com");
 
         // Then
         assertThat(schedule).hasSize(7);
+        assertThat(schedule.get(0).getDate()).isEqualTo(java.time.LocalDate.now());
     }
 }
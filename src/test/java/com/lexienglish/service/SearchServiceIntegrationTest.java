@@ -0,0 +1,164 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.search.SearchResponse;
+import com.lexienglish.dto.search.SearchResultDto;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.Lesson;
+import com.lexienglish.entity.User;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.DocumentRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.LessonRepository;
+import com.lexienglish.repository.SearchRepository;
+import com.lexienglish.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SearchServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private SearchRepository searchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SearchService searchService;
+    private User owner;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new SearchService(searchRepository, userRepository);
+        owner = createUser("owner@example.com");
+        stranger = createUser("stranger@example.com");
+    }
+
+    @Test
+    void search_MatchesAllContentTypesForOwnerOnly() {
+        // Given
+        Document document = createDocument(owner, "Biology notes", "Photosynthesis turns light into energy.");
+        createLesson(document, "Basics", "How photosynthesis works", "Plants use photosynthesis to make food.");
+        createFlashcard(owner, document, "photosynthesis", "Process by which plants make food");
+        createFlashcard(stranger, null, "photosynthesis", "Not yours");
+        entityManager.flush();
+
+        // When
+        SearchResponse response = searchService.search("photosynthesis", null, null, null, "owner@example.com");
+
+        // Then
+        assertThat(response.getResults())
+                .extracting(SearchResultDto::getType)
+                .containsExactlyInAnyOrder("DOCUMENT", "LESSON", "FLASHCARD");
+        assertThat(response.getResults()).isSortedAccordingTo(
+                (a, b) -> Float.compare(b.getRank(), a.getRank()));
+        assertThat(response.getNextCursor()).isNull();
+        assertThat(response.getResults())
+                .filteredOn(r -> r.getType().equals("LESSON"))
+                .first()
+                .satisfies(r -> assertThat(r.getSnippet()).contains("<mark>"));
+    }
+
+    @Test
+    void search_KeysetPaginationVisitsEveryHitOnce() {
+        // Given
+        for (int i = 0; i < 7; i++) {
+            createFlashcard(owner, null, "ubiquitous " + i, "Present everywhere");
+        }
+        entityManager.flush();
+
+        // When
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SearchResponse page = searchService.search("ubiquitous", "flashcard", cursor, 3, "owner@example.com");
+            page.getResults().forEach(r -> seen.add(r.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void search_PagesFollowRankAcrossTypesBeyondOnePerTypeBatch() {
+        // Given: more hits per type than one page, with ranks that differ from insertion order
+        Document document = createDocument(owner, "Notes", "Nothing to see");
+        for (int i = 0; i < 12; i++) {
+            String terms = "ephemeral ".repeat(1 + (i * 5) % 4);
+            createFlashcard(owner, null, terms + i, "Short-lived");
+            createLesson(document, "Lesson " + i, terms, "Body " + i);
+        }
+        entityManager.flush();
+
+        // When
+        List<SearchResultDto> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            SearchResponse page = searchService.search("ephemeral", null, cursor, 5, "owner@example.com");
+            seen.addAll(page.getResults());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(seen).hasSize(24);
+        assertThat(seen).extracting(r -> r.getType() + r.getId()).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> Float.compare(b.getRank(), a.getRank()));
+    }
+
+    @Test
+    void search_InvalidCursor_Throws() {
+        assertThatThrownBy(() -> searchService.search("word", null, "not-a-cursor", null, "owner@example.com"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Document createDocument(User user, String title, String rawContent) {
+        return documentRepository.save(document(user).title(title).rawContent(rawContent).build());
+    }
+
+    private void createLesson(Document document, String title, String summary, String content) {
+        lessonRepository.save(Lesson.builder()
+                .title(title)
+                .summary(summary)
+                .content(content)
+                .orderIndex(0)
+                .document(document)
+                .build());
+    }
+
+    private void createFlashcard(User user, Document document, String front, String back) {
+        flashcardRepository.save(Flashcard.builder()
+                .front(front)
+                .back(back)
+                .document(document)
+                .user(user)
+                .build());
+    }
+}
@@ -0,0 +1,257 @@
+package com.lexienglish.service;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.search.SearchResponse;
+import com.lexienglish.entity.Document;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.CardContentRepository;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.repository.SearchRepository;
+import com.lexienglish.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SharedCardContentIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private CardContentRepository cardContentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SearchRepository searchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CardContentStore cardContentStore;
+
+    @BeforeEach
+    void setUp() {
+        cardContentStore = new CardContentStore(cardContentRepository, jdbcTemplate);
+    }
+
+    @Test
+    void share_IdenticalCardsOfDifferentUsersReferenceOneRow() {
+        // Given
+        User firstUser = createUser("first@example.com");
+        User secondUser = createUser("second@example.com");
+        List<Flashcard> first = deckFor(firstUser);
+        List<Flashcard> second = deckFor(secondUser);
+
+        // When
+        cardContentStore.share(first);
+        cardContentStore.share(second);
+        flashcardRepository.saveAll(first);
+        flashcardRepository.saveAll(second);
+        entityManager.flush();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT content_id) FROM flashcards WHERE user_id IN (?, ?) AND front IS NULL",
+                Long.class, firstUser.getId(), secondUser.getId()))
+                .isEqualTo(2);
+        entityManager.clear();
+        assertThat(flashcardRepository.findById(second.get(0).getId()).orElseThrow().getFront())
+                .isEqualTo("abundant");
+    }
+
+    @Test
+    void edit_CopiesSharedContentIntoTheEditedCardOnly() {
+        // Given
+        List<Flashcard> mine = deckFor(createUser("mine@example.com"));
+        List<Flashcard> theirs = deckFor(createUser("theirs@example.com"));
+        cardContentStore.share(mine);
+        cardContentStore.share(theirs);
+        flashcardRepository.saveAll(mine);
+        flashcardRepository.saveAll(theirs);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Flashcard edited = flashcardRepository.findById(mine.get(0).getId()).orElseThrow();
+        edited.setBack("More than enough");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT front, back, example, content_id FROM flashcards WHERE id = ?", edited.getId());
+        assertThat(row.get("content_id")).isNull();
+        assertThat(row.get("front")).isEqualTo("abundant");
+        assertThat(row.get("back")).isEqualTo("More than enough");
+        assertThat(row.get("example")).isEqualTo("Water is abundant here.");
+        assertThat(flashcardRepository.findById(theirs.get(0).getId()).orElseThrow().getBack())
+                .isEqualTo("Existing in large quantities");
+    }
+
+    @Test
+    void search_MatchesSharedContent() {
+        // Given
+        List<Flashcard> cards = deckFor(createUser("reader@example.com"));
+        cardContentStore.share(cards);
+        flashcardRepository.saveAll(cards);
+        entityManager.flush();
+
+        // When
+        SearchResponse response = new SearchService(searchRepository, userRepository)
+                .search("abundant", "flashcard", null, null, "reader@example.com");
+
+        // Then
+        assertThat(response.getResults()).singleElement().satisfies(hit -> {
+            assertThat(hit.getTitle()).isEqualTo("abundant");
+            assertThat(hit.getSnippet()).contains("<mark>");
+        });
+    }
+
+    @Test
+    void search_MatchesEditedAndSharedCardsTogether() {
+        // Given
+        List<Flashcard> cards = deckFor(createUser("editor@example.com"));
+        cardContentStore.share(cards);
+        flashcardRepository.saveAll(cards);
+        entityManager.flush();
+        cards.get(1).setExample("Rain is scarce but sunshine is abundant.");
+        entityManager.flush();
+
+        // When
+        SearchResponse response = new SearchService(searchRepository, userRepository)
+                .search("abundant", "flashcard", null, null, "editor@example.com");
+
+        // Then
+        assertThat(response.getResults())
+                .extracting(hit -> hit.getTitle())
+                .containsExactlyInAnyOrder("abundant", "scarce");
+    }
+
+    @Test
+    void backfill_MovesLegacyDocumentCardsToSharedContent() {
+        // Given
+        User legacy = createUser("legacy@example.com");
+        flashcardRepository.saveAll(deckFor(legacy));
+        entityManager.flush();
+        CardContentBackfillService backfill = new CardContentBackfillService(flashcardRepository,
+                cardContentRepository, cardContentStore, transactionManager);
+
+        // When
+        backfill.backfill();
+        entityManager.flush();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT content_id FROM flashcards WHERE user_id = ?", Long.class, legacy.getId()))
+                .hasSize(2)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void backfill_LeavesEditedCardsOnTheirOwnCopy() {
+        // Given
+        User user = createUser("detached@example.com");
+        List<Flashcard> cards = deckFor(user);
+        cardContentStore.share(cards);
+        flashcardRepository.saveAll(cards);
+        entityManager.flush();
+        cards.get(0).setBack("More than enough");
+        entityManager.flush();
+        CardContentBackfillService backfill = new CardContentBackfillService(flashcardRepository,
+                cardContentRepository, cardContentStore, transactionManager);
+
+        // When
+        backfill.backfill();
+        entityManager.flush();
+
+        // Then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT back, content_id, content_detached FROM flashcards WHERE id = ?", cards.get(0).getId());
+        assertThat(row.get("content_id")).isNull();
+        assertThat(row.get("content_detached")).isEqualTo(true);
+        assertThat(row.get("back")).isEqualTo("More than enough");
+    }
+
+    @Test
+    void edit_UnchangedText_KeepsSharedContent() {
+        // Given
+        User user = createUser("unchanged@example.com");
+        List<Flashcard> cards = deckFor(user);
+        cardContentStore.share(cards);
+        flashcardRepository.saveAll(cards);
+        entityManager.flush();
+
+        // When
+        cards.get(0).setFront("abundant");
+        cards.get(0).setBack("Existing in large quantities");
+        entityManager.flush();
+
+        // Then
+        assertThat(cards.get(0).getSharedContent()).isNotNull();
+        assertThat(cards.get(0).isContentDetached()).isFalse();
+    }
+
+    @Test
+    void backfill_LeavesLegacyCardsEditedBeforeItOnTheirOwnCopy() {
+        // Given
+        User legacy = createUser("legacy-edited@example.com");
+        List<Flashcard> cards = flashcardRepository.saveAll(deckFor(legacy));
+        entityManager.flush();
+        cards.get(0).setBack("More than enough");
+        entityManager.flush();
+        CardContentBackfillService backfill = new CardContentBackfillService(flashcardRepository,
+                cardContentRepository, cardContentStore, transactionManager);
+
+        // When
+        backfill.backfill();
+        entityManager.flush();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT content_id FROM flashcards WHERE id = ?",
+                Long.class, cards.get(0).getId())).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT content_id FROM flashcards WHERE id = ?",
+                Long.class, cards.get(1).getId())).isNotNull();
+    }
+
+    private List<Flashcard> deckFor(User user) {
+        Document document = createDocument(user);
+        List<Flashcard> cards = new ArrayList<>();
+        cards.add(Flashcard.builder()
+                .front("abundant")
+                .back("Existing in large quantities")
+                .example("Water is abundant here.")
+                .document(document)
+                .user(user)
+                .build());
+        cards.add(Flashcard.builder()
+                .front("scarce")
+                .back("Insufficient for the demand")
+                .document(document)
+                .user(user)
+                .build());
+        return cards;
+    }
+}
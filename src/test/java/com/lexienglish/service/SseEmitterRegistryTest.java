@@ -0,0 +1,39 @@
+package com.lexienglish.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SseEmitterRegistryTest {
+
+    private final SseEmitterRegistry registry = new SseEmitterRegistry("test-event");
+
+    @Test
+    void send_ToClosedEmitter_DropsItAndKeepsTheOthers() {
+        // Given
+        SseEmitter closed = registry.register(1L);
+        registry.register(1L);
+        closed.complete();
+
+        // When
+        registry.send(1L, "1", "payload");
+
+        // Then
+        assertThat(registry.subscriberCount(1L)).isEqualTo(1);
+        assertThat(registry.hasSubscribers(1L)).isTrue();
+    }
+
+    @Test
+    void heartbeat_DropsClosedEmittersAndForgetsUsersWithoutAny() {
+        // Given
+        registry.register(2L).complete();
+
+        // When
+        registry.heartbeat();
+
+        // Then
+        assertThat(registry.subscriberCount(2L)).isZero();
+        assertThat(registry.hasSubscribers(2L)).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.lexienglish.service.deck;
+
+import com.lexienglish.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DelimitedReaderTest {
+
+    @Test
+    void next_HandlesQuotesEmbeddedLineBreaksAndBlankLines() throws IOException {
+        // Given
+        String csv = "\uFEFFfront,back\r\n\"say \"\"hi\"\"\",\"line one\nline two\"\n\nplain,,\n";
+        DelimitedReader reader = new DelimitedReader(new StringReader(csv), ',');
+
+        // When
+        List<List<String>> records = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+            lines.add(reader.getRecordLine());
+        }
+
+        // Then
+        assertThat(records).containsExactly(
+                List.of("front", "back"),
+                List.of("say \"hi\"", "line one\nline two"),
+                List.of("plain", "", ""));
+        assertThat(lines).containsExactly(1, 2, 5);
+    }
+
+    @Test
+    void readDirectives_ConsumesAnkiHeaderLines() throws IOException {
+        // Given
+        DelimitedReader reader = new DelimitedReader(
+                new StringReader("#separator:semicolon\n#html:true\nword;meaning\n"), '\t');
+
+        // When
+        List<String> directives = reader.readDirectives();
+        reader.setDelimiter(';');
+
+        // Then
+        assertThat(directives).containsExactly("separator:semicolon", "html:true");
+        assertThat(reader.next()).containsExactly("word", "meaning");
+        assertThat(reader.getRecordLine()).isEqualTo(3);
+    }
+
+    @Test
+    void next_UnclosedQuote_Throws() {
+        DelimitedReader reader = new DelimitedReader(new StringReader("\"never closed,back\n"), ',');
+
+        assertThatThrownBy(reader::next).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void writeRecord_RoundTripsThroughReader() throws IOException {
+        // Given
+        StringWriter out = new StringWriter();
+        DelimitedWriter writer = new DelimitedWriter(out, '\t');
+        writer.writeRecord("\"quoted\"", "tab\there", null, "multi\nline");
+        writer.flush();
+
+        // When
+        List<String> record = new DelimitedReader(new StringReader(out.toString()), '\t').next();
+
+        // Then
+        assertThat(record).containsExactly("\"quoted\"", "tab\there", "", "multi\nline");
+    }
+}
@@ -0,0 +1,103 @@
+package com.lexienglish.service.mocktest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AnswerJournalTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void replay_ReturnsAppendedAnswersInOrder() throws IOException {
+        // Given
+        LocalDateTime answeredAt = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+        AnswerWriter.Answer graded = new AnswerWriter.Answer(7L, "True", true, new BigDecimal("1.00"), 12, answeredAt);
+        AnswerWriter.Answer essay = new AnswerWriter.Answer(8L, "Line one\nLine two ✓", null, null, null, answeredAt);
+        try (AnswerJournal journal = new AnswerJournal(dir, "answers")) {
+            journal.append(1L, List.of(graded));
+            journal.roll();
+            journal.append(1L, List.of(essay));
+        }
+
+        // When
+        List<AnswerJournal.Entry> entries;
+        try (AnswerJournal reopened = new AnswerJournal(dir, "answers")) {
+            entries = reopened.replay();
+        }
+
+        // Then
+        assertThat(entries).containsExactly(new AnswerJournal.Entry(1L, graded), new AnswerJournal.Entry(1L, essay));
+    }
+
+    @Test
+    void replay_IgnoresTornRecordAtTheEnd() throws IOException {
+        // Given
+        LocalDateTime answeredAt = LocalDateTime.now();
+        try (AnswerJournal journal = new AnswerJournal(dir, "answers")) {
+            journal.append(1L, List.of(new AnswerWriter.Answer(7L, "A", false, BigDecimal.ZERO, 3, answeredAt)));
+            journal.append(1L, List.of(new AnswerWriter.Answer(8L, "B", false, BigDecimal.ZERO, 3, answeredAt)));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        // When
+        List<AnswerJournal.Entry> entries;
+        try (AnswerJournal reopened = new AnswerJournal(dir, "answers")) {
+            entries = reopened.replay();
+        }
+
+        // Then
+        assertThat(entries).extracting(e -> e.answer().questionId()).containsExactly(7L);
+    }
+
+    @Test
+    void deleteBefore_RemovesOnlyOlderSegments() throws IOException {
+        try (AnswerJournal journal = new AnswerJournal(dir, "answers")) {
+            journal.append(1L, List.of(new AnswerWriter.Answer(7L, "A", null, null, null, LocalDateTime.now())));
+            long current = journal.roll();
+
+            journal.deleteBefore(current);
+
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files.toList()).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    void sync_AfterRoll_ReturnsAndKeepsTheWrite() throws IOException {
+        // Given
+        LocalDateTime answeredAt = LocalDateTime.now();
+        long position;
+        try (AnswerJournal journal = new AnswerJournal(dir, "answers")) {
+            position = journal.write(1L, List.of(new AnswerWriter.Answer(7L, "A", null, null, null, answeredAt)));
+            journal.roll();
+
+            // When
+            journal.sync(position);
+        }
+
+        // Then
+        try (AnswerJournal reopened = new AnswerJournal(dir, "answers")) {
+            assertThat(reopened.replay()).extracting(e -> e.answer().answer()).containsExactly("A");
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttemptAnswerBufferIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path journalDir;
+
+    private TransactionTemplate transactionTemplate;
+    private AttemptAnswerBuffer buffer;
+    private Long attemptId;
+    private List<Long> questionIds;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        buffer = newBuffer();
+        createAttempt();
+    }
+
+    @Test
+    void write_IsWrittenByNextFlushAndJournalIsTrimmed() throws IOException {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A"), answer(1, "B")));
+        List<String> beforeFlush = storedAnswers();
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(beforeFlush).isEmpty();
+        assertThat(storedAnswers()).containsExactly("A", "B");
+        try (Stream<Path> segments = Files.list(journalDir)) {
+            assertThat(segments.toList())
+                    .hasSize(AttemptAnswerBuffer.STRIPES)
+                    .allSatisfy(segment -> assertThat(Files.size(segment)).isZero());
+        }
+    }
+
+    @Test
+    void restart_ReplaysJournaledAnswers() {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A"), answer(1, "B")));
+        buffer.write(attemptId, List.of(answer(0, "C")));
+
+        // When
+        AttemptAnswerBuffer restarted = newBuffer();
+        restarted.flush();
+
+        // Then
+        assertThat(storedAnswers()).containsExactly("C", "B");
+    }
+
+    @Test
+    void flush_AttemptNoLongerInProgress_KeepsAnswersWithoutReplacingStoredOnes() {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A")));
+        buffer.flush();
+        buffer.write(attemptId, List.of(answer(0, "B"), answer(1, "C")));
+        jdbcTemplate.update("UPDATE test_attempts SET status = 'ABANDONED' WHERE id = ?", attemptId);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(storedAnswers()).containsExactly("A", "C");
+    }
+
+    @Test
+    void flush_AttemptLockedForCompletion_SkipsItAndKeepsAnswersForItsDrain() throws Exception {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A")));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch flushed = new CountDownLatch(1);
+        CompletableFuture<Void> completion = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    testAttemptRepository.lockById(attemptId);
+                    locked.countDown();
+                    await(flushed);
+                    buffer.flush(attemptId);
+                }));
+        locked.await(5, TimeUnit.SECONDS);
+
+        // When
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> buffer.flush());
+        List<String> afterPeriodicFlush = storedAnswers();
+        flushed.countDown();
+        completion.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(afterPeriodicFlush).isEmpty();
+        assertThat(storedAnswers()).containsExactly("A");
+    }
+
+    @Test
+    void flushAttempt_RolledBack_AnswersStayBuffered() {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A")));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            buffer.flush(attemptId);
+            status.setRollbackOnly();
+        });
+        List<String> afterRollback = storedAnswers();
+        buffer.flush();
+
+        // Then
+        assertThat(afterRollback).isEmpty();
+        assertThat(storedAnswers()).containsExactly("A");
+    }
+
+    @Test
+    void write_WhileAttemptIsBeingCompleted_IsRejected() {
+        // Given
+        buffer.write(attemptId, List.of(answer(0, "A")));
+
+        // When
+        boolean accepted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            testAttemptRepository.lockById(attemptId);
+            buffer.flush(attemptId);
+            return buffer.write(attemptId, List.of(answer(1, "B")));
+        }));
+        buffer.flush();
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(storedAnswers()).containsExactly("A");
+    }
+
+    @Test
+    void flush_AttemptCompletedElsewhere_DropsAnswersGivenAfterCompletion() {
+        // Given
+        LocalDateTime completedAt = LocalDateTime.now().minusMinutes(1);
+        buffer.write(attemptId, List.of(answer(0, "A", completedAt.minusSeconds(1)),
+                answer(1, "B", completedAt.plusSeconds(1))));
+        jdbcTemplate.update("UPDATE test_attempts SET status = 'COMPLETED', completed_at = ? WHERE id = ?",
+                completedAt, attemptId);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(storedAnswers()).containsExactly("A");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AttemptAnswerBuffer newBuffer() {
+        return new AttemptAnswerBuffer(new AnswerWriter(jdbcTemplate), testAttemptRepository, transactionManager,
+                true, journalDir.toString());
+    }
+
+    private AnswerWriter.Answer answer(int question, String answer) {
+        return answer(question, answer, LocalDateTime.now());
+    }
+
+    private AnswerWriter.Answer answer(int question, String answer, LocalDateTime answeredAt) {
+        return new AnswerWriter.Answer(questionIds.get(question), answer, null, null, 5, answeredAt);
+    }
+
+    private List<String> storedAnswers() {
+        return jdbcTemplate.queryForList("SELECT user_answer FROM user_responses WHERE test_attempt_id = ? " +
+                "ORDER BY question_id", String.class, attemptId);
+    }
+
+    private void createAttempt() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = createUser();
+            MockTest test = createMockTest(MockTest.SkillType.WRITING, 2);
+            questionIds = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                questionIds.add(questionRepository.save(Question.builder()
+                        .content("Question " + i)
+                        .questionType(Question.QuestionType.ESSAY)
+                        .points(5)
+                        .orderIndex(i)
+                        .mockTest(test)
+                        .build()).getId());
+            }
+            attemptId = testAttemptRepository.save(TestAttempt.builder()
+                    .user(user)
+                    .mockTest(test)
+                    .startedAt(LocalDateTime.now())
+                    .build()).getId();
+        });
+    }
+}
@@ -0,0 +1,212 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.repository.GradingJobRepository;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import com.lexienglish.service.LeaderElection;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AttemptDeadlineServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private GradingJobRepository gradingJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private GradingQueue gradingQueue;
+    private AttemptDeadlineService deadlineService;
+    private User user;
+    private MockTest test;
+
+    @BeforeEach
+    void setUp() {
+        when(leaderElection.isLeader(AttemptDeadlineService.LEADER_TASK)).thenReturn(true);
+        gradingQueue = new GradingQueue(gradingJobRepository, testAttemptRepository, userResponseRepository,
+                mock(AttemptGrader.class), mock(UserTestStatsService.class), mock(QuestionStatsService.class),
+                mock(ApplicationEventPublisher.class), transactionManager, 1);
+        deadlineService = new AttemptDeadlineService(testAttemptRepository, userResponseRepository,
+                new AttemptAnswerBuffer(new AnswerWriter(jdbcTemplate), testAttemptRepository, transactionManager,
+                        false, "unused"),
+                gradingQueue, jdbcTemplate, transactionManager, leaderElection, true);
+        user = createUser("taker@example.com");
+        test = createMockTest(MockTest.SkillType.READING, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradingQueue.shutdown();
+    }
+
+    @Test
+    void expire_TimeUp_CompletesWithSavedAnswersAtDeadline() {
+        // Given
+        TestAttempt attempt = createAttempt(LocalDateTime.now().minusMinutes(61));
+        answer(attempt);
+
+        // When
+        boolean expired = deadlineService.expire(attempt.getId());
+
+        // Then
+        entityManager.flush();
+        entityManager.clear();
+        TestAttempt result = testAttemptRepository.findById(attempt.getId()).orElseThrow();
+        assertThat(expired).isTrue();
+        assertThat(result.getStatus()).isEqualTo(TestAttempt.AttemptStatus.COMPLETED);
+        assertThat(result.getPercentageScore()).isEqualByComparingTo("100");
+        assertThat(result.getTimeSpentSeconds()).isEqualTo(3600);
+    }
+
+    @Test
+    void expire_NothingAnswered_Abandons() {
+        // Given
+        TestAttempt attempt = createAttempt(LocalDateTime.now().minusMinutes(61));
+
+        // When
+        boolean expired = deadlineService.expire(attempt.getId());
+
+        // Then
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(expired).isTrue();
+        assertThat(testAttemptRepository.findById(attempt.getId()).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.ABANDONED);
+    }
+
+    @Test
+    void expire_WithinTimeOrGrace_LeavesAttemptInProgress() {
+        // Given
+        TestAttempt running = createAttempt(LocalDateTime.now().minusMinutes(30));
+        TestAttempt inGrace = createAttempt(LocalDateTime.now().minusMinutes(60).plusSeconds(10));
+
+        // When / Then
+        assertThat(deadlineService.expire(running.getId())).isFalse();
+        assertThat(deadlineService.expire(inGrace.getId())).isFalse();
+        assertThat(running.getStatus()).isEqualTo(TestAttempt.AttemptStatus.IN_PROGRESS);
+        assertThat(inGrace.getStatus()).isEqualTo(TestAttempt.AttemptStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void sweep_AbandonsAttemptsLongPastTheirDeadlineInBatches() {
+        // Given
+        for (int i = 0; i < AttemptDeadlineService.SWEEP_BATCH_SIZE + 5; i++) {
+            jdbcTemplate.update("INSERT INTO test_attempts (user_id, mock_test_id, started_at, deadline_at, status, " +
+                            "created_at, updated_at) VALUES (?, ?, ?, ?, 'IN_PROGRESS', now(), now())",
+                    user.getId(), test.getId(), LocalDateTime.now().minusDays(30),
+                    LocalDateTime.now().minusDays(30).plusMinutes(60));
+        }
+        TestAttempt recent = createAttempt(LocalDateTime.now().minusMinutes(90));
+
+        // When
+        deadlineService.sweep();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM test_attempts " +
+                "WHERE mock_test_id = ? AND status = 'ABANDONED'", Long.class, test.getId())).isEqualTo(AttemptDeadlineService.SWEEP_BATCH_SIZE + 5);
+        entityManager.clear();
+        assertThat(testAttemptRepository.findById(recent.getId()).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void scan_TakingTheLead_AbandonsLongStaleAttemptsInsteadOfCompletingThem() {
+        // Given
+        TestAttempt stale = createAttempt(LocalDateTime.now().minusDays(30));
+        answer(stale);
+        TestAttempt recent = createAttempt(LocalDateTime.now().minusMinutes(90));
+
+        // When
+        deadlineService.scan();
+
+        // Then
+        entityManager.clear();
+        assertThat(testAttemptRepository.findById(stale.getId()).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.ABANDONED);
+        assertThat(testAttemptRepository.findById(recent.getId()).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void sweep_NotLeader_LeavesAttemptsAlone() {
+        // Given
+        when(leaderElection.isLeader(AttemptDeadlineService.LEADER_TASK)).thenReturn(false);
+        TestAttempt stale = createAttempt(LocalDateTime.now().minusDays(2));
+
+        // When
+        deadlineService.sweep();
+
+        // Then
+        entityManager.clear();
+        assertThat(testAttemptRepository.findById(stale.getId()).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.IN_PROGRESS);
+    }
+
+    private TestAttempt createAttempt(LocalDateTime startedAt) {
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(test)
+                .startedAt(startedAt)
+                .deadlineAt(startedAt.plusMinutes(test.getDurationMinutes()))
+                .build());
+        entityManager.flush();
+        return attempt;
+    }
+
+    private void answer(TestAttempt attempt) {
+        Question question = questionRepository.save(Question.builder()
+                .content("Question")
+                .questionType(Question.QuestionType.MULTIPLE_CHOICE)
+                .correctAnswer("A")
+                .orderIndex(0)
+                .mockTest(test)
+                .build());
+        userResponseRepository.save(UserResponse.builder()
+                .testAttempt(attempt)
+                .question(question)
+                .userAnswer("A")
+                .isCorrect(true)
+                .score(BigDecimal.ONE)
+                .build());
+        entityManager.flush();
+    }
+}
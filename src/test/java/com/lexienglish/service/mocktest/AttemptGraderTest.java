@@ -0,0 +1,104 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.service.SpeakingScoringService;
+import com.lexienglish.service.WritingScoringService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttemptGraderTest {
+
+    private static final long SCORING_MILLIS = 200;
+
+    @Mock
+    private WritingScoringService writingScoringService;
+
+    @Mock
+    private SpeakingScoringService speakingScoringService;
+
+    @InjectMocks
+    private AttemptGrader attemptGrader;
+
+    @Test
+    void grade_RunsBoundedConcurrently() {
+        // Given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(writingScoringService.scoreWritingResponse(any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(SCORING_MILLIS);
+            inFlight.decrementAndGet();
+            UserResponse response = invocation.getArgument(0);
+            response.setScore(BigDecimal.ONE);
+            return response;
+        });
+        List<UserResponse> responses = IntStream.range(0, 2 * AttemptGrader.MAX_PARALLELISM)
+                .mapToObj(i -> response((long) i, Question.QuestionType.ESSAY))
+                .toList();
+
+        // When
+        long start = System.nanoTime();
+        List<UserResponse> graded = attemptGrader.grade(responses);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(graded).hasSize(responses.size());
+        assertThat(graded).allSatisfy(r -> assertThat(r.getScore()).isEqualTo(BigDecimal.ONE));
+        assertThat(maxInFlight.get()).isEqualTo(AttemptGrader.MAX_PARALLELISM);
+        assertThat(elapsedMillis).isLessThan(responses.size() * SCORING_MILLIS / 2);
+    }
+
+    @Test
+    void grade_FailedScoringLeavesResponseUngraded() {
+        // Given
+        UserResponse essay = response(1L, Question.QuestionType.ESSAY);
+        UserResponse speaking = response(2L, Question.QuestionType.SPEAKING);
+        when(writingScoringService.scoreWritingResponse(essay)).thenThrow(new IllegalStateException("AI down"));
+        when(speakingScoringService.scoreSpeakingResponse(speaking)).thenReturn(speaking);
+
+        // When
+        List<UserResponse> graded = attemptGrader.grade(List.of(essay, speaking));
+
+        // Then
+        assertThat(graded).containsExactly(speaking);
+    }
+
+    @Test
+    void needsAiGrading_OnlyUngradedOpenResponses() {
+        UserResponse graded = response(1L, Question.QuestionType.ESSAY);
+        graded.setScore(BigDecimal.TEN);
+
+        assertThat(AttemptGrader.needsAiGrading(response(2L, Question.QuestionType.SHORT_ANSWER))).isTrue();
+        assertThat(AttemptGrader.needsAiGrading(response(3L, Question.QuestionType.MULTIPLE_CHOICE))).isFalse();
+        assertThat(AttemptGrader.needsAiGrading(graded)).isFalse();
+    }
+
+    private UserResponse response(Long id, Question.QuestionType type) {
+        Question question = Question.builder()
+                .content("Describe your hometown")
+                .questionType(type)
+                .orderIndex(0)
+                .build();
+        question.setId(id);
+        UserResponse response = UserResponse.builder()
+                .question(question)
+                .userAnswer("It is a small town by the sea.")
+                .build();
+        response.setId(id);
+        return response;
+    }
+}
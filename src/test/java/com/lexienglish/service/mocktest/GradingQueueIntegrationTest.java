@@ -0,0 +1,250 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.TestAttemptResultEvent;
+import com.lexienglish.entity.GradingJob;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.repository.GradingJobRepository;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import com.lexienglish.repository.UserTestStatsRepository;
+import com.lexienglish.service.LeaderElection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GradingQueueIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private GradingJobRepository gradingJobRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private UserTestStatsRepository userTestStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AttemptGrader attemptGrader = mock(AttemptGrader.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final QuestionStatsService questionStatsService = mock(QuestionStatsService.class);
+
+    private GradingQueue gradingQueue;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        gradingQueue = new GradingQueue(gradingJobRepository, testAttemptRepository, userResponseRepository,
+                attemptGrader, new UserTestStatsService(userTestStatsRepository, transactionManager,
+                        mock(LeaderElection.class)),
+                questionStatsService, eventPublisher,
+                transactionManager, 1);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradingQueue.shutdown();
+    }
+
+    @Test
+    void enqueue_WorkerGradesAttemptAfterCommit() throws InterruptedException {
+        // Given
+        when(attemptGrader.grade(anyList())).thenAnswer(invocation -> {
+            List<UserResponse> responses = invocation.getArgument(0);
+            responses.forEach(r -> r.setScore(BigDecimal.valueOf(4)));
+            return responses;
+        });
+
+        // When
+        Long attemptId = transactionTemplate.execute(status -> {
+            TestAttempt attempt = createGradingAttempt();
+            gradingQueue.enqueue(attempt);
+            return attempt.getId();
+        });
+        TestAttempt attempt = awaitStatusChange(attemptId);
+
+        // Then
+        assertThat(attempt.getStatus()).isEqualTo(TestAttempt.AttemptStatus.COMPLETED);
+        assertThat(attempt.getTotalScore()).isEqualByComparingTo("4");
+        assertThat(attempt.getFeedback()).isNotBlank();
+        assertThat(gradingJobRepository.findByTestAttemptId(attemptId)).isEmpty();
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof TestAttemptResultEvent r
+                && r.getAttempt().getId().equals(attemptId)));
+    }
+
+    @Test
+    void process_FailedGrading_IsRetriedWithBackoffThenSentToReview() {
+        // Given
+        when(attemptGrader.grade(anyList())).thenReturn(List.of());
+        Long attemptId = createQueuedAttempt();
+
+        // When
+        gradingQueue.process(attemptId, 1);
+
+        // Then
+        GradingJob job = gradingJobRepository.findByTestAttemptId(attemptId).orElseThrow();
+        assertThat(job.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+        assertThat(job.getLockedUntil()).isNull();
+        assertThat(job.getLastError()).isEqualTo("1 of 1 responses could not be graded");
+        assertThat(gradingQueue.claim(10)).extracting(GradingJobRepository.ClaimedJobView::getTestAttemptId)
+                .doesNotContain(attemptId);
+        assertThat(testAttemptRepository.findById(attemptId).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.GRADING);
+
+        // When
+        gradingQueue.process(attemptId, GradingQueue.MAX_ATTEMPTS);
+
+        // Then
+        assertThat(testAttemptRepository.findById(attemptId).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.PENDING_REVIEW);
+        assertThat(gradingJobRepository.findByTestAttemptId(attemptId)).isEmpty();
+    }
+
+    @Test
+    void run_FinishKeepsThrowing_IsRetriedWithBackoffThenSentToReview() {
+        // Given
+        when(attemptGrader.grade(anyList())).thenAnswer(invocation -> {
+            List<UserResponse> responses = invocation.getArgument(0);
+            responses.forEach(r -> r.setScore(BigDecimal.valueOf(4)));
+            return responses;
+        });
+        doThrow(new IllegalStateException("stats unavailable")).when(questionStatsService).attemptCompleted(any());
+        Long attemptId = createQueuedAttempt();
+
+        // When
+        gradingQueue.run(attemptId, 1);
+
+        // Then
+        GradingJob job = gradingJobRepository.findByTestAttemptId(attemptId).orElseThrow();
+        assertThat(job.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+        assertThat(job.getLockedUntil()).isNull();
+        assertThat(job.getLastError()).isEqualTo("stats unavailable");
+        assertThat(testAttemptRepository.findById(attemptId).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.GRADING);
+
+        // When
+        gradingQueue.run(attemptId, GradingQueue.MAX_ATTEMPTS);
+
+        // Then
+        assertThat(testAttemptRepository.findById(attemptId).orElseThrow().getStatus())
+                .isEqualTo(TestAttempt.AttemptStatus.PENDING_REVIEW);
+        assertThat(gradingJobRepository.findByTestAttemptId(attemptId)).isEmpty();
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof TestAttemptResultEvent r
+                && r.getAttempt().getId().equals(attemptId)));
+    }
+
+    @Test
+    void claim_LeasedJobIsNotClaimedAgainUntilLeaseExpires() {
+        // Given
+        Long attemptId = createQueuedAttempt();
+        assertThat(gradingQueue.claim(10)).extracting(GradingJobRepository.ClaimedJobView::getTestAttemptId)
+                .contains(attemptId);
+
+        // When
+        List<Long> whileLeased = gradingQueue.claim(10).stream()
+                .map(GradingJobRepository.ClaimedJobView::getTestAttemptId)
+                .toList();
+        jdbcTemplate.update("UPDATE grading_jobs SET locked_until = ? WHERE test_attempt_id = ?",
+                LocalDateTime.now().minusSeconds(1), attemptId);
+        List<GradingJobRepository.ClaimedJobView> afterExpiry = gradingQueue.claim(10);
+
+        // Then
+        assertThat(whileLeased).doesNotContain(attemptId);
+        assertThat(afterExpiry).filteredOn(j -> j.getTestAttemptId().equals(attemptId))
+                .singleElement()
+                .satisfies(j -> assertThat(j.getAttempts()).isEqualTo(2));
+    }
+
+    @Test
+    void backoff_DoublesUpToTheCap() {
+        assertThat(GradingQueue.backoff(1)).hasSeconds(30);
+        assertThat(GradingQueue.backoff(3)).hasSeconds(120);
+        assertThat(GradingQueue.backoff(20)).hasMinutes(30);
+    }
+
+    private TestAttempt awaitStatusChange(Long attemptId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            TestAttempt attempt = testAttemptRepository.findById(attemptId).orElseThrow();
+            if (attempt.getStatus() != TestAttempt.AttemptStatus.GRADING) {
+                return attempt;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Attempt " + attemptId + " was not graded");
+    }
+
+    private Long createQueuedAttempt() {
+        return transactionTemplate.execute(status -> {
+            TestAttempt attempt = createGradingAttempt();
+            gradingJobRepository.save(GradingJob.builder()
+                    .testAttemptId(attempt.getId())
+                    .nextAttemptAt(LocalDateTime.now())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            return attempt.getId();
+        });
+    }
+
+    private TestAttempt createGradingAttempt() {
+        User user = createUser();
+        MockTest test = createMockTest(MockTest.SkillType.WRITING, 1);
+        Question question = questionRepository.save(Question.builder()
+                .content("Describe your hometown")
+                .questionType(Question.QuestionType.ESSAY)
+                .points(5)
+                .orderIndex(0)
+                .mockTest(test)
+                .build());
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(test)
+                .startedAt(LocalDateTime.now().minusMinutes(30))
+                .completedAt(LocalDateTime.now())
+                .status(TestAttempt.AttemptStatus.GRADING)
+                .build());
+        userResponseRepository.save(UserResponse.builder()
+                .testAttempt(attempt)
+                .question(question)
+                .userAnswer("It is a small town by the sea.")
+                .build());
+        return attempt;
+    }
+}
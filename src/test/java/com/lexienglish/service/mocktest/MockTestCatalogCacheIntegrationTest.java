@@ -0,0 +1,227 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.MockTestDto;
+import com.lexienglish.dto.mocktest.QuestionDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.QuestionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MockTestCatalogCacheIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private MockTestRepository mockTestRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockTestCatalogCache cache;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MockTestCatalogCache(mockTestRepository, questionRepository);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getQuestions_LoadsOptionsInOneStatementThenServesFromMemory() {
+        // Given
+        MockTest test = createTest(true, 5);
+        cache.refresh();
+        statistics.clear();
+
+        // When
+        List<QuestionDto> first = cache.getQuestions(test.getId());
+        long statementsOnMiss = statistics.getPrepareStatementCount();
+        List<QuestionDto> second = cache.getQuestions(test.getId());
+
+        // Then
+        assertThat(first).hasSize(5);
+        assertThat(first).extracting(QuestionDto::getOrderIndex).isSorted();
+        assertThat(first).allSatisfy(q -> assertThat(q.getOptions()).containsExactly("A", "B", "C", "D"));
+        assertThat(statementsOnMiss).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void refresh_AfterQuestionOptionEdited_ServesNewVersion() {
+        // Given
+        MockTest test = createTest(true, 2);
+        cache.refresh();
+        cache.getQuestions(test.getId());
+        Long questionId = questionRepository.findWithOptionsByMockTestId(test.getId()).get(0).getId();
+
+        // When
+        jdbcTemplate.update("UPDATE question_options SET option_text = 'Z' WHERE question_id = ? AND option_text = 'D'",
+                questionId);
+        entityManager.clear();
+        List<QuestionDto> beforeRefresh = cache.getQuestions(test.getId());
+        cache.refresh();
+        List<QuestionDto> afterRefresh = cache.getQuestions(test.getId());
+
+        // Then
+        assertThat(beforeRefresh.get(0).getOptions()).contains("D");
+        assertThat(afterRefresh.get(0).getOptions()).containsExactly("A", "B", "C", "Z");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void refresh_EditUncommittedDuringLoad_ReloadsOnceCommitted() throws Exception {
+        // Given
+        MockTest test = new TransactionTemplate(transactionManager).execute(status -> createTest(true, 1));
+        cache.refresh();
+        cache.getQuestions(test.getId());
+
+        // When
+        List<QuestionDto> duringEdit;
+        try (Connection editor = dataSource.getConnection()) {
+            editor.setAutoCommit(false);
+            try (PreparedStatement ps = editor.prepareStatement("UPDATE question_options SET option_text = 'Z' "
+                    + "WHERE question_id IN (SELECT id FROM questions WHERE mock_test_id = ?) AND option_text = 'D'")) {
+                ps.setLong(1, test.getId());
+                ps.executeUpdate();
+            }
+            cache.refresh();
+            duringEdit = cache.getQuestions(test.getId());
+            editor.commit();
+        }
+        cache.refresh();
+        List<QuestionDto> afterCommit = cache.getQuestions(test.getId());
+
+        // Then
+        assertThat(duringEdit.get(0).getOptions()).containsExactly("A", "B", "C", "D");
+        assertThat(afterCommit.get(0).getOptions()).containsExactly("A", "B", "C", "Z");
+    }
+
+    @Test
+    void getTest_UnpublishedTestAppearsOncePublished() {
+        // Given
+        MockTest test = createTest(false, 1);
+        cache.refresh();
+        boolean listedBeforePublish = cache.getTest(test.getId()).isPresent();
+
+        // When
+        jdbcTemplate.update("UPDATE mock_tests SET is_published = true WHERE id = ?", test.getId());
+        cache.refresh();
+
+        // Then
+        assertThat(listedBeforePublish).isFalse();
+        assertThat(cache.getTest(test.getId())).isPresent();
+        assertThat(cache.getTests(MockTest.TestType.IELTS, MockTest.SkillType.READING, Pageable.unpaged()))
+                .extracting(MockTestDto::getId)
+                .contains(test.getId());
+        assertThat(cache.getTests(MockTest.TestType.TOEFL, null, Pageable.unpaged()))
+                .extracting(MockTestDto::getId)
+                .doesNotContain(test.getId());
+    }
+
+    @Test
+    void refresh_AfterTestDeleted_DropsIt() {
+        // Given
+        MockTest test = createTest(true, 0);
+        cache.refresh();
+        boolean listedBeforeDelete = cache.getTest(test.getId()).isPresent();
+
+        // When
+        jdbcTemplate.update("DELETE FROM mock_tests WHERE id = ?", test.getId());
+        cache.refresh();
+
+        // Then
+        assertThat(listedBeforeDelete).isTrue();
+        assertThat(cache.getTest(test.getId())).isEmpty();
+    }
+
+    @Test
+    void getTests_SortedPageable_AppliesTheSort() {
+        // Given
+        MockTest shortTest = mockTestRepository.save(mockTest(MockTest.SkillType.LISTENING, 1)
+                .durationMinutes(30).build());
+        MockTest longTest = mockTestRepository.save(mockTest(MockTest.SkillType.LISTENING, 1)
+                .durationMinutes(90).build());
+        MockTest mediumTest = mockTestRepository.save(mockTest(MockTest.SkillType.LISTENING, 1)
+                .durationMinutes(60).build());
+        List<Long> ids = List.of(shortTest.getId(), longTest.getId(), mediumTest.getId());
+        cache.refresh();
+
+        // When
+        List<Long> sorted = cache.getTests(null, MockTest.SkillType.LISTENING,
+                        PageRequest.of(0, 1_000, Sort.by(Sort.Direction.DESC, "durationMinutes")))
+                .map(MockTestDto::getId)
+                .filter(ids::contains)
+                .toList();
+
+        // Then
+        assertThat(sorted).containsExactly(longTest.getId(), mediumTest.getId(), shortTest.getId());
+    }
+
+    @Test
+    void getTests_UnknownSortProperty_IsRejected() {
+        assertThatThrownBy(() -> cache.getTests(null, null, PageRequest.of(0, 10, Sort.by("published"))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private MockTest createTest(boolean published, int questionCount) {
+        MockTest test = mockTestRepository.save(mockTest(MockTest.SkillType.READING, questionCount)
+                .published(published)
+                .build());
+        for (int i = 0; i < questionCount; i++) {
+            questionRepository.save(Question.builder()
+                    .content("Question " + i)
+                    .questionType(Question.QuestionType.MULTIPLE_CHOICE)
+                    .correctAnswer("A")
+                    .options(List.of("A", "B", "C", "D"))
+                    .orderIndex(questionCount - i)
+                    .mockTest(test)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return test;
+    }
+}
@@ -0,0 +1,226 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.QuestionStatsDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.Question;
+import com.lexienglish.entity.QuestionStats;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserResponse;
+import com.lexienglish.exception.BadRequestException;
+import com.lexienglish.repository.QuestionRepository;
+import com.lexienglish.repository.QuestionStatsRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserResponseRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QuestionStatsServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final int ATTEMPTS = 40;
+    private static final int FILLERS = 4;
+
+    @Autowired
+    private QuestionStatsRepository questionStatsRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private QuestionStatsService statsService;
+    private User user;
+    private MockTest test;
+    private Question discriminating;
+    private Question easy;
+    private Question broken;
+    private List<Question> fillers;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new QuestionStatsService(questionStatsRepository, transactionManager);
+        user = createUser("taker@example.com");
+        test = createMockTest(MockTest.SkillType.READING, 3 + FILLERS);
+        discriminating = createQuestion(0);
+        easy = createQuestion(1);
+        broken = createQuestion(2);
+        fillers = new ArrayList<>();
+        for (int i = 0; i < FILLERS; i++) {
+            fillers.add(createQuestion(3 + i));
+        }
+    }
+
+    @Test
+    void drain_AccumulatesSameStatisticsAsFullScan() {
+        // Given / When
+        completeAttempts();
+
+        // Then
+        List<Question> questions = new ArrayList<>(List.of(discriminating, easy, broken));
+        questions.addAll(fillers);
+        for (Question question : questions) {
+            QuestionStats stats = questionStatsRepository.findById(question.getId()).orElseThrow();
+            Map<String, Object> exact = jdbcTemplate.queryForMap("""
+                    SELECT count(*) AS responses, count(*) FILTER (WHERE r.is_correct) AS correct,
+                           avg(r.score) AS score_mean, var_pop(r.score) AS score_var,
+                           corr(r.score, r.rest) AS corr,
+                           avg(r.time_spent_seconds) AS time_mean, var_samp(r.time_spent_seconds) AS time_var
+                    FROM (SELECT r.*, sum(r.score) OVER (PARTITION BY r.test_attempt_id) - r.score AS rest
+                          FROM user_responses r
+                          JOIN test_attempts a ON a.id = r.test_attempt_id
+                          WHERE a.mock_test_id = ?) r
+                    WHERE r.question_id = ?
+                    """, test.getId(), question.getId());
+            assertThat(stats.getResponses()).isEqualTo(((Number) exact.get("responses")).longValue());
+            assertThat(stats.getCorrect()).isEqualTo(((Number) exact.get("correct")).longValue());
+            assertThat(stats.getScoreMean()).isCloseTo(((Number) exact.get("score_mean")).doubleValue(), within(1e-9));
+            assertThat(stats.getScoreM2() / stats.getScored())
+                    .isCloseTo(((Number) exact.get("score_var")).doubleValue(), within(1e-9));
+            assertThat(stats.getTimeMean()).isCloseTo(((Number) exact.get("time_mean")).doubleValue(), within(1e-9));
+            assertThat(stats.getTimeM2() / (stats.getTimed() - 1))
+                    .isCloseTo(((Number) exact.get("time_var")).doubleValue(), within(1e-6));
+            if (exact.get("corr") != null) {
+                double discrimination = stats.getScoreRestC2() / Math.sqrt(stats.getScoreM2() * stats.getRestM2());
+                assertThat(discrimination).isCloseTo(((Number) exact.get("corr")).doubleValue(), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void attemptCompleted_OnlyQueuesTheAttempt() {
+        // Given
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(test)
+                .startedAt(LocalDateTime.now())
+                .status(TestAttempt.AttemptStatus.COMPLETED)
+                .build());
+        saveResponse(attempt, easy, true, 30);
+
+        // When
+        statsService.attemptCompleted(attempt);
+        statsService.attemptCompleted(attempt);
+
+        // Then
+        assertThat(questionStatsRepository.findById(easy.getId())).isEmpty();
+        statsService.drain();
+        assertThat(questionStatsRepository.findById(easy.getId())).hasValueSatisfying(stats ->
+                assertThat(stats.getResponses()).isEqualTo(1));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM question_stats_queue", Long.class)).isZero();
+    }
+
+    @Test
+    void rankQuestions_OrdersByRequestedMetric() {
+        // Given
+        completeAttempts();
+
+        // When
+        List<Long> leastDiscriminating = ids(statsService.rankQuestions(test.getId(), "least_discriminating", 10,
+                PageRequest.of(0, 10)).getContent());
+        List<Long> hardest = ids(statsService.rankQuestions(test.getId(), "HARDEST", 10,
+                PageRequest.of(0, 10)).getContent());
+        List<QuestionStatsDto> tooFew = statsService.rankQuestions(test.getId(), null, ATTEMPTS + 1,
+                PageRequest.of(0, 10)).getContent();
+
+        // Then
+        assertThat(leastDiscriminating.get(0)).isEqualTo(broken.getId());
+        assertThat(leastDiscriminating.indexOf(easy.getId()))
+                .isLessThan(leastDiscriminating.indexOf(discriminating.getId()));
+        assertThat(hardest).hasSize(3 + FILLERS).last().isEqualTo(easy.getId());
+        assertThat(tooFew).isEmpty();
+        assertThatThrownBy(() -> statsService.rankQuestions(null, "noisiest", null, PageRequest.of(0, 10)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    /**
+     * Strong takers answer the discriminating question right and the broken
+     * one wrong; nearly everyone answers the easy question right. The filler
+     * questions track the taker's ability, like the rest of a longer test.
+     * Attempts are drained in uneven batches so stored stats and batches merge.
+     */
+    private void completeAttempts() {
+        Random random = new Random(7);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            double ability = random.nextDouble();
+            TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                    .user(user)
+                    .mockTest(test)
+                    .startedAt(LocalDateTime.now())
+                    .status(TestAttempt.AttemptStatus.COMPLETED)
+                    .build());
+            saveResponse(attempt, discriminating, ability > 0.5, 20 + random.nextInt(60));
+            saveResponse(attempt, easy, i % 10 != 0, 20 + random.nextInt(60));
+            saveResponse(attempt, broken, ability < 0.4 || random.nextDouble() < 0.1, 20 + random.nextInt(60));
+            for (int f = 0; f < FILLERS; f++) {
+                saveResponse(attempt, fillers.get(f), ability > 0.2 * f + 0.2, 20 + random.nextInt(60));
+            }
+            entityManager.flush();
+            statsService.attemptCompleted(attempt);
+            if (i % 7 == 6 || i == 0) {
+                statsService.drain();
+            }
+        }
+        statsService.drain();
+        entityManager.clear();
+    }
+
+    private void saveResponse(TestAttempt attempt, Question question, boolean correct, int timeSpentSeconds) {
+        userResponseRepository.save(UserResponse.builder()
+                .testAttempt(attempt)
+                .question(question)
+                .userAnswer(correct ? "A" : "B")
+                .isCorrect(correct)
+                .score(correct ? BigDecimal.ONE : BigDecimal.ZERO)
+                .timeSpentSeconds(timeSpentSeconds)
+                .build());
+        entityManager.flush();
+    }
+
+    private Question createQuestion(int index) {
+        return questionRepository.save(Question.builder()
+                .content("Question " + index)
+                .questionType(Question.QuestionType.MULTIPLE_CHOICE)
+                .correctAnswer("A")
+                .orderIndex(index)
+                .mockTest(test)
+                .build());
+    }
+
+    private static List<Long> ids(List<QuestionStatsDto> stats) {
+        List<Long> ids = new ArrayList<>();
+        stats.forEach(s -> ids.add(s.getQuestionId()));
+        return ids;
+    }
+}
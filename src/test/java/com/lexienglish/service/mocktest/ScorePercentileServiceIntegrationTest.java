@@ -0,0 +1,117 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.TestAttemptDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.TestAttempt;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScorePercentileServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void checkpoint_MergesScoresRecordedOnEveryNode() {
+        // Given
+        Long testId = createMockTest(MockTest.SkillType.READING, 10).getId();
+        ScorePercentileService first = new ScorePercentileService(jdbcTemplate);
+        ScorePercentileService second = new ScorePercentileService(jdbcTemplate);
+        for (int score = 10; score <= 50; score += 10) {
+            first.record(testId, BigDecimal.valueOf(score));
+        }
+        for (int score = 60; score <= 100; score += 10) {
+            second.record(testId, BigDecimal.valueOf(score));
+        }
+        BigDecimal beforeCheckpoint = first.percentileRank(testId, BigDecimal.valueOf(55));
+
+        // When
+        first.checkpoint();
+        second.checkpoint();
+        first.checkpoint();
+
+        // Then
+        assertThat(beforeCheckpoint).isEqualByComparingTo("100.00");
+        assertThat(first.percentileRank(testId, BigDecimal.valueOf(55))).isEqualByComparingTo("50.00");
+        assertThat(second.percentileRank(testId, BigDecimal.valueOf(55))).isEqualByComparingTo("50.00");
+        assertThat(new ScorePercentileService(jdbcTemplate).percentileRank(testId, BigDecimal.valueOf(100)))
+                .isEqualByComparingTo("95.00");
+    }
+
+    @Test
+    void percentileRank_StaysCloseToExactRank() {
+        // Given
+        Long testId = createMockTest(MockTest.SkillType.READING, 10).getId();
+        ScorePercentileService service = new ScorePercentileService(jdbcTemplate);
+        Random random = new Random(42);
+        double[] scores = new double[2000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = Math.round(Math.min(100, Math.max(0, 65 + random.nextGaussian() * 15)) * 100) / 100.0;
+            service.record(testId, BigDecimal.valueOf(scores[i]));
+        }
+        service.checkpoint();
+
+        // When / Then
+        for (double probe = 20; probe <= 95; probe += 7.3) {
+            double below = 0;
+            for (double score : scores) {
+                below += score < probe ? 1 : score == probe ? 0.5 : 0;
+            }
+            double exact = below * 100 / scores.length;
+            assertThat(service.percentileRank(testId, BigDecimal.valueOf(probe)).doubleValue())
+                    .isCloseTo(exact, within(1.5));
+        }
+    }
+
+    @Test
+    void applyPercentileRankOfCompleted_CountsTheAttemptsOwnScore() {
+        // Given
+        Long testId = createMockTest(MockTest.SkillType.READING, 10).getId();
+        ScorePercentileService service = new ScorePercentileService(jdbcTemplate);
+        for (int score = 10; score <= 90; score += 20) {
+            service.record(testId, BigDecimal.valueOf(score));
+        }
+        TestAttemptDto first = completed(testId, BigDecimal.valueOf(60));
+        Long otherTestId = createMockTest(MockTest.SkillType.READING, 10).getId();
+        TestAttemptDto onlyOne = completed(otherTestId, BigDecimal.valueOf(60));
+
+        // When
+        service.applyPercentileRankOfCompleted(first);
+        service.applyPercentileRankOfCompleted(onlyOne);
+        service.record(testId, BigDecimal.valueOf(60));
+
+        // Then
+        assertThat(first.getPercentileRank())
+                .isEqualByComparingTo(service.percentileRank(testId, BigDecimal.valueOf(60)));
+        assertThat(onlyOne.getPercentileRank()).isNotNull();
+    }
+
+    @Test
+    void percentileRank_NoCompletedAttempts_IsNull() {
+        Long testId = createMockTest(MockTest.SkillType.READING, 10).getId();
+
+        assertThat(new ScorePercentileService(jdbcTemplate).percentileRank(testId, BigDecimal.TEN)).isNull();
+    }
+
+    private static TestAttemptDto completed(Long testId, BigDecimal score) {
+        return TestAttemptDto.builder()
+                .mockTestId(testId)
+                .status(TestAttempt.AttemptStatus.COMPLETED.name())
+                .percentageScore(score)
+                .build();
+    }
+}
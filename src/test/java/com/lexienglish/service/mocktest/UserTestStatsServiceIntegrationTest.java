@@ -0,0 +1,150 @@
+package com.lexienglish.service.mocktest;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.dto.mocktest.TestAnalyticsDto;
+import com.lexienglish.entity.MockTest;
+import com.lexienglish.entity.TestAttempt;
+import com.lexienglish.entity.User;
+import com.lexienglish.entity.UserTestStats;
+import com.lexienglish.repository.MockTestRepository;
+import com.lexienglish.repository.TestAttemptRepository;
+import com.lexienglish.repository.UserTestStatsRepository;
+import com.lexienglish.service.LeaderElection;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserTestStatsServiceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private UserTestStatsRepository statsRepository;
+
+    @Autowired
+    private TestAttemptRepository testAttemptRepository;
+
+    @Autowired
+    private MockTestRepository mockTestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private UserTestStatsService statsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(leaderElection.isLeader(UserTestStatsService.LEADER_TASK)).thenReturn(true);
+        statsService = new UserTestStatsService(statsRepository, transactionManager, leaderElection);
+        user = createUser("taker@example.com");
+    }
+
+    @Test
+    void attemptCompleted_KeepsRunningTotalsAndRecentTrend() {
+        // Given
+        MockTest ielts = createTest(MockTest.TestType.IELTS);
+        MockTest toefl = createTest(MockTest.TestType.TOEFL);
+
+        // When
+        for (int i = 1; i <= 12; i++) {
+            TestAttempt attempt = startAttempt(i % 3 == 0 ? toefl : ielts);
+            complete(attempt, BigDecimal.valueOf(i * 5), i % 2 == 0 ? BigDecimal.valueOf(80) : null);
+        }
+        startAttempt(ielts);
+        entityManager.clear();
+
+        // Then
+        TestAnalyticsDto analytics = TestAnalyticsDto.fromEntity(statsService.getStats("taker@example.com").orElseThrow());
+        assertThat(analytics.getTotalAttempts()).isEqualTo(13);
+        assertThat(analytics.getCompletedAttempts()).isEqualTo(12);
+        assertThat(analytics.getAverageScore()).isEqualByComparingTo("32.50");
+        assertThat(analytics.getBestScore()).isEqualByComparingTo("60");
+        assertThat(analytics.getIeltsCompleted()).isEqualTo(8);
+        assertThat(analytics.getToeflCompleted()).isEqualTo(4);
+        assertThat(analytics.getAvgReadingScore()).isEqualByComparingTo("80");
+        assertThat(analytics.getAvgWritingScore()).isNull();
+        assertThat(analytics.getRecentScores())
+                .hasSize(UserTestStatsService.RECENT_SCORES)
+                .first().satisfies(s -> assertThat(s).isEqualByComparingTo("15"));
+        assertThat(analytics.getRecentScores().get(9)).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void rebuild_RestoresDriftedStats() {
+        // Given
+        MockTest ielts = createTest(MockTest.TestType.IELTS);
+        for (int i = 1; i <= 3; i++) {
+            complete(startAttempt(ielts), BigDecimal.valueOf(i * 20), BigDecimal.valueOf(50));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        UserTestStats expected = statsRepository.findById(user.getId()).orElseThrow();
+        entityManager.clear();
+        statsRepository.deleteAll();
+        statsRepository.addStartedAttempt(user.getId());
+
+        // When
+        statsService.rebuild();
+        entityManager.clear();
+
+        // Then
+        UserTestStats rebuilt = statsRepository.findById(user.getId()).orElseThrow();
+        assertThat(rebuilt).usingRecursiveComparison()
+                .ignoringFields("updatedAt")
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void rebuild_NotLeader_LeavesStatsToTheLeader() {
+        // Given
+        statsRepository.addStartedAttempt(user.getId());
+        statsRepository.addStartedAttempt(user.getId());
+        when(leaderElection.isLeader(UserTestStatsService.LEADER_TASK)).thenReturn(false);
+
+        // When
+        statsService.rebuild();
+        entityManager.clear();
+
+        // Then
+        assertThat(statsRepository.findById(user.getId()).orElseThrow().getTotalAttempts()).isEqualTo(2);
+    }
+
+    private MockTest createTest(MockTest.TestType type) {
+        return mockTestRepository.save(mockTest(MockTest.SkillType.READING, 10).testType(type).build());
+    }
+
+    private TestAttempt startAttempt(MockTest test) {
+        TestAttempt attempt = testAttemptRepository.save(TestAttempt.builder()
+                .user(user)
+                .mockTest(test)
+                .startedAt(LocalDateTime.now())
+                .build());
+        statsService.attemptStarted(attempt);
+        return attempt;
+    }
+
+    private void complete(TestAttempt attempt, BigDecimal score, BigDecimal readingScore) {
+        attempt.setStatus(TestAttempt.AttemptStatus.COMPLETED);
+        attempt.setCompletedAt(LocalDateTime.now());
+        attempt.setPercentageScore(score);
+        attempt.setReadingScore(readingScore);
+        testAttemptRepository.saveAndFlush(attempt);
+        statsService.attemptCompleted(attempt);
+    }
+}
@@ -0,0 +1,203 @@
+package com.lexienglish.service.reminder;
+
+import com.lexienglish.AbstractPostgresIntegrationTest;
+import com.lexienglish.entity.Flashcard;
+import com.lexienglish.entity.User;
+import com.lexienglish.repository.FlashcardRepository;
+import com.lexienglish.service.LeaderElection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DueCardIndexIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final DueReminderSink sink = mock(DueReminderSink.class);
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private DueCardIndex index;
+    private TransactionTemplate transactionTemplate;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        when(leaderElection.isLeader(DueCardIndex.LEADER_TASK)).thenReturn(true);
+        index = new DueCardIndex(flashcardRepository, jdbcTemplate, sink, transactionManager, leaderElection, true);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void rebuild_IndexesEarliestUpcomingReviewPerUser() {
+        // Given
+        User learner = createUser();
+        createFlashcard(learner, now.plusDays(1), false);
+        createFlashcard(learner, now.plusHours(2), false);
+        createFlashcard(learner, now.plusHours(1), true);
+        User lapsed = createUser();
+        createFlashcard(lapsed, now.minusDays(2), false);
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.reminderAt(learner.getId())).isEqualTo(now.plusHours(2));
+        assertThat(index.reminderAt(lapsed.getId())).isNull();
+    }
+
+    @Test
+    void refresh_AfterCommit_ReschedulesUser() {
+        // Given
+        User learner = createUser();
+        Flashcard card = createFlashcard(learner, now.plusHours(2), false);
+        createFlashcard(learner, now.plusDays(3), false);
+        index.rebuild();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE flashcards SET next_review_date = ? WHERE id = ?",
+                    now.plusDays(5), card.getId());
+            index.refresh(learner.getId());
+        });
+        LocalDateTime beforeFlush = index.reminderAt(learner.getId());
+        index.flushRefreshes();
+
+        // Then
+        assertThat(beforeFlush).isEqualTo(now.plusHours(2));
+        assertThat(index.reminderAt(learner.getId())).isEqualTo(now.plusDays(3));
+    }
+
+    @Test
+    void refresh_OnlyOverdueCardsLeft_DropsReminder() {
+        // Given
+        User learner = createUser();
+        Flashcard card = createFlashcard(learner, now.plusHours(2), false);
+        index.rebuild();
+
+        // When
+        jdbcTemplate.update("UPDATE flashcards SET next_review_date = ? WHERE id = ?",
+                now.minusMinutes(1), card.getId());
+        index.refresh(learner.getId());
+        index.flushRefreshes();
+
+        // Then
+        assertThat(index.reminderAt(learner.getId())).isNull();
+    }
+
+    @Test
+    void tick_Leader_RemindsUsersWhoseCardsAreStillDue() {
+        // Given
+        User learner = createUser();
+        createFlashcard(learner, now.minusMinutes(1), false);
+        index.rebuild();
+
+        // When
+        index.tick(System.currentTimeMillis() + 2 * DueCardIndex.TICK_MILLIS);
+
+        // Then
+        verify(sink).cardsDue(eq(learner.getId()), any());
+    }
+
+    @Test
+    void tick_ReviewedOnAnotherNode_ReschedulesInsteadOfReminding() {
+        // Given
+        User learner = createUser();
+        Flashcard card = createFlashcard(learner, now.minusMinutes(1), false);
+        index.rebuild();
+        jdbcTemplate.update("UPDATE flashcards SET next_review_date = ? WHERE id = ?", now.plusDays(2), card.getId());
+
+        // When
+        index.tick(System.currentTimeMillis() + 2 * DueCardIndex.TICK_MILLIS);
+
+        // Then
+        verify(sink, never()).cardsDue(eq(learner.getId()), any());
+        assertThat(index.reminderAt(learner.getId())).isEqualTo(now.plusDays(2));
+    }
+
+    @Test
+    void tick_NotLeader_KeepsEntriesUntilTakingOver() {
+        // Given
+        when(leaderElection.isLeader(DueCardIndex.LEADER_TASK)).thenReturn(false);
+        User learner = createUser();
+        createFlashcard(learner, now.minusMinutes(1), false);
+        index.rebuild();
+        LocalDateTime scheduled = index.reminderAt(learner.getId());
+
+        // When
+        index.tick(System.currentTimeMillis() + 2 * DueCardIndex.TICK_MILLIS);
+        verifyNoInteractions(sink);
+        assertThat(index.reminderAt(learner.getId())).isEqualTo(scheduled);
+        when(leaderElection.isLeader(DueCardIndex.LEADER_TASK)).thenReturn(true);
+        index.tick(System.currentTimeMillis() + 3 * DueCardIndex.TICK_MILLIS);
+
+        // Then
+        verify(sink).cardsDue(eq(learner.getId()), any());
+        assertThat(index.reminderAt(learner.getId())).isNull();
+    }
+
+    @Test
+    void tick_TakingOverLongAfterDue_LeavesOldRemindersToThePreviousLeader() {
+        // Given
+        when(leaderElection.isLeader(DueCardIndex.LEADER_TASK)).thenReturn(false);
+        User learner = createUser();
+        createFlashcard(learner, now.minusMinutes(1), false);
+        index.rebuild();
+
+        // When
+        when(leaderElection.isLeader(DueCardIndex.LEADER_TASK)).thenReturn(true);
+        index.tick(System.currentTimeMillis() + 60 * DueCardIndex.TICK_MILLIS);
+
+        // Then
+        verifyNoInteractions(sink);
+    }
+
+    @Test
+    void rescan_PicksUpReviewsHandledOnAnotherNode() {
+        // Given
+        User learner = createUser();
+        Flashcard card = createFlashcard(learner, now.plusHours(2), false);
+        index.rebuild();
+
+        // When: reviewed elsewhere, so this node's refresh was never called
+        jdbcTemplate.update("UPDATE flashcards SET next_review_date = ?, updated_at = ? WHERE id = ?",
+                now.plusDays(2), now.plusMinutes(1), card.getId());
+        index.rescan(now.plusMinutes(2));
+        index.flushRefreshes();
+
+        // Then
+        assertThat(index.reminderAt(learner.getId())).isEqualTo(now.plusDays(2));
+    }
+
+    private Flashcard createFlashcard(User user, LocalDateTime nextReviewDate, boolean mastered) {
+        return flashcardRepository.save(Flashcard.builder()
+                .front("front")
+                .back("back")
+                .nextReviewDate(nextReviewDate)
+                .mastered(mastered)
+                .user(user)
+                .build());
+    }
+}
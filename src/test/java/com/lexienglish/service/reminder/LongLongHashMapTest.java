@@ -0,0 +1,28 @@
+package com.lexienglish.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void remove_KeepsRemainingKeysReachable() {
+        // Given
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 10);
+        }
+
+        // When
+        for (long key = 1; key <= 10_000; key += 3) {
+            assertThat(map.remove(key)).isEqualTo(key * 10);
+        }
+
+        // Then
+        assertThat(map.size()).isEqualTo(10_000 - 3_334);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 3 == 1 ? LongLongHashMap.NO_VALUE : key * 10);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lexienglish.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 60_000;
+    private static final long START = 1_000 * TICK;
+
+    @Test
+    void advance_FiresEntriesAcrossLevelsInDeadlineOrder() {
+        // Given
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        long[] offsets = {5_000, 3, 70, 64, 1, 4_095, 200};
+        for (int i = 0; i < offsets.length; i++) {
+            assertThat(wheel.add(i, START + offsets[i] * TICK)).isTrue();
+        }
+
+        // When
+        List<Long> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+        for (long tick = 1; tick <= 5_000; tick++) {
+            long now = START + tick * TICK;
+            wheel.advance(now, (key, deadlineTick) -> {
+                assertThat(deadlineTick).isEqualTo(wheel.toTick(now));
+                fired.add(key);
+                firedAt.add(deadlineTick);
+            });
+        }
+
+        // Then
+        assertThat(fired).containsExactly(4L, 1L, 3L, 2L, 6L, 5L, 0L);
+        assertThat(firedAt).isSorted();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_BeyondHorizonAndAfterLongPause_FiresEveryEntryOnce() {
+        // Given
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        long farAway = 64L * 64 * 64 * 3;
+        wheel.add(1, START + farAway * TICK);
+        wheel.add(2, START + 10 * TICK);
+
+        // When
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START + (farAway - 1) * TICK, (key, deadlineTick) -> fired.add(key));
+        List<Long> firedLate = new ArrayList<>();
+        wheel.advance(START + (farAway + 1) * TICK, (key, deadlineTick) -> firedLate.add(key));
+
+        // Then
+        assertThat(fired).containsExactly(2L);
+        assertThat(firedLate).containsExactly(1L);
+    }
+
+    @Test
+    void add_PastDeadline_IsRejected() {
+        TimingWheel wheel = new TimingWheel(TICK, START);
+
+        assertThat(wheel.add(1, START)).isFalse();
+        assertThat(wheel.add(1, START - TICK)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void retain_DropsStaleEntries() {
+        // Given
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        for (long key = 1; key <= 100; key++) {
+            wheel.add(key, START + key * 50 * TICK);
+        }
+
+        // When
+        wheel.retain((key, deadlineTick) -> key % 2 == 0);
+
+        // Then
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START + 5_001 * TICK, (key, deadlineTick) -> fired.add(key));
+        assertThat(wheel.size()).isZero();
+        assertThat(fired).hasSize(50).allMatch(key -> key % 2 == 0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lexienglish.service.srs;
+
+import com.lexienglish.repository.UserSchedulerParamsRepository;
+import com.lexienglish.service.LeaderElection;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FsrsOptimizerTest {
+
+    @Test
+    void fit_LearnsWeightsThatBeatDefaultsOnSyntheticHistory() {
+        // Given: a learner who forgets faster than the default model expects
+        double[] truth = FsrsSchedulerEngine.defaultWeights();
+        truth[2] = 1.0;
+        truth[8] = 0.8;
+        FsrsOptimizer.ReviewHistory history = simulate(truth, 300, 8, new Random(42));
+
+        // When
+        FsrsOptimizer.Fit fit = FsrsOptimizer.fit(history);
+
+        // Then
+        assertThat(fit).isNotNull();
+        assertThat(fit.logLoss()).isLessThan(FsrsOptimizer.logLoss(history, FsrsSchedulerEngine.defaultWeights()));
+        for (int i = 0; i < fit.weights().length; i++) {
+            assertThat(fit.weights()[i])
+                    .isBetween(FsrsSchedulerEngine.MIN_WEIGHTS[i], FsrsSchedulerEngine.MAX_WEIGHTS[i]);
+        }
+    }
+
+    @Test
+    void logLoss_WithoutRepeatReviews_IsUndefined() {
+        // Given
+        FsrsOptimizer.ReviewHistory history = new FsrsOptimizer.ReviewHistory.Builder()
+                .add(1, 4, 0, 0)
+                .add(2, 3, 0, 0)
+                .build();
+
+        // When / Then
+        assertThat(FsrsOptimizer.logLoss(history, FsrsSchedulerEngine.defaultWeights())).isNaN();
+        assertThat(FsrsOptimizer.fit(history)).isNull();
+    }
+
+    @Test
+    void optimizeAll_NotLeader_LeavesWeightsToTheLeader() {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserSchedulerParamsRepository paramsRepository = mock(UserSchedulerParamsRepository.class);
+        LeaderElection leaderElection = mock(LeaderElection.class);
+        when(leaderElection.isLeader(FsrsOptimizer.LEADER_TASK)).thenReturn(false);
+        FsrsOptimizer optimizer = new FsrsOptimizer(jdbcTemplate, paramsRepository, leaderElection);
+
+        // When
+        optimizer.optimizeAll();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate, paramsRepository);
+    }
+
+    private FsrsOptimizer.ReviewHistory simulate(double[] w, int cards, int reviewsPerCard, Random random) {
+        FsrsSchedulerEngine engine = new FsrsSchedulerEngine();
+        FsrsOptimizer.ReviewHistory.Builder builder = new FsrsOptimizer.ReviewHistory.Builder();
+        for (int card = 0; card < cards; card++) {
+            SrsState state = new SrsState();
+            engine.review(state, 4, 0, w);
+            builder.add(card, 4, 0, 0);
+            for (int i = 1; i < reviewsPerCard; i++) {
+                // Default-weight schedule, recall drawn from the learner's true memory
+                int elapsed = Math.max(1, (int) Math.round(state.getInterval() * (0.5 + random.nextDouble())));
+                double recall = FsrsSchedulerEngine.retrievability(elapsed, state.getStability());
+                int quality = random.nextDouble() < recall ? 4 : 1;
+                engine.review(state, quality, elapsed, w);
+                builder.add(card, quality, elapsed, 0);
+            }
+        }
+        return builder.build();
+    }
+}
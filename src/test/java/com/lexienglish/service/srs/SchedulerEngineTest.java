@@ -0,0 +1,124 @@
+package com.lexienglish.service.srs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SchedulerEngineTest {
+
+    private final Sm2SchedulerEngine sm2 = new Sm2SchedulerEngine();
+    private final FsrsSchedulerEngine fsrs = new FsrsSchedulerEngine();
+
+    @Test
+    void sm2_GoodReviews_FollowClassicIntervals() {
+        // Given
+        SrsState state = newCard();
+
+        // When / Then
+        sm2.review(state, 4, 0, null);
+        assertThat(state.getInterval()).isEqualTo(1);
+        sm2.review(state, 4, 1, null);
+        assertThat(state.getInterval()).isEqualTo(6);
+        sm2.review(state, 4, 6, null);
+        assertThat(state.getInterval()).isEqualTo(15); // round(6 * 2.5)
+        assertThat(state.getRepetitions()).isEqualTo(3);
+        assertThat(state.getEase()).isEqualTo(2.5);
+    }
+
+    @Test
+    void sm2_Lapse_ResetsRepetitionsAndLowersEase() {
+        // Given
+        SrsState state = newCard();
+        sm2.review(state, 5, 0, null);
+        sm2.review(state, 5, 1, null);
+
+        // When
+        sm2.review(state, 1, 6, null);
+
+        // Then
+        assertThat(state.getRepetitions()).isZero();
+        assertThat(state.getInterval()).isEqualTo(1);
+        assertThat(state.getEase()).isLessThan(2.7);
+    }
+
+    @Test
+    void fsrs_FirstReview_UsesInitialStabilityOfRating() {
+        // Given
+        SrsState state = newCard();
+
+        // When
+        fsrs.review(state, 4, 0, null);
+
+        // Then
+        double[] w = FsrsSchedulerEngine.defaultWeights();
+        assertThat(state.getStability()).isEqualTo(w[2]);
+        assertThat(state.getInterval()).isEqualTo(4);
+        assertThat(state.getDifficulty()).isBetween(1.0, 10.0);
+    }
+
+    @Test
+    void fsrs_OnTimeRecallGrowsIntervalAndLapseShrinksIt() {
+        // Given
+        SrsState state = newCard();
+        fsrs.review(state, 4, 0, null);
+        int first = state.getInterval();
+
+        // When
+        fsrs.review(state, 4, first, null);
+        int second = state.getInterval();
+        fsrs.review(state, 0, second, null);
+
+        // Then
+        assertThat(second).isGreaterThan(first);
+        assertThat(state.getInterval()).isLessThan(second);
+        assertThat(state.getRepetitions()).isZero();
+    }
+
+    @Test
+    void fsrs_CardScheduledBySm2_StartsFromItsInterval() {
+        // Given
+        SrsState state = newCard();
+        state.setInterval(30);
+        state.setRepetitions(4);
+
+        // When
+        fsrs.review(state, 4, 30, null);
+
+        // Then
+        assertThat(state.getInterval()).isGreaterThan(30);
+        assertThat(state.getRepetitions()).isEqualTo(5);
+    }
+
+    @Test
+    void fsrs_NeedsFewerReviewsThanSm2ForEasyCards() {
+        // Given
+        SrsState sm2State = newCard();
+        SrsState fsrsState = newCard();
+
+        // When: review each card whenever due for a year, always answering 5
+        int sm2Reviews = reviewsWithinYear(sm2, sm2State);
+        int fsrsReviews = reviewsWithinYear(fsrs, fsrsState);
+
+        // Then
+        assertThat(fsrsReviews).isLessThanOrEqualTo(sm2Reviews);
+    }
+
+    private int reviewsWithinYear(SchedulerEngine engine, SrsState state) {
+        int day = 0;
+        int reviews = 0;
+        int elapsed = 0;
+        while (day < 365) {
+            engine.review(state, 5, elapsed, null);
+            reviews++;
+            elapsed = state.getInterval();
+            day += elapsed;
+        }
+        return reviews;
+    }
+
+    private SrsState newCard() {
+        SrsState state = new SrsState();
+        state.setEase(2.5);
+        return state;
+    }
+}